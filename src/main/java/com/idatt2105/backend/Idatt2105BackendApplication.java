@@ -2,9 +2,11 @@ package com.idatt2105.backend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /** Main class for the backend application. Starts the Spring Boot application. */
 @SpringBootApplication
+@EnableScheduling
 public class Idatt2105BackendApplication {
 
   public static void main(String[] args) {
@@ -0,0 +1,52 @@
+package com.idatt2105.backend.config;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+/**
+ * Writes {@link ByteBuffer} response bodies as they are, so that pre-serialized payloads held in
+ * direct buffers reach the client without being copied to the heap as a whole or encoded again. The
+ * content type must be set by the controller.
+ */
+@Component
+public class ByteBufferHttpMessageConverter extends AbstractHttpMessageConverter<ByteBuffer> {
+  public ByteBufferHttpMessageConverter() {
+    super(MediaType.ALL);
+  }
+
+  @Override
+  protected boolean supports(Class<?> clazz) {
+    return ByteBuffer.class.isAssignableFrom(clazz);
+  }
+
+  @Override
+  protected ByteBuffer readInternal(
+      Class<? extends ByteBuffer> clazz, HttpInputMessage inputMessage) throws IOException {
+    return ByteBuffer.wrap(StreamUtils.copyToByteArray(inputMessage.getBody()));
+  }
+
+  @Override
+  protected Long getContentLength(ByteBuffer buffer, MediaType contentType) {
+    return (long) buffer.remaining();
+  }
+
+  @Override
+  protected void writeInternal(ByteBuffer buffer, HttpOutputMessage outputMessage)
+      throws IOException {
+    // Not closed, since that would close the response stream
+    WritableByteChannel channel = Channels.newChannel(outputMessage.getBody());
+    ByteBuffer body = buffer.duplicate();
+    while (body.hasRemaining()) {
+      channel.write(body);
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package com.idatt2105.backend.config;
+
+import java.util.Map;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.idatt2105.backend.model.AlternativeRecord;
+import com.idatt2105.backend.model.QuestionAttempt;
+import com.idatt2105.backend.model.QuizAttempt;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Moves the id sequences of the attempt tables past the largest id in use. The tables used auto
+ * increment ids before they were given sequences, and a sequence created next to existing rows
+ * starts at 1, so without this the first inserts would collide with old rows.
+ *
+ * <p>Runs once at startup, before requests are accepted. On databases without sequences, such as
+ * MySQL, Hibernate keeps each sequence as a table with a single {@code next_val} row, which is
+ * updated instead.
+ */
+@Component
+@Slf4j
+public class IdSequenceAligner {
+  /** The sequence of each table. */
+  private static final Map<String, String> SEQUENCES =
+      Map.of(
+          "quiz_attempt", QuizAttempt.ID_SEQUENCE,
+          "question_attempt", QuestionAttempt.ID_SEQUENCE,
+          "alternative_record", AlternativeRecord.ID_SEQUENCE);
+
+  private final JdbcTemplate jdbcTemplate;
+  private final Dialect dialect;
+
+  public IdSequenceAligner(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.dialect =
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+  }
+
+  /** Aligns every attempt sequence with its table. */
+  @PostConstruct
+  public void alignSequences() {
+    SEQUENCES.forEach(this::alignSequence);
+  }
+
+  /**
+   * Moves a sequence past the largest id of a table, if it is not already.
+   *
+   * @param table The table.
+   * @param sequence The sequence the ids of the table are taken from.
+   */
+  private void alignSequence(String table, String sequence) {
+    Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+    if (maxId == null) {
+      return;
+    }
+    // Pooled ids are handed out below the value read from the sequence, so leave room for a pool
+    long start = maxId + QuizAttempt.ID_ALLOCATION_SIZE;
+    boolean moved;
+    if (dialect.getSequenceSupport().supportsSequences()) {
+      Long next =
+          jdbcTemplate.queryForObject(
+              dialect.getSequenceSupport().getSequenceNextValString(sequence), Long.class);
+      moved = next == null || next < start;
+      if (moved) {
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + start);
+      }
+    } else {
+      moved =
+          jdbcTemplate.update(
+                  "UPDATE " + sequence + " SET next_val = ? WHERE next_val < ?", start, start)
+              > 0;
+    }
+    if (moved) {
+      log.info("Moved id sequence {} past the largest id {} of {}", sequence, maxId, table);
+    }
+  }
+}
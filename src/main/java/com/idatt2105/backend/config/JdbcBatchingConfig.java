@@ -0,0 +1,40 @@
+package com.idatt2105.backend.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of JDBC batching in Hibernate. Inserts and updates of the same table are grouped
+ * together at flush, and sent in batches of {@code quiz.jdbc.batch-size} statements, so that saving
+ * a quiz attempt with many question attempts and alternative records takes a few round trips
+ * instead of one per row.
+ *
+ * <p>Batching requires ids that are known before the insert, which is why the attempt entities use
+ * pooled sequences instead of auto increment columns. On MySQL the driver must also be allowed to
+ * rewrite a batch into multi-row inserts, with {@code rewriteBatchedStatements=true} in the URL.
+ */
+@Configuration
+public class JdbcBatchingConfig {
+  private final int batchSize;
+
+  public JdbcBatchingConfig(@Value("${quiz.jdbc.batch-size:50}") int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Enables JDBC batching and ordered inserts and updates in Hibernate.
+   *
+   * @return The customizer adding the batch settings to the Hibernate properties.
+   */
+  @Bean
+  public HibernatePropertiesCustomizer jdbcBatchingCustomizer() {
+    return properties -> {
+      properties.put(AvailableSettings.STATEMENT_BATCH_SIZE, batchSize);
+      properties.put(AvailableSettings.ORDER_INSERTS, true);
+      properties.put(AvailableSettings.ORDER_UPDATES, true);
+    };
+  }
+}
@@ -0,0 +1,119 @@
+package com.idatt2105.backend.config;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.MissingCacheStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.idatt2105.backend.model.Alternative;
+import com.idatt2105.backend.model.Category;
+import com.idatt2105.backend.model.MultipleChoiceQuestion;
+import com.idatt2105.backend.model.Question;
+import com.idatt2105.backend.model.Quiz;
+import com.idatt2105.backend.model.Tag;
+import com.idatt2105.backend.repository.CategoryRepository;
+import com.idatt2105.backend.repository.TagRepository;
+
+/**
+ * Configuration of the Hibernate second-level cache and query cache. Quizzes, questions,
+ * alternatives, categories and tags are read far more often than they are written, so they are kept
+ * in local Caffeine caches behind the JCache API, one region per entity and collection.
+ *
+ * <p>Every region is created here with its own maximum number of entries, and Hibernate fails at
+ * startup if an entity or query names a region that is missing. Entries also expire after {@code
+ * quiz.second-level-cache.time-to-live}, which bounds how long rows changed outside Hibernate can
+ * be served stale. Hibernate statistics are enabled, so hits, misses and puts per region are
+ * published as {@code hibernate.second.level.cache.*} and {@code hibernate.cache.query.*} metrics.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+  // Names Hibernate uses for the query cache unless a query names its own region
+  private static final String QUERY_RESULTS_REGION = "default-query-results-region";
+  private static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+  /** Maximum number of entries in each region. */
+  private static final Map<String, Long> REGION_SIZES =
+      Map.of(
+          Quiz.CACHE_REGION, 10_000L,
+          Quiz.QUESTIONS_CACHE_REGION, 10_000L,
+          Quiz.TAGS_CACHE_REGION, 10_000L,
+          Question.CACHE_REGION, 100_000L,
+          MultipleChoiceQuestion.ALTERNATIVES_CACHE_REGION, 50_000L,
+          Alternative.CACHE_REGION, 200_000L,
+          Category.CACHE_REGION, 1_000L,
+          Tag.CACHE_REGION, 10_000L,
+          CategoryRepository.QUERY_CACHE_REGION, 1_000L,
+          TagRepository.QUERY_CACHE_REGION, 10_000L);
+
+  private final Duration timeToLive;
+
+  public SecondLevelCacheConfig(
+      @Value("${quiz.second-level-cache.time-to-live:1h}") Duration timeToLive) {
+    this.timeToLive = timeToLive;
+  }
+
+  /**
+   * Creates the cache manager holding the second-level cache regions. Each application context gets
+   * its own manager, so that contexts sharing a database never share cached rows.
+   *
+   * @return The cache manager, with every region created.
+   */
+  @Bean(destroyMethod = "close")
+  public CacheManager secondLevelCacheManager() {
+    CacheManager cacheManager =
+        Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+            .getCacheManager(
+                URI.create("hibernate-l2-" + UUID.randomUUID()), getClass().getClassLoader());
+    REGION_SIZES.forEach(
+        (region, maximumSize) ->
+            cacheManager.createCache(region, regionConfiguration(maximumSize, timeToLive)));
+    cacheManager.createCache(QUERY_RESULTS_REGION, regionConfiguration(1_000L, timeToLive));
+    // Must outlive every cached query result, or stale results could be served
+    cacheManager.createCache(UPDATE_TIMESTAMPS_REGION, new CaffeineConfiguration<>());
+    return cacheManager;
+  }
+
+  /**
+   * Enables the second-level cache and query cache in Hibernate.
+   *
+   * @param secondLevelCacheManager The cache manager holding the regions.
+   * @return The customizer adding the cache settings to the Hibernate properties.
+   */
+  @Bean
+  public HibernatePropertiesCustomizer secondLevelCacheCustomizer(
+      CacheManager secondLevelCacheManager) {
+    return properties -> {
+      properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+      properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+      properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+      properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+      properties.put(
+          ConfigSettings.MISSING_CACHE_STRATEGY,
+          MissingCacheStrategy.FAIL.getExternalRepresentation());
+      // Questions and alternatives are saved on their own, not through the cached collections
+      properties.put(AvailableSettings.AUTO_EVICT_COLLECTION_CACHE, true);
+      properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+    };
+  }
+
+  private static CaffeineConfiguration<Object, Object> regionConfiguration(
+      long maximumSize, Duration timeToLive) {
+    CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+    configuration.setMaximumSize(OptionalLong.of(maximumSize));
+    configuration.setExpireAfterWrite(OptionalLong.of(timeToLive.toNanos()));
+    return configuration;
+  }
+}
@@ -1,19 +1,28 @@
 package com.idatt2105.backend.controller;
 
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.idatt2105.backend.dto.QuizAttemptDTO;
+import com.idatt2105.backend.dto.QuizAttemptSummaryDTO;
+import com.idatt2105.backend.enumerator.AttemptExportFormat;
 import com.idatt2105.backend.model.QuizAttempt;
+import com.idatt2105.backend.service.AttemptExporter;
 import com.idatt2105.backend.service.AttemptService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -25,37 +34,104 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 @RequestMapping("/api/attempts")
 public class AttemptController {
   private final AttemptService attemptService;
+  private final AttemptExporter attemptExporter;
 
   @Autowired
-  public AttemptController(AttemptService attemptService) {
+  public AttemptController(AttemptService attemptService, AttemptExporter attemptExporter) {
     this.attemptService = attemptService;
+    this.attemptExporter = attemptExporter;
   }
 
   /**
-   * Add a quiz attempt
+   * Add a quiz attempt, graded by the server. If attempts are written behind, the attempt is
+   * accepted with its id and written shortly after, and the response is 429 Too Many Requests while
+   * the write queue is full.
    *
    * @param quizAttemptDTO The DTO containing the quiz attempt data
-   * @return The created QuizAttempt
+   * @return The created QuizAttempt, with its score
    */
   @PostMapping("/add")
   @Operation(summary = "Add a quiz attempt")
   public ResponseEntity<QuizAttempt> addQuizAttempt(@RequestBody QuizAttemptDTO quizAttemptDTO) {
-    QuizAttempt quizAttempt = attemptService.addQuizAttempt(quizAttemptDTO);
-    return new ResponseEntity<>(quizAttempt, HttpStatus.CREATED);
+    try {
+      QuizAttempt quizAttempt = attemptService.addQuizAttempt(quizAttemptDTO);
+      return new ResponseEntity<>(
+          quizAttempt, attemptService.isWriteBehind() ? HttpStatus.ACCEPTED : HttpStatus.CREATED);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
+  /**
+   * Add a number of quiz attempts at once, graded by the server, for example when a class finishes
+   * a quiz together. Either every attempt is added, or none are.
+   *
+   * @param quizAttemptDTOs The DTOs containing the quiz attempt data
+   * @return The created QuizAttempts, with their scores, in the order they were given
+   */
+  @PostMapping("/batch")
+  @Operation(summary = "Add a batch of quiz attempts")
+  public ResponseEntity<List<QuizAttempt>> addQuizAttempts(
+      @RequestBody List<QuizAttemptDTO> quizAttemptDTOs) {
+    try {
+      List<QuizAttempt> quizAttempts = attemptService.addQuizAttempts(quizAttemptDTOs);
+      return new ResponseEntity<>(quizAttempts, HttpStatus.CREATED);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
   }
 
   /**
-   * Get all attempts for a user
+   * Get summaries of all attempts for a user, including archived attempts. The question attempts of
+   * an attempt are only returned by its id.
    *
    * @param userId The ID of the user
-   * @return A collection of QuizAttempts
+   * @return A page of attempt summaries, or 400 if archived attempts cannot be sorted as asked
    */
   @GetMapping("/all/{userId}")
-  @Operation(summary = "Get all attempts for a user")
-  public ResponseEntity<Page<QuizAttempt>> getAllAttemptsForUser(
+  @Operation(summary = "Get summaries of all attempts for a user")
+  public ResponseEntity<Page<QuizAttemptSummaryDTO>> getAllAttemptsForUser(
       @PathVariable Long userId, Pageable pageable) {
-    Page<QuizAttempt> quizAttempts = attemptService.getAllAttemptsForUser(userId, pageable);
-    return new ResponseEntity<>(quizAttempts, HttpStatus.OK);
+    try {
+      Page<QuizAttemptSummaryDTO> quizAttempts =
+          attemptService.getAllAttemptsForUser(userId, pageable);
+      return new ResponseEntity<>(quizAttempts, HttpStatus.OK);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
+  /**
+   * Export all attempts on the quizzes of an author, including archived attempts, one attempt per
+   * line. The attempts are streamed as they are read from the database.
+   *
+   * @param authorId The ID of the author
+   * @param format The format of the export, ndjson or csv
+   * @return The attempts as a file download, or 400 if the format is unknown
+   */
+  @GetMapping("/export/author/{authorId}")
+  @Operation(summary = "Export all attempts on the quizzes of an author as NDJSON or CSV")
+  public ResponseEntity<StreamingResponseBody> exportAttemptsForAuthor(
+      @PathVariable Long authorId, @RequestParam(defaultValue = "ndjson") String format) {
+    AttemptExportFormat exportFormat;
+    try {
+      exportFormat = AttemptExportFormat.fromName(format);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+    attemptExporter.checkAuthor(authorId);
+    StreamingResponseBody body =
+        out -> attemptExporter.exportAttemptsForAuthor(authorId, exportFormat, out);
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+        .header(
+            HttpHeaders.CONTENT_DISPOSITION,
+            "attachment; filename=\"attempts-"
+                + authorId
+                + "."
+                + exportFormat.getExtension()
+                + "\"")
+        .body(body);
   }
 
   /**
@@ -0,0 +1,177 @@
+package com.idatt2105.backend.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.idatt2105.backend.dto.LeaderboardEntryDTO;
+import com.idatt2105.backend.dto.LiveAnswerDTO;
+import com.idatt2105.backend.dto.LiveQuestionDTO;
+import com.idatt2105.backend.dto.LiveQuestionResultsDTO;
+import com.idatt2105.backend.dto.LiveSessionDTO;
+import com.idatt2105.backend.service.LiveSessionService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+/**
+ * The LiveSessionController class handles HTTP requests related to live quiz sessions. Requests
+ * that do not fit the state of a session, such as answering a question that is closed, are 409.
+ */
+@RestController
+@Tag(name = "Live sessions", description = "Operations related to live quiz sessions")
+@RequestMapping("/api/live")
+public class LiveSessionController {
+  private final LiveSessionService liveSessionService;
+
+  @Autowired
+  public LiveSessionController(LiveSessionService liveSessionService) {
+    this.liveSessionService = liveSessionService;
+  }
+
+  /**
+   * Start a live session of a quiz.
+   *
+   * @param quizId The ID of the quiz
+   * @param hostId The ID of the user hosting the session
+   * @return The session, with the code players join it with
+   */
+  @PostMapping
+  @Operation(summary = "Start a live session of a quiz")
+  public ResponseEntity<LiveSessionDTO> startSession(
+      @RequestParam Long quizId, @RequestParam Long hostId) {
+    try {
+      return new ResponseEntity<>(
+          liveSessionService.startSession(quizId, hostId), HttpStatus.CREATED);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
+  /**
+   * Get the state of a live session.
+   *
+   * @param code The code of the session
+   * @return The state of the session
+   */
+  @GetMapping("/{code}")
+  @Operation(summary = "Get the state of a live session")
+  public ResponseEntity<LiveSessionDTO> getSession(@PathVariable String code) {
+    return new ResponseEntity<>(liveSessionService.getSession(code), HttpStatus.OK);
+  }
+
+  /**
+   * Join a live session as a player.
+   *
+   * @param code The code of the session
+   * @param userId The ID of the user joining
+   * @return The state of the session
+   */
+  @PostMapping("/{code}/players")
+  @Operation(summary = "Join a live session")
+  public ResponseEntity<LiveSessionDTO> join(@PathVariable String code, @RequestParam Long userId) {
+    try {
+      return new ResponseEntity<>(liveSessionService.join(code, userId), HttpStatus.OK);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
+  /**
+   * Listen for the events of a live session as server-sent events: session, question, results and
+   * ended.
+   *
+   * @param code The code of the session
+   * @param userId The ID of the host or a player
+   * @return The stream of events
+   */
+  @GetMapping(value = "/{code}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  @Operation(summary = "Listen for the events of a live session")
+  public SseEmitter subscribe(@PathVariable String code, @RequestParam Long userId) {
+    return liveSessionService.subscribe(code, userId);
+  }
+
+  /**
+   * Answer the open question of a live session.
+   *
+   * @param code The code of the session
+   * @param liveAnswerDTO The answer
+   * @return 202 if the answer is recorded, or 400 if it does not fit the question
+   */
+  @PostMapping("/{code}/answers")
+  @Operation(summary = "Answer the open question of a live session")
+  public ResponseEntity<Void> answer(
+      @PathVariable String code, @RequestBody LiveAnswerDTO liveAnswerDTO) {
+    try {
+      liveSessionService.answer(code, liveAnswerDTO);
+      return ResponseEntity.accepted().build();
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
+  /**
+   * Show the next question of a live session to its players.
+   *
+   * @param code The code of the session
+   * @param hostId The ID of the host
+   * @return The question
+   */
+  @PostMapping("/{code}/questions/next")
+  @Operation(summary = "Show the next question of a live session")
+  public ResponseEntity<LiveQuestionDTO> openNextQuestion(
+      @PathVariable String code, @RequestParam Long hostId) {
+    try {
+      return new ResponseEntity<>(liveSessionService.openNextQuestion(code, hostId), HttpStatus.OK);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
+  /**
+   * Close the open question of a live session, and show how it was answered.
+   *
+   * @param code The code of the session
+   * @param hostId The ID of the host
+   * @return How the question was answered
+   */
+  @PostMapping("/{code}/questions/close")
+  @Operation(summary = "Close the open question of a live session")
+  public ResponseEntity<LiveQuestionResultsDTO> closeQuestion(
+      @PathVariable String code, @RequestParam Long hostId) {
+    try {
+      return new ResponseEntity<>(liveSessionService.closeQuestion(code, hostId), HttpStatus.OK);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
+  /**
+   * End a live session, and store the answers of its players as quiz attempts.
+   *
+   * @param code The code of the session
+   * @param hostId The ID of the host
+   * @return The stored attempt of each player, best first
+   */
+  @PostMapping("/{code}/end")
+  @Operation(summary = "End a live session")
+  public ResponseEntity<List<LeaderboardEntryDTO>> endSession(
+      @PathVariable String code, @RequestParam Long hostId) {
+    try {
+      return new ResponseEntity<>(liveSessionService.endSession(code, hostId), HttpStatus.OK);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+}
@@ -7,12 +7,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import com.idatt2105.backend.dto.AlternativeDTO;
+import com.idatt2105.backend.dto.QuestionAnalyticsDTO;
 import com.idatt2105.backend.dto.QuestionDTO;
 import com.idatt2105.backend.model.Alternative;
 import com.idatt2105.backend.model.Question;
+import com.idatt2105.backend.service.ItemAnalysisService;
 import com.idatt2105.backend.service.QuestionService;
+import com.idatt2105.backend.util.ConditionalGet;
 
 import io.swagger.v3.oas.annotations.Operation;
 
@@ -27,10 +31,13 @@ import io.swagger.v3.oas.annotations.Operation;
     description = "Operations related to questions")
 public class QuestionController {
   private final QuestionService questionService;
+  private final ItemAnalysisService itemAnalysisService;
 
   @Autowired
-  public QuestionController(QuestionService questionService) {
+  public QuestionController(
+      QuestionService questionService, ItemAnalysisService itemAnalysisService) {
     this.questionService = questionService;
+    this.itemAnalysisService = itemAnalysisService;
   }
 
   /**
@@ -59,6 +66,19 @@ public class QuestionController {
     return new ResponseEntity<>(q, HttpStatus.OK);
   }
 
+  /**
+   * Gets the item analysis of a question: its difficulty, its discrimination and how often each
+   * alternative was selected, as of the last run of the item analysis job.
+   *
+   * @param id (Long) The id of the question.
+   * @return (ResponseEntity &lt;QuestionAnalyticsDTO&gt;) The analysis of the question.
+   */
+  @GetMapping("/{id}/analytics")
+  @Operation(summary = "Get the difficulty and discrimination of a question")
+  public ResponseEntity<QuestionAnalyticsDTO> getQuestionAnalytics(@PathVariable Long id) {
+    return new ResponseEntity<>(itemAnalysisService.getAnalytics(id), HttpStatus.OK);
+  }
+
   /**
    * Deletes a question. This endpoint deletes a question with the given id.
    *
@@ -87,16 +107,22 @@ public class QuestionController {
   }
 
   /**
-   * Gets all questions in a quiz. This endpoint returns all questions in a quiz with the given id.
+   * Gets all questions in a quiz. This endpoint returns all questions in a quiz with the given id,
+   * or 304 Not Modified if the client already has the current version of them.
    *
    * @param quizId (Long) The id of the quiz to get questions from.
+   * @param request (WebRequest) The request, with its conditional headers.
    * @return (ResponseEntity < List < Question > >) List of questions in the quiz.
    */
   @GetMapping("/get/all/{quizId}")
   @Operation(summary = "Get all questions in a quiz")
-  public ResponseEntity<List<Question>> getQuestionsByQuizId(@PathVariable Long quizId) {
-    List<Question> questions = questionService.getQuestionsByQuizId(quizId);
-    return new ResponseEntity<>(questions, HttpStatus.OK);
+  public ResponseEntity<List<Question>> getQuestionsByQuizId(
+      @PathVariable Long quizId, WebRequest request) {
+    return ConditionalGet.ifModified(
+        request,
+        questionService.getQuizVersion(quizId),
+        "questions",
+        () -> questionService.getQuestionsByQuizId(quizId));
   }
 
   /**
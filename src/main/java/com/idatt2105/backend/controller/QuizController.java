@@ -1,20 +1,35 @@
 package com.idatt2105.backend.controller;
 
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import com.idatt2105.backend.dto.CursorPageDTO;
+import com.idatt2105.backend.dto.LeaderboardEntryDTO;
 import com.idatt2105.backend.dto.QuizDTO;
+import com.idatt2105.backend.dto.QuizFilterDTO;
+import com.idatt2105.backend.dto.QuizStatisticsDTO;
+import com.idatt2105.backend.dto.QuizSummaryDTO;
+import com.idatt2105.backend.dto.QuizVersionDTO;
+import com.idatt2105.backend.dto.SuggestionDTO;
 import com.idatt2105.backend.dto.UserDTO;
 import com.idatt2105.backend.model.Category;
 import com.idatt2105.backend.model.Tag;
+import com.idatt2105.backend.service.QuizBundleCache;
+import com.idatt2105.backend.service.QuizLeaderboard;
 import com.idatt2105.backend.service.QuizService;
+import com.idatt2105.backend.service.QuizStatisticsService;
+import com.idatt2105.backend.util.ConditionalGet;
 
 import io.swagger.v3.oas.annotations.Operation;
 
@@ -27,35 +42,140 @@ import io.swagger.v3.oas.annotations.Operation;
 public class QuizController {
 
   private final QuizService quizService;
+  private final QuizBundleCache quizBundleCache;
+  private final QuizStatisticsService quizStatisticsService;
+  private final QuizLeaderboard quizLeaderboard;
 
   @Autowired
-  public QuizController(QuizService quizService) {
+  public QuizController(
+      QuizService quizService,
+      QuizBundleCache quizBundleCache,
+      QuizStatisticsService quizStatisticsService,
+      QuizLeaderboard quizLeaderboard) {
     this.quizService = quizService;
+    this.quizBundleCache = quizBundleCache;
+    this.quizStatisticsService = quizStatisticsService;
+    this.quizLeaderboard = quizLeaderboard;
   }
 
   /**
    * Get all quizzes
    *
    * @param pageable (Pageable) Pageable object for pagination
-   * @return (ResponseEntity <Page<QuizDTO>>) Page of quizzes
+   * @return (ResponseEntity <Page<QuizSummaryDTO>>) Page of quizzes
    */
   @GetMapping
   @Operation(summary = "Get all quizzes")
-  public ResponseEntity<Page<QuizDTO>> getAllQuizzes(Pageable pageable) {
-    Page<QuizDTO> quizzes = quizService.getAllQuizzes(pageable);
+  public ResponseEntity<Page<QuizSummaryDTO>> getAllQuizzes(Pageable pageable) {
+    Page<QuizSummaryDTO> quizzes = quizService.getAllQuizzes(pageable);
     return new ResponseEntity<>(quizzes, HttpStatus.OK);
   }
 
   /**
-   * Get quiz by id
+   * Get quiz by id. Answers with 304 Not Modified if the client already has the current version.
    *
    * @param id (Long) The id of the quiz to get
+   * @param request (WebRequest) The request, with its conditional headers
    * @return (ResponseEntity <QuizDTO>) The quiz with the given id
    */
   @GetMapping("/{id}")
   @Operation(summary = "Get quiz by id")
-  public ResponseEntity<QuizDTO> getQuizById(@PathVariable("id") Long id) {
-    return new ResponseEntity<>(quizService.getQuizById(id), HttpStatus.OK);
+  public ResponseEntity<QuizDTO> getQuizById(@PathVariable("id") Long id, WebRequest request) {
+    return ConditionalGet.ifModified(
+        request, quizService.getQuizVersion(id), "quiz", () -> quizService.getQuizById(id));
+  }
+
+  /**
+   * Get a quiz together with its questions and their alternatives, so that it can be played with a
+   * single request. The bundle is sent as pre-serialized JSON, gzipped if the client accepts it.
+   * Answers with 304 Not Modified if the client already has the current version.
+   *
+   * @param id (Long) The id of the quiz to get
+   * @param acceptEncoding (String) The encodings the client accepts
+   * @param request (WebRequest) The request, with its conditional headers
+   * @return (ResponseEntity <ByteBuffer>) The JSON of the quiz, its questions and their
+   *     alternatives
+   */
+  @GetMapping("/{id}/bundle")
+  @Operation(summary = "Get a quiz with all its questions and alternatives")
+  public ResponseEntity<ByteBuffer> getQuizBundle(
+      @PathVariable("id") Long id,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+      WebRequest request) {
+    QuizVersionDTO version = quizService.getQuizVersion(id);
+    boolean gzip = quizBundleCache.isGzipEnabled() && acceptsGzip(acceptEncoding);
+
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(MediaType.APPLICATION_JSON);
+    headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+    if (gzip) {
+      headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+    // The encodings are different representations, so they must not share an ETag
+    return ConditionalGet.ifModified(
+        request,
+        version,
+        gzip ? "bundle-gzip" : "bundle",
+        headers,
+        () -> quizBundleCache.getBundle(version, gzip));
+  }
+
+  /**
+   * Get the score statistics of a quiz
+   *
+   * @param id (Long) The id of the quiz
+   * @return (ResponseEntity <QuizStatisticsDTO>) The count, mean, spread, percentiles and histogram
+   *     of the scores of its attempts, in percent of the highest score
+   */
+  @GetMapping("/{id}/stats")
+  @Operation(summary = "Get score statistics of a quiz")
+  public ResponseEntity<QuizStatisticsDTO> getQuizStatistics(@PathVariable("id") Long id) {
+    return ResponseEntity.ok(quizStatisticsService.getStatistics(id));
+  }
+
+  /**
+   * Rebuild the score statistics of a quiz from all its attempts
+   *
+   * @param id (Long) The id of the quiz
+   * @return (ResponseEntity <QuizStatisticsDTO>) The rebuilt statistics
+   */
+  @PostMapping("/{id}/stats/rebuild")
+  @Operation(summary = "Rebuild score statistics of a quiz from its attempts")
+  public ResponseEntity<QuizStatisticsDTO> rebuildQuizStatistics(@PathVariable("id") Long id) {
+    return ResponseEntity.ok(quizStatisticsService.rebuild(id));
+  }
+
+  /**
+   * Get the leaderboard of a quiz
+   *
+   * @param id (Long) The id of the quiz
+   * @param top (int) The maximum number of users to return
+   * @return (ResponseEntity <List<LeaderboardEntryDTO>>) The best attempt of each of the highest
+   *     ranked users, best first
+   */
+  @GetMapping("/{id}/leaderboard")
+  @Operation(summary = "Get the best attempts on a quiz, one per user")
+  public ResponseEntity<List<LeaderboardEntryDTO>> getLeaderboard(
+      @PathVariable("id") Long id, @RequestParam(defaultValue = "10") int top) {
+    try {
+      return ResponseEntity.ok(quizLeaderboard.top(id, top));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
+  /**
+   * Get the rank of a user on the leaderboard of a quiz
+   *
+   * @param id (Long) The id of the quiz
+   * @param userId (Long) The id of the user
+   * @return (ResponseEntity <LeaderboardEntryDTO>) The best attempt of the user, with its rank
+   */
+  @GetMapping("/{id}/leaderboard/{userId}")
+  @Operation(summary = "Get the rank of a user on the leaderboard of a quiz")
+  public ResponseEntity<LeaderboardEntryDTO> getLeaderboardRank(
+      @PathVariable("id") Long id, @PathVariable("userId") Long userId) {
+    return ResponseEntity.ok(quizLeaderboard.rankOf(id, userId));
   }
 
   /**
@@ -184,17 +304,17 @@ public class QuizController {
    *
    * @param tag (String) The tag to filter by
    * @param pageable (Pageable) Pageable object for pagination
-   * @return (ResponseEntity <Page<QuizDTO>>) Page of quizzes
+   * @return (ResponseEntity <Page<QuizSummaryDTO>>) Page of quizzes
    */
   @GetMapping("/tag")
   @Operation(summary = "Get all quizzes with a specific tag")
-  public ResponseEntity<Page<QuizDTO>> getQuizzesByTag(
+  public ResponseEntity<Page<QuizSummaryDTO>> getQuizzesByTag(
       @RequestParam String tag, Pageable pageable) {
     if (tag == null || tag.isEmpty()) {
       return ResponseEntity.badRequest().build();
     }
 
-    Page<QuizDTO> quizzes = quizService.getQuizzesByTag(tag, pageable);
+    Page<QuizSummaryDTO> quizzes = quizService.getQuizzesByTag(tag, pageable);
 
     return ResponseEntity.ok(quizzes);
   }
@@ -216,13 +336,28 @@ public class QuizController {
    *
    * @param tags (List<String>) The tags to filter by
    * @param pageable (Pageable) Pageable object for pagination
-   * @return (ResponseEntity <Page<QuizDTO>>) Page of quizzes
+   * @return (ResponseEntity <Page<QuizSummaryDTO>>) Page of quizzes
    */
   @PostMapping("/filter-by-tags")
   @Operation(summary = "Get all quizzes with the specified tags")
-  public ResponseEntity<Page<QuizDTO>> filterQuizzesByTags(
+  public ResponseEntity<Page<QuizSummaryDTO>> filterQuizzesByTags(
       @RequestBody List<String> tags, Pageable pageable) {
-    Page<QuizDTO> quizzes = quizService.getQuizzesByTags(tags, pageable);
+    Page<QuizSummaryDTO> quizzes = quizService.getQuizzesByTags(tags, pageable);
+    return new ResponseEntity<>(quizzes, HttpStatus.OK);
+  }
+
+  /**
+   * Get all quizzes matching a combined tag and category filter
+   *
+   * @param filter (QuizFilterDTO) The tags that must all, any or none be present, and the category
+   * @param pageable (Pageable) Pageable object for pagination
+   * @return (ResponseEntity <Page<QuizSummaryDTO>>) Page of quizzes, ordered by id
+   */
+  @PostMapping("/filter")
+  @Operation(summary = "Get all quizzes matching a combined tag and category filter")
+  public ResponseEntity<Page<QuizSummaryDTO>> filterQuizzes(
+      @RequestBody QuizFilterDTO filter, Pageable pageable) {
+    Page<QuizSummaryDTO> quizzes = quizService.filterQuizzes(filter, pageable);
     return new ResponseEntity<>(quizzes, HttpStatus.OK);
   }
 
@@ -244,17 +379,17 @@ public class QuizController {
    *
    * @param category (String) The category to filter by
    * @param pageable (Pageable) Pageable object for pagination
-   * @return (ResponseEntity <Page<QuizDTO>>) Page of quizzes
+   * @return (ResponseEntity <Page<QuizSummaryDTO>>) Page of quizzes
    */
   @GetMapping("/category")
   @Operation(summary = "Get all quizzes with a specific category")
-  public ResponseEntity<Page<QuizDTO>> getQuizzesByCategory(
+  public ResponseEntity<Page<QuizSummaryDTO>> getQuizzesByCategory(
       @RequestParam String category, Pageable pageable) {
     if (category == null || category.isEmpty()) {
       return ResponseEntity.badRequest().build();
     }
 
-    Page<QuizDTO> quizzes = quizService.getQuizzesByCategory(category, pageable);
+    Page<QuizSummaryDTO> quizzes = quizService.getQuizzesByCategory(category, pageable);
     return ResponseEntity.ok(quizzes);
   }
 
@@ -272,7 +407,98 @@ public class QuizController {
 
   @GetMapping("/all/public")
   @Operation(summary = "Get all public quizzes")
-  public ResponseEntity<Page<QuizDTO>> getAllPublicQuizzes(Pageable pageable) {
+  public ResponseEntity<Page<QuizSummaryDTO>> getAllPublicQuizzes(Pageable pageable) {
     return new ResponseEntity<>(quizService.getAllPublicQuizzes(pageable), HttpStatus.OK);
   }
+
+  /**
+   * Search public quizzes
+   *
+   * @param q (String) The search text, matched against titles, descriptions, tags and categories
+   * @param pageable (Pageable) Pageable object for pagination
+   * @return (ResponseEntity <Page<QuizSummaryDTO>>) Page of quizzes, most relevant first
+   */
+  @GetMapping("/search")
+  @Operation(summary = "Search public quizzes by title, description, tags and category")
+  public ResponseEntity<Page<QuizSummaryDTO>> searchQuizzes(
+      @RequestParam String q, Pageable pageable) {
+    if (q == null || q.isBlank()) {
+      return ResponseEntity.badRequest().build();
+    }
+    return ResponseEntity.ok(quizService.searchQuizzes(q, pageable));
+  }
+
+  /**
+   * Autocomplete tags, categories and quiz titles
+   *
+   * @param prefix (String) The text typed so far
+   * @param limit (int) The maximum number of suggestions to return
+   * @return (ResponseEntity <List<SuggestionDTO>>) Suggestions, most used first
+   */
+  @GetMapping("/autocomplete")
+  @Operation(summary = "Suggest tags, categories and quiz titles starting with a prefix")
+  public ResponseEntity<List<SuggestionDTO>> autocomplete(
+      @RequestParam String prefix, @RequestParam(defaultValue = "10") int limit) {
+    try {
+      return ResponseEntity.ok(quizService.autocomplete(prefix, limit));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
+  /**
+   * Get public quizzes using keyset pagination
+   *
+   * @param cursor (String) The cursor returned with the previous slice, omitted for the first slice
+   * @param size (int) The maximum number of quizzes to return
+   * @return (ResponseEntity <CursorPageDTO<QuizSummaryDTO>>) Slice of quizzes and the next cursor
+   */
+  @GetMapping("/scroll")
+  @Operation(summary = "Get public quizzes, newest first, using cursor-based pagination")
+  public ResponseEntity<CursorPageDTO<QuizSummaryDTO>> getPublicQuizzesByCursor(
+      @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "20") int size) {
+    try {
+      return ResponseEntity.ok(quizService.getPublicQuizzesByCursor(cursor, size));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
+  /**
+   * Get the public quizzes with the most recent activity
+   *
+   * @param limit (int) The maximum number of quizzes to return
+   * @return (ResponseEntity <List<QuizSummaryDTO>>) Trending quizzes, most active first
+   */
+  @GetMapping("/trending")
+  @Operation(summary = "Get public quizzes ranked by recent attempts and comments")
+  public ResponseEntity<List<QuizSummaryDTO>> getTrendingQuizzes(
+      @RequestParam(defaultValue = "10") int limit) {
+    try {
+      return ResponseEntity.ok(quizService.getTrendingQuizzes(limit));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
+  /**
+   * Checks whether an Accept-Encoding header allows gzip.
+   *
+   * @param acceptEncoding (String) The value of the header, or null if it is missing
+   * @return (boolean) True if the response may be gzipped
+   */
+  private static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parts = coding.trim().split(";");
+      String name = parts[0].trim();
+      if (name.equalsIgnoreCase("gzip") || name.equals("*")) {
+        // "q=0" means the coding is not acceptable
+        return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+      }
+    }
+    return false;
+  }
 }
@@ -0,0 +1,23 @@
+package com.idatt2105.backend.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A slice of results read with keyset pagination. Unlike a Page, it carries no total count; the
+ * next slice is requested by passing {@code nextCursor} back to the same endpoint.
+ *
+ * @param <T> The type of the elements in the slice.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+  private List<T> content = new ArrayList<>();
+  private String nextCursor;
+  private boolean hasNext;
+}
@@ -0,0 +1,21 @@
+package com.idatt2105.backend.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** The best attempt of a user on a quiz, and its place on the leaderboard of the quiz. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardEntryDTO {
+  // 1 for the best attempt
+  private int rank;
+  private Long userId;
+  private String username;
+  private Long attemptId;
+  private int score;
+  private LocalDateTime attemptTime;
+}
@@ -0,0 +1,18 @@
+package com.idatt2105.backend.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+/** The answer of a player to the open question of a live session. */
+@Data
+public class LiveAnswerDTO {
+  private Long userId;
+  // The index of the question answered, which must be the open question
+  private int questionIndex;
+  // Only set for true or false questions
+  private Boolean answer;
+  // The selected alternatives, only set for multiple choice questions
+  private List<Long> alternativeIds = new ArrayList<>();
+}
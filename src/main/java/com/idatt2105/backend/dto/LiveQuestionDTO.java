@@ -0,0 +1,34 @@
+package com.idatt2105.backend.dto;
+
+import java.util.List;
+
+import com.idatt2105.backend.enumerator.QuestionType;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** A question pushed to the players of a live session, without its correct answer. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LiveQuestionDTO {
+  // The index of the question in the session, from 0
+  private int index;
+  private Long questionId;
+  private QuestionType type;
+  private String questionText;
+  private String mediaUrl;
+  private int points;
+  // Only set for multiple choice questions
+  private List<AlternativeEntry> alternatives;
+
+  /** An alternative of a multiple choice question. */
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class AlternativeEntry {
+    private Long id;
+    private String alternativeText;
+  }
+}
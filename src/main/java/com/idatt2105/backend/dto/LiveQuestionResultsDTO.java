@@ -0,0 +1,23 @@
+package com.idatt2105.backend.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.Data;
+
+/** How the players of a live session answered a question, pushed when the question is closed. */
+@Data
+public class LiveQuestionResultsDTO {
+  private int index;
+  private Long questionId;
+  private long answerCount;
+  private long correctCount;
+  // Only set for true or false questions
+  private Boolean correctAnswer;
+  private Long trueCount;
+  // Only set for multiple choice questions: the number of selections of each alternative, by id
+  private List<Long> correctAlternativeIds;
+  private Map<Long, Long> alternativeSelections;
+  // The highest ranked players after the question
+  private List<LeaderboardEntryDTO> standings;
+}
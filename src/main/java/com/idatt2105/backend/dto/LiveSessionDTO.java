@@ -0,0 +1,20 @@
+package com.idatt2105.backend.dto;
+
+import com.idatt2105.backend.enumerator.LiveSessionState;
+
+import lombok.Data;
+
+/** The state of a live quiz session, as shown to its host and players. */
+@Data
+public class LiveSessionDTO {
+  // The code players join the session with
+  private String code;
+  private Long quizId;
+  private String title;
+  private Long hostId;
+  private LiveSessionState state;
+  // The index of the last question shown, -1 before the first
+  private int currentQuestion;
+  private int questionCount;
+  private int playerCount;
+}
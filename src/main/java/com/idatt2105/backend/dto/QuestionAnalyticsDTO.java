@@ -0,0 +1,25 @@
+package com.idatt2105.backend.dto;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import lombok.Data;
+
+/**
+ * The item analysis of a question, from the attempts on its quiz when it was last analyzed. The
+ * difficulty is the share of responses that were correct, and the discrimination is the
+ * point-biserial correlation between answering correctly and the score on the rest of the quiz,
+ * null if every response or none was correct.
+ */
+@Data
+public class QuestionAnalyticsDTO {
+  private Long questionId;
+  private Long quizId;
+  private long responseCount;
+  private long correctCount;
+  private double difficulty;
+  private Double discrimination;
+  // The share of responses that selected each alternative, by the id of the alternative
+  private Map<Long, Double> alternativeFrequencies;
+  private LocalDateTime analyzedAt;
+}
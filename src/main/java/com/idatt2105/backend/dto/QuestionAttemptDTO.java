@@ -18,6 +18,7 @@ import lombok.Data;
 @Data
 public class QuestionAttemptDTO {
   private QuestionType type;
+  private Long questionId;
   private String questionText;
   private String mediaUrl;
   private int points;
@@ -16,6 +16,7 @@ import lombok.Data;
 public class QuizAttemptDTO {
   private String title;
   private LocalDateTime attemptTime;
+  // Ignored, since attempts are graded by the server
   private int score;
   private Long userId;
   private Long quizId;
@@ -0,0 +1,72 @@
+package com.idatt2105.backend.dto;
+
+import java.time.LocalDateTime;
+
+import com.idatt2105.backend.model.QuizAttempt;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Represents a quiz attempt in an export of the attempts on a teacher's quizzes. It carries the
+ * columns of the attempt and who made it, but no question attempts.
+ */
+@Data
+@NoArgsConstructor
+public class QuizAttemptExportDTO {
+  private Long id;
+  private Long quizId;
+  private String title;
+  private Long userId;
+  private int score;
+  private Integer maxScore;
+  private LocalDateTime attemptTime;
+  private Integer questionCount;
+
+  /**
+   * Constructs a QuizAttemptExportDTO from the columns selected by the repository.
+   *
+   * @param id The id of the attempt.
+   * @param quizId The id of the quiz attempted.
+   * @param title The title of the quiz attempted.
+   * @param userId The id of the user who made the attempt.
+   * @param score The score given for the attempt.
+   * @param maxScore The highest score the quiz could be given.
+   * @param attemptTime When the quiz was attempted.
+   * @param questionCount The number of questions answered.
+   */
+  public QuizAttemptExportDTO(
+      Long id,
+      Long quizId,
+      String title,
+      Long userId,
+      int score,
+      Integer maxScore,
+      LocalDateTime attemptTime,
+      Integer questionCount) {
+    this.id = id;
+    this.quizId = quizId;
+    this.title = title;
+    this.userId = userId;
+    this.score = score;
+    this.maxScore = maxScore;
+    this.attemptTime = attemptTime;
+    this.questionCount = questionCount;
+  }
+
+  /**
+   * Constructs a QuizAttemptExportDTO from a quiz attempt.
+   *
+   * @param quizAttempt The quiz attempt, whose question attempts are not read.
+   */
+  public QuizAttemptExportDTO(QuizAttempt quizAttempt) {
+    this.id = quizAttempt.getId();
+    this.quizId = quizAttempt.getQuizId();
+    this.title = quizAttempt.getTitle();
+    this.userId = quizAttempt.getUser() == null ? null : quizAttempt.getUser().getId();
+    this.score = quizAttempt.getScore();
+    this.maxScore = quizAttempt.getMaxScore();
+    this.attemptTime = quizAttempt.getAttemptTime();
+    this.questionCount = quizAttempt.getQuestionCount();
+  }
+}
@@ -0,0 +1,51 @@
+package com.idatt2105.backend.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Represents a quiz attempt in a user's attempt history. Unlike a quiz attempt, it carries no
+ * question attempts, only how many questions were answered, and it is selected directly by the
+ * repository instead of being mapped from a loaded entity.
+ */
+@Data
+@NoArgsConstructor
+public class QuizAttemptSummaryDTO {
+  private Long id;
+  private Long quizId;
+  private String title;
+  private int score;
+  private Integer maxScore;
+  private LocalDateTime attemptTime;
+  private int questionCount;
+
+  /**
+   * Constructs a QuizAttemptSummaryDTO from the columns selected by the repository.
+   *
+   * @param id The id of the attempt.
+   * @param quizId The id of the quiz attempted.
+   * @param title The title of the quiz attempted.
+   * @param score The score given for the attempt.
+   * @param maxScore The highest score the quiz could be given.
+   * @param attemptTime When the quiz was attempted.
+   * @param questionCount The number of questions answered.
+   */
+  public QuizAttemptSummaryDTO(
+      Long id,
+      Long quizId,
+      String title,
+      int score,
+      Integer maxScore,
+      LocalDateTime attemptTime,
+      Integer questionCount) {
+    this.id = id;
+    this.quizId = quizId;
+    this.title = title;
+    this.score = score;
+    this.maxScore = maxScore;
+    this.attemptTime = attemptTime;
+    this.questionCount = questionCount == null ? 0 : questionCount;
+  }
+}
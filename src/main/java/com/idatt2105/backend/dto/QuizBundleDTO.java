@@ -0,0 +1,46 @@
+package com.idatt2105.backend.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.idatt2105.backend.enumerator.QuestionType;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Everything needed to play a quiz: the quiz, its questions and their alternatives. Questions are
+ * ordered by id, and alternatives by id within their question. The correct answers are left out,
+ * since attempts are graded on the server.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuizBundleDTO {
+  private QuizDTO quiz;
+  private List<QuestionEntry> questions = new ArrayList<>();
+
+  /** A question of the quiz. */
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class QuestionEntry {
+    private Long id;
+    private QuestionType type;
+    private String questionText;
+    private String mediaUrl;
+    private int points;
+    // Only set for multiple choice questions
+    private List<AlternativeEntry> alternatives;
+  }
+
+  /** An alternative of a multiple choice question. */
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class AlternativeEntry {
+    private Long id;
+    private String alternativeText;
+  }
+}
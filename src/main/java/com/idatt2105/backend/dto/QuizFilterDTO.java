@@ -0,0 +1,21 @@
+package com.idatt2105.backend.dto;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Represents a combined tag and category filter over the public quizzes. Every non-empty part of
+ * the filter must match: the quiz must have all of {@code allTags}, at least one of {@code
+ * anyTags}, none of {@code noneTags}, and belong to {@code category}.
+ */
+@Data
+@NoArgsConstructor
+public class QuizFilterDTO {
+  private Set<String> allTags = new HashSet<>();
+  private Set<String> anyTags = new HashSet<>();
+  private Set<String> noneTags = new HashSet<>();
+  private String category;
+}
@@ -0,0 +1,28 @@
+package com.idatt2105.backend.dto;
+
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * Statistics of the scores given to the attempts of a quiz. Scores are percentages of the highest
+ * score the quiz could be given when it was attempted. Everything but the count and histogram is
+ * null if the quiz has no attempts.
+ */
+@Data
+public class QuizStatisticsDTO {
+  private Long quizId;
+  private long attemptCount;
+  private Double mean;
+  private Double variance;
+  private Double standardDeviation;
+  private Double min;
+  private Double max;
+  private Double percentile25;
+  private Double median;
+  private Double percentile75;
+  private Double percentile90;
+  // Bucket i counts the scores from i * bucketWidth up to (i + 1) * bucketWidth
+  private double bucketWidth;
+  private List<Long> histogram;
+}
@@ -0,0 +1,69 @@
+package com.idatt2105.backend.dto;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Represents a quiz in a listing. Unlike {@link QuizDTO}, it carries no participants or tag
+ * entities, only what a quiz card shows, and it is selected directly by the repository instead of
+ * being mapped from a loaded entity.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuizSummaryDTO {
+  private Long id;
+  private String title;
+  private String description;
+  private String quizPictureUrl;
+  private String categoryName;
+  private Long authorId;
+  private String authorName;
+  private LocalDateTime creationDate;
+  private int questionCount;
+  private int participantCount;
+  private Set<String> tagNames = new HashSet<>();
+
+  /**
+   * Constructs a QuizSummaryDTO from the columns selected by the repository. Tag names are added
+   * afterwards.
+   *
+   * @param id The id of the quiz.
+   * @param title The title of the quiz.
+   * @param description The description of the quiz.
+   * @param quizPictureUrl The picture of the quiz.
+   * @param categoryName The name of the category of the quiz.
+   * @param authorId The id of the author of the quiz.
+   * @param authorName The username of the author of the quiz.
+   * @param creationDate When the quiz was created.
+   * @param questionCount The number of questions in the quiz.
+   * @param participantCount The number of users taking part in the quiz.
+   */
+  public QuizSummaryDTO(
+      Long id,
+      String title,
+      String description,
+      String quizPictureUrl,
+      String categoryName,
+      Long authorId,
+      String authorName,
+      LocalDateTime creationDate,
+      Integer questionCount,
+      Integer participantCount) {
+    this.id = id;
+    this.title = title;
+    this.description = description;
+    this.quizPictureUrl = quizPictureUrl;
+    this.categoryName = categoryName;
+    this.authorId = authorId;
+    this.authorName = authorName;
+    this.creationDate = creationDate;
+    this.questionCount = questionCount == null ? 0 : questionCount;
+    this.participantCount = participantCount == null ? 0 : participantCount;
+  }
+}
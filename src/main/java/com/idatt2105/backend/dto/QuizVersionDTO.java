@@ -0,0 +1,44 @@
+package com.idatt2105.backend.dto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The version of a quiz, read without loading the quiz itself. Used to answer conditional requests
+ * for the quiz and its questions before any of them are read.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuizVersionDTO {
+  private Long quizId;
+  private long contentVersion;
+  private LocalDateTime lastModifiedDate;
+  private boolean isPublic;
+
+  /**
+   * Builds a strong entity tag for one representation of the quiz.
+   *
+   * @param representation The name of the representation, such as "quiz" or "questions".
+   * @return The quoted entity tag.
+   */
+  public String toETag(String representation) {
+    return "\"" + representation + "-" + quizId + "-" + contentVersion + "\"";
+  }
+
+  /**
+   * Gets the last modified date in milliseconds since the epoch.
+   *
+   * @return The last modified date, or -1 if it is unknown.
+   */
+  public long getLastModifiedMillis() {
+    if (lastModifiedDate == null) {
+      return -1;
+    }
+    return lastModifiedDate.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+  }
+}
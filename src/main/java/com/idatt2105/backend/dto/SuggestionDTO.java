@@ -0,0 +1,16 @@
+package com.idatt2105.backend.dto;
+
+import com.idatt2105.backend.enumerator.SuggestionType;
+
+import lombok.Data;
+
+/**
+ * Represents an autocomplete suggestion. The count is how many public quizzes use the tag or
+ * category, or have the title.
+ */
+@Data
+public class SuggestionDTO {
+  private final String text;
+  private final SuggestionType type;
+  private final long count;
+}
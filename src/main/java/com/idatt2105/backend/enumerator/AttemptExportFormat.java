@@ -0,0 +1,49 @@
+package com.idatt2105.backend.enumerator;
+
+import java.util.Locale;
+
+/** Represents a file format quiz attempts can be exported in. */
+public enum AttemptExportFormat {
+  NDJSON("application/x-ndjson", "ndjson"),
+  CSV("text/csv", "csv");
+
+  private final String mediaType;
+  private final String extension;
+
+  AttemptExportFormat(String mediaType, String extension) {
+    this.mediaType = mediaType;
+    this.extension = extension;
+  }
+
+  /**
+   * Gets the format with a name, in any case.
+   *
+   * @param name The name of the format.
+   * @throws IllegalArgumentException If there is no format with the name.
+   * @return The format.
+   */
+  public static AttemptExportFormat fromName(String name) {
+    if (name == null) {
+      throw new IllegalArgumentException("Export format cannot be null");
+    }
+    return valueOf(name.toUpperCase(Locale.ROOT));
+  }
+
+  /**
+   * Gets the media type of an export in the format.
+   *
+   * @return The media type.
+   */
+  public String getMediaType() {
+    return mediaType;
+  }
+
+  /**
+   * Gets the file extension of an export in the format.
+   *
+   * @return The file extension, without a dot.
+   */
+  public String getExtension() {
+    return extension;
+  }
+}
@@ -0,0 +1,13 @@
+package com.idatt2105.backend.enumerator;
+
+/** The states of a live quiz session, in the order the host moves it through them. */
+public enum LiveSessionState {
+  /** Players are joining, and no question has been shown. */
+  LOBBY,
+  /** A question is shown, and players may answer it. */
+  QUESTION_OPEN,
+  /** The answers to the last question shown have been counted and shown. */
+  QUESTION_CLOSED,
+  /** The session is over, and its results are stored as quiz attempts. */
+  ENDED
+}
@@ -0,0 +1,22 @@
+package com.idatt2105.backend.enumerator;
+
+/** Represents something a user did with a quiz that makes it more popular. */
+public enum QuizActivity {
+  ATTEMPT(1.0),
+  COMMENT(0.5);
+
+  private final double weight;
+
+  QuizActivity(double weight) {
+    this.weight = weight;
+  }
+
+  /**
+   * Gets how much the activity adds to the trending score of a quiz.
+   *
+   * @return The weight of the activity.
+   */
+  public double getWeight() {
+    return weight;
+  }
+}
@@ -0,0 +1,8 @@
+package com.idatt2105.backend.enumerator;
+
+/** Represents what an autocomplete suggestion refers to. */
+public enum SuggestionType {
+  TAG,
+  CATEGORY,
+  QUIZ
+}
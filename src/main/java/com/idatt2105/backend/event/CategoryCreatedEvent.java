@@ -0,0 +1,9 @@
+package com.idatt2105.backend.event;
+
+import lombok.Data;
+
+/** Published after a new category has been created. */
+@Data
+public class CategoryCreatedEvent {
+  private final String name;
+}
@@ -0,0 +1,9 @@
+package com.idatt2105.backend.event;
+
+import lombok.Data;
+
+/** Published after a question or alternative of a quiz has been added, changed or removed. */
+@Data
+public class QuestionsChangedEvent {
+  private final Long quizId;
+}
@@ -0,0 +1,15 @@
+package com.idatt2105.backend.event;
+
+import java.time.LocalDateTime;
+
+import com.idatt2105.backend.enumerator.QuizActivity;
+
+import lombok.Data;
+
+/** Published after a user has attempted or commented on a quiz. */
+@Data
+public class QuizActivityEvent {
+  private final Long quizId;
+  private final QuizActivity activity;
+  private final LocalDateTime time;
+}
@@ -0,0 +1,34 @@
+package com.idatt2105.backend.event;
+
+import java.time.LocalDateTime;
+
+import com.idatt2105.backend.model.QuizAttempt;
+
+import lombok.Data;
+
+/** Published after a graded quiz attempt has been added to the database. */
+@Data
+public class QuizAttemptAddedEvent {
+  private final Long quizId;
+  private final Long attemptId;
+  private final Long userId;
+  private final int score;
+  private final Integer maxScore;
+  private final LocalDateTime attemptTime;
+
+  /**
+   * Creates the event for a saved quiz attempt.
+   *
+   * @param quizAttempt The saved quiz attempt.
+   * @return The event.
+   */
+  public static QuizAttemptAddedEvent of(QuizAttempt quizAttempt) {
+    return new QuizAttemptAddedEvent(
+        quizAttempt.getQuizId(),
+        quizAttempt.getId(),
+        quizAttempt.getUser() == null ? null : quizAttempt.getUser().getId(),
+        quizAttempt.getScore(),
+        quizAttempt.getMaxScore(),
+        quizAttempt.getAttemptTime());
+  }
+}
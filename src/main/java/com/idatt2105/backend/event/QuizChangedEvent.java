@@ -0,0 +1,48 @@
+package com.idatt2105.backend.event;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.idatt2105.backend.model.Quiz;
+import com.idatt2105.backend.model.Tag;
+
+import lombok.Data;
+
+/**
+ * Published after a quiz has been created, or its details or tags have changed. The event holds a
+ * snapshot of the fields that in-memory indexes care about, so listeners never have to touch the
+ * entity or its lazy collections.
+ */
+@Data
+public class QuizChangedEvent {
+  private final Long quizId;
+  private final String title;
+  private final String description;
+  private final String categoryName;
+  private final Set<String> tagNames;
+  private final boolean isPublic;
+
+  /**
+   * Creates an event from the current state of a quiz.
+   *
+   * @param quiz The quiz that changed.
+   * @return The event.
+   */
+  public static QuizChangedEvent of(Quiz quiz) {
+    if (quiz == null) {
+      throw new IllegalArgumentException("Quiz parameter cannot be null.");
+    }
+    return new QuizChangedEvent(
+        quiz.getId(),
+        quiz.getTitle(),
+        quiz.getDescription(),
+        quiz.getCategory() == null ? null : quiz.getCategory().getName(),
+        quiz.getTags().stream()
+            .filter(Objects::nonNull)
+            .map(Tag::getTagName)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toUnmodifiableSet()),
+        quiz.isPublic());
+  }
+}
@@ -0,0 +1,11 @@
+package com.idatt2105.backend.event;
+
+import java.util.List;
+
+import lombok.Data;
+
+/** Published after new tags have been created. */
+@Data
+public class TagsCreatedEvent {
+  private final List<String> names;
+}
@@ -2,8 +2,12 @@ package com.idatt2105.backend.model;
 
 import java.util.Objects;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -19,7 +23,11 @@ import lombok.Data;
 @Entity
 @Data
 @Table(name = "alternatives")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Alternative.CACHE_REGION)
 public class Alternative {
+  public static final String CACHE_REGION = "alternative";
+
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long id;
@@ -11,6 +11,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.experimental.Accessors;
@@ -20,10 +21,20 @@ import lombok.experimental.Accessors;
 @Data
 @NoArgsConstructor
 public class AlternativeRecord {
+  public static final String ID_SEQUENCE = "alternative_record_seq";
+
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+  @SequenceGenerator(
+      name = ID_SEQUENCE,
+      sequenceName = ID_SEQUENCE,
+      allocationSize = QuizAttempt.ID_ALLOCATION_SIZE)
   private Long id;
 
+  // The alternative that was shown, used to grade the attempt
+  @Column(name = "alternative_id")
+  private Long alternativeId;
+
   @Column(name = "text", nullable = false)
   private String alternativeText;
 
@@ -70,12 +81,13 @@ public class AlternativeRecord {
     return wasCorrect == that.wasCorrect
         && wasSelected == that.wasSelected
         && Objects.equals(id, that.id)
+        && Objects.equals(alternativeId, that.alternativeId)
         && Objects.equals(alternativeText, that.alternativeText);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(id, alternativeText, wasCorrect, wasSelected);
+    return Objects.hash(id, alternativeId, alternativeText, wasCorrect, wasSelected);
   }
 
   @Override
@@ -83,6 +95,8 @@ public class AlternativeRecord {
     return "AlternativeRecord{"
         + "id="
         + id
+        + ", alternativeId="
+        + alternativeId
         + ", alternativeText='"
         + alternativeText
         + '\''
@@ -2,9 +2,13 @@ package com.idatt2105.backend.model;
 
 import java.util.Set;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import io.swagger.v3.oas.annotations.Hidden;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -16,7 +20,12 @@ import lombok.Data;
 /** Entity representing a category of quizzes. */
 @Entity
 @Data
+// Categories are created now and then and almost never changed
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = Category.CACHE_REGION)
 public class Category {
+  public static final String CACHE_REGION = "category";
+
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long id;
@@ -3,6 +3,10 @@ package com.idatt2105.backend.model;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import com.idatt2105.backend.dto.AlternativeDTO;
 import com.idatt2105.backend.util.NoNullElements;
 
@@ -17,7 +21,12 @@ import lombok.Data;
 @Data
 @Table(name = "multiple_choice_questions")
 public class MultipleChoiceQuestion extends Question {
+  public static final String ALTERNATIVES_CACHE_REGION = "question.alternatives";
+
   @OneToMany(mappedBy = "question", cascade = CascadeType.ALL, orphanRemoval = true)
+  // Initialized together for every question loaded in the same session
+  @BatchSize(size = 50)
+  @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ALTERNATIVES_CACHE_REGION)
   @NoNullElements
   private Set<Alternative> alternatives = new HashSet<>();
 
@@ -4,6 +4,8 @@ import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 
+import org.hibernate.annotations.BatchSize;
+
 import com.idatt2105.backend.util.NoNullElements;
 
 import jakarta.persistence.CascadeType;
@@ -18,6 +20,8 @@ import lombok.Data;
 @Data
 public class MultipleChoiceQuestionAttempt extends QuestionAttempt {
   @OneToMany(mappedBy = "questionAttempt", cascade = CascadeType.ALL, orphanRemoval = true)
+  // Initialized together for every question attempt of a quiz attempt
+  @BatchSize(size = 50)
   @NoNullElements
   private Set<AlternativeRecord> alternatives = new HashSet<>();
 
@@ -2,11 +2,16 @@ package com.idatt2105.backend.model;
 
 import java.util.Objects;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.idatt2105.backend.dto.QuestionDTO;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -23,7 +28,12 @@ import lombok.Data;
 @Data
 @Inheritance(strategy = InheritanceType.JOINED)
 @Table(name = "questions")
+// Shared by all question types, since Hibernate caches a hierarchy in the region of its root
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Question.CACHE_REGION)
 public class Question {
+  public static final String CACHE_REGION = "question";
+
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long id;
@@ -38,7 +48,7 @@ public class Question {
   @Column(name = "points")
   private int points;
 
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "quiz_id", nullable = false)
   @JsonIgnore
   private Quiz quiz;
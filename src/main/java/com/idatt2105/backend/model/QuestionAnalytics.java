@@ -0,0 +1,43 @@
+package com.idatt2105.backend.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * The stored item analysis of a question, computed from the attempts on its quiz by the item
+ * analysis job, so that it is read without going through the attempts again.
+ */
+@Entity
+@Data
+@Table(name = "question_analytics")
+public class QuestionAnalytics {
+  @Id private Long questionId;
+
+  @Column(name = "quiz_id", nullable = false)
+  private Long quizId;
+
+  @Column(name = "response_count", nullable = false)
+  private long responseCount;
+
+  @Column(name = "correct_count", nullable = false)
+  private long correctCount;
+
+  /** Share of the responses that were correct, the p-value of the question. */
+  @Column(nullable = false)
+  private double difficulty;
+
+  /** Point-biserial correlation with the rest score, null if it is undefined. */
+  private Double discrimination;
+
+  /** Number of responses that selected each alternative, as id:count separated by commas. */
+  @Column(name = "alternative_selections", nullable = false, length = 2048)
+  private String alternativeSelections;
+
+  @Column(name = "analyzed_at", nullable = false)
+  private LocalDateTime analyzedAt;
+}
@@ -14,6 +14,7 @@ import jakarta.persistence.Inheritance;
 import jakarta.persistence.InheritanceType;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import lombok.Data;
 
 /** Log entity for a question attempt. */
@@ -21,10 +22,20 @@ import lombok.Data;
 @Data
 @Inheritance(strategy = InheritanceType.JOINED)
 public class QuestionAttempt {
+  public static final String ID_SEQUENCE = "question_attempt_seq";
+
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+  @SequenceGenerator(
+      name = ID_SEQUENCE,
+      sequenceName = ID_SEQUENCE,
+      allocationSize = QuizAttempt.ID_ALLOCATION_SIZE)
   private Long id;
 
+  // The question that was answered, used to grade the attempt
+  @Column(name = "question_id")
+  private Long questionId;
+
   @Column(name = "question_text")
   private String questionText;
 
@@ -37,6 +48,7 @@ public class QuestionAttempt {
   private QuizAttempt quizAttempt;
 
   public void extractFromDTO(QuestionAttemptDTO dto) {
+    this.questionId = dto.getQuestionId();
     this.questionText = dto.getQuestionText();
     this.mediaUrl = dto.getMediaUrl();
     this.points = dto.getPoints();
@@ -49,12 +61,13 @@ public class QuestionAttempt {
     QuestionAttempt that = (QuestionAttempt) o;
     return points == that.points
         && Objects.equals(id, that.id)
+        && Objects.equals(questionId, that.questionId)
         && Objects.equals(questionText, that.questionText)
         && Objects.equals(mediaUrl, that.mediaUrl);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(id, questionText, mediaUrl, points);
+    return Objects.hash(id, questionId, questionText, mediaUrl, points);
   }
 }
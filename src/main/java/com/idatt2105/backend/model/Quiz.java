@@ -6,19 +6,26 @@ import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import com.fasterxml.jackson.annotation.JsonBackReference;
 
 import io.swagger.v3.oas.annotations.Hidden;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotEmpty;
@@ -32,9 +39,31 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @Entity
 @Data
-@Table(name = "quizzes")
+@NamedEntityGraph(
+    name = Quiz.DETAILS_GRAPH,
+    attributeNodes = {
+      @NamedAttributeNode("category"),
+      @NamedAttributeNode("tags"),
+      @NamedAttributeNode("users")
+    })
+@Table(
+    name = "quizzes",
+    indexes = {
+      // Backs the keyset-paginated public catalog
+      @Index(name = "idx_quizzes_public_created", columnList = "is_public, creation_date, id")
+    })
 @EqualsAndHashCode(exclude = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Quiz.CACHE_REGION)
 public class Quiz {
+  /** Fetch plan for reading a single quiz with everything its DTO shows. */
+  public static final String DETAILS_GRAPH = "Quiz.details";
+
+  /** Second-level cache regions of quizzes and of their question and tag collections. */
+  public static final String CACHE_REGION = "quiz";
+
+  public static final String QUESTIONS_CACHE_REGION = "quiz.questions";
+  public static final String TAGS_CACHE_REGION = "quiz.tags";
 
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -56,6 +85,11 @@ public class Quiz {
   @Column(name = "last_modified_date")
   private LocalDateTime lastModifiedDate;
 
+  // Counts every change to the quiz, its questions and their alternatives, for use in ETags. Only
+  // ever incremented in the database, by QuizRepository.markModified
+  @Column(name = "content_version", nullable = false, updatable = false)
+  private long contentVersion;
+
   @Column(name = "is_public")
   private boolean isPublic;
 
@@ -73,6 +107,7 @@ public class Quiz {
   private Set<User> users = new HashSet<>();
 
   @OneToMany(mappedBy = "quiz")
+  @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = QUESTIONS_CACHE_REGION)
   private Set<Question> questions = new HashSet<>();
 
   @ManyToMany
@@ -80,6 +115,7 @@ public class Quiz {
       name = "quiz_tag",
       joinColumns = @JoinColumn(name = "quiz_id"),
       inverseJoinColumns = @JoinColumn(name = "tag_id"))
+  @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = TAGS_CACHE_REGION)
   private Set<Tag> tags = new HashSet<>();
 
   @ManyToOne private Category category;
@@ -91,4 +127,12 @@ public class Quiz {
   public void removeTags(Collection<Tag> tags) {
     tags.stream().filter(Objects::nonNull).forEach(this.tags::remove);
   }
+
+  /**
+   * Sets the time of the last change to now. The content version is incremented separately, once
+   * the change is saved.
+   */
+  public void markModified() {
+    lastModifiedDate = LocalDateTime.now();
+  }
 }
@@ -13,16 +13,30 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
+import jakarta.persistence.Lob;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import lombok.Data;
 
 /** Represents a quiz attempt made by a user. */
 @Entity
 @Data
 public class QuizAttempt {
+  public static final String ID_SEQUENCE = "quiz_attempt_seq";
+
+  /**
+   * Number of ids fetched from each attempt sequence at a time. Ids are assigned without a round
+   * trip to the database, so that the inserts of an attempt can be sent in JDBC batches.
+   */
+  public static final int ID_ALLOCATION_SIZE = 50;
+
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+  @SequenceGenerator(
+      name = ID_SEQUENCE,
+      sequenceName = ID_SEQUENCE,
+      allocationSize = ID_ALLOCATION_SIZE)
   private Long id;
 
   private String title;
@@ -33,6 +47,17 @@ public class QuizAttempt {
   @Column(name = "score")
   private int score;
 
+  /** The highest score the quiz could be given when it was attempted. */
+  @Column(name = "max_score")
+  private Integer maxScore;
+
+  /**
+   * The number of questions answered in the attempt, kept so that attempts can be listed without
+   * reading their question attempts. Attempts stored before it was recorded have none.
+   */
+  @Column(name = "question_count")
+  private Integer questionCount;
+
   @ManyToOne
   @JoinColumn(name = "user_id", nullable = false)
   @JsonIgnore
@@ -42,4 +67,13 @@ public class QuizAttempt {
 
   @OneToMany(mappedBy = "quizAttempt", cascade = CascadeType.ALL)
   private Set<QuestionAttempt> questionAttempts = new HashSet<>();
+
+  /**
+   * The question attempts in the compact format, if the attempt is stored in it. A compact attempt
+   * has no question attempt rows, and its question attempts are only decoded when they are read.
+   */
+  @Lob
+  @Column(name = "answers")
+  @JsonIgnore
+  private byte[] answers;
 }
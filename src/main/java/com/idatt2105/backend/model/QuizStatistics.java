@@ -0,0 +1,38 @@
+package com.idatt2105.backend.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * The stored score statistics of a quiz, so that they survive a restart without being rebuilt from
+ * every attempt. Scores are percentages of the highest score of the quiz.
+ */
+@Entity
+@Data
+@Table(name = "quiz_statistics")
+public class QuizStatistics {
+  @Id private Long quizId;
+
+  @Column(name = "attempt_count", nullable = false)
+  private long attemptCount;
+
+  @Column(nullable = false)
+  private double mean;
+
+  /** Sum of squared differences from the mean. */
+  @Column(nullable = false)
+  private double m2;
+
+  @Column(name = "min_percent")
+  private Double minPercent;
+
+  @Column(name = "max_percent")
+  private Double maxPercent;
+
+  /** Number of scores in each bucket of the histogram, separated by commas. */
+  @Column(nullable = false)
+  private String histogram;
+}
@@ -4,9 +4,14 @@ import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import io.swagger.v3.oas.annotations.Hidden;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -22,7 +27,13 @@ import lombok.NoArgsConstructor;
 @Data
 @Table(name = "tags")
 @NoArgsConstructor
+// Tags are only ever inserted and deleted, never updated
+@Immutable
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = Tag.CACHE_REGION)
 public class Tag {
+  public static final String CACHE_REGION = "tag";
+
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long id;
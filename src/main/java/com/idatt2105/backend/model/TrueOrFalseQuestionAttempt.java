@@ -17,7 +17,7 @@ import lombok.Data;
 @Data
 public class TrueOrFalseQuestionAttempt extends QuestionAttempt {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
   private Long id;
 
   @Column(name = "user_answer", nullable = false)
@@ -20,7 +20,7 @@ import lombok.NoArgsConstructor;
 @Table(
     name = "users",
     uniqueConstraints = {@UniqueConstraint(columnNames = "username")})
-@EqualsAndHashCode(exclude = "quizzes")
+@EqualsAndHashCode(exclude = {"quizzes", "quizAttempts"})
 public class User {
 
   @Id
@@ -1,8 +1,46 @@
 package com.idatt2105.backend.repository;
 
+import java.util.List;
+import java.util.Optional;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.idatt2105.backend.model.Alternative;
 
 /** Repository for the Alternative entity. */
-public interface AlternativeRepository extends JpaRepository<Alternative, Long> {}
+public interface AlternativeRepository extends JpaRepository<Alternative, Long> {
+  /**
+   * Finds the quiz an alternative belongs to.
+   *
+   * @param id The id of the alternative.
+   * @return The id of the quiz, if the alternative exists.
+   */
+  @Query("SELECT a.question.quiz.id FROM Alternative a WHERE a.id = :id")
+  Optional<Long> findQuizIdById(@Param("id") Long id);
+
+  /**
+   * Fetches the alternatives of every multiple choice question in a quiz in one query, without
+   * loading the questions.
+   *
+   * @param quizId The id of the quiz.
+   * @return The alternatives, ordered by question and id.
+   */
+  @Query(
+      "SELECT a.question.id AS questionId, a.id AS id, a.alternativeText AS alternativeText,"
+          + " a.isCorrect AS correct FROM Alternative a WHERE a.question.quiz.id = :quizId"
+          + " ORDER BY a.question.id, a.id")
+  List<AlternativeRow> findRowsByQuizId(@Param("quizId") Long quizId);
+
+  /** An alternative, together with the id of its question. */
+  interface AlternativeRow {
+    Long getQuestionId();
+
+    Long getId();
+
+    String getAlternativeText();
+
+    boolean isCorrect();
+  }
+}
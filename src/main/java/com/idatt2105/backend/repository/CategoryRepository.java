@@ -2,12 +2,28 @@ package com.idatt2105.backend.repository;
 
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.idatt2105.backend.model.Category;
 
+import jakarta.persistence.QueryHint;
+
 /** Repository for the Category entity. */
 public interface CategoryRepository extends JpaRepository<Category, Long> {
+  String QUERY_CACHE_REGION = "category-queries";
+
+  /**
+   * Finds a category by name. Results are kept in the query cache until a category is written.
+   *
+   * @param name The name of the category.
+   * @return The category, if it exists.
+   */
+  @QueryHints({
+    @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+    @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+  })
   Optional<Category> findByName(String name);
 
   boolean existsByName(String name);
@@ -0,0 +1,56 @@
+package com.idatt2105.backend.repository;
+
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.Generator;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Hands out ids for entities that are inserted without Hibernate. The ids are taken from the same
+ * generator, and the same pool of sequence values, as the ids Hibernate assigns when the entity is
+ * persisted, so the two never collide.
+ */
+@Component
+public class EntityIdGenerator {
+  private final SessionFactoryImplementor sessionFactory;
+
+  public EntityIdGenerator(EntityManagerFactory entityManagerFactory) {
+    this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+  }
+
+  /**
+   * Generates ids for a number of new entities.
+   *
+   * @param entityClass The class of the entities. Subclasses share the ids of their root entity.
+   * @param count The number of ids to generate.
+   * @throws IllegalArgumentException If the ids of the entity are only known after it is inserted.
+   * @return The ids.
+   */
+  public long[] nextIds(Class<?> entityClass, int count) {
+    Generator generator =
+        sessionFactory.getMappingMetamodel().getEntityDescriptor(entityClass).getGenerator();
+    if (!(generator instanceof BeforeExecutionGenerator beforeExecutionGenerator)) {
+      throw new IllegalArgumentException(
+          "Ids of " + entityClass.getSimpleName() + " are generated by the database");
+    }
+    long[] ids = new long[count];
+    if (count == 0) {
+      return ids;
+    }
+    try (StatelessSession session = sessionFactory.openStatelessSession()) {
+      for (int i = 0; i < count; i++) {
+        ids[i] =
+            ((Number)
+                    beforeExecutionGenerator.generate(
+                        (SharedSessionContractImplementor) session, null, null, EventType.INSERT))
+                .longValue();
+      }
+    }
+    return ids;
+  }
+}
@@ -0,0 +1,21 @@
+package com.idatt2105.backend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.idatt2105.backend.model.QuestionAnalytics;
+
+/** Repository for the QuestionAnalytics entity. */
+public interface QuestionAnalyticsRepository extends JpaRepository<QuestionAnalytics, Long> {
+  /**
+   * Deletes the analytics of the questions of a quiz, before the quiz is analyzed again.
+   *
+   * @param quizId The id of the quiz.
+   * @return The number of analytics deleted.
+   */
+  @Modifying
+  @Query("DELETE FROM QuestionAnalytics a WHERE a.quizId = :quizId")
+  int deleteByQuizId(@Param("quizId") Long quizId);
+}
@@ -8,5 +8,20 @@ import com.idatt2105.backend.model.Question;
 
 /** Repository for Question entities. */
 public interface QuestionRepository extends JpaRepository<Question, Long> {
+  /**
+   * Finds the questions of a quiz. The quiz itself is not loaded, and the alternatives of multiple
+   * choice questions are fetched in batches when first read.
+   *
+   * @param quizId The id of the quiz.
+   * @return The questions of the quiz.
+   */
   List<Question> findQuestionsByQuizId(Long quizId);
+
+  /**
+   * Finds the questions of a quiz in a fixed order, without loading the quiz.
+   *
+   * @param quizId The id of the quiz.
+   * @return The questions of the quiz, ordered by id.
+   */
+  List<Question> findByQuizIdOrderByIdAsc(Long quizId);
 }
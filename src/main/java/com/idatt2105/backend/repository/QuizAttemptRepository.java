@@ -1,16 +1,231 @@
 package com.idatt2105.backend.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import com.idatt2105.backend.dto.QuizAttemptExportDTO;
+import com.idatt2105.backend.dto.QuizAttemptSummaryDTO;
 import com.idatt2105.backend.model.QuizAttempt;
 
+import jakarta.persistence.QueryHint;
+
 /** Repository for the QuizAttempt entity. */
-public interface QuizAttemptRepository extends JpaRepository<QuizAttempt, Long> {
+public interface QuizAttemptRepository
+    extends JpaRepository<QuizAttempt, Long>, QuizAttemptSummaryRepository {
+  /**
+   * Selects attempts as summaries. The question count of attempts stored before it was recorded is
+   * counted from their question attempt rows.
+   */
+  String SUMMARY_SELECT =
+      "SELECT new com.idatt2105.backend.dto.QuizAttemptSummaryDTO(a.id, a.quizId, a.title,"
+          + " a.score, a.maxScore, a.attemptTime,"
+          + " COALESCE(a.questionCount, SIZE(a.questionAttempts)))"
+          + " FROM QuizAttempt a";
+
+  /** Number of rows fetched from the database at a time when attempts are streamed. */
+  String STREAM_FETCH_SIZE = "1000";
+
   List<QuizAttempt> findByUserId(Long userId);
 
   Page<QuizAttempt> findByUserId(Long userId, Pageable pageable);
+
+  /**
+   * Fetches a page of summaries of the attempts of a user, without loading the attempts or their
+   * question attempts.
+   *
+   * @param userId The id of the user.
+   * @param pageable The page to fetch.
+   * @return The page of summaries.
+   */
+  @Query(
+      value = SUMMARY_SELECT + " WHERE a.user.id = :userId",
+      countQuery = "SELECT COUNT(a) FROM QuizAttempt a WHERE a.user.id = :userId")
+  Page<QuizAttemptSummaryDTO> findSummariesByUserId(
+      @Param("userId") Long userId, Pageable pageable);
+
+  /**
+   * Counts the attempts of a user.
+   *
+   * @param userId The id of the user.
+   * @return The number of attempts.
+   */
+  long countByUserId(Long userId);
+
+  /**
+   * Fetches summaries of every attempt of a user, in an order.
+   *
+   * @param userId The id of the user.
+   * @param sort The order of the summaries.
+   * @return The summaries.
+   */
+  @Query(SUMMARY_SELECT + " WHERE a.user.id = :userId")
+  List<QuizAttemptSummaryDTO> findSummariesByUserId(@Param("userId") Long userId, Sort sort);
+
+  /**
+   * Streams every attempt on the quizzes of an author as export rows, without loading the attempts
+   * or their users. Rows are fetched {@value #STREAM_FETCH_SIZE} at a time, so a stream can be read
+   * through in constant memory. The question count of attempts stored before it was recorded is
+   * counted from their question attempt rows, as in the summaries. Must be called in a transaction,
+   * and the stream must be closed.
+   *
+   * @param authorId The id of the author.
+   * @return The rows, lowest id first.
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+  @Query(
+      "SELECT new com.idatt2105.backend.dto.QuizAttemptExportDTO(a.id, a.quizId, a.title,"
+          + " a.user.id, a.score, a.maxScore, a.attemptTime,"
+          + " COALESCE(a.questionCount, SIZE(a.questionAttempts)))"
+          + " FROM QuizAttempt a WHERE a.quizId IN"
+          + " (SELECT q.id FROM Quiz q WHERE q.authorId = :authorId) ORDER BY a.id")
+  Stream<QuizAttemptExportDTO> streamExportsByQuizAuthorId(@Param("authorId") Long authorId);
+
+  /**
+   * Finds an attempt together with its question attempts.
+   *
+   * @param id The id of the attempt.
+   * @return The attempt, if it exists.
+   */
+  @EntityGraph(attributePaths = "questionAttempts")
+  Optional<QuizAttempt> findWithQuestionAttemptsById(Long id);
+
+  /**
+   * Finds a number of attempts together with their question attempts.
+   *
+   * @param ids The ids of the attempts.
+   * @return The attempts that exist, in no particular order.
+   */
+  @EntityGraph(attributePaths = "questionAttempts")
+  List<QuizAttempt> findWithQuestionAttemptsByIdIn(Collection<Long> ids);
+
+  /**
+   * Finds the ids of attempts whose question attempts are stored in rows of their own, rather than
+   * in the compact format.
+   *
+   * @param pageable The page of ids to find.
+   * @return The ids, lowest first.
+   */
+  @Query("SELECT a.id FROM QuizAttempt a WHERE a.answers IS NULL ORDER BY a.id")
+  List<Long> findIdsWithoutAnswers(Pageable pageable);
+
+  /**
+   * Finds the ids of attempts made before a point in time.
+   *
+   * @param cutoff The point in time, exclusive.
+   * @param pageable The page of ids to find.
+   * @return The ids, lowest first.
+   */
+  @Query("SELECT a.id FROM QuizAttempt a WHERE a.attemptTime < :cutoff ORDER BY a.id")
+  List<Long> findIdsAttemptedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+  /**
+   * Finds the ids of the attempts of a quiz after an id, so that the attempts can be read in
+   * batches.
+   *
+   * @param quizId The id of the quiz.
+   * @param afterId The id to start after, exclusive.
+   * @param pageable The number of ids to find.
+   * @return The ids, lowest first.
+   */
+  @Query(
+      "SELECT a.id FROM QuizAttempt a WHERE a.quizId = :quizId AND a.id > :afterId ORDER BY a.id")
+  List<Long> findIdsByQuizIdAfter(
+      @Param("quizId") Long quizId, @Param("afterId") long afterId, Pageable pageable);
+
+  /**
+   * Counts how many of a number of attempts exist.
+   *
+   * @param ids The ids of the attempts.
+   * @return The number of attempts that exist.
+   */
+  long countByIdIn(Collection<Long> ids);
+
+  /**
+   * Fetches which public quizzes were attempted when, for the attempts in a time window.
+   *
+   * @param from The start of the window, inclusive.
+   * @param to The end of the window, exclusive.
+   * @return The quiz id and time of each attempt.
+   */
+  @Query(
+      "SELECT a.quizId AS quizId, a.attemptTime AS attemptTime FROM QuizAttempt a"
+          + " JOIN Quiz q ON q.id = a.quizId"
+          + " WHERE q.isPublic = true AND a.attemptTime >= :from AND a.attemptTime < :to")
+  List<AttemptActivity> findPublicActivityBetween(
+      @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+  /**
+   * Counts the attempts of a quiz that could be given a score. Attempts stored before their maximum
+   * score was recorded are counted as well.
+   *
+   * @param quizId The id of the quiz.
+   * @return The number of attempts.
+   */
+  @Query(
+      "SELECT COUNT(a) FROM QuizAttempt a"
+          + " WHERE a.quizId = :quizId AND (a.maxScore IS NULL OR a.maxScore > 0)")
+  long countScoredByQuizId(@Param("quizId") Long quizId);
+
+  /**
+   * Counts how many attempts of a quiz were given each score. There are rarely more distinct scores
+   * than points in the quiz, so the statistics of a quiz can be rebuilt from a handful of rows.
+   *
+   * @param quizId The id of the quiz.
+   * @return The number of attempts with each score and maximum score.
+   */
+  @Query(
+      "SELECT a.score AS score, a.maxScore AS maxScore, COUNT(a) AS attempts FROM QuizAttempt a"
+          + " WHERE a.quizId = :quizId GROUP BY a.score, a.maxScore")
+  List<ScoreCount> countScoresByQuizId(@Param("quizId") Long quizId);
+
+  /**
+   * Fetches the score of every attempt of a quiz, without loading the attempts.
+   *
+   * @param quizId The id of the quiz.
+   * @return The id, user, score and time of each attempt.
+   */
+  @Query(
+      "SELECT a.id AS id, a.user.id AS userId, a.score AS score, a.attemptTime AS attemptTime"
+          + " FROM QuizAttempt a WHERE a.quizId = :quizId")
+  List<AttemptScore> findScoresByQuizId(@Param("quizId") Long quizId);
+
+  /** The score a user was given for an attempt. */
+  interface AttemptScore {
+    Long getId();
+
+    Long getUserId();
+
+    int getScore();
+
+    LocalDateTime getAttemptTime();
+  }
+
+  /** The number of attempts given a score. */
+  interface ScoreCount {
+    int getScore();
+
+    Integer getMaxScore();
+
+    long getAttempts();
+  }
+
+  /** The quiz and time of an attempt. */
+  interface AttemptActivity {
+    Long getQuizId();
+
+    LocalDateTime getAttemptTime();
+  }
 }
@@ -0,0 +1,38 @@
+package com.idatt2105.backend.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Sort;
+
+import com.idatt2105.backend.dto.QuizAttemptSummaryDTO;
+
+/**
+ * Reads the attempts of a user relative to a summary in a sort, by comparing the sorted columns
+ * with those of the summary instead of counting rows from the start of the sort.
+ */
+public interface QuizAttemptSummaryRepository {
+  /**
+   * Counts the attempts of a user ordered before a summary.
+   *
+   * @param userId The id of the user.
+   * @param sort The order of the attempts, by the columns of a summary and ending with the id.
+   * @param key The summary, which need not be of an attempt in the database.
+   * @throws IllegalArgumentException If the sort is by anything else.
+   * @return The number of attempts.
+   */
+  long countSummariesBefore(Long userId, Sort sort, QuizAttemptSummaryDTO key);
+
+  /**
+   * Fetches summaries of the attempts of a user ordered after a summary.
+   *
+   * @param userId The id of the user.
+   * @param sort The order of the attempts, by the columns of a summary and ending with the id.
+   * @param key The summary, or null to start from the first attempt.
+   * @param skip The number of attempts after the summary to skip.
+   * @param limit The largest number of summaries to fetch.
+   * @throws IllegalArgumentException If the sort is by anything else.
+   * @return The summaries, in the order of the sort.
+   */
+  List<QuizAttemptSummaryDTO> findSummariesAfter(
+      Long userId, Sort sort, QuizAttemptSummaryDTO key, long skip, int limit);
+}
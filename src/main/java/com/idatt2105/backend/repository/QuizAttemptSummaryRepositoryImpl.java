@@ -0,0 +1,233 @@
+package com.idatt2105.backend.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.data.domain.Sort;
+
+import com.idatt2105.backend.dto.QuizAttemptSummaryDTO;
+import com.idatt2105.backend.model.QuestionAttempt;
+import com.idatt2105.backend.model.QuizAttempt;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Compares the sorted columns of attempts with those of a summary, column by column, so that the
+ * database finds the attempts before or after it without reading the attempts that precede them in
+ * the sort. Null values are ordered as the database orders them, first in ascending order unless
+ * the sort says otherwise.
+ */
+class QuizAttemptSummaryRepositoryImpl implements QuizAttemptSummaryRepository {
+  private final EntityManager entityManager;
+  private final HibernateCriteriaBuilder criteriaBuilder;
+
+  QuizAttemptSummaryRepositoryImpl(
+      EntityManager entityManager, EntityManagerFactory entityManagerFactory) {
+    this.entityManager = entityManager;
+    this.criteriaBuilder = entityManagerFactory.unwrap(SessionFactory.class).getCriteriaBuilder();
+  }
+
+  @Override
+  public long countSummariesBefore(Long userId, Sort sort, QuizAttemptSummaryDTO key) {
+    CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+    Root<QuizAttempt> attempt = query.from(QuizAttempt.class);
+    List<SortColumn> columns = columns(attempt, sort, key, false);
+    query.select(criteriaBuilder.count(attempt)).where(ofUser(attempt, userId), beyond(columns));
+    return entityManager.createQuery(query).getSingleResult();
+  }
+
+  @Override
+  public List<QuizAttemptSummaryDTO> findSummariesAfter(
+      Long userId, Sort sort, QuizAttemptSummaryDTO key, long skip, int limit) {
+    CriteriaQuery<QuizAttemptSummaryDTO> query =
+        criteriaBuilder.createQuery(QuizAttemptSummaryDTO.class);
+    Root<QuizAttempt> attempt = query.from(QuizAttempt.class);
+    List<SortColumn> columns = columns(attempt, sort, key, true);
+    query
+        .select(
+            criteriaBuilder.construct(
+                QuizAttemptSummaryDTO.class,
+                attempt.get("id"),
+                attempt.get("quizId"),
+                attempt.get("title"),
+                attempt.get("score"),
+                attempt.get("maxScore"),
+                attempt.get("attemptTime"),
+                questionCount(attempt)))
+        .where(
+            key == null
+                ? ofUser(attempt, userId)
+                : criteriaBuilder.and(ofUser(attempt, userId), beyond(columns)))
+        .orderBy(columns.stream().map(SortColumn::order).toList());
+    return entityManager
+        .createQuery(query)
+        .setFirstResult(Math.toIntExact(skip))
+        .setMaxResults(limit)
+        .getResultList();
+  }
+
+  private Predicate ofUser(Root<QuizAttempt> attempt, Long userId) {
+    return criteriaBuilder.equal(attempt.get("user").get("id"), userId);
+  }
+
+  /**
+   * Builds the condition for attempts ordered beyond the summary: those equal to it in the first
+   * columns and beyond it in the next.
+   *
+   * @param columns The sorted columns, compared with the summary.
+   * @return The condition.
+   */
+  private Predicate beyond(List<SortColumn> columns) {
+    List<Predicate> alternatives = new ArrayList<>();
+    List<Predicate> equal = new ArrayList<>();
+    for (SortColumn column : columns) {
+      List<Predicate> alternative = new ArrayList<>(equal);
+      alternative.add(column.beyond());
+      alternatives.add(criteriaBuilder.and(alternative.toArray(Predicate[]::new)));
+      equal.add(column.equal());
+    }
+    return criteriaBuilder.or(alternatives.toArray(Predicate[]::new));
+  }
+
+  /**
+   * Maps the orders of a sort to the columns of an attempt.
+   *
+   * @param attempt The attempt.
+   * @param sort The sort, by the columns of a summary.
+   * @param key The summary to compare with, or null to only order the columns.
+   * @param after Whether attempts after the summary are sought, rather than those before it.
+   * @throws IllegalArgumentException If the sort is by anything else.
+   * @return The columns.
+   */
+  private List<SortColumn> columns(
+      Root<QuizAttempt> attempt, Sort sort, QuizAttemptSummaryDTO key, boolean after) {
+    List<SortColumn> columns = new ArrayList<>();
+    for (Sort.Order order : sort) {
+      columns.add(
+          switch (order.getProperty()) {
+            case "id" ->
+                column(attempt.<Long>get("id"), QuizAttemptSummaryDTO::getId, order, key, after);
+            case "quizId" ->
+                column(
+                    attempt.<Long>get("quizId"),
+                    QuizAttemptSummaryDTO::getQuizId,
+                    order,
+                    key,
+                    after);
+            case "score" ->
+                column(
+                    attempt.<Integer>get("score"),
+                    QuizAttemptSummaryDTO::getScore,
+                    order,
+                    key,
+                    after);
+            case "maxScore" ->
+                column(
+                    attempt.<Integer>get("maxScore"),
+                    QuizAttemptSummaryDTO::getMaxScore,
+                    order,
+                    key,
+                    after);
+            case "attemptTime" ->
+                column(
+                    attempt.get("attemptTime"),
+                    QuizAttemptSummaryDTO::getAttemptTime,
+                    order,
+                    key,
+                    after);
+            case "questionCount" ->
+                column(
+                    questionCount(attempt),
+                    QuizAttemptSummaryDTO::getQuestionCount,
+                    order,
+                    key,
+                    after);
+            default ->
+                throw new IllegalArgumentException(
+                    "Attempts cannot be sorted by " + order.getProperty());
+          });
+    }
+    return columns;
+  }
+
+  /**
+   * Orders a column, and compares it with the value of the summary.
+   *
+   * @param column The column.
+   * @param property Reads the value of the column from the summary.
+   * @param order The order of the column.
+   * @param key The summary, or null to only order the column.
+   * @param after Whether values after that of the summary are sought, rather than those before it.
+   * @return The column.
+   */
+  private <Y extends Comparable<? super Y>> SortColumn column(
+      Expression<Y> column,
+      Function<QuizAttemptSummaryDTO, Y> property,
+      Sort.Order order,
+      QuizAttemptSummaryDTO key,
+      boolean after) {
+    boolean nullsFirst =
+        order.getNullHandling() == Sort.NullHandling.NATIVE
+            ? order.isAscending()
+            : order.getNullHandling() == Sort.NullHandling.NULLS_FIRST;
+    Order sorted;
+    if (order.getNullHandling() == Sort.NullHandling.NATIVE) {
+      sorted = order.isAscending() ? criteriaBuilder.asc(column) : criteriaBuilder.desc(column);
+    } else {
+      sorted =
+          order.isAscending()
+              ? criteriaBuilder.asc(column, nullsFirst)
+              : criteriaBuilder.desc(column, nullsFirst);
+    }
+    if (key == null) {
+      return new SortColumn(sorted, null, null);
+    }
+
+    Y value = property.apply(key);
+    if (value == null) {
+      // Values are beyond a null on the side of the order that nulls are not on
+      Predicate beyond =
+          nullsFirst == after ? criteriaBuilder.isNotNull(column) : criteriaBuilder.disjunction();
+      return new SortColumn(sorted, beyond, criteriaBuilder.isNull(column));
+    }
+    Predicate compared =
+        order.isAscending() == after
+            ? criteriaBuilder.greaterThan(column, value)
+            : criteriaBuilder.lessThan(column, value);
+    // Nulls are beyond every value on the side of the order that they are on
+    Predicate beyond =
+        nullsFirst != after
+            ? criteriaBuilder.or(compared, criteriaBuilder.isNull(column))
+            : compared;
+    return new SortColumn(sorted, beyond, criteriaBuilder.equal(column, value));
+  }
+
+  /**
+   * The question count of an attempt, counted from its question attempt rows if it was stored
+   * before the count was recorded, as in {@link QuizAttemptRepository#SUMMARY_SELECT}.
+   */
+  private Expression<Integer> questionCount(Root<QuizAttempt> attempt) {
+    return criteriaBuilder.coalesce(
+        attempt.<Integer>get("questionCount"),
+        criteriaBuilder.size(attempt.<Set<QuestionAttempt>>get("questionAttempts")));
+  }
+
+  /**
+   * A sorted column.
+   *
+   * @param order The order of the column.
+   * @param beyond The condition for values beyond that of the summary, or null without one.
+   * @param equal The condition for values equal to that of the summary, or null without one.
+   */
+  private record SortColumn(Order order, Predicate beyond, Predicate equal) {}
+}
@@ -0,0 +1,17 @@
+package com.idatt2105.backend.repository;
+
+import java.time.LocalDateTime;
+
+/** Records changes to the content of quizzes, which their ETags are derived from. */
+public interface QuizModificationRepository {
+  /**
+   * Records that the content of a quiz has changed, by incrementing its content version in the
+   * database. Every change to a quiz, its questions or their alternatives goes through here, so no
+   * two contents ever share a version.
+   *
+   * @param id The id of the quiz.
+   * @param modified The time of the change.
+   * @return The number of quizzes updated.
+   */
+  int markModified(Long id, LocalDateTime modified);
+}
@@ -0,0 +1,51 @@
+package com.idatt2105.backend.repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import org.hibernate.SessionFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.idatt2105.backend.model.Quiz;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Increments content versions with a single statement in the database, so that concurrent changes
+ * never read and write back the same version. The statement bypasses Hibernate, which would evict
+ * every cached quiz on a bulk update, so only the changed quiz is evicted, once the change is
+ * committed.
+ */
+class QuizModificationRepositoryImpl implements QuizModificationRepository {
+  private static final String MARK_MODIFIED =
+      "UPDATE quizzes SET content_version = content_version + 1, last_modified_date = ?"
+          + " WHERE id = ?";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final SessionFactory sessionFactory;
+
+  QuizModificationRepositoryImpl(
+      JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+  }
+
+  @Override
+  public int markModified(Long id, LocalDateTime modified) {
+    int updated = jdbcTemplate.update(MARK_MODIFIED, Timestamp.valueOf(modified), id);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              sessionFactory.getCache().evictEntityData(Quiz.class, id);
+            }
+          });
+    } else {
+      sessionFactory.getCache().evictEntityData(Quiz.class, id);
+    }
+    return updated;
+  }
+}
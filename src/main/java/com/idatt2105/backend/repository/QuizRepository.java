@@ -1,24 +1,267 @@
 package com.idatt2105.backend.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.idatt2105.backend.dto.QuizSummaryDTO;
+import com.idatt2105.backend.dto.QuizVersionDTO;
 import com.idatt2105.backend.model.Category;
 import com.idatt2105.backend.model.Quiz;
-import com.idatt2105.backend.model.Tag;
 
 /** Repository for Quiz entities. */
 @Repository
-public interface QuizRepository extends JpaRepository<Quiz, Long> {
+public interface QuizRepository extends JpaRepository<Quiz, Long>, QuizModificationRepository {
+  /** Selects the columns of a {@link QuizSummaryDTO}, joining the category and author. */
+  String SUMMARY_SELECT =
+      "SELECT new com.idatt2105.backend.dto.QuizSummaryDTO(q.id, q.title, q.description,"
+          + " q.quizPictureUrl, c.name, q.authorId, a.username, q.creationDate,"
+          + " SIZE(q.questions), SIZE(q.users))"
+          + " FROM Quiz q LEFT JOIN q.category c LEFT JOIN User a ON a.id = q.authorId";
+
+  /** Restricts a query on quizzes to those that have all of {@code :tagNames}. */
+  String HAS_ALL_TAGS =
+      " q.id IN (SELECT tq.id FROM Quiz tq JOIN tq.tags t WHERE t.tagName IN :tagNames"
+          + " GROUP BY tq.id HAVING COUNT(DISTINCT t.id) = :tagCount)";
+
+  /**
+   * Restricts a query on quizzes to the public ones matching a combined filter. Each tag part only
+   * applies when its count is positive, and the category only when it is not null.
+   */
+  String MATCHES_FILTER =
+      " q.isPublic = true"
+          + " AND (:category IS NULL OR q.category IN"
+          + " (SELECT fc FROM Category fc WHERE fc.name = :category))"
+          + " AND (:allTagCount = 0 OR q.id IN (SELECT tq.id FROM Quiz tq JOIN tq.tags t"
+          + " WHERE t.tagName IN :allTags GROUP BY tq.id HAVING COUNT(DISTINCT t.id) = :allTagCount))"
+          + " AND (:anyTagCount = 0 OR q.id IN (SELECT tq.id FROM Quiz tq JOIN tq.tags t"
+          + " WHERE t.tagName IN :anyTags))"
+          + " AND (:noneTagCount = 0 OR q.id NOT IN (SELECT tq.id FROM Quiz tq JOIN tq.tags t"
+          + " WHERE t.tagName IN :noneTags))";
+
   Optional<Quiz> findByTitleAndIsPublicIsTrue(String title);
 
-  Page<Quiz> findByTagsContainsAndIsPublicIsTrue(Tag tag, Pageable pageable);
+  /**
+   * Finds a quiz together with its category, tags and users.
+   *
+   * @param id The id of the quiz.
+   * @return The quiz, if it exists.
+   */
+  @EntityGraph(Quiz.DETAILS_GRAPH)
+  Optional<Quiz> findWithDetailsById(Long id);
+
+  /**
+   * Fetches the ids of every quiz.
+   *
+   * @return The ids of the quizzes.
+   */
+  @Query("SELECT q.id FROM Quiz q")
+  List<Long> findAllIds();
+
+  /**
+   * Fetches the ids of the quizzes of an author.
+   *
+   * @param authorId The id of the author.
+   * @return The ids of the quizzes.
+   */
+  @Query("SELECT q.id FROM Quiz q WHERE q.authorId = :authorId")
+  List<Long> findIdsByAuthorId(@Param("authorId") Long authorId);
+
+  /**
+   * Fetches the version of a quiz without loading the quiz.
+   *
+   * @param id The id of the quiz.
+   * @return The version, if the quiz exists.
+   */
+  @Query(
+      "SELECT new com.idatt2105.backend.dto.QuizVersionDTO(q.id, q.contentVersion,"
+          + " COALESCE(q.lastModifiedDate, q.creationDate), q.isPublic) FROM Quiz q WHERE q.id = :id")
+  Optional<QuizVersionDTO> findVersionById(@Param("id") Long id);
+
+  /**
+   * Fetches a page of public quiz summaries.
+   *
+   * @param pageable Pageable object to control pagination.
+   * @return Page of quiz summaries, without tag names.
+   */
+  @Query(
+      value = SUMMARY_SELECT + " WHERE q.isPublic = true",
+      countQuery = "SELECT COUNT(q) FROM Quiz q WHERE q.isPublic = true")
+  Page<QuizSummaryDTO> findPublicSummaries(Pageable pageable);
+
+  /**
+   * Fetches a page of summaries of the public quizzes that have a tag.
+   *
+   * @param tagName The name of the tag.
+   * @param pageable Pageable object to control pagination.
+   * @return Page of quiz summaries, without tag names.
+   */
+  @Query(
+      value =
+          SUMMARY_SELECT
+              + " WHERE q.isPublic = true AND q.id IN"
+              + " (SELECT tq.id FROM Quiz tq JOIN tq.tags t WHERE t.tagName = :tagName)",
+      countQuery =
+          "SELECT COUNT(q) FROM Quiz q WHERE q.isPublic = true AND q.id IN"
+              + " (SELECT tq.id FROM Quiz tq JOIN tq.tags t WHERE t.tagName = :tagName)")
+  Page<QuizSummaryDTO> findPublicSummariesByTagName(
+      @Param("tagName") String tagName, Pageable pageable);
+
+  /**
+   * Fetches a page of summaries of the public quizzes in a category.
+   *
+   * @param category The category.
+   * @param pageable Pageable object to control pagination.
+   * @return Page of quiz summaries, without tag names.
+   */
+  @Query(
+      value = SUMMARY_SELECT + " WHERE q.isPublic = true AND q.category = :category",
+      countQuery = "SELECT COUNT(q) FROM Quiz q WHERE q.isPublic = true AND q.category = :category")
+  Page<QuizSummaryDTO> findPublicSummariesByCategory(
+      @Param("category") Category category, Pageable pageable);
+
+  /**
+   * Fetches summaries of the newest public quizzes. This is the first slice of the keyset-paginated
+   * catalog.
+   *
+   * @param limit The maximum number of quizzes to fetch.
+   * @return Summaries of the newest public quizzes, ordered by creation date and id descending,
+   *     with quizzes without a creation date last.
+   */
+  @Query(
+      SUMMARY_SELECT
+          + " WHERE q.isPublic = true ORDER BY q.creationDate DESC NULLS LAST, q.id DESC")
+  List<QuizSummaryDTO> findNewestPublicSummaries(Limit limit);
+
+  /**
+   * Fetches summaries of the public quizzes that come after the given position in the catalog. The
+   * position is compared against the sort key directly, so the database seeks to it instead of
+   * skipping rows. Quizzes without a creation date follow all the dated ones.
+   *
+   * @param creationDate Creation date of the last quiz on the previous slice.
+   * @param id Id of the last quiz on the previous slice.
+   * @param limit The maximum number of quizzes to fetch.
+   * @return Summaries of the following public quizzes, ordered by creation date and id descending.
+   */
+  @Query(
+      SUMMARY_SELECT
+          + " WHERE q.isPublic = true AND (q.creationDate < :creationDate"
+          + " OR (q.creationDate = :creationDate AND q.id < :id) OR q.creationDate IS NULL)"
+          + " ORDER BY q.creationDate DESC NULLS LAST, q.id DESC")
+  List<QuizSummaryDTO> findPublicSummariesAfter(
+      @Param("creationDate") LocalDateTime creationDate, @Param("id") Long id, Limit limit);
+
+  /**
+   * Fetches summaries of the public quizzes without a creation date that come after the given one
+   * in the catalog. These end the catalog, so this seeks within them by id alone.
+   *
+   * @param id Id of the last quiz on the previous slice, which had no creation date.
+   * @param limit The maximum number of quizzes to fetch.
+   * @return Summaries of the following public quizzes without a creation date, ordered by id
+   *     descending.
+   */
+  @Query(
+      SUMMARY_SELECT
+          + " WHERE q.isPublic = true AND q.creationDate IS NULL AND q.id < :id"
+          + " ORDER BY q.id DESC")
+  List<QuizSummaryDTO> findUndatedPublicSummariesAfter(@Param("id") Long id, Limit limit);
+
+  /**
+   * Fetches summaries of the public quizzes that have every one of the given tags, and possibly
+   * more. The intersection is computed by the database in a single grouped query on the quiz-tag
+   * join table, so paging and the total are applied to the final result.
+   *
+   * @param tagNames The distinct names of the tags that must all be present.
+   * @param tagCount The number of distinct names in {@code tagNames}.
+   * @param pageable Pageable object to control pagination.
+   * @return Page of quiz summaries, without tag names.
+   */
+  @Query(
+      value = SUMMARY_SELECT + " WHERE q.isPublic = true AND" + HAS_ALL_TAGS,
+      countQuery = "SELECT COUNT(q) FROM Quiz q WHERE q.isPublic = true AND" + HAS_ALL_TAGS)
+  Page<QuizSummaryDTO> findPublicSummariesWithAllTags(
+      @Param("tagNames") Collection<String> tagNames,
+      @Param("tagCount") long tagCount,
+      Pageable pageable);
+
+  /**
+   * Fetches summaries of the public quizzes matching a combined tag and category filter, ordered by
+   * id. This answers the filter when the in-memory filter index cannot.
+   *
+   * @param category The name of the category, or null for any category.
+   * @param allTags The distinct names of the tags that must all be present.
+   * @param anyTags The names of the tags of which at least one must be present.
+   * @param noneTags The names of the tags that must not be present.
+   * @param allTagCount The number of names in {@code allTags}.
+   * @param anyTagCount The number of names in {@code anyTags}.
+   * @param noneTagCount The number of names in {@code noneTags}.
+   * @param pageable Pageable object to control pagination.
+   * @return Page of quiz summaries, without tag names.
+   */
+  @Query(
+      value = SUMMARY_SELECT + " WHERE" + MATCHES_FILTER + " ORDER BY q.id",
+      countQuery = "SELECT COUNT(q) FROM Quiz q WHERE" + MATCHES_FILTER)
+  Page<QuizSummaryDTO> findPublicSummariesMatching(
+      @Param("category") String category,
+      @Param("allTags") Collection<String> allTags,
+      @Param("anyTags") Collection<String> anyTags,
+      @Param("noneTags") Collection<String> noneTags,
+      @Param("allTagCount") long allTagCount,
+      @Param("anyTagCount") long anyTagCount,
+      @Param("noneTagCount") long noneTagCount,
+      Pageable pageable);
+
+  /**
+   * Fetches summaries of the quizzes with the given ids, in no particular order.
+   *
+   * @param ids The ids of the quizzes.
+   * @return Quiz summaries, without tag names.
+   */
+  @Query(SUMMARY_SELECT + " WHERE q.id IN :ids")
+  List<QuizSummaryDTO> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+  /**
+   * Fetches summaries of the public quizzes among the given ids, in no particular order.
+   *
+   * @param ids The ids of the quizzes.
+   * @return Quiz summaries, without tag names.
+   */
+  @Query(SUMMARY_SELECT + " WHERE q.id IN :ids AND q.isPublic = true")
+  List<QuizSummaryDTO> findPublicSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+  /**
+   * Fetches the tag names of several quizzes in one query.
+   *
+   * @param quizIds The ids of the quizzes.
+   * @return One row per quiz and tag.
+   */
+  @Query("SELECT q.id AS quizId, t.tagName AS tagName FROM Quiz q JOIN q.tags t WHERE q.id IN :ids")
+  List<QuizTagName> findTagNamesByQuizIdIn(@Param("ids") Collection<Long> quizIds);
+
+  /**
+   * Fetches every public quiz together with its tags and category, for building in-memory indexes.
+   *
+   * @return All public quizzes.
+   */
+  @Query(
+      "SELECT DISTINCT q FROM Quiz q LEFT JOIN FETCH q.tags LEFT JOIN FETCH q.category"
+          + " WHERE q.isPublic = true")
+  List<Quiz> findAllPublicWithTags();
 
-  Page<Quiz> findByCategoryAndIsPublicIsTrue(Category category, Pageable pageable);
+  /** The name of a tag on a quiz. */
+  interface QuizTagName {
+    Long getQuizId();
 
-  Page<Quiz> findByIsPublicIsTrue(Pageable pageable);
+    String getTagName();
+  }
 }
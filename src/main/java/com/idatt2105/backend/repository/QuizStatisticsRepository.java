@@ -0,0 +1,8 @@
+package com.idatt2105.backend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.idatt2105.backend.model.QuizStatistics;
+
+/** Repository for the QuizStatistics entity. */
+public interface QuizStatisticsRepository extends JpaRepository<QuizStatistics, Long> {}
@@ -1,14 +1,41 @@
 package com.idatt2105.backend.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.idatt2105.backend.model.Tag;
 
+import jakarta.persistence.QueryHint;
+
 /** Repository for the Tag entity. */
 public interface TagRepository extends JpaRepository<Tag, Long> {
+  String QUERY_CACHE_REGION = "tag-queries";
+
   boolean existsByTagName(String tagName);
 
+  /**
+   * Finds a tag by name. Results are kept in the query cache until a tag is written, so tags
+   * inserted without Hibernate must evict {@link #QUERY_CACHE_REGION}.
+   *
+   * @param tagName The name of the tag.
+   * @return The tag, if it exists.
+   */
+  @QueryHints({
+    @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+    @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+  })
   Optional<Tag> findByTagName(String tagName);
+
+  /**
+   * Finds the tags with any of the given names.
+   *
+   * @param tagNames The names of the tags.
+   * @return The tags that exist.
+   */
+  List<Tag> findByTagNameIn(Collection<String> tagNames);
 }
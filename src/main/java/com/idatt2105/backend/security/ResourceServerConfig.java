@@ -80,6 +80,8 @@ public class ResourceServerConfig {
                   .permitAll()
                   .requestMatchers(HttpMethod.GET, quizApiPath + "/users/*")
                   .permitAll()
+                  .requestMatchers(HttpMethod.GET, quizApiPath + "/*/bundle")
+                  .permitAll()
                   .requestMatchers(HttpMethod.GET, quizApiPath + "/all/tags")
                   .permitAll()
                   .requestMatchers(HttpMethod.GET, commentApiPath)
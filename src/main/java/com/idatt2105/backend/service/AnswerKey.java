@@ -0,0 +1,213 @@
+package com.idatt2105.backend.service;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.idatt2105.backend.model.Question;
+import com.idatt2105.backend.model.TrueOrFalseQuestion;
+import com.idatt2105.backend.repository.AlternativeRepository.AlternativeRow;
+
+/**
+ * The correct answers to one version of a quiz, compiled into primitive arrays so that a submission
+ * can be graded without loading any entities. Questions are stored in order of id, and the
+ * alternatives of each multiple choice question in one contiguous, id-ordered range of the
+ * alternative arrays, so both are found by binary search.
+ *
+ * <p>An answer key is immutable and may be shared between threads.
+ */
+public final class AnswerKey {
+  private final long quizId;
+  private final long contentVersion;
+
+  private final long[] questionIds;
+  private final int[] points;
+  private final boolean[] trueOrFalse;
+  // The correct answer of each true or false question, false for multiple choice questions
+  private final boolean[] correctAnswers;
+
+  // The alternatives of question i are at indices alternativeStart[i] until alternativeStart[i + 1]
+  private final int[] alternativeStart;
+  private final long[] alternativeIds;
+  private final boolean[] alternativeCorrect;
+  private final int[] correctAlternativeCounts;
+
+  private AnswerKey(
+      long quizId,
+      long contentVersion,
+      long[] questionIds,
+      int[] points,
+      boolean[] trueOrFalse,
+      boolean[] correctAnswers,
+      int[] alternativeStart,
+      long[] alternativeIds,
+      boolean[] alternativeCorrect,
+      int[] correctAlternativeCounts) {
+    this.quizId = quizId;
+    this.contentVersion = contentVersion;
+    this.questionIds = questionIds;
+    this.points = points;
+    this.trueOrFalse = trueOrFalse;
+    this.correctAnswers = correctAnswers;
+    this.alternativeStart = alternativeStart;
+    this.alternativeIds = alternativeIds;
+    this.alternativeCorrect = alternativeCorrect;
+    this.correctAlternativeCounts = correctAlternativeCounts;
+  }
+
+  /**
+   * Compiles the answer key of a quiz.
+   *
+   * @param quizId The id of the quiz.
+   * @param contentVersion The version of the quiz the questions and alternatives were read at.
+   * @param questions The questions of the quiz, ordered by id.
+   * @param alternatives The alternatives of the multiple choice questions, ordered by question id
+   *     and id, as read by {@link
+   *     com.idatt2105.backend.repository.AlternativeRepository#findRowsByQuizId(Long)}.
+   * @return The answer key.
+   */
+  public static AnswerKey compile(
+      long quizId,
+      long contentVersion,
+      List<? extends Question> questions,
+      List<? extends AlternativeRow> alternatives) {
+    int questionCount = questions.size();
+    long[] questionIds = new long[questionCount];
+    int[] points = new int[questionCount];
+    boolean[] trueOrFalse = new boolean[questionCount];
+    boolean[] correctAnswers = new boolean[questionCount];
+    int[] alternativeStart = new int[questionCount + 1];
+    int[] correctAlternativeCounts = new int[questionCount];
+
+    long[] alternativeIds = new long[alternatives.size()];
+    boolean[] alternativeCorrect = new boolean[alternatives.size()];
+    int alternative = 0;
+    for (int i = 0; i < questionCount; i++) {
+      Question question = questions.get(i);
+      questionIds[i] = question.getId();
+      if (i > 0 && questionIds[i] <= questionIds[i - 1]) {
+        throw new IllegalArgumentException("Questions must be ordered by id.");
+      }
+      points[i] = question.getPoints();
+      if (question instanceof TrueOrFalseQuestion trueOrFalseQuestion) {
+        trueOrFalse[i] = true;
+        correctAnswers[i] = Boolean.TRUE.equals(trueOrFalseQuestion.getCorrectAnswer());
+      }
+
+      alternativeStart[i] = alternative;
+      while (alternative < alternatives.size()
+          && alternatives.get(alternative).getQuestionId() == questionIds[i]) {
+        AlternativeRow row = alternatives.get(alternative);
+        alternativeIds[alternative] = row.getId();
+        alternativeCorrect[alternative] = row.isCorrect();
+        if (row.isCorrect()) {
+          correctAlternativeCounts[i]++;
+        }
+        alternative++;
+      }
+    }
+    alternativeStart[questionCount] = alternative;
+    if (alternative != alternatives.size()) {
+      throw new IllegalArgumentException(
+          "Alternatives must belong to the questions and be ordered like them.");
+    }
+
+    return new AnswerKey(
+        quizId,
+        contentVersion,
+        questionIds,
+        points,
+        trueOrFalse,
+        correctAnswers,
+        alternativeStart,
+        alternativeIds,
+        alternativeCorrect,
+        correctAlternativeCounts);
+  }
+
+  public long getQuizId() {
+    return quizId;
+  }
+
+  public long getContentVersion() {
+    return contentVersion;
+  }
+
+  /**
+   * Gets the number of questions in the quiz.
+   *
+   * @return The number of questions.
+   */
+  public int questionCount() {
+    return questionIds.length;
+  }
+
+  /**
+   * Gets the number of alternatives of all multiple choice questions in the quiz.
+   *
+   * @return The number of alternatives.
+   */
+  public int alternativeCount() {
+    return alternativeIds.length;
+  }
+
+  /**
+   * Finds the index of a question.
+   *
+   * @param questionId The id of the question.
+   * @return The index of the question, or -1 if it is not part of the quiz.
+   */
+  public int indexOfQuestion(long questionId) {
+    int index = Arrays.binarySearch(questionIds, questionId);
+    return index < 0 ? -1 : index;
+  }
+
+  /**
+   * Finds the index of an alternative of a question.
+   *
+   * @param question The index of the question.
+   * @param alternativeId The id of the alternative.
+   * @return The index of the alternative, or -1 if it does not belong to the question.
+   */
+  public int indexOfAlternative(int question, long alternativeId) {
+    int index =
+        Arrays.binarySearch(
+            alternativeIds,
+            alternativeStart[question],
+            alternativeStart[question + 1],
+            alternativeId);
+    return index < 0 ? -1 : index;
+  }
+
+  public int points(int question) {
+    return points[question];
+  }
+
+  public boolean isTrueOrFalse(int question) {
+    return trueOrFalse[question];
+  }
+
+  public boolean correctAnswer(int question) {
+    return correctAnswers[question];
+  }
+
+  public boolean isCorrectAlternative(int alternative) {
+    return alternativeCorrect[alternative];
+  }
+
+  public int correctAlternativeCount(int question) {
+    return correctAlternativeCounts[question];
+  }
+
+  /**
+   * Gets the highest score an attempt can get.
+   *
+   * @return The sum of the points of all questions.
+   */
+  public int maxScore() {
+    int sum = 0;
+    for (int questionPoints : points) {
+      sum += questionPoints;
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,915 @@
+package com.idatt2105.backend.service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.idatt2105.backend.model.QuizAttempt;
+import com.idatt2105.backend.model.User;
+import com.idatt2105.backend.repository.QuizAttemptRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cold storage for old quiz attempts, in segment files outside the database. Attempts are moved
+ * here by the {@link AttemptArchiver}, and read back through the same services as attempts in the
+ * database.
+ *
+ * <p>Each segment holds one batch of archived attempts and is never changed once written. A segment
+ * is a header followed by one record per attempt: the columns of its row, then its question
+ * attempts in the {@link CompactAttemptFormat compact format}, which deflates them. The records are
+ * followed by the index of the segment, four tables of (key, record offset) pairs, and a trailer
+ * locating them. The tables are sorted by attempt id, by user id and then attempt id, by user id
+ * and then attempt time, and by quiz id. Segments are memory-mapped and their tables are
+ * binary-searched in the mapping, so opening a segment only reads its trailer, and reading an
+ * attempt copies only its own bytes. The two user tables let a page of the attempt history of a
+ * user be found without reading the attempts before it.
+ *
+ * <p>A batch is first written to a pending file, which is published once the attempts have been
+ * deleted from the database. A pending file left by a crash is published on startup if its attempts
+ * are gone from the database, and deleted if they are not, so an attempt is always in exactly one
+ * of the two. The number of archived attempts and segments is exposed as {@code attempts.archive.*}
+ * metrics.
+ */
+@Slf4j
+@Component
+public class AttemptArchive implements MeterBinder {
+  private static final int MAGIC = 0x51415347;
+  private static final int VERSION = 1;
+  private static final int HEADER_LENGTH = 5;
+  // Offset of the index, number of attempts, number of attempts with a quiz, magic
+  private static final int TRAILER_LENGTH = 16;
+  private static final int INDEX_ENTRY_LENGTH = 12;
+  private static final String SEGMENT_SUFFIX = ".segment";
+  private static final String PENDING_SUFFIX = ".pending";
+
+  private static final int HAS_QUIZ_ID = 1;
+  private static final int HAS_ATTEMPT_TIME = 2;
+  private static final int HAS_MAX_SCORE = 4;
+  private static final int HAS_TITLE = 8;
+
+  // Attempts without a time come first, as in MySQL
+  private static final Comparator<LocalDateTime> ATTEMPT_TIMES =
+      Comparator.nullsFirst(Comparator.naturalOrder());
+
+  private final QuizAttemptRepository quizAttemptRepository;
+  private final CompactAttemptFormat compactAttemptFormat;
+  private final Path directory;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final List<Segment> segments = new ArrayList<>();
+  private int size;
+  private long nextSegment = 1;
+
+  public AttemptArchive(
+      QuizAttemptRepository quizAttemptRepository,
+      CompactAttemptFormat compactAttemptFormat,
+      @Value("${quiz.attempts.archive.directory:attempt-archive}") Path directory) {
+    this.quizAttemptRepository = quizAttemptRepository;
+    this.compactAttemptFormat = compactAttemptFormat;
+    this.directory = directory;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("attempts.archive.attempts", this, AttemptArchive::size)
+        .description("Quiz attempts held in the archive")
+        .register(registry);
+    Gauge.builder("attempts.archive.segments", this, AttemptArchive::segmentCount)
+        .description("Segment files of the archive")
+        .register(registry);
+  }
+
+  /**
+   * Opens the segments in the archive directory, if it exists, and settles pending files left by a
+   * crash.
+   *
+   * @throws UncheckedIOException If the directory cannot be read.
+   * @throws IllegalStateException If a segment is damaged.
+   */
+  @PostConstruct
+  public void open() {
+    if (!Files.isDirectory(directory)) {
+      return;
+    }
+    List<Path> published = new ArrayList<>();
+    List<Path> pending = new ArrayList<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+      for (Path file : files) {
+        String name = file.getFileName().toString();
+        if (name.endsWith(SEGMENT_SUFFIX)) {
+          published.add(file);
+        } else if (name.endsWith(PENDING_SUFFIX)) {
+          pending.add(file);
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    published.sort(null);
+    for (Path segment : published) {
+      nextSegment = Math.max(nextSegment, segmentNumber(segment) + 1);
+      load(segment);
+    }
+    for (Path file : pending) {
+      nextSegment = Math.max(nextSegment, segmentNumber(file) + 1);
+      settle(file);
+    }
+    if (size > 0) {
+      log.info("Opened {} archived quiz attempts in {} segments", size, segments.size());
+    }
+  }
+
+  /**
+   * Gets the number of archived attempts.
+   *
+   * @return The number of attempts.
+   */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return size;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Gets the number of segments.
+   *
+   * @return The number of segments.
+   */
+  public int segmentCount() {
+    lock.readLock().lock();
+    try {
+      return segments.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Finds an archived attempt, with its question attempts in the compact format.
+   *
+   * @param id The id of the attempt.
+   * @throws IllegalStateException If the segment of the attempt is damaged.
+   * @return The attempt, with a user holding only its id, if it is archived.
+   */
+  public Optional<QuizAttempt> findById(Long id) {
+    for (Segment segment : segments()) {
+      int entry = lowerBound(segment.index, 0, segment.count, id);
+      if (entry < segment.count && key(segment.index, entry) == id) {
+        return Optional.of(readRecord(segment.data, offset(segment.index, entry), true));
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Finds the archived attempts of a user, without their question attempts.
+   *
+   * @param userId The id of the user.
+   * @throws IllegalStateException If a segment of the user is damaged.
+   * @return The attempts, with a user holding only its id, in no particular order.
+   */
+  public List<QuizAttempt> findByUserId(Long userId) {
+    List<QuizAttempt> quizAttempts = new ArrayList<>();
+    visit(false, userId, quizAttempts::add);
+    return quizAttempts;
+  }
+
+  /**
+   * Gets the archived attempts of a user in the order of their ids, or of their attempt times and
+   * then their ids, to be counted and read a page at a time.
+   *
+   * @param userId The id of the user.
+   * @param byAttemptTime Whether the attempts are ordered by attempt time, with no time first.
+   * @return The attempts of the user, in ascending order.
+   */
+  public UserHistory findHistoryByUserId(Long userId, boolean byAttemptTime) {
+    List<Segment> found = new ArrayList<>();
+    List<int[]> ranges = new ArrayList<>();
+    for (Segment segment : segments()) {
+      int table = byAttemptTime ? 2 * segment.count : segment.count;
+      int from = lowerBound(segment.index, table, table + segment.count, userId);
+      int to =
+          userId == Long.MAX_VALUE
+              ? table + segment.count
+              : lowerBound(segment.index, from, table + segment.count, userId + 1);
+      if (from < to) {
+        found.add(segment);
+        ranges.add(new int[] {from, to});
+      }
+    }
+    return new UserHistory(found, ranges, byAttemptTime);
+  }
+
+  /**
+   * Finds the archived attempts of a quiz, without their question attempts.
+   *
+   * @param quizId The id of the quiz.
+   * @throws IllegalStateException If a segment of the quiz is damaged.
+   * @return The attempts, with a user holding only its id, in no particular order.
+   */
+  public List<QuizAttempt> findByQuizId(Long quizId) {
+    List<QuizAttempt> quizAttempts = new ArrayList<>();
+    visit(true, quizId, quizAttempts::add);
+    return quizAttempts;
+  }
+
+  /**
+   * Reads the archived attempts of a quiz one at a time, without their question attempts, so that
+   * they can be gone through without holding them all.
+   *
+   * @param quizId The id of the quiz.
+   * @param visitor Given each attempt, with a user holding only its id, in no particular order.
+   * @throws IllegalStateException If a segment of the quiz is damaged.
+   */
+  public void forEachByQuizId(Long quizId, Consumer<QuizAttempt> visitor) {
+    forEachByQuizId(quizId, false, visitor);
+  }
+
+  /**
+   * Reads the archived attempts of a quiz one at a time, so that they can be gone through without
+   * holding them all.
+   *
+   * @param quizId The id of the quiz.
+   * @param withAnswers Whether to read the question attempts of each attempt as well.
+   * @param visitor Given each attempt, with a user holding only its id, in no particular order.
+   * @throws IllegalStateException If a segment of the quiz is damaged.
+   */
+  public void forEachByQuizId(Long quizId, boolean withAnswers, Consumer<QuizAttempt> visitor) {
+    visit(true, quizId, withAnswers, visitor);
+  }
+
+  /**
+   * Counts the archived attempts of a quiz that could be given a score, like {@link
+   * QuizAttemptRepository#countScoredByQuizId}.
+   *
+   * @param quizId The id of the quiz.
+   * @throws IllegalStateException If a segment of the quiz is damaged.
+   * @return The number of attempts.
+   */
+  public long countScoredByQuizId(Long quizId) {
+    long[] count = new long[1];
+    visit(
+        true,
+        quizId,
+        quizAttempt -> {
+          if (quizAttempt.getMaxScore() == null || quizAttempt.getMaxScore() > 0) {
+            count[0]++;
+          }
+        });
+    return count[0];
+  }
+
+  /**
+   * Writes attempts to a pending segment, which is not read until it is {@link #publish published}.
+   * Attempts stored in rows are encoded in the compact format.
+   *
+   * @param quizAttempts The attempts to archive, each with a user and an id.
+   * @throws IllegalArgumentException If an attempt has no id or user.
+   * @throws UncheckedIOException If the segment cannot be written.
+   * @return The pending segment.
+   */
+  public Path write(Collection<QuizAttempt> quizAttempts) {
+    Path pending;
+    lock.writeLock().lock();
+    try {
+      pending = directory.resolve(segmentName(nextSegment++) + PENDING_SUFFIX);
+    } finally {
+      lock.writeLock().unlock();
+    }
+    try {
+      Files.createDirectories(directory);
+      try (FileChannel channel =
+          FileChannel.open(pending, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+        DataOutputStream out =
+            new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+        out.writeInt(MAGIC);
+        out.write(VERSION);
+        RecordKeys keys = new RecordKeys(quizAttempts.size());
+        for (QuizAttempt quizAttempt : quizAttempts) {
+          keys.add(out.size(), quizAttempt);
+          writeRecord(out, quizAttempt);
+        }
+        int indexStart = out.size();
+        out.write(keys.index().array());
+        out.writeInt(indexStart);
+        out.writeInt(keys.count);
+        out.writeInt(keys.quizCount);
+        out.writeInt(MAGIC);
+        out.flush();
+        channel.force(true);
+      }
+    } catch (IOException e) {
+      discard(pending);
+      throw new UncheckedIOException(e);
+    } catch (RuntimeException e) {
+      discard(pending);
+      throw e;
+    }
+    return pending;
+  }
+
+  /**
+   * Publishes a pending segment, so that its attempts are read.
+   *
+   * @param pending The pending segment.
+   * @throws UncheckedIOException If the segment cannot be renamed or read.
+   */
+  public void publish(Path pending) {
+    String name = pending.getFileName().toString();
+    Path segment =
+        pending.resolveSibling(
+            name.substring(0, name.length() - PENDING_SUFFIX.length()) + SEGMENT_SUFFIX);
+    try {
+      Files.move(pending, segment, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    load(segment);
+  }
+
+  /**
+   * Deletes a pending segment whose attempts were not deleted from the database.
+   *
+   * @param pending The pending segment.
+   */
+  public void discard(Path pending) {
+    try {
+      Files.deleteIfExists(pending);
+    } catch (IOException e) {
+      log.warn("Could not delete pending archive segment {}", pending, e);
+    }
+  }
+
+  /**
+   * Publishes or deletes a pending segment whose transaction did not finish cleanly, depending on
+   * whether its attempts were deleted from the database.
+   *
+   * @param pending The pending segment.
+   */
+  public void settle(Path pending) {
+    List<Long> ids = new ArrayList<>();
+    try {
+      Segment segment = open(map(pending));
+      for (int entry = 0; entry < segment.count; entry++) {
+        ids.add(key(segment.index, entry));
+      }
+    } catch (RuntimeException e) {
+      // Written only partly, so its attempts were never deleted
+      log.warn("Deleting unreadable pending archive segment {}", pending, e);
+      discard(pending);
+      return;
+    }
+    if (!ids.isEmpty() && quizAttemptRepository.countByIdIn(ids) > 0) {
+      log.info("Deleting pending archive segment {}, its attempts are in the database", pending);
+      discard(pending);
+    } else {
+      log.info("Publishing pending archive segment {} of {} attempts", pending, ids.size());
+      publish(pending);
+    }
+  }
+
+  /**
+   * Maps a segment and adds it to those that are read.
+   *
+   * @param file The segment file.
+   */
+  private void load(Path file) {
+    Segment segment = open(map(file));
+    lock.writeLock().lock();
+    try {
+      segments.add(segment);
+      size += segment.count;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private List<Segment> segments() {
+    lock.readLock().lock();
+    try {
+      // Segments are never changed once loaded, so they are read without the lock
+      return List.copyOf(segments);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Reads the archived attempts of a user or a quiz one at a time, without their question attempts.
+   *
+   * @param byQuiz Whether the key is a quiz id rather than a user id.
+   * @param key The id of the user or quiz.
+   * @param visitor Given each attempt, in the order of the segments.
+   */
+  private void visit(boolean byQuiz, long key, Consumer<QuizAttempt> visitor) {
+    visit(byQuiz, key, false, visitor);
+  }
+
+  /**
+   * Reads the archived attempts of a user or a quiz one at a time.
+   *
+   * @param byQuiz Whether the key is a quiz id rather than a user id.
+   * @param key The id of the user or quiz.
+   * @param withAnswers Whether to read the question attempts of each attempt as well.
+   * @param visitor Given each attempt, in the order of the segments.
+   */
+  private void visit(boolean byQuiz, long key, boolean withAnswers, Consumer<QuizAttempt> visitor) {
+    for (Segment segment : segments()) {
+      int from = byQuiz ? 3 * segment.count : segment.count;
+      int to = byQuiz ? 3 * segment.count + segment.quizCount : 2 * segment.count;
+      for (int entry = lowerBound(segment.index, from, to, key);
+          entry < to && key(segment.index, entry) == key;
+          entry++) {
+        visitor.accept(readRecord(segment.data, offset(segment.index, entry), withAnswers));
+      }
+    }
+  }
+
+  private void writeRecord(DataOutputStream out, QuizAttempt quizAttempt) throws IOException {
+    byte[] answers =
+        quizAttempt.getAnswers() != null
+            ? quizAttempt.getAnswers()
+            : compactAttemptFormat.encode(quizAttempt.getQuestionAttempts());
+    byte[] title =
+        quizAttempt.getTitle() == null
+            ? null
+            : quizAttempt.getTitle().getBytes(StandardCharsets.UTF_8);
+    int questionCount =
+        quizAttempt.getQuestionCount() != null
+            ? quizAttempt.getQuestionCount()
+            : quizAttempt.getAnswers() != null
+                ? compactAttemptFormat.decode(answers).size()
+                : quizAttempt.getQuestionAttempts().size();
+    int flags =
+        (quizAttempt.getQuizId() != null ? HAS_QUIZ_ID : 0)
+            | (quizAttempt.getAttemptTime() != null ? HAS_ATTEMPT_TIME : 0)
+            | (quizAttempt.getMaxScore() != null ? HAS_MAX_SCORE : 0)
+            | (title != null ? HAS_TITLE : 0);
+    int length =
+        1
+            + 8
+            + 8
+            + (quizAttempt.getQuizId() != null ? 8 : 0)
+            + (quizAttempt.getAttemptTime() != null ? 12 : 0)
+            + 4
+            + (quizAttempt.getMaxScore() != null ? 4 : 0)
+            + (title != null ? 4 + title.length : 0)
+            + 4
+            + 4
+            + answers.length;
+
+    out.writeInt(length);
+    out.write(flags);
+    out.writeLong(quizAttempt.getId());
+    out.writeLong(quizAttempt.getUser().getId());
+    if (quizAttempt.getQuizId() != null) {
+      out.writeLong(quizAttempt.getQuizId());
+    }
+    if (quizAttempt.getAttemptTime() != null) {
+      out.writeLong(quizAttempt.getAttemptTime().toEpochSecond(ZoneOffset.UTC));
+      out.writeInt(quizAttempt.getAttemptTime().getNano());
+    }
+    out.writeInt(quizAttempt.getScore());
+    if (quizAttempt.getMaxScore() != null) {
+      out.writeInt(quizAttempt.getMaxScore());
+    }
+    if (title != null) {
+      out.writeInt(title.length);
+      out.write(title);
+    }
+    out.writeInt(questionCount);
+    out.writeInt(answers.length);
+    out.write(answers);
+  }
+
+  /**
+   * Reads the record of an attempt.
+   *
+   * @param data The mapped segment.
+   * @param offset The offset of the record.
+   * @param withAnswers Whether to copy the question attempts of the attempt.
+   * @throws IllegalStateException If the record is damaged.
+   * @return The attempt, with a user holding only its id.
+   */
+  private static QuizAttempt readRecord(ByteBuffer data, int offset, boolean withAnswers) {
+    try {
+      int end = offset + 4 + data.getInt(offset);
+      int position = offset + 4;
+      int flags = data.get(position++);
+      User user = new User();
+      user.setId(data.getLong(position + 8));
+      QuizAttempt quizAttempt = new QuizAttempt();
+      quizAttempt.setId(data.getLong(position));
+      quizAttempt.setUser(user);
+      position += 16;
+      if ((flags & HAS_QUIZ_ID) != 0) {
+        quizAttempt.setQuizId(data.getLong(position));
+        position += 8;
+      }
+      if ((flags & HAS_ATTEMPT_TIME) != 0) {
+        quizAttempt.setAttemptTime(
+            LocalDateTime.ofEpochSecond(
+                data.getLong(position), data.getInt(position + 8), ZoneOffset.UTC));
+        position += 12;
+      }
+      quizAttempt.setScore(data.getInt(position));
+      position += 4;
+      if ((flags & HAS_MAX_SCORE) != 0) {
+        quizAttempt.setMaxScore(data.getInt(position));
+        position += 4;
+      }
+      if ((flags & HAS_TITLE) != 0) {
+        byte[] title = new byte[data.getInt(position)];
+        data.get(position + 4, title);
+        position += 4 + title.length;
+        quizAttempt.setTitle(new String(title, StandardCharsets.UTF_8));
+      }
+      quizAttempt.setQuestionCount(data.getInt(position));
+      position += 4;
+      int answersLength = data.getInt(position);
+      position += 4;
+      if (position + answersLength != end) {
+        throw new IllegalStateException("Archive segment has a damaged record.");
+      }
+      if (withAnswers) {
+        byte[] answers = new byte[answersLength];
+        data.get(position, answers);
+        quizAttempt.setAnswers(answers);
+      }
+      return quizAttempt;
+    } catch (IndexOutOfBoundsException | NegativeArraySizeException e) {
+      throw new IllegalStateException("Archive segment is truncated.", e);
+    }
+  }
+
+  /**
+   * Locates the index of a mapped segment.
+   *
+   * @param data The mapped segment.
+   * @throws IllegalStateException If the segment is damaged.
+   * @return The segment.
+   */
+  private static Segment open(MappedByteBuffer data) {
+    int limit = data.limit();
+    if (limit < HEADER_LENGTH || data.getInt(0) != MAGIC || data.get(4) != VERSION) {
+      throw new IllegalStateException("Archive segment has an unknown format.");
+    }
+    if (limit < HEADER_LENGTH + TRAILER_LENGTH || data.getInt(limit - 4) != MAGIC) {
+      throw new IllegalStateException("Archive segment is truncated.");
+    }
+    int indexStart = data.getInt(limit - TRAILER_LENGTH);
+    int count = data.getInt(limit - TRAILER_LENGTH + 4);
+    int quizCount = data.getInt(limit - TRAILER_LENGTH + 8);
+    long indexLength = (3L * count + quizCount) * INDEX_ENTRY_LENGTH;
+    if (count < 0
+        || quizCount < 0
+        || quizCount > count
+        || indexStart < HEADER_LENGTH
+        || indexStart + indexLength != limit - TRAILER_LENGTH) {
+      throw new IllegalStateException("Archive segment has a damaged index.");
+    }
+    return new Segment(data, data.slice(indexStart, (int) indexLength), count, quizCount);
+  }
+
+  /**
+   * Finds the first entry of a table whose key is not less than a key.
+   *
+   * @param index The index holding the table.
+   * @param from The first entry of the table.
+   * @param to The entry after the last entry of the table.
+   * @param key The key.
+   * @return The entry, or {@code to} if every key is less.
+   */
+  private static int lowerBound(ByteBuffer index, int from, int to, long key) {
+    int low = from;
+    int high = to;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (key(index, middle) < key) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private static long key(ByteBuffer index, int entry) {
+    return index.getLong(entry * INDEX_ENTRY_LENGTH);
+  }
+
+  private static int offset(ByteBuffer index, int entry) {
+    return index.getInt(entry * INDEX_ENTRY_LENGTH + 8);
+  }
+
+  /**
+   * Reads the attempt time of a record without reading the rest of it.
+   *
+   * @param data The mapped segment.
+   * @param offset The offset of the record.
+   * @return The attempt time, or null if the attempt has none.
+   */
+  private static LocalDateTime attemptTime(ByteBuffer data, int offset) {
+    int flags = data.get(offset + 4);
+    if ((flags & HAS_ATTEMPT_TIME) == 0) {
+      return null;
+    }
+    int position = offset + 21 + ((flags & HAS_QUIZ_ID) != 0 ? 8 : 0);
+    return LocalDateTime.ofEpochSecond(
+        data.getLong(position), data.getInt(position + 8), ZoneOffset.UTC);
+  }
+
+  private static MappedByteBuffer map(Path segment) {
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IllegalStateException("Archive segment " + segment + " is too large to map.");
+      }
+      // The mapping stays valid after the channel is closed
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static String segmentName(long number) {
+    return "attempts-%08d".formatted(number);
+  }
+
+  private static long segmentNumber(Path segment) {
+    String name = segment.getFileName().toString();
+    try {
+      return Long.parseLong(name.substring("attempts-".length(), name.indexOf('.')));
+    } catch (RuntimeException e) {
+      return 0;
+    }
+  }
+
+  /**
+   * A mapped segment and its index: the id table, the two user tables and the quiz table, one after
+   * another.
+   */
+  private record Segment(MappedByteBuffer data, ByteBuffer index, int count, int quizCount) {}
+
+  /**
+   * The archived attempts of a user, ordered by id or by attempt time and then id, as the ranges of
+   * a user table in each segment that holds any of them. A page is found by binary search in the
+   * tables, reading only the keys of the records it compares, so counting the attempts before a key
+   * or reading a page does not depend on how many attempts the user has archived.
+   */
+  public static class UserHistory {
+    private final List<Segment> segments;
+    private final int[] from;
+    private final int[] to;
+    private final boolean byAttemptTime;
+    private final int size;
+
+    private UserHistory(List<Segment> segments, List<int[]> ranges, boolean byAttemptTime) {
+      this.segments = segments;
+      this.from = new int[segments.size()];
+      this.to = new int[segments.size()];
+      this.byAttemptTime = byAttemptTime;
+      int total = 0;
+      for (int s = 0; s < segments.size(); s++) {
+        from[s] = ranges.get(s)[0];
+        to[s] = ranges.get(s)[1];
+        total += to[s] - from[s];
+      }
+      this.size = total;
+    }
+
+    /**
+     * Gets the number of archived attempts of the user.
+     *
+     * @return The number of attempts.
+     */
+    public int size() {
+      return size;
+    }
+
+    /**
+     * Reads archived attempts in ascending order, without their question attempts.
+     *
+     * @param first The number of attempts before the first one to read.
+     * @param count The largest number of attempts to read.
+     * @throws IllegalStateException If a segment is damaged.
+     * @return The attempts, with a user holding only its id.
+     */
+    public List<QuizAttempt> read(int first, int count) {
+      List<QuizAttempt> quizAttempts = new ArrayList<>();
+      if (first >= size || count <= 0) {
+        return quizAttempts;
+      }
+      int[] cursors = cursorsAt(Math.max(0, first));
+      while (quizAttempts.size() < count) {
+        int next = -1;
+        for (int s = 0; s < segments.size(); s++) {
+          if (cursors[s] < to[s] && (next < 0 || compare(s, cursors[s], next, cursors[next]) < 0)) {
+            next = s;
+          }
+        }
+        if (next < 0) {
+          break;
+        }
+        Segment segment = segments.get(next);
+        quizAttempts.add(readRecord(segment.data, offset(segment.index, cursors[next]++), false));
+      }
+      return quizAttempts;
+    }
+
+    /**
+     * Finds where the attempt at a position of the order is in each segment, by binary search for
+     * an entry whose position, the number of entries before it in every segment, is the one sought.
+     *
+     * @param position The position of the attempt.
+     * @return The first entry of each segment that is not before the attempt.
+     */
+    private int[] cursorsAt(int position) {
+      int[] cursors = Arrays.copyOf(from, from.length);
+      if (position == 0) {
+        return cursors;
+      }
+      for (int s = 0; s < segments.size(); s++) {
+        int low = from[s];
+        int high = to[s];
+        while (low < high) {
+          int middle = (low + high) >>> 1;
+          if (positionOf(s, middle) < position) {
+            low = middle + 1;
+          } else {
+            high = middle;
+          }
+        }
+        if (low < to[s] && positionOf(s, low) == position) {
+          Segment segment = segments.get(s);
+          int offset = offset(segment.index, low);
+          LocalDateTime time = byAttemptTime ? attemptTime(segment.data, offset) : null;
+          long id = segment.data.getLong(offset + 5);
+          for (int t = 0; t < segments.size(); t++) {
+            cursors[t] = firstNotBefore(t, time, id);
+          }
+          return cursors;
+        }
+      }
+      throw new IllegalStateException("Archive segment has a damaged index.");
+    }
+
+    private int positionOf(int s, int entry) {
+      Segment segment = segments.get(s);
+      int offset = offset(segment.index, entry);
+      LocalDateTime time = byAttemptTime ? attemptTime(segment.data, offset) : null;
+      long id = segment.data.getLong(offset + 5);
+      int position = 0;
+      for (int t = 0; t < segments.size(); t++) {
+        position += firstNotBefore(t, time, id) - from[t];
+      }
+      return position;
+    }
+
+    /** Finds the first entry of a segment that is not ordered before an attempt. */
+    private int firstNotBefore(int s, LocalDateTime attemptTime, long id) {
+      int low = from[s];
+      int high = to[s];
+      while (low < high) {
+        int middle = (low + high) >>> 1;
+        if (compare(s, middle, attemptTime, id) < 0) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      return low;
+    }
+
+    private int compare(int s, int entry, LocalDateTime attemptTime, long id) {
+      Segment segment = segments.get(s);
+      int offset = offset(segment.index, entry);
+      if (byAttemptTime) {
+        int comparison = ATTEMPT_TIMES.compare(attemptTime(segment.data, offset), attemptTime);
+        if (comparison != 0) {
+          return comparison;
+        }
+      }
+      return Long.compare(segment.data.getLong(offset + 5), id);
+    }
+
+    private int compare(int s, int entry, int t, int otherEntry) {
+      Segment other = segments.get(t);
+      int offset = offset(other.index, otherEntry);
+      return compare(
+          s,
+          entry,
+          byAttemptTime ? attemptTime(other.data, offset) : null,
+          other.data.getLong(offset + 5));
+    }
+  }
+
+  /** The keys and offsets of the records of a segment, in the order they were written. */
+  private static class RecordKeys {
+    private final long[] ids;
+    private final long[] userIds;
+    private final Long[] quizIds;
+    private final LocalDateTime[] attemptTimes;
+    private final int[] offsets;
+    private int count;
+    private int quizCount;
+
+    private RecordKeys(int capacity) {
+      ids = new long[capacity];
+      userIds = new long[capacity];
+      quizIds = new Long[capacity];
+      attemptTimes = new LocalDateTime[capacity];
+      offsets = new int[capacity];
+    }
+
+    private void add(int offset, QuizAttempt quizAttempt) {
+      if (quizAttempt.getId() == null || quizAttempt.getUser() == null) {
+        throw new IllegalArgumentException("Archived attempts must have an id and a user.");
+      }
+      ids[count] = quizAttempt.getId();
+      userIds[count] = quizAttempt.getUser().getId();
+      quizIds[count] = quizAttempt.getQuizId();
+      attemptTimes[count] = quizAttempt.getAttemptTime();
+      offsets[count++] = offset;
+      if (quizAttempt.getQuizId() != null) {
+        quizCount++;
+      }
+    }
+
+    /**
+     * Builds the index of the segment.
+     *
+     * @return The id table, the user tables by id and by attempt time, and the quiz table, each
+     *     sorted by key and then by the order of its table, or by offset.
+     */
+    private ByteBuffer index() {
+      ByteBuffer index = ByteBuffer.allocate((3 * count + quizCount) * INDEX_ENTRY_LENGTH);
+      Integer[] records = new Integer[count];
+      Arrays.setAll(records, record -> record);
+      Comparator<Integer> byId = Comparator.comparingLong(record -> ids[record]);
+      Comparator<Integer> byUser = Comparator.comparingLong(record -> userIds[record]);
+      putTable(index, records, byId, ids);
+      putTable(index, records, byUser.thenComparing(byId), userIds);
+      putTable(
+          index,
+          records,
+          byUser.thenComparing(record -> attemptTimes[record], ATTEMPT_TIMES).thenComparing(byId),
+          userIds);
+      Integer[] withQuiz =
+          Arrays.stream(records).filter(record -> quizIds[record] != null).toArray(Integer[]::new);
+      putTable(index, withQuiz, Comparator.comparingLong(record -> quizIds[record]), null);
+      return index;
+    }
+
+    /**
+     * Writes a table of the index. Records are added in the order of their offsets, which the sort
+     * keeps among equal keys.
+     *
+     * @param index The index to write to.
+     * @param records The records of the table.
+     * @param order The order of the table.
+     * @param keys The keys of the table, or null for quiz ids.
+     */
+    private void putTable(
+        ByteBuffer index, Integer[] records, Comparator<Integer> order, long[] keys) {
+      Integer[] sorted = records.clone();
+      Arrays.sort(sorted, order);
+      for (int record : sorted) {
+        index.putLong(keys != null ? keys[record] : quizIds[record]);
+        index.putInt(offsets[record]);
+      }
+    }
+  }
+}
@@ -0,0 +1,148 @@
+package com.idatt2105.backend.service;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.idatt2105.backend.repository.QuizAttemptRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Moves attempts older than {@code quiz.attempts.archive.max-age} out of the database and into the
+ * {@link AttemptArchive}, on the {@code quiz.attempts.archive.cron} schedule if {@code
+ * quiz.attempts.archive.enabled} is set. The attempt tables then only grow with recent attempts,
+ * and old attempts are still read through the same services.
+ *
+ * <p>Each batch of attempts is written to a pending segment and deleted from the database in one
+ * transaction, and the segment is published once the transaction has committed.
+ */
+@Slf4j
+@Component
+public class AttemptArchiver {
+  // Children first, so that no foreign key is left pointing at a deleted row
+  private static final String DELETE_ALTERNATIVE_RECORDS =
+      "DELETE FROM alternative_record WHERE attempt_id IN"
+          + " (SELECT id FROM question_attempt WHERE quiz_attempt_id IN (%s))";
+  private static final String DELETE_TRUE_OR_FALSE_QUESTION_ATTEMPTS =
+      "DELETE FROM true_or_false_question_attempt WHERE id IN"
+          + " (SELECT id FROM question_attempt WHERE quiz_attempt_id IN (%s))";
+  private static final String DELETE_MULTIPLE_CHOICE_QUESTION_ATTEMPTS =
+      "DELETE FROM multiple_choice_question_attempts WHERE id IN"
+          + " (SELECT id FROM question_attempt WHERE quiz_attempt_id IN (%s))";
+  private static final String DELETE_QUESTION_ATTEMPTS =
+      "DELETE FROM question_attempt WHERE quiz_attempt_id IN (%s)";
+  private static final String DELETE_QUIZ_ATTEMPTS = "DELETE FROM quiz_attempt WHERE id IN (%s)";
+
+  private final QuizAttemptRepository quizAttemptRepository;
+  private final AttemptArchive attemptArchive;
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final boolean enabled;
+  private final Duration maxAge;
+  private final int batchSize;
+
+  public AttemptArchiver(
+      QuizAttemptRepository quizAttemptRepository,
+      AttemptArchive attemptArchive,
+      JdbcTemplate jdbcTemplate,
+      PlatformTransactionManager transactionManager,
+      @Value("${quiz.attempts.archive.enabled:false}") boolean enabled,
+      @Value("${quiz.attempts.archive.max-age:365d}") Duration maxAge,
+      @Value("${quiz.attempts.archive.batch-size:10000}") int batchSize) {
+    if (maxAge.isNegative()) {
+      throw new IllegalArgumentException("Maximum age cannot be negative.");
+    }
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("Batch size must be positive.");
+    }
+    this.quizAttemptRepository = quizAttemptRepository;
+    this.attemptArchive = attemptArchive;
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.enabled = enabled;
+    this.maxAge = maxAge;
+    this.batchSize = batchSize;
+  }
+
+  /** Archives the attempts that are older than the maximum age, if archiving is enabled. */
+  @Scheduled(cron = "${quiz.attempts.archive.cron:0 30 3 * * *}")
+  public void archiveOnSchedule() {
+    if (enabled) {
+      archiveOldAttempts();
+    }
+  }
+
+  /**
+   * Archives every attempt that is older than the maximum age.
+   *
+   * @return The number of attempts archived.
+   */
+  public long archiveOldAttempts() {
+    LocalDateTime cutoff = LocalDateTime.now().minus(maxAge);
+    long start = System.nanoTime();
+    long archived = 0;
+    int moved;
+    do {
+      moved = archiveBatch(cutoff);
+      archived += moved;
+    } while (moved > 0);
+    if (archived > 0) {
+      log.info(
+          "Archived {} quiz attempts made before {} in {} ms",
+          archived,
+          cutoff,
+          (System.nanoTime() - start) / 1_000_000);
+    }
+    return archived;
+  }
+
+  /**
+   * Archives one batch of attempts made before a point in time.
+   *
+   * @param cutoff The point in time, exclusive.
+   * @return The number of attempts archived, 0 if there are none left.
+   */
+  public int archiveBatch(LocalDateTime cutoff) {
+    List<Long> ids =
+        quizAttemptRepository.findIdsAttemptedBefore(cutoff, PageRequest.of(0, batchSize));
+    if (ids.isEmpty()) {
+      return 0;
+    }
+    Path[] pending = new Path[1];
+    try {
+      transactionTemplate.executeWithoutResult(
+          status -> {
+            pending[0] =
+                attemptArchive.write(quizAttemptRepository.findWithQuestionAttemptsByIdIn(ids));
+            String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+            Object[] args = ids.toArray();
+            jdbcTemplate.update(DELETE_ALTERNATIVE_RECORDS.formatted(placeholders), args);
+            jdbcTemplate.update(
+                DELETE_TRUE_OR_FALSE_QUESTION_ATTEMPTS.formatted(placeholders), args);
+            jdbcTemplate.update(
+                DELETE_MULTIPLE_CHOICE_QUESTION_ATTEMPTS.formatted(placeholders), args);
+            jdbcTemplate.update(DELETE_QUESTION_ATTEMPTS.formatted(placeholders), args);
+            jdbcTemplate.update(DELETE_QUIZ_ATTEMPTS.formatted(placeholders), args);
+          });
+    } catch (RuntimeException e) {
+      if (pending[0] != null) {
+        // The commit may have failed after the rows were deleted
+        attemptArchive.settle(pending[0]);
+      }
+      throw e;
+    }
+    attemptArchive.publish(pending[0]);
+    return ids.size();
+  }
+}
@@ -0,0 +1,208 @@
+package com.idatt2105.backend.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.idatt2105.backend.dto.QuizAttemptExportDTO;
+import com.idatt2105.backend.enumerator.AttemptExportFormat;
+import com.idatt2105.backend.repository.QuizAttemptRepository;
+import com.idatt2105.backend.repository.QuizRepository;
+import com.idatt2105.backend.repository.UserRepository;
+import com.idatt2105.backend.util.InvalidIdException;
+
+/**
+ * Exports the attempts on the quizzes of a teacher as NDJSON or CSV. Attempts are streamed from the
+ * database and the archive and written as they are read, so an export starts sending bytes at once
+ * and takes the same memory however many attempts there are. Attempts in the {@link AttemptArchive
+ * archive} are written after those in the database.
+ */
+@Service
+public class AttemptExporter {
+  /** Number of attempts written between flushes of the output. */
+  private static final int FLUSH_INTERVAL = 1000;
+
+  // Characters that make a spreadsheet read a cell as a formula
+  private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+  private static final String CSV_HEADER =
+      "id,quizId,title,userId,score,maxScore,attemptTime,questionCount";
+
+  private final QuizAttemptRepository quizAttemptRepository;
+  private final QuizRepository quizRepository;
+  private final UserRepository userRepository;
+  private final AttemptArchive attemptArchive;
+  private final ObjectWriter rowWriter;
+
+  public AttemptExporter(
+      QuizAttemptRepository quizAttemptRepository,
+      QuizRepository quizRepository,
+      UserRepository userRepository,
+      AttemptArchive attemptArchive,
+      ObjectMapper objectMapper) {
+    this.quizAttemptRepository = quizAttemptRepository;
+    this.quizRepository = quizRepository;
+    this.userRepository = userRepository;
+    this.attemptArchive = attemptArchive;
+    // The writer is neither closed nor flushed after each attempt, since more are written to it
+    this.rowWriter =
+        objectMapper
+            .writerFor(QuizAttemptExportDTO.class)
+            .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+  }
+
+  /**
+   * Checks that an author exists, before an export of their attempts is started.
+   *
+   * @param authorId The id of the author.
+   * @throws InvalidIdException If the author is not found.
+   */
+  public void checkAuthor(Long authorId) {
+    if (authorId == null || !userRepository.existsById(authorId)) {
+      throw new InvalidIdException("User with id " + authorId + " not found");
+    }
+  }
+
+  /**
+   * Writes every attempt on the quizzes of an author: those in the database lowest id first, then
+   * those in the archive quiz by quiz. Rows are read from the database and the archive one at a
+   * time, so the export does not grow with the number of attempts. Attempts stored before their
+   * question count was kept are given the number of their question attempts, as in the attempt
+   * history.
+   *
+   * @param authorId The id of the author.
+   * @param format The format to write the attempts in.
+   * @param out The stream to write to, which is flushed but not closed.
+   * @throws IOException If the attempts cannot be written.
+   * @return The number of attempts written.
+   */
+  @Transactional(readOnly = true)
+  public long exportAttemptsForAuthor(Long authorId, AttemptExportFormat format, OutputStream out)
+      throws IOException {
+    Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    if (format == AttemptExportFormat.CSV) {
+      writer.write(CSV_HEADER);
+      writer.write('\n');
+    }
+    // Send the headers and the first bytes before the query has returned
+    writer.flush();
+
+    long[] written = new long[1];
+    try (Stream<QuizAttemptExportDTO> rows =
+        quizAttemptRepository.streamExportsByQuizAuthorId(authorId)) {
+      Iterator<QuizAttemptExportDTO> iterator = rows.iterator();
+      while (iterator.hasNext()) {
+        write(writer, format, iterator.next(), written);
+      }
+    }
+    try {
+      for (Long quizId : quizRepository.findIdsByAuthorId(authorId)) {
+        attemptArchive.forEachByQuizId(
+            quizId,
+            archived -> {
+              try {
+                write(writer, format, new QuizAttemptExportDTO(archived), written);
+              } catch (IOException e) {
+                throw new UncheckedIOException(e);
+              }
+            });
+      }
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    writer.flush();
+    return written[0];
+  }
+
+  /**
+   * Writes one attempt and counts it, flushing the output every {@value #FLUSH_INTERVAL} attempts.
+   *
+   * @param writer The writer to write to.
+   * @param format The format to write the attempt in.
+   * @param row The attempt.
+   * @param written The number of attempts written, which is incremented.
+   * @throws IOException If the attempt cannot be written.
+   */
+  private void write(
+      Writer writer, AttemptExportFormat format, QuizAttemptExportDTO row, long[] written)
+      throws IOException {
+    write(writer, format, row);
+    if (++written[0] % FLUSH_INTERVAL == 0) {
+      writer.flush();
+    }
+  }
+
+  /**
+   * Writes one attempt as a line.
+   *
+   * @param writer The writer to write to.
+   * @param format The format to write the attempt in.
+   * @param row The attempt.
+   * @throws IOException If the attempt cannot be written.
+   */
+  private void write(Writer writer, AttemptExportFormat format, QuizAttemptExportDTO row)
+      throws IOException {
+    switch (format) {
+      case NDJSON -> rowWriter.writeValue(writer, row);
+      case CSV -> {
+        writer.write(String.valueOf(row.getId()));
+        writer.write(',');
+        writer.write(csv(row.getQuizId()));
+        writer.write(',');
+        writer.write(csv(row.getTitle()));
+        writer.write(',');
+        writer.write(csv(row.getUserId()));
+        writer.write(',');
+        writer.write(String.valueOf(row.getScore()));
+        writer.write(',');
+        writer.write(csv(row.getMaxScore()));
+        writer.write(',');
+        writer.write(csv(row.getAttemptTime()));
+        writer.write(',');
+        writer.write(csv(row.getQuestionCount()));
+      }
+    }
+    writer.write('\n');
+  }
+
+  /**
+   * Formats a value as a CSV field. Null is an empty field, and fields with commas, quotes or line
+   * breaks are quoted. Text that a spreadsheet would read as a formula is prefixed with an
+   * apostrophe, so that opening the export never runs anything a user typed into a title.
+   *
+   * @param value The value.
+   * @return The field.
+   */
+  private static String csv(Object value) {
+    if (value == null) {
+      return "";
+    }
+    String field = value.toString();
+    if (value instanceof String
+        && !field.isEmpty()
+        && FORMULA_PREFIXES.indexOf(field.charAt(0)) >= 0) {
+      field = "'" + field;
+    }
+    if (field.indexOf(',') < 0
+        && field.indexOf('"') < 0
+        && field.indexOf('\n') < 0
+        && field.indexOf('\r') < 0) {
+      return field;
+    }
+    return '"' + field.replace("\"", "\"\"") + '"';
+  }
+}
@@ -1,71 +1,347 @@
 package com.idatt2105.backend.service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.idatt2105.backend.dto.QuestionAttemptDTO;
 import com.idatt2105.backend.dto.QuizAttemptDTO;
+import com.idatt2105.backend.dto.QuizAttemptSummaryDTO;
+import com.idatt2105.backend.enumerator.QuizActivity;
+import com.idatt2105.backend.event.QuizActivityEvent;
+import com.idatt2105.backend.event.QuizAttemptAddedEvent;
+import com.idatt2105.backend.model.AlternativeRecord;
 import com.idatt2105.backend.model.MultipleChoiceQuestionAttempt;
 import com.idatt2105.backend.model.QuestionAttempt;
 import com.idatt2105.backend.model.QuizAttempt;
 import com.idatt2105.backend.model.TrueOrFalseQuestionAttempt;
+import com.idatt2105.backend.model.User;
 import com.idatt2105.backend.repository.QuizAttemptRepository;
 import com.idatt2105.backend.repository.UserRepository;
+import com.idatt2105.backend.util.AttemptQueueFullException;
 import com.idatt2105.backend.util.InvalidIdException;
 import com.idatt2105.backend.util.InvalidQuestionTypeException;
 
 /** Service for handling quiz attempts. */
 @Service
 public class AttemptService {
+  /** Maximum number of quiz attempts that can be added in one batch. */
+  public static final int MAX_BATCH_SIZE = 1000;
+
   private final UserRepository userRepository;
   private final QuizAttemptRepository quizAttemptRepository;
+  private final ApplicationEventPublisher eventPublisher;
+  private final QuizGrader quizGrader;
+  private final AttemptWriteBehindQueue writeBehindQueue;
+  private final CompactAttemptFormat compactAttemptFormat;
+  private final AttemptArchive attemptArchive;
 
   @Autowired
   public AttemptService(
-      UserRepository userRepository, QuizAttemptRepository quizAttemptRepository) {
+      UserRepository userRepository,
+      QuizAttemptRepository quizAttemptRepository,
+      ApplicationEventPublisher eventPublisher,
+      QuizGrader quizGrader,
+      AttemptWriteBehindQueue writeBehindQueue,
+      CompactAttemptFormat compactAttemptFormat,
+      AttemptArchive attemptArchive) {
     this.userRepository = userRepository;
     this.quizAttemptRepository = quizAttemptRepository;
+    this.eventPublisher = eventPublisher;
+    this.quizGrader = quizGrader;
+    this.writeBehindQueue = writeBehindQueue;
+    this.compactAttemptFormat = compactAttemptFormat;
+    this.attemptArchive = attemptArchive;
   }
 
   /**
-   * Adds a quiz attempt to the database.
+   * Checks whether added quiz attempts are written to the database after they are returned.
+   *
+   * @return True if attempts are written behind.
+   */
+  public boolean isWriteBehind() {
+    return writeBehindQueue.isEnabled();
+  }
+
+  /**
+   * Grades a quiz attempt and adds it to the database. The score and the correct answers are set by
+   * the server, and any values sent for them are ignored. If attempts are {@link #isWriteBehind()
+   * written behind}, the attempt is queued with its ids assigned, and written shortly after. If the
+   * {@link CompactAttemptFormat compact format} is enabled, its question attempts are stored
+   * encoded in the attempt row.
    *
    * @param quizAttemptDTO DTO containing the quiz attempt information.
-   * @throws IllegalArgumentException If the quiz attempt is null.
+   * @throws IllegalArgumentException If the quiz attempt is null, lacks an answer or alternative
+   *     text, or does not match its quiz.
+   * @throws InvalidIdException If the user or quiz is not found.
+   * @throws AttemptQueueFullException If attempts are written behind and the queue is full.
    * @return The created quiz attempt.
    */
   public QuizAttempt addQuizAttempt(QuizAttemptDTO quizAttemptDTO) {
     if (quizAttemptDTO == null) {
       throw new IllegalArgumentException("Quiz attempt cannot be null");
     }
-    QuizAttempt quizAttempt = parseQuizAttemptDTO(quizAttemptDTO);
-    return quizAttemptRepository.save(quizAttempt);
+    QuizAttempt parsed = parseQuizAttemptDTO(quizAttemptDTO);
+    quizGrader.grade(parsed);
+    if (compactAttemptFormat.isEnabled()) {
+      parsed.setAnswers(compactAttemptFormat.encode(parsed.getQuestionAttempts()));
+    }
+    if (writeBehindQueue.isEnabled()) {
+      return writeBehindQueue.enqueue(parsed);
+    }
+    QuizAttempt quizAttempt;
+    if (parsed.getAnswers() != null) {
+      parsed.setId(quizAttemptRepository.save(copyWithoutQuestionAttempts(parsed)).getId());
+      quizAttempt = parsed;
+    } else {
+      quizAttempt = quizAttemptRepository.save(parsed);
+    }
+    publishAttemptActivity(quizAttempt);
+    return quizAttempt;
   }
 
   /**
-   * Gets all quiz attempts for a user.
+   * Grades a number of quiz attempts and adds them to the database in one transaction. The users
+   * are read in one query, the answer key of each quiz is looked up once, and the rows are inserted
+   * in JDBC batches. Either every attempt is added, or none are.
+   *
+   * @param quizAttemptDTOs DTOs containing the quiz attempts, at most {@value #MAX_BATCH_SIZE}.
+   * @throws IllegalArgumentException If the list or an attempt in it is null, if the list is too
+   *     long, or if an attempt lacks an answer or does not match its quiz.
+   * @throws InvalidIdException If a user or quiz is not found.
+   * @return The created quiz attempts, in the order they were given.
+   */
+  @Transactional
+  public List<QuizAttempt> addQuizAttempts(List<QuizAttemptDTO> quizAttemptDTOs) {
+    if (quizAttemptDTOs == null) {
+      throw new IllegalArgumentException("Quiz attempts cannot be null");
+    }
+    if (quizAttemptDTOs.size() > MAX_BATCH_SIZE) {
+      throw new IllegalArgumentException(
+          "At most " + MAX_BATCH_SIZE + " quiz attempts can be added at once");
+    }
+    Set<Long> userIds = new HashSet<>();
+    for (QuizAttemptDTO quizAttemptDTO : quizAttemptDTOs) {
+      if (quizAttemptDTO == null || quizAttemptDTO.getUserId() == null) {
+        throw new IllegalArgumentException("Quiz attempt and user id cannot be null");
+      }
+      userIds.add(quizAttemptDTO.getUserId());
+    }
+    Map<Long, User> users =
+        userRepository.findAllById(userIds).stream()
+            .collect(Collectors.toMap(User::getId, Function.identity()));
+
+    List<QuizAttempt> parsed = new ArrayList<>(quizAttemptDTOs.size());
+    for (QuizAttemptDTO quizAttemptDTO : quizAttemptDTOs) {
+      User user = users.get(quizAttemptDTO.getUserId());
+      if (user == null) {
+        throw new InvalidIdException("User with id " + quizAttemptDTO.getUserId() + " not found");
+      }
+      parsed.add(parseQuizAttemptDTO(quizAttemptDTO, user));
+    }
+    quizGrader.gradeAll(parsed);
+
+    List<QuizAttempt> quizAttempts;
+    if (compactAttemptFormat.isEnabled()) {
+      List<QuizAttempt> compact = new ArrayList<>(parsed.size());
+      for (QuizAttempt quizAttempt : parsed) {
+        quizAttempt.setAnswers(compactAttemptFormat.encode(quizAttempt.getQuestionAttempts()));
+        compact.add(copyWithoutQuestionAttempts(quizAttempt));
+      }
+      List<QuizAttempt> saved = quizAttemptRepository.saveAll(compact);
+      for (int i = 0; i < parsed.size(); i++) {
+        parsed.get(i).setId(saved.get(i).getId());
+      }
+      quizAttempts = parsed;
+    } else {
+      quizAttempts = quizAttemptRepository.saveAll(parsed);
+    }
+    // Write the batches now, so that activity is only published for attempts that were inserted
+    quizAttemptRepository.flush();
+    quizAttempts.forEach(this::publishAttemptActivity);
+    return quizAttempts;
+  }
+
+  /**
+   * Gets summaries of all quiz attempts for a user, without their question attempts, which are only
+   * read by {@link #getAttemptById(Long)}. Attempts moved to the {@link AttemptArchive archive} are
+   * merged with those in the database, in the order of the page. Without a sort, attempts are
+   * ordered by id, which puts archived attempts first. Stored attempts are counted and read by
+   * comparing the sorted columns with those of archived attempts, see {@link #mergePage}. Pages
+   * ordered by id, or by attempt time, are read from the index of the archive without reading the
+   * archived attempts before them. Pages sorted by other columns summarize and sort every archived
+   * attempt of the user, so they take time in proportion to the archived history.
    *
    * @param userId The id of the user.
+   * @param pageable The page to get, which may only be sorted by the columns of a summary other
+   *     than the title.
    * @throws InvalidIdException If the user id is invalid.
-   * @return A collection of all quiz attempts for the user.
+   * @throws IllegalArgumentException If the user has archived attempts and the page is sorted by
+   *     anything else.
+   * @return A page of summaries of the quiz attempts of the user.
    */
-  public Page<QuizAttempt> getAllAttemptsForUser(Long userId, Pageable pageable) {
+  public Page<QuizAttemptSummaryDTO> getAllAttemptsForUser(Long userId, Pageable pageable) {
     if (userId == null) {
       throw new InvalidIdException("User id cannot be null");
     }
     if (!userRepository.existsById(userId)) {
       throw new InvalidIdException("User with id " + userId + " not found");
     }
-    return quizAttemptRepository.findByUserId(userId, pageable);
+    Sort sort = pageable.getSort();
+    if (sort.getOrderFor("id") == null) {
+      // Ties are broken the same way in the database and in the archive. An order by attempt time
+      // breaks them in its own direction, so that it can be read through the index of the archive
+      Sort.Order attemptTime = sort.getOrderFor("attemptTime");
+      Sort.Direction direction =
+          attemptTime != null && sort.toList().size() == 1
+              ? attemptTime.getDirection()
+              : Sort.Direction.ASC;
+      sort = sort.and(Sort.by(direction, "id"));
+    }
+
+    ArchivedAttempts archived;
+    if (pageable.isPaged() && isIndexed(sort)) {
+      archived =
+          new IndexedArchivedAttempts(
+              attemptArchive.findHistoryByUserId(userId, sort.getOrderFor("attemptTime") != null),
+              sort.getOrderFor("id").isDescending());
+    } else {
+      List<QuizAttempt> archivedAttempts = attemptArchive.findByUserId(userId);
+      if (archivedAttempts.isEmpty()) {
+        return quizAttemptRepository.findSummariesByUserId(userId, pageable);
+      }
+      List<QuizAttemptSummaryDTO> summaries = new ArrayList<>(archivedAttempts.size());
+      for (QuizAttempt archivedAttempt : archivedAttempts) {
+        summaries.add(summarizeArchived(archivedAttempt));
+      }
+      summaries.sort(comparator(sort));
+      archived = new SortedArchivedAttempts(summaries);
+    }
+    if (archived.size() == 0) {
+      return quizAttemptRepository.findSummariesByUserId(userId, pageable);
+    }
+
+    long storedTotal;
+    List<QuizAttemptSummaryDTO> content;
+    if (pageable.isPaged()) {
+      storedTotal = quizAttemptRepository.countByUserId(userId);
+      content =
+          mergePage(
+              userId, archived, storedTotal, pageable.getOffset(), pageable.getPageSize(), sort);
+    } else {
+      List<QuizAttemptSummaryDTO> stored =
+          quizAttemptRepository.findSummariesByUserId(userId, sort);
+      storedTotal = stored.size();
+      content =
+          merge(stored, archived.slice(0, archived.size()), comparator(sort), Integer.MAX_VALUE);
+    }
+    return new PageImpl<>(content, pageable, storedTotal + archived.size());
+  }
+
+  /**
+   * Gets a page of the attempts of a user in the database merged with those in the archive. The
+   * number of archived attempts before the page is found by binary search, placing one archived
+   * attempt at a time among the stored attempts by counting the stored attempts ordered before it.
+   * Each count compares the sorted columns with those of the archived attempt, so no rows are read
+   * past. The stored attempts of the page are then read after the last archived attempt before it,
+   * skipping only the stored attempts between that attempt and the page.
+   *
+   * @param userId The id of the user.
+   * @param archived The archived attempts of the user, in the order of the page.
+   * @param storedTotal The number of attempts of the user in the database.
+   * @param offset The number of merged attempts before the page.
+   * @param size The size of the page.
+   * @param sort The order of the page, ending with the id.
+   * @return The attempts on the page.
+   */
+  private List<QuizAttemptSummaryDTO> mergePage(
+      Long userId, ArchivedAttempts archived, long storedTotal, long offset, int size, Sort sort) {
+    int low = (int) Math.max(0, offset - storedTotal);
+    int high = (int) Math.min(archived.size(), offset);
+    if (low > high) {
+      return new ArrayList<>();
+    }
+    // An archived attempt is before the page if it is, counting the stored attempts before it
+    // The last archived attempt before the page, and the number of stored attempts before it
+    int boundaryIndex = -1;
+    QuizAttemptSummaryDTO boundary = null;
+    long storedBeforeBoundary = 0;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      QuizAttemptSummaryDTO key = archived.slice(middle, 1).get(0);
+      long storedBefore = quizAttemptRepository.countSummariesBefore(userId, sort, key);
+      if (middle + storedBefore < offset) {
+        low = middle + 1;
+        boundaryIndex = middle;
+        boundary = key;
+        storedBeforeBoundary = storedBefore;
+      } else {
+        high = middle;
+      }
+    }
+    int archivedBefore = low;
+    if (archivedBefore > 0 && boundaryIndex != archivedBefore - 1) {
+      boundary = archived.slice(archivedBefore - 1, 1).get(0);
+      storedBeforeBoundary = quizAttemptRepository.countSummariesBefore(userId, sort, boundary);
+    }
+    long storedBefore = offset - archivedBefore;
+    List<QuizAttemptSummaryDTO> stored =
+        storedBefore < storedTotal
+            ? quizAttemptRepository.findSummariesAfter(
+                userId, sort, boundary, storedBefore - storedBeforeBoundary, size)
+            : List.of();
+    return merge(stored, archived.slice(archivedBefore, size), comparator(sort), size);
+  }
+
+  /**
+   * Merges summaries of stored and archived attempts, each in the order of the merge. Ties are
+   * taken from the database first.
+   *
+   * @param stored The summaries of attempts in the database.
+   * @param archived The summaries of archived attempts.
+   * @param order The order of the merge.
+   * @param limit The largest number of summaries to merge.
+   * @return The first summaries of the merge.
+   */
+  private static List<QuizAttemptSummaryDTO> merge(
+      List<QuizAttemptSummaryDTO> stored,
+      List<QuizAttemptSummaryDTO> archived,
+      Comparator<QuizAttemptSummaryDTO> order,
+      int limit) {
+    List<QuizAttemptSummaryDTO> content = new ArrayList<>();
+    int i = 0;
+    int j = 0;
+    while (content.size() < limit && (i < stored.size() || j < archived.size())) {
+      boolean fromArchive =
+          i == stored.size()
+              || (j < archived.size() && order.compare(archived.get(j), stored.get(i)) < 0);
+      content.add(fromArchive ? archived.get(j++) : stored.get(i++));
+    }
+    return content;
   }
 
   /**
-   * Gets a quiz attempt by its id.
+   * Gets a quiz attempt by its id, with its question attempts. The question attempts of an attempt
+   * stored in the compact format are decoded from its row, and those of other attempts are read
+   * from their own rows. Attempts that are not in the database are looked up in the {@link
+   * AttemptArchive archive}.
    *
    * @param id The id of the quiz attempt.
    * @throws InvalidIdException If the id is invalid.
@@ -75,9 +351,226 @@ public class AttemptService {
     if (id == null) {
       throw new InvalidIdException("Attempt id cannot be null");
     }
-    return quizAttemptRepository
-        .findById(id)
-        .orElseThrow(() -> new InvalidIdException("Attempt with id " + id + " not found"));
+    // Most attempts are compact once the format is enabled, so their rows are not joined
+    Optional<QuizAttempt> found =
+        compactAttemptFormat.isEnabled()
+            ? quizAttemptRepository.findById(id)
+            : quizAttemptRepository.findWithQuestionAttemptsById(id);
+    if (found.isEmpty()) {
+      return readArchived(id);
+    }
+    QuizAttempt quizAttempt = found.get();
+    if (quizAttempt.getAnswers() != null) {
+      return decode(quizAttempt);
+    }
+    if (compactAttemptFormat.isEnabled()) {
+      return quizAttemptRepository
+          .findWithQuestionAttemptsById(id)
+          .orElseThrow(() -> new InvalidIdException("Attempt with id " + id + " not found"));
+    }
+    return quizAttempt;
+  }
+
+  /**
+   * Summarizes an archived quiz attempt.
+   *
+   * @param archived The archived attempt, without its question attempts.
+   * @return The summary.
+   */
+  private static QuizAttemptSummaryDTO summarizeArchived(QuizAttempt archived) {
+    return new QuizAttemptSummaryDTO(
+        archived.getId(),
+        archived.getQuizId(),
+        archived.getTitle(),
+        archived.getScore(),
+        archived.getMaxScore(),
+        archived.getAttemptTime(),
+        archived.getQuestionCount());
+  }
+
+  /**
+   * Reads an archived quiz attempt, with its question attempts.
+   *
+   * @param id The id of the quiz attempt.
+   * @throws InvalidIdException If the attempt is not archived.
+   * @return The quiz attempt, with a user holding only its id.
+   */
+  private QuizAttempt readArchived(Long id) {
+    return decode(
+        attemptArchive
+            .findById(id)
+            .orElseThrow(() -> new InvalidIdException("Attempt with id " + id + " not found")));
+  }
+
+  /**
+   * Decodes the question attempts of a quiz attempt stored in the compact format.
+   *
+   * @param quizAttempt The quiz attempt.
+   * @return A copy of the quiz attempt, with its question attempts.
+   */
+  private QuizAttempt decode(QuizAttempt quizAttempt) {
+    QuizAttempt decoded = copyWithoutQuestionAttempts(quizAttempt);
+    for (QuestionAttempt questionAttempt : compactAttemptFormat.decode(quizAttempt.getAnswers())) {
+      questionAttempt.setQuizAttempt(decoded);
+      decoded.getQuestionAttempts().add(questionAttempt);
+    }
+    return decoded;
+  }
+
+  /**
+   * Orders summaries of quiz attempts the way the database sorts them. Null values come first in
+   * ascending order, as in MySQL, unless the sort says otherwise. Titles cannot be sorted by, since
+   * the collation of the database orders them differently from Java, and a merge needs both to
+   * agree.
+   *
+   * @param sort The sort, by the columns of a summary.
+   * @throws IllegalArgumentException If the sort is by anything else.
+   * @return The order.
+   */
+  private static Comparator<QuizAttemptSummaryDTO> comparator(Sort sort) {
+    Comparator<QuizAttemptSummaryDTO> order = null;
+    for (Sort.Order sortOrder : sort) {
+      Comparator<QuizAttemptSummaryDTO> next =
+          switch (sortOrder.getProperty()) {
+            case "id" -> comparator(QuizAttemptSummaryDTO::getId, sortOrder);
+            case "quizId" -> comparator(QuizAttemptSummaryDTO::getQuizId, sortOrder);
+            case "score" -> comparator(QuizAttemptSummaryDTO::getScore, sortOrder);
+            case "maxScore" -> comparator(QuizAttemptSummaryDTO::getMaxScore, sortOrder);
+            case "attemptTime" -> comparator(QuizAttemptSummaryDTO::getAttemptTime, sortOrder);
+            case "questionCount" -> comparator(QuizAttemptSummaryDTO::getQuestionCount, sortOrder);
+            default ->
+                throw new IllegalArgumentException(
+                    "Attempts cannot be sorted by " + sortOrder.getProperty());
+          };
+      order = order == null ? next : order.thenComparing(next);
+    }
+    return order;
+  }
+
+  /**
+   * Orders summaries of quiz attempts by one column.
+   *
+   * @param property Reads the column from a summary.
+   * @param sortOrder The order of the column.
+   * @return The order.
+   */
+  private static <T extends Comparable<? super T>> Comparator<QuizAttemptSummaryDTO> comparator(
+      Function<QuizAttemptSummaryDTO, T> property, Sort.Order sortOrder) {
+    boolean nullsFirst =
+        sortOrder.getNullHandling() == Sort.NullHandling.NATIVE
+            ? sortOrder.isAscending()
+            : sortOrder.getNullHandling() == Sort.NullHandling.NULLS_FIRST;
+    Comparator<T> values =
+        sortOrder.isAscending() ? Comparator.naturalOrder() : Comparator.reverseOrder();
+    return Comparator.comparing(
+        property, nullsFirst ? Comparator.nullsFirst(values) : Comparator.nullsLast(values));
+  }
+
+  /**
+   * Checks whether the archive has an index in the order of a sort: by id alone, or by attempt time
+   * and then id in the same direction, with no time where the database puts it.
+   *
+   * @param sort The sort, ending with the id.
+   * @return True if the sort is by id or attempt time.
+   */
+  private static boolean isIndexed(Sort sort) {
+    List<Sort.Order> orders = sort.toList();
+    Sort.Order id = orders.get(orders.size() - 1);
+    if (!id.getProperty().equals("id")) {
+      return false;
+    }
+    if (orders.size() == 1) {
+      return true;
+    }
+    Sort.Order attemptTime = orders.get(0);
+    return orders.size() == 2
+        && attemptTime.getProperty().equals("attemptTime")
+        && attemptTime.getDirection() == id.getDirection()
+        && (attemptTime.getNullHandling() == Sort.NullHandling.NATIVE
+            || (attemptTime.getNullHandling() == Sort.NullHandling.NULLS_FIRST)
+                == attemptTime.isAscending());
+  }
+
+  /** The archived attempts of a user, in the order of a page. */
+  private interface ArchivedAttempts {
+    int size();
+
+    /** Summarizes archived attempts in order, starting after a number of them. */
+    List<QuizAttemptSummaryDTO> slice(int from, int count);
+  }
+
+  /** Every archived attempt of a user, summarized and sorted. */
+  private record SortedArchivedAttempts(List<QuizAttemptSummaryDTO> summaries)
+      implements ArchivedAttempts {
+    @Override
+    public int size() {
+      return summaries.size();
+    }
+
+    @Override
+    public List<QuizAttemptSummaryDTO> slice(int from, int count) {
+      int start = Math.min(from, summaries.size());
+      return summaries.subList(start, (int) Math.min((long) start + count, summaries.size()));
+    }
+  }
+
+  /** The archived attempts of a user, read a page at a time through the index of the archive. */
+  private record IndexedArchivedAttempts(AttemptArchive.UserHistory history, boolean descending)
+      implements ArchivedAttempts {
+    @Override
+    public int size() {
+      return history.size();
+    }
+
+    @Override
+    public List<QuizAttemptSummaryDTO> slice(int from, int count) {
+      List<QuizAttempt> quizAttempts;
+      if (descending) {
+        // The history is read in ascending order, from the end of the page
+        int end = Math.max(0, history.size() - from);
+        int start = (int) Math.max(0, (long) end - count);
+        quizAttempts = new ArrayList<>(history.read(start, end - start));
+        Collections.reverse(quizAttempts);
+      } else {
+        quizAttempts = history.read(from, count);
+      }
+      return quizAttempts.stream().map(AttemptService::summarizeArchived).toList();
+    }
+  }
+
+  /**
+   * Copies a quiz attempt without its question attempts. The copy is never managed by Hibernate, so
+   * question attempts added to it are not persisted.
+   *
+   * @param quizAttempt The quiz attempt to copy.
+   * @return The copy.
+   */
+  private static QuizAttempt copyWithoutQuestionAttempts(QuizAttempt quizAttempt) {
+    QuizAttempt copy = new QuizAttempt();
+    copy.setId(quizAttempt.getId());
+    copy.setTitle(quizAttempt.getTitle());
+    copy.setAttemptTime(quizAttempt.getAttemptTime());
+    copy.setScore(quizAttempt.getScore());
+    copy.setMaxScore(quizAttempt.getMaxScore());
+    copy.setQuestionCount(quizAttempt.getQuestionCount());
+    copy.setUser(quizAttempt.getUser());
+    copy.setQuizId(quizAttempt.getQuizId());
+    copy.setAnswers(quizAttempt.getAnswers());
+    return copy;
+  }
+
+  /**
+   * Announces a quiz attempt as activity on its quiz, and announces its score.
+   *
+   * @param quizAttempt The saved quiz attempt.
+   */
+  private void publishAttemptActivity(QuizAttempt quizAttempt) {
+    if (quizAttempt.getQuizId() != null) {
+      eventPublisher.publishEvent(
+          new QuizActivityEvent(
+              quizAttempt.getQuizId(), QuizActivity.ATTEMPT, quizAttempt.getAttemptTime()));
+      eventPublisher.publishEvent(QuizAttemptAddedEvent.of(quizAttempt));
+    }
   }
 
   /**
@@ -88,17 +581,31 @@ public class AttemptService {
    * @return The parsed QuizAttempt.
    */
   private QuizAttempt parseQuizAttemptDTO(QuizAttemptDTO quizAttemptDTO) {
-    QuizAttempt quizAttempt = new QuizAttempt();
-    quizAttempt.setTitle(quizAttemptDTO.getTitle());
-    quizAttempt.setAttemptTime(LocalDateTime.now());
-    quizAttempt.setScore(quizAttemptDTO.getScore());
-    quizAttempt.setUser(
+    return parseQuizAttemptDTO(
+        quizAttemptDTO,
         userRepository
             .findById(quizAttemptDTO.getUserId())
             .orElseThrow(
                 () ->
                     new InvalidIdException(
                         "User with id " + quizAttemptDTO.getUserId() + " not found")));
+  }
+
+  /**
+   * Parses a QuizAttemptDTO to a QuizAttempt made by a user.
+   *
+   * @param quizAttemptDTO DTO to parse.
+   * @param user The user who made the attempt.
+   * @return The parsed QuizAttempt.
+   */
+  private QuizAttempt parseQuizAttemptDTO(QuizAttemptDTO quizAttemptDTO, User user) {
+    if (quizAttemptDTO.getQuestionAttempts() == null) {
+      throw new IllegalArgumentException("Question attempts cannot be null");
+    }
+    QuizAttempt quizAttempt = new QuizAttempt();
+    quizAttempt.setTitle(quizAttemptDTO.getTitle());
+    quizAttempt.setAttemptTime(LocalDateTime.now());
+    quizAttempt.setUser(user);
     quizAttempt.setQuizId(quizAttemptDTO.getQuizId());
     quizAttempt.setQuestionAttempts(
         quizAttemptDTO.getQuestionAttempts().stream()
@@ -109,6 +616,7 @@ public class AttemptService {
                   return questionAttempt;
                 })
             .collect(Collectors.toSet()));
+    quizAttempt.setQuestionCount(quizAttempt.getQuestionAttempts().size());
     return quizAttempt;
   }
 
@@ -116,10 +624,15 @@ public class AttemptService {
    * Parses a QuestionAttemptDTO to a QuestionAttempt.
    *
    * @param questionAttemptDTO DTO to parse.
+   * @throws IllegalArgumentException If the question attempt lacks a value its columns require,
+   *     which must be rejected before an attempt written behind is acknowledged.
    * @throws InvalidQuestionTypeException If the question type is invalid.
    * @return The parsed QuestionAttempt.
    */
   private QuestionAttempt parseQuestionAttemptDTO(QuestionAttemptDTO questionAttemptDTO) {
+    if (questionAttemptDTO == null || questionAttemptDTO.getType() == null) {
+      throw new IllegalArgumentException("Question attempt and its type cannot be null");
+    }
     QuestionAttempt questionAttempt = questionAttemptDTO.instantiateQuestionAttempt();
     questionAttempt.extractFromDTO(questionAttemptDTO);
 
@@ -128,12 +641,23 @@ public class AttemptService {
       case MULTIPLE_CHOICE -> {
         MultipleChoiceQuestionAttempt multipleChoiceQuestionAttempt =
             (MultipleChoiceQuestionAttempt) questionAttempt;
-        questionAttemptDTO.getAlternatives().forEach(multipleChoiceQuestionAttempt::addAlternative);
+        if (questionAttemptDTO.getAlternatives() == null) {
+          throw new IllegalArgumentException("Alternatives cannot be null");
+        }
+        for (AlternativeRecord alternative : questionAttemptDTO.getAlternatives()) {
+          if (alternative == null || alternative.getAlternativeText() == null) {
+            throw new IllegalArgumentException("Alternative and its text cannot be null");
+          }
+          multipleChoiceQuestionAttempt.addAlternative(alternative);
+        }
         return multipleChoiceQuestionAttempt;
       }
       case TRUE_OR_FALSE -> {
         TrueOrFalseQuestionAttempt trueOrFalseQuestionAttempt =
             (TrueOrFalseQuestionAttempt) questionAttempt;
+        if (questionAttemptDTO.getUserAnswer() == null) {
+          throw new IllegalArgumentException("Answer to a true or false question cannot be null");
+        }
         trueOrFalseQuestionAttempt.setUserAnswer(questionAttemptDTO.getUserAnswer());
         trueOrFalseQuestionAttempt.setCorrectAnswer(questionAttemptDTO.getCorrectAnswer());
         return trueOrFalseQuestionAttempt;
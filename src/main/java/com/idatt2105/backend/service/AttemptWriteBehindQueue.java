@@ -0,0 +1,599 @@
+package com.idatt2105.backend.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.idatt2105.backend.enumerator.QuizActivity;
+import com.idatt2105.backend.event.QuizActivityEvent;
+import com.idatt2105.backend.event.QuizAttemptAddedEvent;
+import com.idatt2105.backend.model.AlternativeRecord;
+import com.idatt2105.backend.model.MultipleChoiceQuestionAttempt;
+import com.idatt2105.backend.model.QuestionAttempt;
+import com.idatt2105.backend.model.QuizAttempt;
+import com.idatt2105.backend.model.TrueOrFalseQuestionAttempt;
+import com.idatt2105.backend.repository.EntityIdGenerator;
+import com.idatt2105.backend.util.AttemptQueueFullException;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Writes graded quiz attempts to the database behind the request that submitted them. An attempt is
+ * given its ids and acknowledged at once, and put on a bounded queue that a single writer thread
+ * drains. The writer commits up to {@code quiz.attempts.write-behind.group-size} attempts in one
+ * transaction, waiting at most {@code quiz.attempts.write-behind.max-delay} after the first attempt
+ * of a group for more to arrive. The rows of a group are inserted with one JDBC batch per table.
+ *
+ * <p>Only used if {@code quiz.attempts.write-behind.enabled} is set. When the queue holds {@code
+ * quiz.attempts.write-behind.capacity} attempts, new ones are rejected with an {@link
+ * AttemptQueueFullException} until the writer catches up. On shutdown, new attempts are rejected
+ * and the queue is written out before the database is closed.
+ *
+ * <p>Attempts are acknowledged before they are written, and are only held in memory until then, so
+ * attempts still queued when the process dies are lost. A group that cannot be written is retried
+ * with a delay that starts at {@code quiz.attempts.write-behind.retry-delay} and doubles up to 30
+ * seconds. While the queue is running and the database cannot be reached, the group is retried
+ * until it is written; the queue fills up meanwhile and new attempts are rejected. After three
+ * tries, if the database answers but refuses the group, or the queue is stopping, its attempts are
+ * tried once more one by one, and those that are refused are appended to {@code
+ * quiz.attempts.write-behind.dead-letter-file} and counted as failed. A group whose retry is
+ * interrupted goes to that file as a whole. Every line of the file is NDJSON holding the rows of
+ * one attempt by table, in the column order of the inserts, to be replayed by hand. Attempts that
+ * cannot be appended to the file either are only logged.
+ *
+ * <p>The queue depth, the number and duration of commits, and the number of attempts written,
+ * rejected and failed are published as {@code attempts.write-behind.*} metrics. Activity on a quiz
+ * is announced once its attempt has been committed.
+ */
+@Slf4j
+@Component
+public class AttemptWriteBehindQueue implements SmartLifecycle, MeterBinder {
+  private static final int MAX_COMMIT_TRIES = 3;
+  private static final Duration MAX_RETRY_DELAY = Duration.ofSeconds(30);
+  private static final Duration IDLE_POLL_INTERVAL = Duration.ofMillis(100);
+
+  private static final String INSERT_QUIZ_ATTEMPT =
+      "INSERT INTO quiz_attempt"
+          + " (id, title, attempt_time, score, max_score, question_count, user_id, quiz_id,"
+          + " answers) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+  private static final String INSERT_QUESTION_ATTEMPT =
+      "INSERT INTO question_attempt"
+          + " (id, question_id, question_text, media_url, points, quiz_attempt_id)"
+          + " VALUES (?, ?, ?, ?, ?, ?)";
+  private static final String INSERT_TRUE_OR_FALSE_QUESTION_ATTEMPT =
+      "INSERT INTO true_or_false_question_attempt (id, user_answer, correct_answer)"
+          + " VALUES (?, ?, ?)";
+  private static final String INSERT_MULTIPLE_CHOICE_QUESTION_ATTEMPT =
+      "INSERT INTO multiple_choice_question_attempts (id) VALUES (?)";
+  private static final String INSERT_ALTERNATIVE_RECORD =
+      "INSERT INTO alternative_record"
+          + " (id, alternative_id, text, was_correct, was_selected, attempt_id)"
+          + " VALUES (?, ?, ?, ?, ?, ?)";
+
+  private final EntityIdGenerator entityIdGenerator;
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final ApplicationEventPublisher eventPublisher;
+  private final ObjectMapper objectMapper;
+  private final boolean enabled;
+  private final int groupSize;
+  private final long maxDelayNanos;
+  private final long retryDelayNanos;
+  private final Path deadLetterFile;
+  private final BlockingQueue<QuizAttempt> queue;
+
+  // Held to add to the queue, and exclusively to stop accepting attempts
+  private final ReadWriteLock acceptLock = new ReentrantReadWriteLock();
+  private volatile boolean accepting = true;
+  private volatile boolean running;
+  private Thread writer;
+
+  private final LongAdder written = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+  private final LongAdder commits = new LongAdder();
+  private final LongAdder commitNanos = new LongAdder();
+
+  public AttemptWriteBehindQueue(
+      EntityIdGenerator entityIdGenerator,
+      JdbcTemplate jdbcTemplate,
+      PlatformTransactionManager transactionManager,
+      ApplicationEventPublisher eventPublisher,
+      ObjectMapper objectMapper,
+      @Value("${quiz.attempts.write-behind.enabled:false}") boolean enabled,
+      @Value("${quiz.attempts.write-behind.capacity:10000}") int capacity,
+      @Value("${quiz.attempts.write-behind.group-size:100}") int groupSize,
+      @Value("${quiz.attempts.write-behind.max-delay:50ms}") Duration maxDelay,
+      @Value("${quiz.attempts.write-behind.retry-delay:500ms}") Duration retryDelay,
+      @Value("${quiz.attempts.write-behind.dead-letter-file:attempts-dead-letter.ndjson}")
+          Path deadLetterFile) {
+    if (capacity < 1 || groupSize < 1 || maxDelay.isNegative() || retryDelay.isNegative()) {
+      throw new IllegalArgumentException(
+          "Write-behind capacity and group size must be positive, and the delays not negative");
+    }
+    this.entityIdGenerator = entityIdGenerator;
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.eventPublisher = eventPublisher;
+    this.objectMapper = objectMapper;
+    this.enabled = enabled;
+    this.groupSize = groupSize;
+    this.maxDelayNanos = maxDelay.toNanos();
+    this.retryDelayNanos = retryDelay.toNanos();
+    this.deadLetterFile = deadLetterFile;
+    this.queue = new ArrayBlockingQueue<>(capacity);
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("attempts.write-behind.queue.depth", queue, BlockingQueue::size)
+        .description("Attempts acknowledged but not yet written")
+        .register(registry);
+    FunctionTimer.builder(
+            "attempts.write-behind.commits",
+            this,
+            queue -> queue.commits.sum(),
+            queue -> queue.commitNanos.sum(),
+            TimeUnit.NANOSECONDS)
+        .description("Transactions writing a group of attempts")
+        .register(registry);
+    FunctionCounter.builder("attempts.write-behind.attempts", written, LongAdder::sum)
+        .tag("result", "written")
+        .description("Attempts written to the database")
+        .register(registry);
+    FunctionCounter.builder("attempts.write-behind.attempts", rejected, LongAdder::sum)
+        .tag("result", "rejected")
+        .description("Attempts rejected because the queue was full")
+        .register(registry);
+    FunctionCounter.builder("attempts.write-behind.attempts", failed, LongAdder::sum)
+        .tag("result", "failed")
+        .description("Acknowledged attempts the database refused, kept in the dead-letter file")
+        .register(registry);
+  }
+
+  /**
+   * Checks whether attempts should be written behind their request.
+   *
+   * @return True if the write-behind queue is enabled.
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Gives a graded quiz attempt, its question attempts and alternative records their ids, and
+   * queues it to be written.
+   *
+   * @param quizAttempt The graded attempt, with its user set.
+   * @throws AttemptQueueFullException If the queue is full, or no longer accepts attempts.
+   * @return The attempt, with its ids.
+   */
+  public QuizAttempt enqueue(QuizAttempt quizAttempt) {
+    acceptLock.readLock().lock();
+    try {
+      if (!accepting || queue.remainingCapacity() == 0) {
+        rejected.increment();
+        throw new AttemptQueueFullException("Too many quiz attempts, try again shortly");
+      }
+      assignIds(quizAttempt);
+      if (!queue.offer(quizAttempt)) {
+        rejected.increment();
+        throw new AttemptQueueFullException("Too many quiz attempts, try again shortly");
+      }
+      return quizAttempt;
+    } finally {
+      acceptLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Gets the number of attempts waiting to be written.
+   *
+   * @return The queue depth.
+   */
+  public int size() {
+    return queue.size();
+  }
+
+  @Override
+  public void start() {
+    if (!enabled || running) {
+      return;
+    }
+    running = true;
+    writer = new Thread(this::drain, "attempt-writer");
+    writer.start();
+  }
+
+  /** Stops accepting attempts, and waits until every queued attempt has been written. */
+  @Override
+  public void stop() {
+    acceptLock.writeLock().lock();
+    try {
+      accepting = false;
+    } finally {
+      acceptLock.writeLock().unlock();
+    }
+    running = false;
+    if (writer != null) {
+      try {
+        writer.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  /** Stops after the web server, so that attempts accepted by requests in flight are written. */
+  @Override
+  public int getPhase() {
+    return SmartLifecycle.DEFAULT_PHASE - 4096;
+  }
+
+  /** Writes groups of attempts until the queue is stopped, and then writes what is left. */
+  private void drain() {
+    List<QuizAttempt> group = new ArrayList<>(groupSize);
+    try {
+      while (running) {
+        collectGroup(group);
+        if (!group.isEmpty()) {
+          commit(group);
+          group.clear();
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    while (true) {
+      queue.drainTo(group, groupSize - group.size());
+      if (group.isEmpty()) {
+        return;
+      }
+      commit(group);
+      group.clear();
+    }
+  }
+
+  /**
+   * Waits for the next group of attempts. A group is complete when it is full, or when the maximum
+   * delay has passed since its first attempt was taken.
+   *
+   * @param group The list to add the attempts to. Left empty if no attempt arrived in time.
+   * @throws InterruptedException If the writer is interrupted while waiting.
+   */
+  private void collectGroup(List<QuizAttempt> group) throws InterruptedException {
+    // Wakes up now and then while idle, to notice when the queue is stopped
+    QuizAttempt first = queue.poll(IDLE_POLL_INTERVAL.toNanos(), TimeUnit.NANOSECONDS);
+    if (first == null) {
+      return;
+    }
+    group.add(first);
+    long deadline = System.nanoTime() + maxDelayNanos;
+    while (group.size() < groupSize) {
+      queue.drainTo(group, groupSize - group.size());
+      long remaining = deadline - System.nanoTime();
+      if (group.size() >= groupSize || remaining <= 0 || !running) {
+        return;
+      }
+      QuizAttempt next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+      if (next == null) {
+        return;
+      }
+      group.add(next);
+    }
+  }
+
+  /**
+   * Writes a group of attempts in one transaction, and announces the attempts once they are
+   * committed. Retries with a growing delay while the database cannot be reached.
+   *
+   * @param group The attempts to write.
+   */
+  private void commit(List<QuizAttempt> group) {
+    long delayNanos = retryDelayNanos;
+    for (int tries = 1; ; tries++) {
+      RuntimeException failure = tryCommit(group);
+      if (failure == null) {
+        announce(group);
+        return;
+      }
+      if (tries >= MAX_COMMIT_TRIES && (!running || isDatabaseReachable())) {
+        commitEach(group);
+        return;
+      }
+      log.warn("Could not write {} quiz attempts, retrying", group.size(), failure);
+      try {
+        TimeUnit.NANOSECONDS.sleep(delayNanos);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        deadLetter(group, failure);
+        return;
+      }
+      delayNanos = Math.min(delayNanos * 2, MAX_RETRY_DELAY.toNanos());
+    }
+  }
+
+  /**
+   * Writes the attempts of a group that was refused one by one, so that one attempt the database
+   * refuses does not hold back the others, and keeps those that are refused in the dead-letter
+   * file.
+   *
+   * @param group The attempts to write.
+   */
+  private void commitEach(List<QuizAttempt> group) {
+    for (QuizAttempt quizAttempt : group) {
+      List<QuizAttempt> single = List.of(quizAttempt);
+      RuntimeException failure = tryCommit(single);
+      if (failure == null) {
+        announce(single);
+      } else {
+        deadLetter(single, failure);
+      }
+    }
+  }
+
+  /**
+   * Writes attempts in one transaction.
+   *
+   * @param attempts The attempts to write.
+   * @return Why the transaction failed, or null if it was committed.
+   */
+  private RuntimeException tryCommit(List<QuizAttempt> attempts) {
+    long start = System.nanoTime();
+    try {
+      transactionTemplate.executeWithoutResult(status -> insert(attempts));
+    } catch (RuntimeException e) {
+      return e;
+    }
+    commitNanos.add(System.nanoTime() - start);
+    commits.increment();
+    return null;
+  }
+
+  /**
+   * Checks whether the database answers at all, to tell an outage from a refused group.
+   *
+   * @return True if the database answered.
+   */
+  private boolean isDatabaseReachable() {
+    try {
+      jdbcTemplate.execute("SELECT 1");
+      return true;
+    } catch (RuntimeException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Counts committed attempts as written, and announces them as activity on their quizzes.
+   *
+   * @param attempts The committed attempts.
+   */
+  private void announce(List<QuizAttempt> attempts) {
+    written.add(attempts.size());
+    for (QuizAttempt quizAttempt : attempts) {
+      if (quizAttempt.getQuizId() != null) {
+        eventPublisher.publishEvent(
+            new QuizActivityEvent(
+                quizAttempt.getQuizId(), QuizActivity.ATTEMPT, quizAttempt.getAttemptTime()));
+        eventPublisher.publishEvent(QuizAttemptAddedEvent.of(quizAttempt));
+      }
+    }
+  }
+
+  /**
+   * Appends attempts that could not be written to the dead-letter file, one line of rows by table
+   * per attempt.
+   *
+   * @param attempts The attempts that could not be written.
+   * @param failure Why they could not be written.
+   */
+  private void deadLetter(List<QuizAttempt> attempts, RuntimeException failure) {
+    failed.add(attempts.size());
+    List<Long> ids = attempts.stream().map(QuizAttempt::getId).toList();
+    try {
+      Path directory = deadLetterFile.toAbsolutePath().getParent();
+      if (directory != null) {
+        Files.createDirectories(directory);
+      }
+      try (BufferedWriter writer =
+          Files.newBufferedWriter(
+              deadLetterFile,
+              StandardCharsets.UTF_8,
+              StandardOpenOption.CREATE,
+              StandardOpenOption.APPEND)) {
+        for (QuizAttempt quizAttempt : attempts) {
+          writer.write(objectMapper.writeValueAsString(rows(List.of(quizAttempt)).byTable()));
+          writer.newLine();
+        }
+      }
+      log.error("Could not write quiz attempts {}, kept in {}", ids, deadLetterFile, failure);
+    } catch (IOException e) {
+      e.addSuppressed(failure);
+      log.error("Could not write quiz attempts {}, nor keep them in {}", ids, deadLetterFile, e);
+    }
+  }
+
+  /**
+   * Inserts the rows of a group of attempts, with one batch per table.
+   *
+   * @param group The attempts to insert, with their ids.
+   */
+  private void insert(List<QuizAttempt> group) {
+    Rows rows = rows(group);
+    jdbcTemplate.batchUpdate(INSERT_QUIZ_ATTEMPT, rows.quizAttempts());
+    jdbcTemplate.batchUpdate(INSERT_QUESTION_ATTEMPT, rows.questionAttempts());
+    jdbcTemplate.batchUpdate(INSERT_TRUE_OR_FALSE_QUESTION_ATTEMPT, rows.trueOrFalseAttempts());
+    jdbcTemplate.batchUpdate(
+        INSERT_MULTIPLE_CHOICE_QUESTION_ATTEMPT, rows.multipleChoiceAttempts());
+    jdbcTemplate.batchUpdate(INSERT_ALTERNATIVE_RECORD, rows.alternativeRecords());
+  }
+
+  /**
+   * Builds the rows of a group of attempts, in the column order of the inserts.
+   *
+   * @param group The attempts, with their ids.
+   * @return The rows by table.
+   */
+  private static Rows rows(List<QuizAttempt> group) {
+    List<Object[]> quizAttempts = new ArrayList<>(group.size());
+    List<Object[]> questionAttempts = new ArrayList<>();
+    List<Object[]> trueOrFalseAttempts = new ArrayList<>();
+    List<Object[]> multipleChoiceAttempts = new ArrayList<>();
+    List<Object[]> alternativeRecords = new ArrayList<>();
+    for (QuizAttempt quizAttempt : group) {
+      quizAttempts.add(
+          new Object[] {
+            quizAttempt.getId(),
+            quizAttempt.getTitle(),
+            quizAttempt.getAttemptTime() == null
+                ? null
+                : Timestamp.valueOf(quizAttempt.getAttemptTime()),
+            quizAttempt.getScore(),
+            quizAttempt.getMaxScore(),
+            quizAttempt.getQuestionCount(),
+            quizAttempt.getUser().getId(),
+            quizAttempt.getQuizId(),
+            quizAttempt.getAnswers()
+          });
+      if (quizAttempt.getAnswers() != null) {
+        continue;
+      }
+      for (QuestionAttempt questionAttempt : quizAttempt.getQuestionAttempts()) {
+        questionAttempts.add(
+            new Object[] {
+              questionAttempt.getId(),
+              questionAttempt.getQuestionId(),
+              questionAttempt.getQuestionText(),
+              questionAttempt.getMediaUrl(),
+              questionAttempt.getPoints(),
+              quizAttempt.getId()
+            });
+        if (questionAttempt instanceof TrueOrFalseQuestionAttempt trueOrFalseAttempt) {
+          trueOrFalseAttempts.add(
+              new Object[] {
+                trueOrFalseAttempt.getId(),
+                trueOrFalseAttempt.getUserAnswer(),
+                trueOrFalseAttempt.getCorrectAnswer()
+              });
+        } else if (questionAttempt instanceof MultipleChoiceQuestionAttempt multipleChoice) {
+          multipleChoiceAttempts.add(new Object[] {multipleChoice.getId()});
+          for (AlternativeRecord record : multipleChoice.getAlternatives()) {
+            alternativeRecords.add(
+                new Object[] {
+                  record.getId(),
+                  record.getAlternativeId(),
+                  record.getAlternativeText(),
+                  record.getWasCorrect(),
+                  record.getWasSelected(),
+                  multipleChoice.getId()
+                });
+          }
+        }
+      }
+    }
+    return new Rows(
+        quizAttempts,
+        questionAttempts,
+        trueOrFalseAttempts,
+        multipleChoiceAttempts,
+        alternativeRecords);
+  }
+
+  /** The rows of a group of attempts, by table. */
+  private record Rows(
+      List<Object[]> quizAttempts,
+      List<Object[]> questionAttempts,
+      List<Object[]> trueOrFalseAttempts,
+      List<Object[]> multipleChoiceAttempts,
+      List<Object[]> alternativeRecords) {
+
+    /**
+     * Gets the rows keyed by the name of their table.
+     *
+     * @return The rows by table name.
+     */
+    Map<String, List<Object[]>> byTable() {
+      Map<String, List<Object[]>> tables = new LinkedHashMap<>();
+      tables.put("quiz_attempt", quizAttempts);
+      tables.put("question_attempt", questionAttempts);
+      tables.put("true_or_false_question_attempt", trueOrFalseAttempts);
+      tables.put("multiple_choice_question_attempts", multipleChoiceAttempts);
+      tables.put("alternative_record", alternativeRecords);
+      return tables;
+    }
+  }
+
+  /**
+   * Gives an attempt, its question attempts and their alternative records ids, as Hibernate would
+   * when they are persisted.
+   *
+   * @param quizAttempt The attempt.
+   */
+  private void assignIds(QuizAttempt quizAttempt) {
+    if (quizAttempt.getAnswers() != null) {
+      // Compact attempts have no question attempt or alternative record rows
+      quizAttempt.setId(entityIdGenerator.nextIds(QuizAttempt.class, 1)[0]);
+      return;
+    }
+    int alternativeCount = 0;
+    for (QuestionAttempt questionAttempt : quizAttempt.getQuestionAttempts()) {
+      if (questionAttempt instanceof MultipleChoiceQuestionAttempt multipleChoice) {
+        alternativeCount += multipleChoice.getAlternatives().size();
+      }
+    }
+    long[] questionIds =
+        entityIdGenerator.nextIds(QuestionAttempt.class, quizAttempt.getQuestionAttempts().size());
+    long[] alternativeIds = entityIdGenerator.nextIds(AlternativeRecord.class, alternativeCount);
+
+    quizAttempt.setId(entityIdGenerator.nextIds(QuizAttempt.class, 1)[0]);
+    int question = 0;
+    int alternative = 0;
+    for (QuestionAttempt questionAttempt : quizAttempt.getQuestionAttempts()) {
+      questionAttempt.setId(questionIds[question++]);
+      if (questionAttempt instanceof MultipleChoiceQuestionAttempt multipleChoice) {
+        for (AlternativeRecord record : multipleChoice.getAlternatives()) {
+          record.setId(alternativeIds[alternative++]);
+        }
+        multipleChoice.setAlternatives(new HashSet<>(multipleChoice.getAlternatives()));
+      }
+    }
+    // Ids are part of the hash codes, so the sets must be rebuilt
+    quizAttempt.setQuestionAttempts(new HashSet<>(quizAttempt.getQuestionAttempts()));
+  }
+}
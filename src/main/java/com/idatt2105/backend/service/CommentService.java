@@ -5,12 +5,15 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import com.idatt2105.backend.dto.CommentDTO;
+import com.idatt2105.backend.enumerator.QuizActivity;
+import com.idatt2105.backend.event.QuizActivityEvent;
 import com.idatt2105.backend.model.Comment;
 import com.idatt2105.backend.model.Quiz;
 import com.idatt2105.backend.model.User;
@@ -26,15 +29,18 @@ public class CommentService {
   private final CommentRepository commentRepository;
   private final QuizRepository quizRepository;
   private final UserRepository userRepository;
+  private final ApplicationEventPublisher eventPublisher;
 
   @Autowired
   public CommentService(
       CommentRepository commentRepository,
       QuizRepository quizRepository,
-      UserRepository userRepository) {
+      UserRepository userRepository,
+      ApplicationEventPublisher eventPublisher) {
     this.commentRepository = commentRepository;
     this.quizRepository = quizRepository;
     this.userRepository = userRepository;
+    this.eventPublisher = eventPublisher;
   }
 
   /**
@@ -120,6 +126,8 @@ public class CommentService {
     comment.setLastModifiedDate(LocalDateTime.now());
 
     Comment savedComment = commentRepository.save(comment);
+    eventPublisher.publishEvent(
+        new QuizActivityEvent(quiz.getId(), QuizActivity.COMMENT, comment.getCreationDate()));
     return new CommentDTO(savedComment);
   }
 
@@ -0,0 +1,301 @@
+package com.idatt2105.backend.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.idatt2105.backend.model.AlternativeRecord;
+import com.idatt2105.backend.model.MultipleChoiceQuestionAttempt;
+import com.idatt2105.backend.model.QuestionAttempt;
+import com.idatt2105.backend.model.TrueOrFalseQuestionAttempt;
+
+/**
+ * Encodes the question attempts of a quiz attempt into one compact binary value, so that an attempt
+ * can be stored as a single {@code quiz_attempt} row instead of rows in four tables. The value is
+ * only decoded when the answers of the attempt are read.
+ *
+ * <p>The value starts with a format version and a flags byte. The body follows, deflated if that
+ * makes it smaller: the number of question attempts, then for each its kind, question id, question
+ * text, media URL, points and answers. Numbers are written as variable-length integers and strings
+ * as UTF-8 with their length, so that short answers take a few bytes. Ids of question attempts and
+ * alternative records are not stored, since compact attempts have no such rows.
+ *
+ * <p>New attempts are stored in this format if {@code quiz.attempts.compact-storage} is enabled.
+ * Attempts in either format can always be read.
+ */
+@Component
+public class CompactAttemptFormat {
+  /** The version written at the start of every value. */
+  public static final int VERSION = 1;
+
+  private static final int FLAG_DEFLATED = 1;
+  // Bodies shorter than this are rarely made smaller by deflating
+  private static final int DEFLATE_THRESHOLD = 128;
+
+  private static final int KIND_TRUE_OR_FALSE = 1;
+  private static final int KIND_MULTIPLE_CHOICE = 2;
+
+  private static final int ANSWER_PRESENT = 1;
+  private static final int ANSWER_TRUE = 2;
+  private static final int CORRECT_PRESENT = 4;
+  private static final int CORRECT_TRUE = 8;
+
+  private static final int ALTERNATIVE_CORRECT = 1;
+  private static final int ALTERNATIVE_SELECTED = 2;
+
+  private final boolean enabled;
+
+  public CompactAttemptFormat(@Value("${quiz.attempts.compact-storage:false}") boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /**
+   * Checks whether new attempts are stored in the compact format.
+   *
+   * @return True if new attempts are stored compactly.
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Encodes question attempts.
+   *
+   * @param questionAttempts The question attempts of one quiz attempt.
+   * @throws IllegalArgumentException If a question attempt is neither true or false nor multiple
+   *     choice.
+   * @return The encoded question attempts.
+   */
+  public byte[] encode(Collection<? extends QuestionAttempt> questionAttempts) {
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    try {
+      DataOutputStream out = new DataOutputStream(body);
+      writeVarLong(out, questionAttempts.size());
+      for (QuestionAttempt questionAttempt : questionAttempts) {
+        writeQuestionAttempt(out, questionAttempt);
+      }
+      out.flush();
+
+      ByteArrayOutputStream value = new ByteArrayOutputStream(body.size() + 2);
+      value.write(VERSION);
+      if (body.size() >= DEFLATE_THRESHOLD) {
+        byte[] deflated = deflate(body.toByteArray());
+        if (deflated.length < body.size()) {
+          value.write(FLAG_DEFLATED);
+          value.write(deflated);
+          return value.toByteArray();
+        }
+      }
+      value.write(0);
+      body.writeTo(value);
+      return value.toByteArray();
+    } catch (IOException e) {
+      // Only written to memory
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Decodes question attempts.
+   *
+   * @param value The encoded question attempts.
+   * @throws IllegalStateException If the value is not in a known version of the format, or is
+   *     damaged.
+   * @return New question attempts equal to the encoded ones, without ids or quiz attempt.
+   */
+  public List<QuestionAttempt> decode(byte[] value) {
+    if (value == null || value.length < 2) {
+      throw new IllegalStateException("Encoded question attempts are too short.");
+    }
+    if (value[0] != VERSION) {
+      throw new IllegalStateException("Unknown version " + value[0] + " of question attempts.");
+    }
+    InputStream body = new ByteArrayInputStream(value, 2, value.length - 2);
+    if ((value[1] & FLAG_DEFLATED) != 0) {
+      body = new InflaterInputStream(body);
+    }
+    try (DataInputStream in = new DataInputStream(body)) {
+      int count = readCount(in);
+      List<QuestionAttempt> questionAttempts = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        questionAttempts.add(readQuestionAttempt(in));
+      }
+      return questionAttempts;
+    } catch (IOException e) {
+      throw new IllegalStateException("Encoded question attempts are damaged.", e);
+    }
+  }
+
+  private static void writeQuestionAttempt(DataOutputStream out, QuestionAttempt questionAttempt)
+      throws IOException {
+    if (questionAttempt instanceof TrueOrFalseQuestionAttempt trueOrFalse) {
+      out.write(KIND_TRUE_OR_FALSE);
+      writeQuestion(out, questionAttempt);
+      int answers = 0;
+      if (trueOrFalse.getUserAnswer() != null) {
+        answers |= ANSWER_PRESENT | (trueOrFalse.getUserAnswer() ? ANSWER_TRUE : 0);
+      }
+      if (trueOrFalse.getCorrectAnswer() != null) {
+        answers |= CORRECT_PRESENT | (trueOrFalse.getCorrectAnswer() ? CORRECT_TRUE : 0);
+      }
+      out.write(answers);
+    } else if (questionAttempt instanceof MultipleChoiceQuestionAttempt multipleChoice) {
+      out.write(KIND_MULTIPLE_CHOICE);
+      writeQuestion(out, questionAttempt);
+      writeVarLong(out, multipleChoice.getAlternatives().size());
+      for (AlternativeRecord alternative : multipleChoice.getAlternatives()) {
+        writeId(out, alternative.getAlternativeId());
+        writeString(out, alternative.getAlternativeText());
+        out.write(
+            (alternative.getWasCorrect() ? ALTERNATIVE_CORRECT : 0)
+                | (alternative.getWasSelected() ? ALTERNATIVE_SELECTED : 0));
+      }
+    } else {
+      throw new IllegalArgumentException(
+          "Unknown question attempt type " + questionAttempt.getClass().getSimpleName() + ".");
+    }
+  }
+
+  private static QuestionAttempt readQuestionAttempt(DataInputStream in) throws IOException {
+    int kind = in.readUnsignedByte();
+    if (kind == KIND_TRUE_OR_FALSE) {
+      TrueOrFalseQuestionAttempt trueOrFalse = new TrueOrFalseQuestionAttempt();
+      readQuestion(in, trueOrFalse);
+      int answers = in.readUnsignedByte();
+      if ((answers & ANSWER_PRESENT) != 0) {
+        trueOrFalse.setUserAnswer((answers & ANSWER_TRUE) != 0);
+      }
+      if ((answers & CORRECT_PRESENT) != 0) {
+        trueOrFalse.setCorrectAnswer((answers & CORRECT_TRUE) != 0);
+      }
+      return trueOrFalse;
+    }
+    if (kind == KIND_MULTIPLE_CHOICE) {
+      MultipleChoiceQuestionAttempt multipleChoice = new MultipleChoiceQuestionAttempt();
+      readQuestion(in, multipleChoice);
+      int count = readCount(in);
+      for (int i = 0; i < count; i++) {
+        AlternativeRecord alternative = new AlternativeRecord();
+        alternative.setAlternativeId(readId(in));
+        alternative.setAlternativeText(readString(in));
+        int flags = in.readUnsignedByte();
+        alternative.setWasCorrect((flags & ALTERNATIVE_CORRECT) != 0);
+        alternative.setWasSelected((flags & ALTERNATIVE_SELECTED) != 0);
+        multipleChoice.addAlternative(alternative);
+      }
+      return multipleChoice;
+    }
+    throw new IOException("Unknown question attempt kind " + kind + ".");
+  }
+
+  private static void writeQuestion(DataOutputStream out, QuestionAttempt questionAttempt)
+      throws IOException {
+    writeId(out, questionAttempt.getQuestionId());
+    writeString(out, questionAttempt.getQuestionText());
+    writeString(out, questionAttempt.getMediaUrl());
+    // Zigzag encoded, so that small negative numbers stay short
+    int points = questionAttempt.getPoints();
+    writeVarLong(out, Integer.toUnsignedLong((points << 1) ^ (points >> 31)));
+  }
+
+  private static void readQuestion(DataInputStream in, QuestionAttempt questionAttempt)
+      throws IOException {
+    questionAttempt.setQuestionId(readId(in));
+    questionAttempt.setQuestionText(readString(in));
+    questionAttempt.setMediaUrl(readString(in));
+    int zigzag = (int) readVarLong(in);
+    questionAttempt.setPoints((zigzag >>> 1) ^ -(zigzag & 1));
+  }
+
+  /** Writes an id that may be null, as one more than its value. */
+  private static void writeId(DataOutputStream out, Long id) throws IOException {
+    writeVarLong(out, id == null ? 0 : id + 1);
+  }
+
+  private static Long readId(DataInputStream in) throws IOException {
+    long value = readVarLong(in);
+    return value == 0 ? null : value - 1;
+  }
+
+  /** Writes a string that may be null, with one more than its length in bytes. */
+  private static void writeString(DataOutputStream out, String string) throws IOException {
+    if (string == null) {
+      writeVarLong(out, 0);
+      return;
+    }
+    byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+    writeVarLong(out, bytes.length + 1L);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    int length = readCount(in);
+    if (length == 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length - 1];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /** Writes a non-negative number in groups of seven bits, lowest first. */
+  private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.write((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    out.write((int) value);
+  }
+
+  private static long readVarLong(DataInputStream in) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = in.read();
+      if (b < 0) {
+        throw new EOFException();
+      }
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Variable-length number is too long.");
+  }
+
+  /** Reads a count, which must fit in an int. */
+  private static int readCount(DataInputStream in) throws IOException {
+    long count = readVarLong(in);
+    if (count > Integer.MAX_VALUE) {
+      throw new IOException("Count " + count + " is too large.");
+    }
+    return (int) count;
+  }
+
+  private static byte[] deflate(byte[] body) throws IOException {
+    ByteArrayOutputStream deflated = new ByteArrayOutputStream(body.length);
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try (OutputStream out = new DeflaterOutputStream(deflated, deflater)) {
+      out.write(body);
+    } finally {
+      // A deflater passed to the stream is not ended when the stream is closed
+      deflater.end();
+    }
+    return deflated.toByteArray();
+  }
+}
@@ -0,0 +1,164 @@
+package com.idatt2105.backend.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.idatt2105.backend.model.QuizAttempt;
+import com.idatt2105.backend.repository.QuizAttemptRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Moves stored attempts to the {@link CompactAttemptFormat compact format}. The question attempts
+ * of each attempt are encoded into its row, and their rows and those of their alternative records
+ * are deleted, a batch of attempts per transaction.
+ *
+ * <p>The migration runs on startup if {@code quiz.attempts.compact-migration.run-on-startup} is
+ * enabled, and logs how many rows each attempt table held before and after. It can be stopped and
+ * started again at any time, since attempts that have been moved are not read again.
+ */
+@Slf4j
+@Component
+public class CompactAttemptMigrator implements ApplicationRunner {
+  // Children first, so that no foreign key is left pointing at a deleted row
+  private static final String DELETE_ALTERNATIVE_RECORDS =
+      "DELETE FROM alternative_record WHERE attempt_id IN"
+          + " (SELECT id FROM question_attempt WHERE quiz_attempt_id IN (%s))";
+  private static final String DELETE_TRUE_OR_FALSE_QUESTION_ATTEMPTS =
+      "DELETE FROM true_or_false_question_attempt WHERE id IN"
+          + " (SELECT id FROM question_attempt WHERE quiz_attempt_id IN (%s))";
+  private static final String DELETE_MULTIPLE_CHOICE_QUESTION_ATTEMPTS =
+      "DELETE FROM multiple_choice_question_attempts WHERE id IN"
+          + " (SELECT id FROM question_attempt WHERE quiz_attempt_id IN (%s))";
+  private static final String DELETE_QUESTION_ATTEMPTS =
+      "DELETE FROM question_attempt WHERE quiz_attempt_id IN (%s)";
+  private static final String UPDATE_ANSWERS =
+      "UPDATE quiz_attempt SET answers = ?, question_count = ? WHERE id = ?";
+
+  private static final List<String> TABLES =
+      List.of(
+          "quiz_attempt",
+          "question_attempt",
+          "true_or_false_question_attempt",
+          "multiple_choice_question_attempts",
+          "alternative_record");
+
+  private final QuizAttemptRepository quizAttemptRepository;
+  private final CompactAttemptFormat compactAttemptFormat;
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final boolean runOnStartup;
+  private final int batchSize;
+
+  public CompactAttemptMigrator(
+      QuizAttemptRepository quizAttemptRepository,
+      CompactAttemptFormat compactAttemptFormat,
+      JdbcTemplate jdbcTemplate,
+      PlatformTransactionManager transactionManager,
+      @Value("${quiz.attempts.compact-migration.run-on-startup:false}") boolean runOnStartup,
+      @Value("${quiz.attempts.compact-migration.batch-size:500}") int batchSize) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("Batch size must be positive.");
+    }
+    this.quizAttemptRepository = quizAttemptRepository;
+    this.compactAttemptFormat = compactAttemptFormat;
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.runOnStartup = runOnStartup;
+    this.batchSize = batchSize;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    if (runOnStartup) {
+      migrateAll();
+    }
+  }
+
+  /**
+   * Moves every attempt that is not yet compact to the compact format.
+   *
+   * @return The number of attempts moved.
+   */
+  public long migrateAll() {
+    Map<String, Long> before = countRows();
+    long start = System.nanoTime();
+    long migrated = 0;
+    int moved;
+    do {
+      moved = migrateBatch();
+      migrated += moved;
+    } while (moved > 0);
+    log.info(
+        "Moved {} quiz attempts to the compact format in {} ms, rows before {}, after {}",
+        migrated,
+        (System.nanoTime() - start) / 1_000_000,
+        before,
+        countRows());
+    return migrated;
+  }
+
+  /**
+   * Moves one batch of attempts to the compact format, in one transaction.
+   *
+   * @return The number of attempts moved, 0 if every attempt is compact.
+   */
+  public int migrateBatch() {
+    Integer moved =
+        transactionTemplate.execute(
+            status -> {
+              List<Long> ids =
+                  quizAttemptRepository.findIdsWithoutAnswers(PageRequest.of(0, batchSize));
+              if (ids.isEmpty()) {
+                return 0;
+              }
+              List<Object[]> answers = new ArrayList<>(ids.size());
+              for (QuizAttempt quizAttempt :
+                  quizAttemptRepository.findWithQuestionAttemptsByIdIn(ids)) {
+                answers.add(
+                    new Object[] {
+                      compactAttemptFormat.encode(quizAttempt.getQuestionAttempts()),
+                      quizAttempt.getQuestionAttempts().size(),
+                      quizAttempt.getId()
+                    });
+              }
+              jdbcTemplate.batchUpdate(UPDATE_ANSWERS, answers);
+
+              String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+              Object[] args = ids.toArray();
+              jdbcTemplate.update(DELETE_ALTERNATIVE_RECORDS.formatted(placeholders), args);
+              jdbcTemplate.update(
+                  DELETE_TRUE_OR_FALSE_QUESTION_ATTEMPTS.formatted(placeholders), args);
+              jdbcTemplate.update(
+                  DELETE_MULTIPLE_CHOICE_QUESTION_ATTEMPTS.formatted(placeholders), args);
+              jdbcTemplate.update(DELETE_QUESTION_ATTEMPTS.formatted(placeholders), args);
+              return ids.size();
+            });
+    return moved == null ? 0 : moved;
+  }
+
+  /**
+   * Counts the rows of the attempt tables.
+   *
+   * @return The number of rows in each table.
+   */
+  public Map<String, Long> countRows() {
+    Map<String, Long> rows = new LinkedHashMap<>();
+    for (String table : TABLES) {
+      rows.put(table, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class));
+    }
+    return rows;
+  }
+}
@@ -0,0 +1,234 @@
+package com.idatt2105.backend.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Classical item analysis of the questions of a quiz, from the attempts made on it. For each
+ * question it counts how many attempts answered it and how many answered it correctly, which gives
+ * its difficulty (the p-value), and how often each alternative was selected, which shows which
+ * distractors draw answers. Its discrimination is the point-biserial correlation between answering
+ * it correctly and the score on the rest of the quiz, so that the question does not correlate with
+ * its own points.
+ *
+ * <p>Every count is a sum, so the analysis of a number of attempts is the sum of the analyses of
+ * any partition of them. {@link #analyze} splits a batch of attempts on a fork/join pool into
+ * {@value #PARTITIONS_PER_THREAD} partitions for each thread of the pool, so that threads that
+ * finish early can steal work, but none smaller than {@value #MIN_PARTITION_SIZE} attempts. Batches
+ * are {@link #merge merged}.
+ *
+ * <p>An analysis is not safe to use from several threads.
+ */
+public class ItemAnalysis {
+  /** Number of partitions a batch is split into for each thread of the pool. */
+  public static final int PARTITIONS_PER_THREAD = 4;
+
+  /** Smallest number of attempts worth a task of its own. */
+  public static final int MIN_PARTITION_SIZE = 256;
+
+  private final Map<Long, Item> items = new HashMap<>();
+
+  /**
+   * An answered question of an attempt.
+   *
+   * @param questionId The id of the question.
+   * @param correct Whether the question was answered correctly.
+   * @param points The points the question gives when answered correctly.
+   * @param selectedAlternativeIds The alternatives selected, empty if the question has none.
+   */
+  public record Response(
+      long questionId, boolean correct, int points, long[] selectedAlternativeIds) {}
+
+  /**
+   * The answered questions of an attempt, and the score it was given.
+   *
+   * @param score The score of the attempt.
+   * @param responses The answered questions.
+   */
+  public record ScoredAttempt(int score, List<Response> responses) {}
+
+  /** The sums kept for one question. */
+  public static final class Item {
+    private long responses;
+    private long correct;
+    // Sums of the rest scores of all responses, their squares, and those of correct responses
+    private double restSum;
+    private double restSquareSum;
+    private double correctRestSum;
+    private final Map<Long, Long> selections = new HashMap<>();
+
+    private void add(Response response, int score) {
+      double rest = score - (response.correct() ? response.points() : 0);
+      responses++;
+      restSum += rest;
+      restSquareSum += rest * rest;
+      if (response.correct()) {
+        correct++;
+        correctRestSum += rest;
+      }
+      for (long alternativeId : response.selectedAlternativeIds()) {
+        selections.merge(alternativeId, 1L, Long::sum);
+      }
+    }
+
+    private void merge(Item other) {
+      responses += other.responses;
+      correct += other.correct;
+      restSum += other.restSum;
+      restSquareSum += other.restSquareSum;
+      correctRestSum += other.correctRestSum;
+      other.selections.forEach(
+          (alternativeId, count) -> selections.merge(alternativeId, count, Long::sum));
+    }
+
+    /**
+     * Gets the number of attempts that answered the question.
+     *
+     * @return The number of responses.
+     */
+    public long getResponses() {
+      return responses;
+    }
+
+    /**
+     * Gets the number of attempts that answered the question correctly.
+     *
+     * @return The number of correct responses.
+     */
+    public long getCorrect() {
+      return correct;
+    }
+
+    /**
+     * Gets the difficulty of the question, the share of responses that were correct.
+     *
+     * @return The p-value, between 0 and 1, or NaN if there are no responses.
+     */
+    public double getDifficulty() {
+      return responses == 0 ? Double.NaN : (double) correct / responses;
+    }
+
+    /**
+     * Gets the point-biserial correlation between answering the question correctly and the score on
+     * the rest of the quiz.
+     *
+     * @return The correlation, between -1 and 1, or NaN if every response or none was correct, or
+     *     every rest score is the same.
+     */
+    public double getDiscrimination() {
+      if (correct == 0 || correct == responses) {
+        return Double.NaN;
+      }
+      double mean = restSum / responses;
+      double variance = restSquareSum / responses - mean * mean;
+      if (variance <= 0) {
+        return Double.NaN;
+      }
+      double p = (double) correct / responses;
+      double correctMean = correctRestSum / correct;
+      double incorrectMean = (restSum - correctRestSum) / (responses - correct);
+      double correlation =
+          (correctMean - incorrectMean) / Math.sqrt(variance) * Math.sqrt(p * (1 - p));
+      // Rounding can put a perfect correlation just outside the range
+      return Math.max(-1, Math.min(1, correlation));
+    }
+
+    /**
+     * Gets how many responses selected each alternative.
+     *
+     * @return The number of selections of each alternative, by its id.
+     */
+    public Map<Long, Long> getSelections() {
+      return selections;
+    }
+  }
+
+  /**
+   * Analyzes a batch of attempts in parallel.
+   *
+   * @param attempts The attempts.
+   * @param pool The pool to analyze them on.
+   * @return The analysis of the attempts.
+   */
+  public static ItemAnalysis analyze(List<ScoredAttempt> attempts, ForkJoinPool pool) {
+    int partitionSize = partitionSize(attempts.size(), pool.getParallelism());
+    return pool.invoke(new AnalyzeTask(attempts, partitionSize, 0, attempts.size()));
+  }
+
+  /**
+   * Computes the largest number of attempts analyzed by one task.
+   *
+   * @param attempts The number of attempts in the batch.
+   * @param parallelism The number of threads of the pool.
+   * @return The partition size.
+   */
+  static int partitionSize(int attempts, int parallelism) {
+    long partitions = (long) parallelism * PARTITIONS_PER_THREAD;
+    return (int) Math.max(MIN_PARTITION_SIZE, (attempts + partitions - 1) / partitions);
+  }
+
+  /**
+   * Adds an attempt.
+   *
+   * @param attempt The attempt.
+   */
+  public void add(ScoredAttempt attempt) {
+    for (Response response : attempt.responses()) {
+      items.computeIfAbsent(response.questionId(), id -> new Item()).add(response, attempt.score());
+    }
+  }
+
+  /**
+   * Adds the attempts of another analysis to this one.
+   *
+   * @param other The other analysis, which is left unchanged.
+   */
+  public void merge(ItemAnalysis other) {
+    other.items.forEach(
+        (questionId, item) -> items.computeIfAbsent(questionId, id -> new Item()).merge(item));
+  }
+
+  /**
+   * Gets the analysis of each question that was answered.
+   *
+   * @return The analysis of each question, by its id.
+   */
+  public Map<Long, Item> getItems() {
+    return items;
+  }
+
+  /** Analyzes a range of attempts, splitting it in two while it is larger than a partition. */
+  private static final class AnalyzeTask extends RecursiveTask<ItemAnalysis> {
+    private final List<ScoredAttempt> attempts;
+    private final int partitionSize;
+    private final int from;
+    private final int to;
+
+    private AnalyzeTask(List<ScoredAttempt> attempts, int partitionSize, int from, int to) {
+      this.attempts = attempts;
+      this.partitionSize = partitionSize;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected ItemAnalysis compute() {
+      if (to - from <= partitionSize) {
+        ItemAnalysis analysis = new ItemAnalysis();
+        for (int i = from; i < to; i++) {
+          analysis.add(attempts.get(i));
+        }
+        return analysis;
+      }
+      int middle = (from + to) >>> 1;
+      AnalyzeTask right = new AnalyzeTask(attempts, partitionSize, middle, to);
+      right.fork();
+      ItemAnalysis analysis = new AnalyzeTask(attempts, partitionSize, from, middle).compute();
+      analysis.merge(right.join());
+      return analysis;
+    }
+  }
+}
@@ -0,0 +1,282 @@
+package com.idatt2105.backend.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.idatt2105.backend.dto.QuestionAnalyticsDTO;
+import com.idatt2105.backend.model.AlternativeRecord;
+import com.idatt2105.backend.model.MultipleChoiceQuestionAttempt;
+import com.idatt2105.backend.model.QuestionAnalytics;
+import com.idatt2105.backend.model.QuestionAttempt;
+import com.idatt2105.backend.model.QuizAttempt;
+import com.idatt2105.backend.model.TrueOrFalseQuestionAttempt;
+import com.idatt2105.backend.repository.QuestionAnalyticsRepository;
+import com.idatt2105.backend.repository.QuizAttemptRepository;
+import com.idatt2105.backend.repository.QuizRepository;
+import com.idatt2105.backend.util.InvalidIdException;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Computes the {@link ItemAnalysis item analysis} of the questions of every quiz, on the {@code
+ * quiz.item-analysis.cron} schedule if {@code quiz.item-analysis.enabled} is set, and stores it per
+ * question.
+ *
+ * <p>The attempts of a quiz are read in batches of {@code quiz.item-analysis.batch-size}, each in a
+ * transaction of its own, so that only one batch is held at a time. Each batch is analyzed on a
+ * fork/join pool of {@code quiz.item-analysis.parallelism} threads, the number of processors by
+ * default. Archived attempts are analyzed with those in the database.
+ */
+@Slf4j
+@Service
+public class ItemAnalysisService {
+  private final QuizAttemptRepository quizAttemptRepository;
+  private final QuizRepository quizRepository;
+  private final QuestionAnalyticsRepository questionAnalyticsRepository;
+  private final AttemptArchive attemptArchive;
+  private final CompactAttemptFormat compactAttemptFormat;
+  private final TransactionTemplate transactionTemplate;
+  private final ForkJoinPool pool;
+  private final boolean enabled;
+  private final int batchSize;
+
+  public ItemAnalysisService(
+      QuizAttemptRepository quizAttemptRepository,
+      QuizRepository quizRepository,
+      QuestionAnalyticsRepository questionAnalyticsRepository,
+      AttemptArchive attemptArchive,
+      CompactAttemptFormat compactAttemptFormat,
+      PlatformTransactionManager transactionManager,
+      @Value("${quiz.item-analysis.enabled:false}") boolean enabled,
+      @Value("${quiz.item-analysis.batch-size:5000}") int batchSize,
+      @Value("${quiz.item-analysis.parallelism:0}") int parallelism) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("Batch size must be positive.");
+    }
+    if (parallelism < 0) {
+      throw new IllegalArgumentException("Parallelism cannot be negative.");
+    }
+    this.quizAttemptRepository = quizAttemptRepository;
+    this.quizRepository = quizRepository;
+    this.questionAnalyticsRepository = questionAnalyticsRepository;
+    this.attemptArchive = attemptArchive;
+    this.compactAttemptFormat = compactAttemptFormat;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.pool =
+        new ForkJoinPool(
+            parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    this.enabled = enabled;
+    this.batchSize = batchSize;
+  }
+
+  @PreDestroy
+  void close() {
+    pool.shutdown();
+  }
+
+  /** Analyzes every quiz, if the item analysis job is enabled. */
+  @Scheduled(cron = "${quiz.item-analysis.cron:0 0 5 * * *}")
+  public void analyzeOnSchedule() {
+    if (enabled) {
+      analyzeAllQuizzes();
+    }
+  }
+
+  /**
+   * Analyzes the questions of every quiz.
+   *
+   * @return The number of questions analyzed.
+   */
+  public long analyzeAllQuizzes() {
+    long start = System.nanoTime();
+    long questions = 0;
+    for (Long quizId : quizRepository.findAllIds()) {
+      questions += analyzeQuiz(quizId).getItems().size();
+    }
+    log.info("Analyzed {} questions in {} ms", questions, (System.nanoTime() - start) / 1_000_000);
+    return questions;
+  }
+
+  /**
+   * Analyzes the questions of a quiz from all its attempts, and stores the analysis of each
+   * question that was answered in place of the one stored before.
+   *
+   * @param quizId The id of the quiz.
+   * @return The analysis.
+   */
+  public ItemAnalysis analyzeQuiz(Long quizId) {
+    ItemAnalysis analysis = new ItemAnalysis();
+    long afterId = 0;
+    while (true) {
+      List<Long> ids =
+          quizAttemptRepository.findIdsByQuizIdAfter(quizId, afterId, PageRequest.of(0, batchSize));
+      if (ids.isEmpty()) {
+        break;
+      }
+      List<ItemAnalysis.ScoredAttempt> batch =
+          transactionTemplate.execute(
+              status ->
+                  quizAttemptRepository.findWithQuestionAttemptsByIdIn(ids).stream()
+                      .map(this::toScoredAttempt)
+                      .toList());
+      analysis.merge(ItemAnalysis.analyze(batch, pool));
+      afterId = ids.get(ids.size() - 1);
+    }
+
+    // Archived attempts are read with their answers in one pass, a batch at a time
+    List<ItemAnalysis.ScoredAttempt> archived = new ArrayList<>(batchSize);
+    attemptArchive.forEachByQuizId(
+        quizId,
+        true,
+        quizAttempt -> {
+          archived.add(toScoredAttempt(quizAttempt));
+          if (archived.size() == batchSize) {
+            analysis.merge(ItemAnalysis.analyze(archived, pool));
+            archived.clear();
+          }
+        });
+    if (!archived.isEmpty()) {
+      analysis.merge(ItemAnalysis.analyze(archived, pool));
+    }
+
+    store(quizId, analysis);
+    return analysis;
+  }
+
+  /**
+   * Gets the stored item analysis of a question.
+   *
+   * @param questionId The id of the question.
+   * @throws InvalidIdException If the question has not been analyzed.
+   * @return The analysis.
+   */
+  public QuestionAnalyticsDTO getAnalytics(Long questionId) {
+    if (questionId == null) {
+      throw new InvalidIdException("Question id cannot be null");
+    }
+    return questionAnalyticsRepository
+        .findById(questionId)
+        .map(ItemAnalysisService::toDTO)
+        .orElseThrow(
+            () ->
+                new InvalidIdException(
+                    "No analytics for question with id " + questionId + " found"));
+  }
+
+  /**
+   * Replaces the stored analytics of the questions of a quiz.
+   *
+   * @param quizId The id of the quiz.
+   * @param analysis The analysis of its questions.
+   */
+  private void store(Long quizId, ItemAnalysis analysis) {
+    LocalDateTime analyzedAt = LocalDateTime.now();
+    List<QuestionAnalytics> questionAnalytics = new ArrayList<>();
+    analysis
+        .getItems()
+        .forEach(
+            (questionId, item) -> {
+              QuestionAnalytics stored = new QuestionAnalytics();
+              stored.setQuestionId(questionId);
+              stored.setQuizId(quizId);
+              stored.setResponseCount(item.getResponses());
+              stored.setCorrectCount(item.getCorrect());
+              stored.setDifficulty(item.getDifficulty());
+              double discrimination = item.getDiscrimination();
+              stored.setDiscrimination(Double.isNaN(discrimination) ? null : discrimination);
+              stored.setAlternativeSelections(
+                  item.getSelections().entrySet().stream()
+                      .map(selection -> selection.getKey() + ":" + selection.getValue())
+                      .collect(Collectors.joining(",")));
+              stored.setAnalyzedAt(analyzedAt);
+              questionAnalytics.add(stored);
+            });
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          questionAnalyticsRepository.deleteByQuizId(quizId);
+          questionAnalyticsRepository.saveAll(questionAnalytics);
+        });
+  }
+
+  /**
+   * Reads the answered questions of an attempt. A question is answered correctly the same way
+   * {@link QuizGrader} grades it: a true or false answer must match, and exactly the correct
+   * alternatives must be selected.
+   *
+   * @param quizAttempt The attempt, with its question attempts in rows or in the compact format.
+   * @return The answered questions and the score of the attempt.
+   */
+  private ItemAnalysis.ScoredAttempt toScoredAttempt(QuizAttempt quizAttempt) {
+    Collection<QuestionAttempt> questionAttempts =
+        quizAttempt.getAnswers() != null
+            ? compactAttemptFormat.decode(quizAttempt.getAnswers())
+            : quizAttempt.getQuestionAttempts();
+    List<ItemAnalysis.Response> responses = new ArrayList<>(questionAttempts.size());
+    for (QuestionAttempt questionAttempt : questionAttempts) {
+      if (questionAttempt.getQuestionId() == null) {
+        continue;
+      }
+      boolean correct;
+      long[] selected;
+      if (questionAttempt instanceof MultipleChoiceQuestionAttempt multipleChoiceAttempt) {
+        correct = true;
+        List<Long> selectedIds = new ArrayList<>();
+        for (AlternativeRecord record : multipleChoiceAttempt.getAlternatives()) {
+          correct &= record.wasSelected() == record.wasCorrect();
+          if (record.wasSelected() && record.getAlternativeId() != null) {
+            selectedIds.add(record.getAlternativeId());
+          }
+        }
+        selected = selectedIds.stream().mapToLong(Long::longValue).toArray();
+      } else if (questionAttempt instanceof TrueOrFalseQuestionAttempt trueOrFalseAttempt) {
+        correct =
+            trueOrFalseAttempt.getUserAnswer() != null
+                && trueOrFalseAttempt.getUserAnswer().equals(trueOrFalseAttempt.getCorrectAnswer());
+        selected = new long[0];
+      } else {
+        continue;
+      }
+      responses.add(
+          new ItemAnalysis.Response(
+              questionAttempt.getQuestionId(), correct, questionAttempt.getPoints(), selected));
+    }
+    return new ItemAnalysis.ScoredAttempt(quizAttempt.getScore(), responses);
+  }
+
+  private static QuestionAnalyticsDTO toDTO(QuestionAnalytics stored) {
+    Map<Long, Double> frequencies = new LinkedHashMap<>();
+    if (!stored.getAlternativeSelections().isEmpty()) {
+      for (String selection : stored.getAlternativeSelections().split(",")) {
+        int separator = selection.indexOf(':');
+        frequencies.put(
+            Long.parseLong(selection.substring(0, separator)),
+            (double) Long.parseLong(selection.substring(separator + 1))
+                / stored.getResponseCount());
+      }
+    }
+    QuestionAnalyticsDTO dto = new QuestionAnalyticsDTO();
+    dto.setQuestionId(stored.getQuestionId());
+    dto.setQuizId(stored.getQuizId());
+    dto.setResponseCount(stored.getResponseCount());
+    dto.setCorrectCount(stored.getCorrectCount());
+    dto.setDifficulty(stored.getDifficulty());
+    dto.setDiscrimination(stored.getDiscrimination());
+    dto.setAlternativeFrequencies(frequencies);
+    dto.setAnalyzedAt(stored.getAnalyzedAt());
+    return dto;
+  }
+}
@@ -0,0 +1,582 @@
+package com.idatt2105.backend.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Stream;
+
+import com.idatt2105.backend.dto.LeaderboardEntryDTO;
+import com.idatt2105.backend.dto.LiveQuestionDTO;
+import com.idatt2105.backend.dto.LiveQuestionResultsDTO;
+import com.idatt2105.backend.dto.LiveSessionDTO;
+import com.idatt2105.backend.dto.QuestionAttemptDTO;
+import com.idatt2105.backend.dto.QuizAttemptDTO;
+import com.idatt2105.backend.enumerator.LiveSessionState;
+import com.idatt2105.backend.enumerator.QuestionType;
+import com.idatt2105.backend.model.AlternativeRecord;
+import com.idatt2105.backend.util.InvalidIdException;
+import com.idatt2105.backend.util.LiveSessionStateException;
+
+/**
+ * A live session of a quiz: a host shows the questions one at a time, and the players who joined
+ * with the code of the session answer them. Answers are graded against the {@link AnswerKey} the
+ * session was started with as they arrive.
+ *
+ * <p>Answering is the hot path, since every player answers the same question within seconds, so it
+ * never takes a lock. The answer of a player is recorded with a compare-and-set on their slot for
+ * the question, which also rejects a second answer, and nothing else is written, so answers only
+ * contend on their own slots. The host moves the session from question to question, and new players
+ * join, holding the monitor of the session, and players read which question is open from a volatile
+ * field. Closing a question seals the slot of every player who has not answered it, so an answer
+ * racing the close either lands in its slot before the seal, or finds the slot sealed and is
+ * rejected. The results and scores are counted from the slots once they are sealed, so they hold
+ * exactly the answers that were accepted.
+ */
+public class LiveSession {
+  private static final Comparator<Ranked> RANKING =
+      Comparator.comparingInt(Ranked::score)
+          .reversed()
+          .thenComparingLong(ranked -> ranked.player().getJoinOrder());
+  private static final long[] NONE = new long[0];
+  // Fills the slot of a player who did not answer a question before it was closed
+  private static final Answer UNANSWERED = new Answer(null, NONE, false, 0);
+
+  private final String code;
+  private final Long quizId;
+  private final String title;
+  private final Long hostId;
+  private final AnswerKey answerKey;
+  // Ordered like the questions of the answer key
+  private final List<LiveQuestionDTO> questions;
+
+  private final Map<Long, Player> players = new ConcurrentHashMap<>();
+  private final AtomicLong joined = new AtomicLong();
+  private final Map<Long, LiveSubscriber> subscribers = new ConcurrentHashMap<>();
+
+  // The index of the question that may be answered, or -1 if none may
+  private volatile int openQuestion = -1;
+  private volatile LiveSessionState state = LiveSessionState.LOBBY;
+  private volatile long lastActivityNanos = System.nanoTime();
+  // Guarded by this
+  private int currentQuestion = -1;
+  private List<LeaderboardEntryDTO> results;
+
+  /**
+   * Creates a session in the lobby.
+   *
+   * @param code The code players join the session with.
+   * @param quizId The id of the quiz.
+   * @param title The title of the quiz.
+   * @param hostId The id of the user hosting the session.
+   * @param answerKey The answer key of the quiz.
+   * @param questions The questions of the quiz, ordered like those of the answer key.
+   */
+  public LiveSession(
+      String code,
+      Long quizId,
+      String title,
+      Long hostId,
+      AnswerKey answerKey,
+      List<LiveQuestionDTO> questions) {
+    if (questions.size() != answerKey.questionCount()) {
+      throw new IllegalArgumentException("Questions must match the answer key.");
+    }
+    this.code = code;
+    this.quizId = quizId;
+    this.title = title;
+    this.hostId = hostId;
+    this.answerKey = answerKey;
+    this.questions = List.copyOf(questions);
+  }
+
+  /** A player who joined the session, and their answers. */
+  public static final class Player {
+    private final Long userId;
+    private final String username;
+    private final long joinOrder;
+    private final AtomicReferenceArray<Answer> answers;
+
+    private Player(Long userId, String username, long joinOrder, int questionCount) {
+      this.userId = userId;
+      this.username = username;
+      this.joinOrder = joinOrder;
+      this.answers = new AtomicReferenceArray<>(questionCount);
+    }
+
+    public Long getUserId() {
+      return userId;
+    }
+
+    public String getUsername() {
+      return username;
+    }
+
+    public long getJoinOrder() {
+      return joinOrder;
+    }
+
+    /**
+     * Gets the points of the questions the player has answered correctly so far.
+     *
+     * @return The score.
+     */
+    public int getScore() {
+      int score = 0;
+      for (int i = 0; i < answers.length(); i++) {
+        Answer answer = answers.get(i);
+        if (answer != null) {
+          score += answer.points();
+        }
+      }
+      return score;
+    }
+  }
+
+  /** A player and their score when they were ranked. */
+  private record Ranked(Player player, int score) {}
+
+  /**
+   * The graded answer of a player to a question.
+   *
+   * @param trueOrFalse The answer to a true or false question, null for multiple choice.
+   * @param alternativeIds The selected alternatives of a multiple choice question.
+   * @param correct Whether the answer is correct.
+   * @param points The points given for the answer.
+   */
+  private record Answer(Boolean trueOrFalse, long[] alternativeIds, boolean correct, int points) {}
+
+  public String getCode() {
+    return code;
+  }
+
+  public Long getQuizId() {
+    return quizId;
+  }
+
+  public Long getHostId() {
+    return hostId;
+  }
+
+  public LiveSessionState getState() {
+    return state;
+  }
+
+  /**
+   * Gets the clients listening for the events of the session.
+   *
+   * @return The event streams, by the id of the user listening.
+   */
+  public Map<Long, LiveSubscriber> getSubscribers() {
+    return subscribers;
+  }
+
+  /**
+   * Gets the number of players who have joined.
+   *
+   * @return The number of players.
+   */
+  public int getPlayerCount() {
+    return players.size();
+  }
+
+  /**
+   * Checks whether a user is the host or a player of the session.
+   *
+   * @param userId The id of the user.
+   * @return True if the user may listen for the events of the session.
+   */
+  public boolean isMember(Long userId) {
+    return hostId.equals(userId) || players.containsKey(userId);
+  }
+
+  /**
+   * Gets how long it has been since the session was started, joined or moved on by its host.
+   *
+   * @return The idle time in nanoseconds.
+   */
+  public long idleNanos() {
+    return System.nanoTime() - lastActivityNanos;
+  }
+
+  /**
+   * Adds a player, or gets them if they have joined before. Players may join until the session
+   * ends.
+   *
+   * @param userId The id of the user.
+   * @param username The name shown for the player.
+   * @param maxPlayers The largest number of players the session may have.
+   * @throws IllegalArgumentException If the user is the host.
+   * @throws LiveSessionStateException If the session has ended or is full.
+   * @return The player.
+   */
+  public Player join(Long userId, String username, int maxPlayers) {
+    if (hostId.equals(userId)) {
+      throw new IllegalArgumentException("The host cannot join as a player.");
+    }
+    if (state == LiveSessionState.ENDED) {
+      throw new LiveSessionStateException("Session " + code + " has ended.");
+    }
+    Player player = players.get(userId);
+    if (player != null) {
+      return player;
+    }
+    // Checked again holding the monitor, so that a player is never added past the limit, after the
+    // session has ended, or while a question is being closed
+    synchronized (this) {
+      if (state == LiveSessionState.ENDED) {
+        throw new LiveSessionStateException("Session " + code + " has ended.");
+      }
+      player = players.get(userId);
+      if (player != null) {
+        return player;
+      }
+      if (players.size() >= maxPlayers) {
+        throw new LiveSessionStateException("Session " + code + " is full.");
+      }
+      player = new Player(userId, username, joined.getAndIncrement(), questions.size());
+      players.put(userId, player);
+      lastActivityNanos = System.nanoTime();
+      return player;
+    }
+  }
+
+  /**
+   * Opens the next question, closing none: the question before it must have been closed.
+   *
+   * @throws LiveSessionStateException If a question is open, the last question has been shown, or
+   *     the session has ended.
+   * @return The question, as shown to the players.
+   */
+  public synchronized LiveQuestionDTO openNextQuestion() {
+    if (state != LiveSessionState.LOBBY && state != LiveSessionState.QUESTION_CLOSED) {
+      throw new LiveSessionStateException("Session " + code + " is " + state + ".");
+    }
+    if (currentQuestion + 1 >= questions.size()) {
+      throw new LiveSessionStateException("Every question of session " + code + " is shown.");
+    }
+    currentQuestion++;
+    state = LiveSessionState.QUESTION_OPEN;
+    openQuestion = currentQuestion;
+    lastActivityNanos = System.nanoTime();
+    return questions.get(currentQuestion);
+  }
+
+  /**
+   * Closes the open question. Players who have not answered it by now cannot answer it after.
+   *
+   * @param standingsSize The number of players to rank in the results.
+   * @throws LiveSessionStateException If no question is open.
+   * @return How the players answered the question.
+   */
+  public synchronized LiveQuestionResultsDTO closeQuestion(int standingsSize) {
+    if (state != LiveSessionState.QUESTION_OPEN) {
+      throw new LiveSessionStateException("No question of session " + code + " is open.");
+    }
+    openQuestion = -1;
+    // Every answer still in flight either landed before this, or fails its compare-and-set
+    for (Player player : players.values()) {
+      player.answers.compareAndSet(currentQuestion, null, UNANSWERED);
+    }
+    state = LiveSessionState.QUESTION_CLOSED;
+    lastActivityNanos = System.nanoTime();
+    return getResults(currentQuestion, standingsSize);
+  }
+
+  /**
+   * Ends the session, closing the open question if there is one. No player may join or answer after
+   * this.
+   *
+   * @param standingsSize The number of players to rank in the results of the closed question.
+   * @return How the players answered the question that was closed, or null if none was open.
+   */
+  public synchronized LiveQuestionResultsDTO end(int standingsSize) {
+    LiveQuestionResultsDTO closed =
+        state == LiveSessionState.QUESTION_OPEN ? closeQuestion(standingsSize) : null;
+    state = LiveSessionState.ENDED;
+    lastActivityNanos = System.nanoTime();
+    return closed;
+  }
+
+  /**
+   * Records and grades the answer of a player to the open question.
+   *
+   * @param userId The id of the player.
+   * @param questionIndex The index of the question, which must be open.
+   * @param answer The answer to a true or false question.
+   * @param alternativeIds The selected alternatives of a multiple choice question.
+   * @throws InvalidIdException If the user has not joined the session.
+   * @throws IllegalArgumentException If the answer does not fit the question.
+   * @throws LiveSessionStateException If the question is not open, or the player has answered it.
+   * @return True if the answer is correct.
+   */
+  public boolean answer(
+      Long userId, int questionIndex, Boolean answer, Collection<Long> alternativeIds) {
+    Player player = players.get(userId);
+    if (player == null) {
+      throw new InvalidIdException("User " + userId + " has not joined session " + code);
+    }
+    if (questionIndex != openQuestion || questionIndex < 0) {
+      throw new LiveSessionStateException(
+          "Question " + questionIndex + " of session " + code + " is not open.");
+    }
+    Answer graded = grade(questionIndex, answer, alternativeIds);
+    if (!player.answers.compareAndSet(questionIndex, null, graded)) {
+      if (player.answers.get(questionIndex) == UNANSWERED) {
+        throw new LiveSessionStateException(
+            "Question " + questionIndex + " of session " + code + " is closed.");
+      }
+      throw new LiveSessionStateException(
+          "Question " + questionIndex + " is already answered by user " + userId);
+    }
+    return graded.correct();
+  }
+
+  /**
+   * Counts how the players have answered a question so far.
+   *
+   * @param questionIndex The index of the question.
+   * @param standingsSize The number of players to rank.
+   * @return The answers to the question, and the highest ranked players.
+   */
+  public LiveQuestionResultsDTO getResults(int questionIndex, int standingsSize) {
+    long answerCount = 0;
+    long correctCount = 0;
+    long trueCount = 0;
+    // By the index of the alternative in the answer key
+    long[] alternativeSelections = new long[answerKey.alternativeCount()];
+    for (Player player : players.values()) {
+      Answer answer = player.answers.get(questionIndex);
+      if (answer == null || answer == UNANSWERED) {
+        continue;
+      }
+      answerCount++;
+      if (answer.correct()) {
+        correctCount++;
+      }
+      if (Boolean.TRUE.equals(answer.trueOrFalse())) {
+        trueCount++;
+      }
+      for (long alternativeId : answer.alternativeIds()) {
+        alternativeSelections[answerKey.indexOfAlternative(questionIndex, alternativeId)]++;
+      }
+    }
+
+    LiveQuestionDTO question = questions.get(questionIndex);
+    LiveQuestionResultsDTO results = new LiveQuestionResultsDTO();
+    results.setIndex(questionIndex);
+    results.setQuestionId(question.getQuestionId());
+    results.setAnswerCount(answerCount);
+    results.setCorrectCount(correctCount);
+    if (answerKey.isTrueOrFalse(questionIndex)) {
+      results.setCorrectAnswer(answerKey.correctAnswer(questionIndex));
+      results.setTrueCount(trueCount);
+    } else {
+      List<Long> correctAlternativeIds = new ArrayList<>();
+      Map<Long, Long> selections = new LinkedHashMap<>();
+      for (LiveQuestionDTO.AlternativeEntry alternative : question.getAlternatives()) {
+        int index = answerKey.indexOfAlternative(questionIndex, alternative.getId());
+        if (answerKey.isCorrectAlternative(index)) {
+          correctAlternativeIds.add(alternative.getId());
+        }
+        selections.put(alternative.getId(), alternativeSelections[index]);
+      }
+      results.setCorrectAlternativeIds(correctAlternativeIds);
+      results.setAlternativeSelections(selections);
+    }
+    results.setStandings(getStandings(standingsSize));
+    return results;
+  }
+
+  /**
+   * Ranks the players by their score so far, and by who joined first.
+   *
+   * @param limit The largest number of players to rank.
+   * @return The highest ranked players, best first.
+   */
+  public List<LeaderboardEntryDTO> getStandings(int limit) {
+    List<Ranked> ranked = rank(players.values().stream()).limit(limit).toList();
+    List<LeaderboardEntryDTO> standings = new ArrayList<>(ranked.size());
+    for (int i = 0; i < ranked.size(); i++) {
+      Player player = ranked.get(i).player();
+      standings.add(
+          new LeaderboardEntryDTO(
+              i + 1, player.getUserId(), player.getUsername(), null, ranked.get(i).score(), null));
+    }
+    return standings;
+  }
+
+  /**
+   * Gets the players who answered at least one question, ranked like the standings.
+   *
+   * @return The players, best first.
+   */
+  public List<Player> getRankedPlayersWithAnswers() {
+    return rank(players.values().stream().filter(this::hasAnswers)).map(Ranked::player).toList();
+  }
+
+  /**
+   * Builds the quiz attempt of a player from their answers, to be graded and stored.
+   *
+   * @param player The player.
+   * @return The attempt.
+   */
+  public QuizAttemptDTO toQuizAttempt(Player player) {
+    QuizAttemptDTO quizAttempt = new QuizAttemptDTO();
+    quizAttempt.setTitle(title);
+    quizAttempt.setQuizId(quizId);
+    quizAttempt.setUserId(player.getUserId());
+    for (int i = 0; i < questions.size(); i++) {
+      Answer answer = player.answers.get(i);
+      if (answer == null || answer == UNANSWERED) {
+        continue;
+      }
+      LiveQuestionDTO question = questions.get(i);
+      QuestionAttemptDTO questionAttempt = new QuestionAttemptDTO();
+      questionAttempt.setType(question.getType());
+      questionAttempt.setQuestionId(question.getQuestionId());
+      questionAttempt.setQuestionText(question.getQuestionText());
+      questionAttempt.setMediaUrl(question.getMediaUrl());
+      questionAttempt.setPoints(question.getPoints());
+      if (question.getType() == QuestionType.TRUE_OR_FALSE) {
+        questionAttempt.setUserAnswer(answer.trueOrFalse());
+      } else {
+        for (LiveQuestionDTO.AlternativeEntry alternative : question.getAlternatives()) {
+          AlternativeRecord record = new AlternativeRecord();
+          record.setAlternativeId(alternative.getId());
+          record.setAlternativeText(alternative.getAlternativeText());
+          record.setWasSelected(contains(answer.alternativeIds(), alternative.getId()));
+          questionAttempt.getAlternatives().add(record);
+        }
+      }
+      quizAttempt.getQuestionAttempts().add(questionAttempt);
+    }
+    return quizAttempt;
+  }
+
+  /**
+   * Gets the open question, for players who start listening while it is open.
+   *
+   * @return The open question, or null if none is open.
+   */
+  public LiveQuestionDTO getOpenQuestion() {
+    int open = openQuestion;
+    return open < 0 ? null : questions.get(open);
+  }
+
+  /**
+   * Gets the final results of the session.
+   *
+   * @return The stored attempt of each player, best first, or null if they are not stored yet.
+   */
+  public synchronized List<LeaderboardEntryDTO> getFinalResults() {
+    return results;
+  }
+
+  public synchronized void setFinalResults(List<LeaderboardEntryDTO> results) {
+    this.results = results;
+  }
+
+  /**
+   * Describes the state of the session.
+   *
+   * @return The state, as shown to the host and players.
+   */
+  public synchronized LiveSessionDTO toDTO() {
+    LiveSessionDTO dto = new LiveSessionDTO();
+    dto.setCode(code);
+    dto.setQuizId(quizId);
+    dto.setTitle(title);
+    dto.setHostId(hostId);
+    dto.setState(state);
+    dto.setCurrentQuestion(currentQuestion);
+    dto.setQuestionCount(questions.size());
+    dto.setPlayerCount(players.size());
+    return dto;
+  }
+
+  /**
+   * Grades an answer the way {@link QuizGrader} grades a question attempt: a true or false answer
+   * must match, and exactly the correct alternatives must be selected.
+   *
+   * @param question The index of the question.
+   * @param answer The answer to a true or false question.
+   * @param alternativeIds The selected alternatives of a multiple choice question.
+   * @throws IllegalArgumentException If the answer does not fit the question.
+   * @return The graded answer.
+   */
+  private Answer grade(int question, Boolean answer, Collection<Long> alternativeIds) {
+    if (answerKey.isTrueOrFalse(question)) {
+      if (answer == null) {
+        throw new IllegalArgumentException("A true or false question needs an answer.");
+      }
+      boolean correct = answer == answerKey.correctAnswer(question);
+      return new Answer(answer, NONE, correct, correct ? answerKey.points(question) : 0);
+    }
+    if (alternativeIds == null) {
+      alternativeIds = List.of();
+    }
+    long[] selected = new long[alternativeIds.size()];
+    int correctSelected = 0;
+    boolean wrongSelected = false;
+    int i = 0;
+    for (Long alternativeId : alternativeIds) {
+      int alternative =
+          alternativeId == null ? -1 : answerKey.indexOfAlternative(question, alternativeId);
+      if (alternative < 0) {
+        throw new IllegalArgumentException(
+            "Alternative " + alternativeId + " is not part of question " + question);
+      }
+      if (contains(selected, i, alternativeId)) {
+        throw new IllegalArgumentException("Alternative " + alternativeId + " is selected twice");
+      }
+      selected[i++] = alternativeId;
+      if (answerKey.isCorrectAlternative(alternative)) {
+        correctSelected++;
+      } else {
+        wrongSelected = true;
+      }
+    }
+    boolean correct =
+        !wrongSelected && correctSelected == answerKey.correctAlternativeCount(question);
+    return new Answer(null, selected, correct, correct ? answerKey.points(question) : 0);
+  }
+
+  /**
+   * Ranks players by their score at the time they are ranked, and by who joined first.
+   *
+   * @param unranked The players.
+   * @return The players with their scores, best first.
+   */
+  private static Stream<Ranked> rank(Stream<Player> unranked) {
+    return unranked.map(player -> new Ranked(player, player.getScore())).sorted(RANKING);
+  }
+
+  private boolean hasAnswers(Player player) {
+    for (int i = 0; i < questions.size(); i++) {
+      Answer answer = player.answers.get(i);
+      if (answer != null && answer != UNANSWERED) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean contains(long[] ids, long id) {
+    return contains(ids, ids.length, id);
+  }
+
+  private static boolean contains(long[] ids, int length, long id) {
+    for (int i = 0; i < length; i++) {
+      if (ids[i] == id) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,564 @@
+package com.idatt2105.backend.service;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.idatt2105.backend.dto.LeaderboardEntryDTO;
+import com.idatt2105.backend.dto.LiveAnswerDTO;
+import com.idatt2105.backend.dto.LiveQuestionDTO;
+import com.idatt2105.backend.dto.LiveQuestionResultsDTO;
+import com.idatt2105.backend.dto.LiveSessionDTO;
+import com.idatt2105.backend.dto.QuizAttemptDTO;
+import com.idatt2105.backend.dto.QuizVersionDTO;
+import com.idatt2105.backend.enumerator.LiveSessionState;
+import com.idatt2105.backend.enumerator.QuestionType;
+import com.idatt2105.backend.model.Question;
+import com.idatt2105.backend.model.Quiz;
+import com.idatt2105.backend.model.QuizAttempt;
+import com.idatt2105.backend.model.TrueOrFalseQuestion;
+import com.idatt2105.backend.model.User;
+import com.idatt2105.backend.repository.AlternativeRepository;
+import com.idatt2105.backend.repository.AlternativeRepository.AlternativeRow;
+import com.idatt2105.backend.repository.QuestionRepository;
+import com.idatt2105.backend.repository.QuizRepository;
+import com.idatt2105.backend.repository.UserRepository;
+import com.idatt2105.backend.util.InvalidIdException;
+import com.idatt2105.backend.util.LiveSessionStateException;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs {@link LiveSession live sessions} of quizzes. A host starts a session, players join it with
+ * its code and listen for its events as server-sent events, and the host shows the questions one at
+ * a time. Sessions are only held in the memory of this node.
+ *
+ * <p>The events are {@code session} (the state of the session, sent when a client starts
+ * listening), {@code question} (a question is open), {@code results} (a question is closed, with
+ * how it was answered) and {@code ended} (the final standings). Each event is serialized once and
+ * queued for every client, and written to the clients by a pool of {@code quiz.live.send-threads}
+ * threads, so the host never waits for a slow client. Events reach every client in order. When the
+ * session ends, the answers of every player are stored as quiz attempts in one transaction, and the
+ * session is dropped.
+ *
+ * <p>A session may have at most {@code quiz.live.max-players} players. A session its host has not
+ * moved on for {@code quiz.live.idle-timeout} is ended and dropped, unless its attempts could not
+ * be stored, in which case ending it is tried again at the next sweep. The number of sessions,
+ * players and clients listening, and of answers and events pushed, are exposed as {@code live.*}
+ * metrics.
+ */
+@Slf4j
+@Service
+public class LiveSessionService implements MeterBinder, SchedulingConfigurer {
+  /** The number of players ranked in the results of a question and in the final standings. */
+  public static final int STANDINGS_SIZE = 10;
+
+  /** The number of characters in the code of a session. */
+  public static final int CODE_LENGTH = 6;
+
+  // Without 0, O, 1 and I, which are easily mistaken for each other
+  private static final String CODE_ALPHABET = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789";
+
+  private final QuizRepository quizRepository;
+  private final QuestionRepository questionRepository;
+  private final AlternativeRepository alternativeRepository;
+  private final UserRepository userRepository;
+  private final AttemptService attemptService;
+  private final ObjectMapper objectMapper;
+  private final TransactionTemplate transactionTemplate;
+  private final int maxPlayers;
+  private final Duration idleTimeout;
+  private final Duration sweepInterval;
+
+  private final Map<String, LiveSession> sessions = new ConcurrentHashMap<>();
+  private final SecureRandom random = new SecureRandom();
+  private final LongAdder answers = new LongAdder();
+  private final LongAdder events = new LongAdder();
+  private final ExecutorService sendExecutor;
+
+  public LiveSessionService(
+      QuizRepository quizRepository,
+      QuestionRepository questionRepository,
+      AlternativeRepository alternativeRepository,
+      UserRepository userRepository,
+      AttemptService attemptService,
+      ObjectMapper objectMapper,
+      PlatformTransactionManager transactionManager,
+      @Value("${quiz.live.max-players:10000}") int maxPlayers,
+      @Value("${quiz.live.idle-timeout:2h}") Duration idleTimeout,
+      @Value("${quiz.live.sweep-interval:1m}") Duration sweepInterval,
+      @Value("${quiz.live.send-threads:0}") int sendThreads) {
+    if (maxPlayers < 1) {
+      throw new IllegalArgumentException("Max players must be positive.");
+    }
+    if (sweepInterval.isZero() || sweepInterval.isNegative()) {
+      throw new IllegalArgumentException("Sweep interval must be positive.");
+    }
+    if (sendThreads < 0) {
+      throw new IllegalArgumentException("Send threads must not be negative.");
+    }
+    this.quizRepository = quizRepository;
+    this.questionRepository = questionRepository;
+    this.alternativeRepository = alternativeRepository;
+    this.userRepository = userRepository;
+    this.attemptService = attemptService;
+    this.objectMapper = objectMapper;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.maxPlayers = maxPlayers;
+    this.idleTimeout = idleTimeout;
+    this.sweepInterval = sweepInterval;
+    AtomicInteger threadCount = new AtomicInteger();
+    this.sendExecutor =
+        Executors.newFixedThreadPool(
+            sendThreads == 0 ? Runtime.getRuntime().availableProcessors() : sendThreads,
+            task -> {
+              Thread thread = new Thread(task, "live-send-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /** Stops the threads writing events to clients. */
+  @PreDestroy
+  public void close() {
+    sendExecutor.shutdownNow();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("live.sessions", sessions, Map::size)
+        .description("Live sessions held in memory")
+        .register(registry);
+    Gauge.builder(
+            "live.players",
+            sessions,
+            held -> held.values().stream().mapToInt(LiveSession::getPlayerCount).sum())
+        .description("Players in the live sessions")
+        .register(registry);
+    Gauge.builder(
+            "live.subscribers",
+            sessions,
+            held ->
+                held.values().stream().mapToInt(session -> session.getSubscribers().size()).sum())
+        .description("Clients listening for the events of live sessions")
+        .register(registry);
+    FunctionCounter.builder("live.answers", answers, LongAdder::sum)
+        .description("Answers given in live sessions")
+        .register(registry);
+    FunctionCounter.builder("live.events", events, LongAdder::sum)
+        .description("Events pushed to the clients of live sessions")
+        .register(registry);
+  }
+
+  /**
+   * Starts a live session of a quiz, with the questions and answers of its current version.
+   *
+   * @param quizId The id of the quiz.
+   * @param hostId The id of the user hosting the session.
+   * @throws IllegalArgumentException If an id is null, or the quiz has no questions.
+   * @throws InvalidIdException If the quiz or the host is not found.
+   * @return The session, in the lobby.
+   */
+  public LiveSessionDTO startSession(Long quizId, Long hostId) {
+    if (quizId == null || hostId == null) {
+      throw new IllegalArgumentException("Quiz id and host id cannot be null.");
+    }
+    if (!userRepository.existsById(hostId)) {
+      throw new InvalidIdException("User with id " + hostId + " not found");
+    }
+    QuizVersionDTO version =
+        quizRepository
+            .findVersionById(quizId)
+            .orElseThrow(() -> new InvalidIdException("Quiz with id " + quizId + " not found"));
+    String title = quizRepository.findById(quizId).map(Quiz::getTitle).orElse(null);
+    List<Question> questions = questionRepository.findByQuizIdOrderByIdAsc(quizId);
+    if (questions.isEmpty()) {
+      throw new IllegalArgumentException("Quiz " + quizId + " has no questions.");
+    }
+    List<AlternativeRow> alternatives = alternativeRepository.findRowsByQuizId(quizId);
+    AnswerKey answerKey =
+        AnswerKey.compile(quizId, version.getContentVersion(), questions, alternatives);
+
+    Map<Long, List<LiveQuestionDTO.AlternativeEntry>> alternativesByQuestion = new HashMap<>();
+    for (AlternativeRow row : alternatives) {
+      alternativesByQuestion
+          .computeIfAbsent(row.getQuestionId(), id -> new ArrayList<>())
+          .add(new LiveQuestionDTO.AlternativeEntry(row.getId(), row.getAlternativeText()));
+    }
+    List<LiveQuestionDTO> liveQuestions = new ArrayList<>(questions.size());
+    for (Question question : questions) {
+      boolean trueOrFalse = question instanceof TrueOrFalseQuestion;
+      liveQuestions.add(
+          new LiveQuestionDTO(
+              liveQuestions.size(),
+              question.getId(),
+              trueOrFalse ? QuestionType.TRUE_OR_FALSE : QuestionType.MULTIPLE_CHOICE,
+              question.getQuestionText(),
+              question.getMediaUrl(),
+              question.getPoints(),
+              trueOrFalse
+                  ? null
+                  : alternativesByQuestion.getOrDefault(question.getId(), List.of())));
+    }
+
+    while (true) {
+      LiveSession session =
+          new LiveSession(newCode(), quizId, title, hostId, answerKey, liveQuestions);
+      if (sessions.putIfAbsent(session.getCode(), session) == null) {
+        log.info("Started live session {} of quiz {}", session.getCode(), quizId);
+        return session.toDTO();
+      }
+    }
+  }
+
+  /**
+   * Gets the state of a live session.
+   *
+   * @param code The code of the session.
+   * @throws InvalidIdException If there is no session with the code.
+   * @return The state of the session.
+   */
+  public LiveSessionDTO getSession(String code) {
+    return session(code).toDTO();
+  }
+
+  /**
+   * Adds a user to a live session as a player. Joining again has no effect.
+   *
+   * @param code The code of the session.
+   * @param userId The id of the user.
+   * @throws InvalidIdException If the session or the user is not found.
+   * @throws IllegalArgumentException If the user id is null, or the user hosts the session.
+   * @throws LiveSessionStateException If the session has ended or is full.
+   * @return The state of the session.
+   */
+  public LiveSessionDTO join(String code, Long userId) {
+    if (userId == null) {
+      throw new IllegalArgumentException("User id cannot be null.");
+    }
+    LiveSession session = session(code);
+    String username =
+        userRepository
+            .findById(userId)
+            .map(User::getUsername)
+            .orElseThrow(() -> new InvalidIdException("User with id " + userId + " not found"));
+    session.join(userId, username, maxPlayers);
+    return session.toDTO();
+  }
+
+  /**
+   * Starts pushing the events of a live session to its host or one of its players. The state of the
+   * session is sent first, then the open question if there is one. A client that starts listening
+   * again replaces the stream it listened on before.
+   *
+   * @param code The code of the session.
+   * @param userId The id of the host or player.
+   * @throws InvalidIdException If the session is not found, or the user is not part of it.
+   * @return The stream of events.
+   */
+  public SseEmitter subscribe(String code, Long userId) {
+    LiveSession session = session(code);
+    if (userId == null || !session.isMember(userId)) {
+      throw new InvalidIdException("User " + userId + " has not joined session " + code);
+    }
+    SseEmitter emitter = new SseEmitter(idleTimeout.toMillis());
+    LiveSubscriber subscriber = new LiveSubscriber(emitter, sendExecutor, events);
+    Runnable unsubscribe = () -> session.getSubscribers().remove(userId, subscriber);
+    emitter.onCompletion(unsubscribe);
+    emitter.onTimeout(unsubscribe);
+    emitter.onError(e -> unsubscribe.run());
+    // Under the monitor of the session, so that no event is queued between the state and the stream
+    synchronized (session) {
+      subscriber.send(event("session", session.toDTO()));
+      if (session.getState() == LiveSessionState.ENDED) {
+        if (session.getFinalResults() != null) {
+          subscriber.send(event("ended", top(session.getFinalResults())));
+        }
+        subscriber.complete();
+        return emitter;
+      }
+      LiveQuestionDTO openQuestion = session.getOpenQuestion();
+      if (openQuestion != null) {
+        subscriber.send(event("question", openQuestion));
+      }
+      LiveSubscriber previous = session.getSubscribers().put(userId, subscriber);
+      if (previous != null) {
+        previous.complete();
+      }
+    }
+    return emitter;
+  }
+
+  /**
+   * Records the answer of a player to the open question of a live session.
+   *
+   * @param code The code of the session.
+   * @param liveAnswerDTO The answer.
+   * @throws InvalidIdException If the session is not found, or the user has not joined it.
+   * @throws IllegalArgumentException If the answer is null, or does not fit the question.
+   * @throws LiveSessionStateException If the question is not open, or the player has answered it.
+   */
+  public void answer(String code, LiveAnswerDTO liveAnswerDTO) {
+    if (liveAnswerDTO == null || liveAnswerDTO.getUserId() == null) {
+      throw new IllegalArgumentException("Answer and user id cannot be null.");
+    }
+    session(code)
+        .answer(
+            liveAnswerDTO.getUserId(),
+            liveAnswerDTO.getQuestionIndex(),
+            liveAnswerDTO.getAnswer(),
+            liveAnswerDTO.getAlternativeIds());
+    answers.increment();
+  }
+
+  /**
+   * Opens the next question of a live session, and pushes it to every client.
+   *
+   * @param code The code of the session.
+   * @param hostId The id of the host.
+   * @throws InvalidIdException If the session is not found.
+   * @throws IllegalArgumentException If the user is not the host of the session.
+   * @throws LiveSessionStateException If a question is open, or every question has been shown.
+   * @return The question.
+   */
+  public LiveQuestionDTO openNextQuestion(String code, Long hostId) {
+    LiveSession session = hostedSession(code, hostId);
+    synchronized (session) {
+      LiveQuestionDTO question = session.openNextQuestion();
+      broadcast(session, event("question", question));
+      return question;
+    }
+  }
+
+  /**
+   * Closes the open question of a live session, and pushes how it was answered to every client.
+   *
+   * @param code The code of the session.
+   * @param hostId The id of the host.
+   * @throws InvalidIdException If the session is not found.
+   * @throws IllegalArgumentException If the user is not the host of the session.
+   * @throws LiveSessionStateException If no question is open.
+   * @return How the question was answered.
+   */
+  public LiveQuestionResultsDTO closeQuestion(String code, Long hostId) {
+    LiveSession session = hostedSession(code, hostId);
+    synchronized (session) {
+      LiveQuestionResultsDTO results = session.closeQuestion(STANDINGS_SIZE);
+      broadcast(session, event("results", results));
+      return results;
+    }
+  }
+
+  /**
+   * Ends a live session, and stores the answers of every player who answered a question as a quiz
+   * attempt, graded like any other. The attempts are added in batches of at most {@value
+   * AttemptService#MAX_BATCH_SIZE} in one transaction, so either every attempt is stored or none
+   * are, and ending the session again retries storing them. The final standings are pushed to every
+   * client, their streams are closed, and the session is dropped once its attempts are stored.
+   *
+   * @param code The code of the session.
+   * @param hostId The id of the host.
+   * @throws InvalidIdException If the session is not found.
+   * @throws IllegalArgumentException If the user is not the host of the session, or the quiz has
+   *     changed so that the answers no longer fit it.
+   * @return The stored attempt of each player, best first.
+   */
+  public List<LeaderboardEntryDTO> endSession(String code, Long hostId) {
+    LiveSession session = hostedSession(code, hostId);
+    List<LeaderboardEntryDTO> results = end(session);
+    sessions.remove(session.getCode(), session);
+    return results;
+  }
+
+  /**
+   * Sweeps for idle sessions every {@code quiz.live.sweep-interval}. The interval is bound as a
+   * {@link Duration}, since {@code @Scheduled} only reads milliseconds and ISO-8601.
+   *
+   * @param registrar The registrar of scheduled tasks.
+   */
+  @Override
+  public void configureTasks(ScheduledTaskRegistrar registrar) {
+    registrar.addFixedDelayTask(this::evictIdleSessions, sweepInterval);
+  }
+
+  /**
+   * Ends and drops the sessions their hosts have left idle for longer than the idle timeout. A
+   * session whose attempts could not be stored is kept, and ending it is tried again at the next
+   * sweep.
+   */
+  public void evictIdleSessions() {
+    long timeoutNanos = idleTimeout.toNanos();
+    for (LiveSession session : sessions.values()) {
+      if (session.idleNanos() < timeoutNanos) {
+        continue;
+      }
+      try {
+        end(session);
+      } catch (RuntimeException e) {
+        log.warn(
+            "Could not store the attempts of idle live session {}, keeping it to retry",
+            session.getCode(),
+            e);
+        continue;
+      }
+      sessions.remove(session.getCode(), session);
+      log.info("Dropped idle live session {}", session.getCode());
+    }
+  }
+
+  private List<LeaderboardEntryDTO> end(LiveSession session) {
+    synchronized (session) {
+      if (session.getFinalResults() != null) {
+        return session.getFinalResults();
+      }
+      LiveQuestionResultsDTO closed = session.end(STANDINGS_SIZE);
+      if (closed != null) {
+        broadcast(session, event("results", closed));
+      }
+      List<LeaderboardEntryDTO> results = store(session);
+      session.setFinalResults(results);
+      broadcast(session, event("ended", top(results)));
+      session.getSubscribers().values().forEach(LiveSubscriber::complete);
+      session.getSubscribers().clear();
+      log.info(
+          "Ended live session {} of quiz {} with {} attempts",
+          session.getCode(),
+          session.getQuizId(),
+          results.size());
+      return results;
+    }
+  }
+
+  /**
+   * Stores the answers of the players of a session as quiz attempts in one transaction.
+   *
+   * @param session The ended session.
+   * @return The stored attempt of each player, ranked by its score, then by who joined first.
+   */
+  private List<LeaderboardEntryDTO> store(LiveSession session) {
+    List<LiveSession.Player> players = session.getRankedPlayersWithAnswers();
+    List<QuizAttempt> stored =
+        transactionTemplate.execute(
+            status -> {
+              List<QuizAttempt> added = new ArrayList<>(players.size());
+              for (int from = 0; from < players.size(); from += AttemptService.MAX_BATCH_SIZE) {
+                List<QuizAttemptDTO> batch =
+                    players
+                        .subList(
+                            from, Math.min(from + AttemptService.MAX_BATCH_SIZE, players.size()))
+                        .stream()
+                        .map(session::toQuizAttempt)
+                        .toList();
+                added.addAll(attemptService.addQuizAttempts(batch));
+              }
+              return added;
+            });
+
+    Map<Long, LiveSession.Player> playersById = new LinkedHashMap<>();
+    players.forEach(player -> playersById.put(player.getUserId(), player));
+    // Stable, so players with the same score stay in the order they joined
+    List<QuizAttempt> ranked =
+        stored.stream().sorted(Comparator.comparingInt(QuizAttempt::getScore).reversed()).toList();
+    List<LeaderboardEntryDTO> results = new ArrayList<>(ranked.size());
+    for (QuizAttempt quizAttempt : ranked) {
+      Long userId = quizAttempt.getUser().getId();
+      results.add(
+          new LeaderboardEntryDTO(
+              results.size() + 1,
+              userId,
+              playersById.get(userId).getUsername(),
+              quizAttempt.getId(),
+              quizAttempt.getScore(),
+              quizAttempt.getAttemptTime()));
+    }
+    return results;
+  }
+
+  /**
+   * Queues an event for every client listening to a session, without waiting for it to be written.
+   * A client whose stream is closed, or who is too far behind, is dropped.
+   *
+   * @param session The session.
+   * @param event The serialized event.
+   */
+  private void broadcast(LiveSession session, Set<DataWithMediaType> event) {
+    session
+        .getSubscribers()
+        .forEach(
+            (userId, subscriber) -> {
+              if (!subscriber.send(event)) {
+                session.getSubscribers().remove(userId, subscriber);
+              }
+            });
+  }
+
+  /**
+   * Serializes an event once, so that it can be written to any number of clients.
+   *
+   * @param name The name of the event.
+   * @param data The data of the event, written as JSON.
+   * @return The event.
+   */
+  private Set<DataWithMediaType> event(String name, Object data) {
+    try {
+      return SseEmitter.event().name(name).data(objectMapper.writeValueAsString(data)).build();
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Could not serialize live session event " + name, e);
+    }
+  }
+
+  private static List<LeaderboardEntryDTO> top(List<LeaderboardEntryDTO> results) {
+    return results.subList(0, Math.min(STANDINGS_SIZE, results.size()));
+  }
+
+  private LiveSession session(String code) {
+    LiveSession session = code == null ? null : sessions.get(code.toUpperCase());
+    if (session == null) {
+      throw new InvalidIdException("Live session " + code + " not found");
+    }
+    return session;
+  }
+
+  private LiveSession hostedSession(String code, Long hostId) {
+    LiveSession session = session(code);
+    if (!session.getHostId().equals(hostId)) {
+      throw new IllegalArgumentException("Only the host can run session " + code + ".");
+    }
+    return session;
+  }
+
+  private String newCode() {
+    StringBuilder code = new StringBuilder(CODE_LENGTH);
+    for (int i = 0; i < CODE_LENGTH; i++) {
+      code.append(CODE_ALPHABET.charAt(random.nextInt(CODE_ALPHABET.length())));
+    }
+    return code.toString();
+  }
+}
@@ -0,0 +1,121 @@
+package com.idatt2105.backend.service;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * A client listening for the events of a {@link LiveSession live session}. Events are queued, and
+ * written to the client by a task on a shared executor, so that queueing an event never blocks and
+ * a slow client holds up neither the host nor the other clients. At most one task writes to a
+ * client at a time, so its events reach it in the order they were queued. A client with more than
+ * {@value #MAX_PENDING_EVENTS} events waiting is too slow to follow the session, and is dropped.
+ */
+class LiveSubscriber {
+  /** The largest number of events that may wait to be written to a client. */
+  static final int MAX_PENDING_EVENTS = 64;
+
+  // Queued after the last event, to close the stream once every event before it is written
+  private static final Set<DataWithMediaType> COMPLETE = Set.of();
+
+  private final SseEmitter emitter;
+  private final Executor executor;
+  private final LongAdder sent;
+  private final Queue<Set<DataWithMediaType>> pending = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger pendingCount = new AtomicInteger();
+  private final AtomicBoolean writing = new AtomicBoolean();
+  private volatile boolean closed;
+
+  /**
+   * Creates a subscriber.
+   *
+   * @param emitter The stream of the client.
+   * @param executor The executor events are written from.
+   * @param sent Counts the events written.
+   */
+  LiveSubscriber(SseEmitter emitter, Executor executor, LongAdder sent) {
+    this.emitter = emitter;
+    this.executor = executor;
+    this.sent = sent;
+  }
+
+  /**
+   * Queues an event to be written to the client.
+   *
+   * @param event The serialized event.
+   * @return False if the stream is closed, or the client was too slow and has been dropped.
+   */
+  boolean send(Set<DataWithMediaType> event) {
+    if (closed) {
+      return false;
+    }
+    if (pendingCount.incrementAndGet() > MAX_PENDING_EVENTS) {
+      drop();
+      return false;
+    }
+    pending.add(event);
+    schedule();
+    return true;
+  }
+
+  /** Closes the stream once the events queued before are written. No event is queued after. */
+  void complete() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    pendingCount.incrementAndGet();
+    pending.add(COMPLETE);
+    schedule();
+  }
+
+  private void schedule() {
+    if (writing.compareAndSet(false, true)) {
+      try {
+        executor.execute(this::write);
+      } catch (RejectedExecutionException e) {
+        // Shutting down
+        writing.set(false);
+        drop();
+      }
+    }
+  }
+
+  private void write() {
+    Set<DataWithMediaType> event;
+    while ((event = pending.poll()) != null) {
+      pendingCount.decrementAndGet();
+      if (event == COMPLETE) {
+        emitter.complete();
+        continue;
+      }
+      try {
+        emitter.send(event);
+        sent.increment();
+      } catch (IOException | IllegalStateException e) {
+        // The client is gone, or its stream has completed
+        drop();
+      }
+    }
+    writing.set(false);
+    // An event queued after the queue was found empty, but before writing was reset
+    if (!pending.isEmpty()) {
+      schedule();
+    }
+  }
+
+  private void drop() {
+    closed = true;
+    pending.clear();
+    emitter.complete();
+  }
+}
@@ -1,13 +1,18 @@
 package com.idatt2105.backend.service;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import com.idatt2105.backend.dto.AlternativeDTO;
 import com.idatt2105.backend.dto.QuestionDTO;
+import com.idatt2105.backend.dto.QuizVersionDTO;
+import com.idatt2105.backend.event.QuestionsChangedEvent;
 import com.idatt2105.backend.model.Alternative;
 import com.idatt2105.backend.model.MultipleChoiceQuestion;
 import com.idatt2105.backend.model.Question;
@@ -26,15 +31,18 @@ public class QuestionService {
   private final QuestionRepository questionRepository;
   private final QuizRepository quizRepository;
   private final AlternativeRepository alternativeRepository;
+  private final ApplicationEventPublisher eventPublisher;
 
   @Autowired
   public QuestionService(
       QuestionRepository questionRepository,
       QuizRepository quizRepository,
-      AlternativeRepository alternativeRepository) {
+      AlternativeRepository alternativeRepository,
+      ApplicationEventPublisher eventPublisher) {
     this.questionRepository = questionRepository;
     this.quizRepository = quizRepository;
     this.alternativeRepository = alternativeRepository;
+    this.eventPublisher = eventPublisher;
   }
 
   /**
@@ -62,7 +70,9 @@ public class QuestionService {
     Question question = questionDTO.instantiateQuestion();
     question.setQuiz(quiz);
     question.extractFromDTO(questionDTO);
-    return questionRepository.save(question);
+    Question savedQuestion = questionRepository.save(question);
+    markQuizModified(savedQuestion);
+    return savedQuestion;
   }
 
   /**
@@ -95,6 +105,7 @@ public class QuestionService {
 
     Question question = getQuestionById(id);
     questionRepository.delete(question);
+    markQuizModified(question);
   }
 
   /**
@@ -111,7 +122,9 @@ public class QuestionService {
 
     Question question = getQuestionById(questionDTO.getQuestionId());
     question.extractFromDTO(questionDTO);
-    return questionRepository.save(question);
+    Question savedQuestion = questionRepository.save(question);
+    markQuizModified(savedQuestion);
+    return savedQuestion;
   }
 
   /**
@@ -137,7 +150,9 @@ public class QuestionService {
           "Question with id " + questionDTO.getQuestionId() + " is not a true or false question");
     }
     trueOrFalseQuestion.setCorrectAnswer(questionDTO.isCorrect());
-    return questionRepository.save(trueOrFalseQuestion);
+    TrueOrFalseQuestion savedQuestion = questionRepository.save(trueOrFalseQuestion);
+    markQuizModified(savedQuestion);
+    return savedQuestion;
   }
 
   /**
@@ -153,6 +168,22 @@ public class QuestionService {
     return questionRepository.findQuestionsByQuizId(quizId);
   }
 
+  /**
+   * Gets the version of the quiz with the given id, without loading the quiz or its questions.
+   *
+   * @param quizId (Long) The id of the quiz.
+   * @return (QuizVersionDTO) The version of the quiz.
+   * @throws InvalidIdException if the quiz with the given id is not found.
+   */
+  public QuizVersionDTO getQuizVersion(Long quizId) {
+    if (quizId == null) {
+      throw new IllegalArgumentException("Quiz id parameter cannot be null.");
+    }
+    return quizRepository
+        .findVersionById(quizId)
+        .orElseThrow(() -> new InvalidIdException("Quiz with id " + quizId + " not found"));
+  }
+
   /**
    * Adds an alternative to the question with the given id.
    *
@@ -176,6 +207,7 @@ public class QuestionService {
     }
     Alternative alt = question.addAlternative(alternativeDTO);
     questionRepository.save(question);
+    markQuizModified(question);
     return alt;
   }
 
@@ -188,7 +220,9 @@ public class QuestionService {
     if (id == null) {
       throw new IllegalArgumentException("Id parameter cannot be null.");
     }
+    Optional<Long> quizId = alternativeRepository.findQuizIdById(id);
     alternativeRepository.deleteById(id);
+    quizId.ifPresent(this::markQuizModified);
   }
 
   /**
@@ -270,6 +304,30 @@ public class QuestionService {
             });
 
     // Save the question with updated alternatives
-    return questionRepository.save(mcQuestion).getAlternatives();
+    Set<Alternative> alternatives = questionRepository.save(mcQuestion).getAlternatives();
+    markQuizModified(mcQuestion);
+    return alternatives;
+  }
+
+  /**
+   * Records that the quiz of a question has changed.
+   *
+   * @param question (Question) The question that changed.
+   */
+  private void markQuizModified(Question question) {
+    if (question != null && question.getQuiz() != null) {
+      markQuizModified(question.getQuiz().getId());
+    }
+  }
+
+  /**
+   * Records that a quiz has changed, so that cached copies of it and its questions are no longer
+   * used.
+   *
+   * @param quizId (Long) The id of the quiz.
+   */
+  private void markQuizModified(Long quizId) {
+    quizRepository.markModified(quizId, LocalDateTime.now());
+    eventPublisher.publishEvent(new QuestionsChangedEvent(quizId));
   }
 }
@@ -0,0 +1,237 @@
+package com.idatt2105.backend.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.idatt2105.backend.dto.SuggestionDTO;
+import com.idatt2105.backend.enumerator.SuggestionType;
+import com.idatt2105.backend.event.CategoryCreatedEvent;
+import com.idatt2105.backend.event.QuizChangedEvent;
+import com.idatt2105.backend.event.TagsCreatedEvent;
+import com.idatt2105.backend.model.Category;
+import com.idatt2105.backend.model.Quiz;
+import com.idatt2105.backend.model.Tag;
+import com.idatt2105.backend.repository.CategoryRepository;
+import com.idatt2105.backend.repository.QuizRepository;
+import com.idatt2105.backend.repository.TagRepository;
+
+/**
+ * In-memory prefix index for autocompleting tag names, category names and public quiz titles. The
+ * names are stored in a trie, and every node caches the best {@link #MAX_SUGGESTIONS} suggestions
+ * below it, ranked by how many public quizzes use them. A lookup therefore only walks the prefix
+ * and copies a short list, whatever the number of names.
+ *
+ * <p>The cached lists are recomputed along the path of a name whenever its count changes. The index
+ * is built on startup and kept up to date through {@link QuizChangedEvent}s, {@link
+ * CategoryCreatedEvent}s and {@link TagsCreatedEvent}s. Prefixes are matched case-insensitively.
+ */
+@Component
+public class QuizAutocompleteIndex extends QuizCatalogIndex {
+  /** The largest number of suggestions returned for a prefix. */
+  public static final int MAX_SUGGESTIONS = 10;
+
+  private static final Comparator<SuggestionDTO> RANKING =
+      Comparator.comparingLong(SuggestionDTO::getCount)
+          .reversed()
+          .thenComparing(SuggestionDTO::getText)
+          .thenComparing(SuggestionDTO::getType);
+
+  private final TagRepository tagRepository;
+  private final CategoryRepository categoryRepository;
+
+  private Node root = new Node();
+  // What is currently counted for each public quiz, so that its counts can be taken back
+  private Map<Long, QuizChangedEvent> countedQuizzes = new HashMap<>();
+
+  public QuizAutocompleteIndex(
+      QuizRepository quizRepository,
+      TagRepository tagRepository,
+      CategoryRepository categoryRepository) {
+    super(quizRepository);
+    this.tagRepository = tagRepository;
+    this.categoryRepository = categoryRepository;
+  }
+
+  /**
+   * Reads the tags and categories, so that they are suggested before any public quiz uses them.
+   *
+   * @param quizzes The public quizzes, with their tags.
+   * @return Replaces the whole index with one built from the quizzes, tags and categories.
+   */
+  @Override
+  protected Runnable prepare(List<Quiz> quizzes) {
+    List<Tag> tags = tagRepository.findAll();
+    List<Category> categories = categoryRepository.findAll();
+    return () -> {
+      root = new Node();
+      countedQuizzes = new HashMap<>();
+      tags.forEach(tag -> update(SuggestionType.TAG, tag.getTagName(), 0));
+      categories.forEach(category -> update(SuggestionType.CATEGORY, category.getName(), 0));
+      quizzes.forEach(quiz -> applyQuiz(QuizChangedEvent.of(quiz)));
+    };
+  }
+
+  /**
+   * Updates the counts after a quiz has changed.
+   *
+   * @param event The event describing the new state of the quiz.
+   */
+  @EventListener
+  public void onQuizChanged(QuizChangedEvent event) {
+    change(() -> applyQuiz(event));
+  }
+
+  /**
+   * Adds a new category to the index.
+   *
+   * @param event The event describing the new category.
+   */
+  @EventListener
+  public void onCategoryCreated(CategoryCreatedEvent event) {
+    change(() -> update(SuggestionType.CATEGORY, event.getName(), 0));
+  }
+
+  /**
+   * Adds new tags to the index, so that they are suggested before any public quiz uses them.
+   *
+   * @param event The event describing the new tags.
+   */
+  @EventListener
+  public void onTagsCreated(TagsCreatedEvent event) {
+    change(() -> event.getNames().forEach(name -> update(SuggestionType.TAG, name, 0)));
+  }
+
+  /**
+   * Finds the most used tags, categories and quiz titles starting with a prefix.
+   *
+   * @param prefix The prefix to complete.
+   * @param limit The maximum number of suggestions, at most {@link #MAX_SUGGESTIONS}.
+   * @throws IllegalArgumentException If the prefix is null or the limit is out of range.
+   * @return The suggestions, most used first.
+   */
+  public List<SuggestionDTO> suggest(String prefix, int limit) {
+    if (prefix == null) {
+      throw new IllegalArgumentException("Prefix parameter cannot be null.");
+    }
+    if (limit < 1 || limit > MAX_SUGGESTIONS) {
+      throw new IllegalArgumentException("Limit must be between 1 and " + MAX_SUGGESTIONS + ".");
+    }
+    ensureReady();
+
+    String key = key(prefix);
+    lock.readLock().lock();
+    try {
+      Node node = root;
+      for (int i = 0; i < key.length() && node != null; i++) {
+        node = node.children.get(key.charAt(i));
+      }
+      if (node == null) {
+        return Collections.emptyList();
+      }
+      List<SuggestionDTO> top = node.top;
+      return new ArrayList<>(top.subList(0, Math.min(limit, top.size())));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Takes back the counts of the previous state of a quiz and adds those of its new state. Must
+   * hold the write lock.
+   *
+   * @param event The new state of the quiz.
+   */
+  private void applyQuiz(QuizChangedEvent event) {
+    if (event.getQuizId() == null) {
+      return;
+    }
+    QuizChangedEvent previous = countedQuizzes.remove(event.getQuizId());
+    if (previous != null) {
+      count(previous, -1);
+    }
+    if (event.isPublic()) {
+      count(event, 1);
+      countedQuizzes.put(event.getQuizId(), event);
+    }
+  }
+
+  private void count(QuizChangedEvent quiz, int delta) {
+    update(SuggestionType.QUIZ, quiz.getTitle(), delta);
+    update(SuggestionType.CATEGORY, quiz.getCategoryName(), delta);
+    quiz.getTagNames().forEach(tag -> update(SuggestionType.TAG, tag, delta));
+  }
+
+  /**
+   * Changes the count of a name and recomputes the cached suggestions along its path. Quiz titles
+   * are dropped when no public quiz has them any more; tags and categories stay, since they still
+   * exist. Must hold the write lock.
+   *
+   * @param type What the name refers to.
+   * @param text The name.
+   * @param delta The change in count.
+   */
+  private void update(SuggestionType type, String text, int delta) {
+    if (text == null || text.isBlank()) {
+      return;
+    }
+    String key = key(text);
+    Node[] path = new Node[key.length() + 1];
+    path[0] = root;
+    for (int i = 0; i < key.length(); i++) {
+      path[i + 1] = path[i].children.computeIfAbsent(key.charAt(i), c -> new Node());
+    }
+
+    Node node = path[key.length()];
+    SuggestionDTO current = node.terminals.get(type);
+    long count = Math.max(0, (current == null ? 0 : current.getCount()) + delta);
+    if (count == 0 && type == SuggestionType.QUIZ) {
+      node.terminals.remove(type);
+    } else {
+      node.terminals.put(type, new SuggestionDTO(text, type, count));
+    }
+
+    for (int i = key.length(); i >= 0; i--) {
+      Node step = path[i];
+      if (i > 0 && step.terminals.isEmpty() && step.children.isEmpty()) {
+        path[i - 1].children.remove(key.charAt(i - 1));
+        continue;
+      }
+      step.top = topOf(step);
+    }
+  }
+
+  /**
+   * Computes the best suggestions below a node from its own names and the cached lists of its
+   * children.
+   *
+   * @param node The node.
+   * @return The best suggestions, most used first.
+   */
+  private static List<SuggestionDTO> topOf(Node node) {
+    List<SuggestionDTO> candidates = new ArrayList<>(node.terminals.values());
+    node.children.values().forEach(child -> candidates.addAll(child.top));
+    candidates.sort(RANKING);
+    return List.copyOf(candidates.subList(0, Math.min(MAX_SUGGESTIONS, candidates.size())));
+  }
+
+  private static String key(String text) {
+    return text.toLowerCase(Locale.ROOT);
+  }
+
+  /** A node in the trie. */
+  private static class Node {
+    private final Map<Character, Node> children = new HashMap<>(4);
+    private final Map<SuggestionType, SuggestionDTO> terminals =
+        new EnumMap<>(SuggestionType.class);
+    private List<SuggestionDTO> top = List.of();
+  }
+}
@@ -0,0 +1,311 @@
+package com.idatt2105.backend.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.idatt2105.backend.dto.QuizVersionDTO;
+import com.idatt2105.backend.event.QuestionsChangedEvent;
+import com.idatt2105.backend.event.QuizChangedEvent;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Cache of serialized quiz bundles, held in direct buffers outside the Java heap. A popular quiz is
+ * read many times between edits, so its bundle is serialized to JSON once, optionally gzipped too,
+ * and later requests copy the stored bytes to the response without loading or serializing anything.
+ *
+ * <p>Entries are stored per quiz together with the version they were built for, and an entry for an
+ * older version is never served. Entries are also dropped as soon as the quiz or one of its
+ * questions changes, to free the memory early. Only public quizzes are cached. The cache holds at
+ * most {@code quiz.bundle-cache.max-size} of serialized bundles, and evicts the least recently used
+ * ones to make room.
+ *
+ * <p>Requests, evictions and memory use are published as {@code quiz.bundle.cache.*} metrics.
+ */
+@Component
+public class QuizBundleCache implements MeterBinder {
+  private final QuizBundleService quizBundleService;
+  private final ObjectMapper objectMapper;
+  private final long maxBytes;
+  private final boolean gzipEnabled;
+
+  private final Lock lock = new ReentrantLock();
+  // In access order, so that the least recently used entry comes first
+  private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long usedBytes;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  public QuizBundleCache(
+      QuizBundleService quizBundleService,
+      ObjectMapper objectMapper,
+      @Value("${quiz.bundle-cache.max-size:64MB}") DataSize maxSize,
+      @Value("${quiz.bundle-cache.gzip:true}") boolean gzipEnabled) {
+    this.quizBundleService = quizBundleService;
+    this.objectMapper = objectMapper;
+    this.maxBytes = maxSize.toBytes();
+    this.gzipEnabled = gzipEnabled;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("quiz.bundle.cache.requests", hits, LongAdder::sum)
+        .tag("result", "hit")
+        .description("Bundle reads answered from the cache")
+        .register(registry);
+    FunctionCounter.builder("quiz.bundle.cache.requests", misses, LongAdder::sum)
+        .tag("result", "miss")
+        .description("Bundle reads of public quizzes that had to be serialized")
+        .register(registry);
+    FunctionCounter.builder("quiz.bundle.cache.evictions", evictions, LongAdder::sum)
+        .description("Bundles evicted to make room for others")
+        .register(registry);
+    Gauge.builder("quiz.bundle.cache.hit.ratio", this, QuizBundleCache::hitRatio)
+        .description("Share of bundle reads answered from the cache")
+        .register(registry);
+    Gauge.builder("quiz.bundle.cache.size", this, QuizBundleCache::size)
+        .description("Number of cached bundles")
+        .register(registry);
+    Gauge.builder("quiz.bundle.cache.memory", this, QuizBundleCache::memoryUsed)
+        .baseUnit(BaseUnits.BYTES)
+        .description("Off-heap memory held by cached bundles")
+        .register(registry);
+  }
+
+  /**
+   * Checks whether gzipped bundles are available.
+   *
+   * @return True if bundles can be served gzipped.
+   */
+  public boolean isGzipEnabled() {
+    return gzipEnabled;
+  }
+
+  /**
+   * Gets the serialized bundle of a quiz, from the cache if possible.
+   *
+   * @param version The current version of the quiz.
+   * @param gzip Whether the gzipped bundle is wanted. Ignored if gzip is not enabled.
+   * @return A read-only buffer with the JSON of the bundle, gzipped if requested.
+   */
+  public ByteBuffer getBundle(QuizVersionDTO version, boolean gzip) {
+    boolean gzipped = gzip && gzipEnabled;
+    if (!version.isPublic()) {
+      byte[] json = serialize(version.getQuizId());
+      return ByteBuffer.wrap(gzipped ? compress(json) : json).asReadOnlyBuffer();
+    }
+
+    lock.lock();
+    try {
+      Entry entry = entries.get(version.getQuizId());
+      if (entry != null && entry.contentVersion() == version.getContentVersion()) {
+        hits.increment();
+        return entry.body(gzipped);
+      }
+    } finally {
+      lock.unlock();
+    }
+
+    misses.increment();
+    // Serialized outside the lock, so that a slow quiz does not hold up reads of other quizzes
+    byte[] json = serialize(version.getQuizId());
+    Entry entry =
+        new Entry(
+            version.getContentVersion(),
+            offHeap(json),
+            gzipEnabled ? offHeap(compress(json)) : null);
+    put(version.getQuizId(), entry);
+    return entry.body(gzipped);
+  }
+
+  /**
+   * Drops the cached bundle of a quiz that has been changed.
+   *
+   * @param event The event describing the new state of the quiz.
+   */
+  @EventListener
+  public void onQuizChanged(QuizChangedEvent event) {
+    evict(event.getQuizId());
+  }
+
+  /**
+   * Drops the cached bundle of a quiz whose questions have been changed.
+   *
+   * @param event The event naming the quiz.
+   */
+  @EventListener
+  public void onQuestionsChanged(QuestionsChangedEvent event) {
+    evict(event.getQuizId());
+  }
+
+  /**
+   * Drops the cached bundle of a quiz.
+   *
+   * @param quizId The id of the quiz.
+   */
+  public void evict(Long quizId) {
+    lock.lock();
+    try {
+      Entry entry = entries.remove(quizId);
+      if (entry != null) {
+        usedBytes -= entry.bytes();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Gets the share of reads of public quizzes that were answered from the cache.
+   *
+   * @return The hit ratio, or 0 if nothing has been read yet.
+   */
+  public double hitRatio() {
+    long hitCount = hits.sum();
+    long total = hitCount + misses.sum();
+    return total == 0 ? 0 : (double) hitCount / total;
+  }
+
+  /**
+   * Gets the number of cached bundles.
+   *
+   * @return The number of bundles.
+   */
+  public int size() {
+    lock.lock();
+    try {
+      return entries.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Gets the off-heap memory held by the cached bundles.
+   *
+   * @return The number of bytes.
+   */
+  public long memoryUsed() {
+    lock.lock();
+    try {
+      return usedBytes;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Stores an entry, evicting the least recently used entries until it fits. An entry larger than
+   * the whole cache, or older than the one already stored, is not stored.
+   *
+   * @param quizId The id of the quiz.
+   * @param entry The entry to store.
+   */
+  private void put(Long quizId, Entry entry) {
+    if (entry.bytes() > maxBytes) {
+      return;
+    }
+    lock.lock();
+    try {
+      Entry previous = entries.get(quizId);
+      if (previous != null && previous.contentVersion() > entry.contentVersion()) {
+        // Another request has already cached a newer version
+        return;
+      }
+      if (previous != null) {
+        entries.remove(quizId);
+        usedBytes -= previous.bytes();
+      }
+      Iterator<Map.Entry<Long, Entry>> leastRecentlyUsed = entries.entrySet().iterator();
+      while (usedBytes + entry.bytes() > maxBytes && leastRecentlyUsed.hasNext()) {
+        usedBytes -= leastRecentlyUsed.next().getValue().bytes();
+        leastRecentlyUsed.remove();
+        evictions.increment();
+      }
+      entries.put(quizId, entry);
+      usedBytes += entry.bytes();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Reads the bundle of a quiz and serializes it to JSON.
+   *
+   * @param quizId The id of the quiz.
+   * @return The UTF-8 encoded JSON.
+   */
+  private byte[] serialize(Long quizId) {
+    try {
+      return objectMapper.writeValueAsBytes(quizBundleService.getQuizBundle(quizId));
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Could not serialize the bundle of quiz " + quizId, e);
+    }
+  }
+
+  /**
+   * Compresses bytes with gzip.
+   *
+   * @param bytes The bytes to compress.
+   * @return The compressed bytes.
+   */
+  private static byte[] compress(byte[] bytes) {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4 + 64);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+      gzip.write(bytes);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return compressed.toByteArray();
+  }
+
+  /**
+   * Copies bytes into a new direct buffer.
+   *
+   * @param bytes The bytes to copy.
+   * @return A read-only direct buffer holding the bytes.
+   */
+  private static ByteBuffer offHeap(byte[] bytes) {
+    return ByteBuffer.allocateDirect(bytes.length).put(bytes).flip().asReadOnlyBuffer();
+  }
+
+  /**
+   * A cached bundle.
+   *
+   * @param contentVersion The version of the quiz the bundle was built for.
+   * @param json The JSON of the bundle.
+   * @param gzip The gzipped JSON of the bundle, or null if gzip is not enabled.
+   */
+  private record Entry(long contentVersion, ByteBuffer json, ByteBuffer gzip) {
+    ByteBuffer body(boolean gzipped) {
+      // Every reader gets its own position and limit
+      return (gzipped ? gzip : json).duplicate();
+    }
+
+    long bytes() {
+      return json.capacity() + (gzip == null ? 0 : gzip.capacity());
+    }
+  }
+}
@@ -0,0 +1,106 @@
+package com.idatt2105.backend.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.idatt2105.backend.dto.QuizBundleDTO;
+import com.idatt2105.backend.dto.QuizBundleDTO.AlternativeEntry;
+import com.idatt2105.backend.dto.QuizBundleDTO.QuestionEntry;
+import com.idatt2105.backend.dto.QuizDTO;
+import com.idatt2105.backend.enumerator.QuestionType;
+import com.idatt2105.backend.model.Question;
+import com.idatt2105.backend.model.Quiz;
+import com.idatt2105.backend.model.TrueOrFalseQuestion;
+import com.idatt2105.backend.repository.AlternativeRepository;
+import com.idatt2105.backend.repository.AlternativeRepository.AlternativeRow;
+import com.idatt2105.backend.repository.QuestionRepository;
+import com.idatt2105.backend.repository.QuizRepository;
+import com.idatt2105.backend.util.InvalidIdException;
+
+/**
+ * Service for reading a quiz together with its questions and alternatives. A bundle is read with
+ * three queries no matter how many questions and alternatives the quiz has: one for the quiz with
+ * its category, tags and users, one for the questions, and one for the alternatives of all multiple
+ * choice questions.
+ */
+@Service
+public class QuizBundleService {
+  private final QuizRepository quizRepository;
+  private final QuestionRepository questionRepository;
+  private final AlternativeRepository alternativeRepository;
+
+  @Autowired
+  public QuizBundleService(
+      QuizRepository quizRepository,
+      QuestionRepository questionRepository,
+      AlternativeRepository alternativeRepository) {
+    this.quizRepository = quizRepository;
+    this.questionRepository = questionRepository;
+    this.alternativeRepository = alternativeRepository;
+  }
+
+  /**
+   * Get a quiz together with its questions and their alternatives.
+   *
+   * @param quizId The id of the quiz.
+   * @throws IllegalArgumentException If the quizId parameter is null.
+   * @throws InvalidIdException If the quiz is not found.
+   * @return QuizBundleDTO containing the quiz, its questions and their alternatives.
+   */
+  @Transactional(readOnly = true)
+  public QuizBundleDTO getQuizBundle(Long quizId) {
+    if (quizId == null) {
+      throw new IllegalArgumentException("Quiz id parameter cannot be null.");
+    }
+    Quiz quiz =
+        quizRepository
+            .findWithDetailsById(quizId)
+            .orElseThrow(() -> new InvalidIdException("Quiz with id " + quizId + " not found"));
+    List<Question> questions = questionRepository.findByQuizIdOrderByIdAsc(quizId);
+
+    // Read as rows, so that the lazy alternative collections of the questions are never loaded
+    Map<Long, List<AlternativeEntry>> alternatives =
+        alternativeRepository.findRowsByQuizId(quizId).stream()
+            .collect(
+                Collectors.groupingBy(
+                    AlternativeRow::getQuestionId,
+                    Collectors.mapping(
+                        row -> new AlternativeEntry(row.getId(), row.getAlternativeText()),
+                        Collectors.toList())));
+
+    List<QuestionEntry> entries = new ArrayList<>(questions.size());
+    for (Question question : questions) {
+      entries.add(toEntry(question, alternatives));
+    }
+    return new QuizBundleDTO(new QuizDTO(quiz), entries);
+  }
+
+  /**
+   * Converts a question to a bundle entry.
+   *
+   * @param question The question.
+   * @param alternatives The alternatives of the multiple choice questions, by question id.
+   * @return The entry.
+   */
+  private static QuestionEntry toEntry(
+      Question question, Map<Long, List<AlternativeEntry>> alternatives) {
+    QuestionEntry entry = new QuestionEntry();
+    entry.setId(question.getId());
+    entry.setQuestionText(question.getQuestionText());
+    entry.setMediaUrl(question.getMediaUrl());
+    entry.setPoints(question.getPoints());
+    if (question instanceof TrueOrFalseQuestion) {
+      entry.setType(QuestionType.TRUE_OR_FALSE);
+    } else {
+      entry.setType(QuestionType.MULTIPLE_CHOICE);
+      entry.setAlternatives(alternatives.getOrDefault(question.getId(), new ArrayList<>()));
+    }
+    return entry;
+  }
+}
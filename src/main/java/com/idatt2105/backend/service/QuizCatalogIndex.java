@@ -0,0 +1,135 @@
+package com.idatt2105.backend.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.idatt2105.backend.model.Quiz;
+import com.idatt2105.backend.repository.QuizRepository;
+
+/**
+ * An in-memory index built from the public quizzes in the database and kept up to date through
+ * events. A rebuild reads the public quizzes without holding the lock of the index, so changes seen
+ * while it reads are remembered and replayed onto the rebuilt index. Reads keep using the old index
+ * until the new one is complete.
+ *
+ * <p>Indexes are rebuilt together on startup by the {@link QuizIndexRebuilder}, which reads the
+ * public quizzes once for all of them. An index that is used before it has been built rebuilds
+ * itself alone.
+ */
+public abstract class QuizCatalogIndex {
+  // Rebuilds of different indexes may share one read of the database, so they are never concurrent
+  private static final Object REBUILDS = new Object();
+
+  protected final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private final QuizRepository quizRepository;
+  private List<Runnable> pendingChanges;
+  private volatile boolean ready;
+
+  protected QuizCatalogIndex(QuizRepository quizRepository) {
+    this.quizRepository = quizRepository;
+  }
+
+  /**
+   * Checks whether the index has been built and can answer queries.
+   *
+   * @return True if the index is ready.
+   */
+  public boolean isReady() {
+    return ready;
+  }
+
+  /** Rebuilds the whole index from the public quizzes in the database. */
+  public void rebuild() {
+    rebuild(quizRepository, List.of(this));
+  }
+
+  /**
+   * Rebuilds indexes from one read of the public quizzes in the database.
+   *
+   * @param quizRepository The repository to read the public quizzes from.
+   * @param indexes The indexes to rebuild.
+   */
+  static void rebuild(QuizRepository quizRepository, List<QuizCatalogIndex> indexes) {
+    synchronized (REBUILDS) {
+      indexes.forEach(QuizCatalogIndex::beginRebuild);
+      List<Runnable> installs = new ArrayList<>(indexes.size());
+      try {
+        List<Quiz> quizzes = quizRepository.findAllPublicWithTags();
+        for (QuizCatalogIndex index : indexes) {
+          installs.add(index.prepare(quizzes));
+        }
+      } catch (RuntimeException e) {
+        indexes.forEach(QuizCatalogIndex::abortRebuild);
+        throw e;
+      }
+      for (int i = 0; i < indexes.size(); i++) {
+        indexes.get(i).completeRebuild(installs.get(i));
+      }
+    }
+  }
+
+  /**
+   * Reads whatever else the index is built from, without holding its lock.
+   *
+   * @param quizzes The public quizzes, with their tags.
+   * @return Replaces the whole index with one built from the quizzes. Run under the write lock.
+   */
+  protected abstract Runnable prepare(List<Quiz> quizzes);
+
+  /**
+   * Applies a change under the write lock, and remembers it if a rebuild is in progress.
+   *
+   * @param change The change to apply.
+   */
+  protected void change(Runnable change) {
+    lock.writeLock().lock();
+    try {
+      if (pendingChanges != null) {
+        pendingChanges.add(change);
+      }
+      change.run();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Builds the index on first use if it has not been built at startup. */
+  protected void ensureReady() {
+    if (!ready) {
+      rebuild();
+    }
+  }
+
+  private void beginRebuild() {
+    lock.writeLock().lock();
+    try {
+      pendingChanges = new ArrayList<>();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void abortRebuild() {
+    lock.writeLock().lock();
+    try {
+      pendingChanges = null;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void completeRebuild(Runnable install) {
+    lock.writeLock().lock();
+    try {
+      install.run();
+      pendingChanges.forEach(Runnable::run);
+      pendingChanges = null;
+      ready = true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+}
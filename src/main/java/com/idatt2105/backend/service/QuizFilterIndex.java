@@ -0,0 +1,271 @@
+package com.idatt2105.backend.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import com.idatt2105.backend.dto.QuizFilterDTO;
+import com.idatt2105.backend.event.QuizChangedEvent;
+import com.idatt2105.backend.model.Quiz;
+import com.idatt2105.backend.repository.QuizRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory index over the tags and categories of public quizzes. Each tag and category owns a
+ * compressed bitmap of the ids of the public quizzes that have it, so tag and category filters are
+ * answered with bitmap operations and only the requested page of ids has to be loaded from the
+ * database.
+ *
+ * <p>The index is built from the database when the application starts and kept up to date through
+ * {@link QuizChangedEvent}s. Tag and category names are matched case-insensitively, like the
+ * database collation does. Quiz ids must fit in an int; once one does not, the index stops being
+ * ready for good and lookups go to the database.
+ */
+@Slf4j
+@Component
+public class QuizFilterIndex extends QuizCatalogIndex {
+  private Map<String, RoaringBitmap> quizzesByTag = new HashMap<>();
+  private Map<String, RoaringBitmap> quizzesByCategory = new HashMap<>();
+  private RoaringBitmap publicQuizzes = new RoaringBitmap();
+  private Map<Integer, IndexedQuiz> indexedQuizzes = new HashMap<>();
+
+  // Set for good once a quiz id does not fit in a bitmap, since a rebuild would meet it again
+  private volatile boolean unsupported;
+
+  public QuizFilterIndex(QuizRepository quizRepository) {
+    super(quizRepository);
+  }
+
+  /**
+   * Checks whether the index has been built and can answer queries. An index that has met a quiz id
+   * too large for it is never ready again, and lookups should go to the database instead.
+   *
+   * @return True if the index is ready.
+   */
+  @Override
+  public boolean isReady() {
+    return !unsupported && super.isReady();
+  }
+
+  /**
+   * Checks whether a quiz is public. Until the index is ready, every quiz is taken to be public.
+   *
+   * @param quizId The id of the quiz.
+   * @return False if the index knows the quiz is not public.
+   */
+  public boolean isPublic(Long quizId) {
+    if (quizId == null) {
+      return false;
+    }
+    if (quizId > Integer.MAX_VALUE) {
+      return true;
+    }
+    lock.readLock().lock();
+    try {
+      return !isReady() || publicQuizzes.contains(quizId.intValue());
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  protected Runnable prepare(List<Quiz> quizzes) {
+    return () -> {
+      quizzesByTag = new HashMap<>();
+      quizzesByCategory = new HashMap<>();
+      publicQuizzes = new RoaringBitmap();
+      indexedQuizzes = new HashMap<>();
+      for (Quiz quiz : quizzes) {
+        apply(QuizChangedEvent.of(quiz));
+      }
+      quizzesByTag.values().forEach(RoaringBitmap::runOptimize);
+      quizzesByCategory.values().forEach(RoaringBitmap::runOptimize);
+    };
+  }
+
+  /**
+   * Updates the index after a quiz has changed.
+   *
+   * @param event The event describing the new state of the quiz.
+   */
+  @EventListener
+  public void onQuizChanged(QuizChangedEvent event) {
+    change(() -> apply(event));
+  }
+
+  /**
+   * Finds the ids of the public quizzes that match a filter, ordered by id.
+   *
+   * @param filter The filter to apply.
+   * @param pageable Pageable object to control pagination. Sorting is ignored.
+   * @return Page of quiz ids.
+   */
+  public Page<Long> filter(QuizFilterDTO filter, Pageable pageable) {
+    if (filter == null) {
+      throw new IllegalArgumentException("Filter parameter cannot be null.");
+    }
+    ensureReady();
+    lock.readLock().lock();
+    try {
+      RoaringBitmap result = publicQuizzes.clone();
+      if (filter.getCategory() != null && !filter.getCategory().isEmpty()) {
+        result.and(bitmap(quizzesByCategory, filter.getCategory()));
+      }
+      for (String tag : nonNull(filter.getAllTags())) {
+        result.and(bitmap(quizzesByTag, tag));
+      }
+      Collection<String> anyTags = nonNull(filter.getAnyTags());
+      if (!anyTags.isEmpty()) {
+        RoaringBitmap union =
+            RoaringBitmap.or(anyTags.stream().map(tag -> bitmap(quizzesByTag, tag)).iterator());
+        result.and(union);
+      }
+      for (String tag : nonNull(filter.getNoneTags())) {
+        result.andNot(bitmap(quizzesByTag, tag));
+      }
+      return page(result, pageable);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Finds the ids of the public quizzes that have every one of the given tags.
+   *
+   * @param tags The names of the tags.
+   * @param pageable Pageable object to control pagination. Sorting is ignored.
+   * @return Page of quiz ids.
+   */
+  public Page<Long> findByAllTags(Collection<String> tags, Pageable pageable) {
+    QuizFilterDTO filter = new QuizFilterDTO();
+    filter.setAllTags(new HashSet<>(tags));
+    return filter(filter, pageable);
+  }
+
+  /**
+   * Finds the ids of the public quizzes in a category.
+   *
+   * @param category The name of the category.
+   * @param pageable Pageable object to control pagination. Sorting is ignored.
+   * @return Page of quiz ids.
+   */
+  public Page<Long> findByCategory(String category, Pageable pageable) {
+    QuizFilterDTO filter = new QuizFilterDTO();
+    filter.setCategory(category);
+    return filter(filter, pageable);
+  }
+
+  /**
+   * Replaces whatever is indexed for a quiz with its new state. Must hold the write lock.
+   *
+   * @param event The new state of the quiz.
+   */
+  private void apply(QuizChangedEvent event) {
+    if (event.getQuizId() == null) {
+      return;
+    }
+    if (event.getQuizId() > Integer.MAX_VALUE) {
+      // Bitmaps are keyed by int, so the index can no longer represent the catalog
+      if (!unsupported) {
+        log.warn("Quiz id {} does not fit in the filter index, disabling it", event.getQuizId());
+        unsupported = true;
+      }
+      return;
+    }
+    int id = event.getQuizId().intValue();
+
+    IndexedQuiz previous = indexedQuizzes.remove(id);
+    if (previous != null) {
+      publicQuizzes.remove(id);
+      previous.tags().forEach(tag -> removePosting(quizzesByTag, tag, id));
+      if (previous.category() != null) {
+        removePosting(quizzesByCategory, previous.category(), id);
+      }
+    }
+    if (!event.isPublic()) {
+      return;
+    }
+
+    Set<String> tags =
+        event.getTagNames().stream()
+            .filter(Objects::nonNull)
+            .map(QuizFilterIndex::key)
+            .collect(Collectors.toSet());
+    String category = event.getCategoryName() == null ? null : key(event.getCategoryName());
+    publicQuizzes.add(id);
+    tags.forEach(tag -> quizzesByTag.computeIfAbsent(tag, k -> new RoaringBitmap()).add(id));
+    if (category != null) {
+      quizzesByCategory.computeIfAbsent(category, k -> new RoaringBitmap()).add(id);
+    }
+    indexedQuizzes.put(id, new IndexedQuiz(category, tags));
+  }
+
+  private static void removePosting(Map<String, RoaringBitmap> postings, String key, int id) {
+    RoaringBitmap bitmap = postings.get(key);
+    if (bitmap != null) {
+      bitmap.remove(id);
+      if (bitmap.isEmpty()) {
+        postings.remove(key);
+      }
+    }
+  }
+
+  private static RoaringBitmap bitmap(Map<String, RoaringBitmap> postings, String name) {
+    if (name == null) {
+      return new RoaringBitmap();
+    }
+    RoaringBitmap bitmap = postings.get(key(name));
+    return bitmap == null ? new RoaringBitmap() : bitmap;
+  }
+
+  private static Page<Long> page(RoaringBitmap ids, Pageable pageable) {
+    long total = ids.getLongCardinality();
+    if (pageable.isUnpaged()) {
+      List<Long> content = new ArrayList<>((int) total);
+      ids.forEach((int id) -> content.add((long) id));
+      return new PageImpl<>(content, pageable, total);
+    }
+
+    List<Long> content = new ArrayList<>(pageable.getPageSize());
+    if (pageable.getOffset() < total) {
+      PeekableIntIterator iterator = ids.getIntIterator();
+      iterator.advanceIfNeeded(ids.select((int) pageable.getOffset()));
+      while (iterator.hasNext() && content.size() < pageable.getPageSize()) {
+        content.add((long) iterator.next());
+      }
+    }
+    return new PageImpl<>(content, pageable, total);
+  }
+
+  private static Collection<String> nonNull(Collection<String> names) {
+    return names == null ? Set.of() : names;
+  }
+
+  private static String key(String name) {
+    return name.toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * What is currently indexed for a quiz, kept so that its postings can be removed again.
+   *
+   * @param category The normalized category name, or null.
+   * @param tags The normalized tag names.
+   */
+  private record IndexedQuiz(String category, Set<String> tags) {}
+}
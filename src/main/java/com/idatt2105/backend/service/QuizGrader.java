@@ -0,0 +1,258 @@
+package com.idatt2105.backend.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.idatt2105.backend.dto.QuizVersionDTO;
+import com.idatt2105.backend.event.QuestionsChangedEvent;
+import com.idatt2105.backend.event.QuizChangedEvent;
+import com.idatt2105.backend.model.AlternativeRecord;
+import com.idatt2105.backend.model.MultipleChoiceQuestionAttempt;
+import com.idatt2105.backend.model.QuestionAttempt;
+import com.idatt2105.backend.model.QuizAttempt;
+import com.idatt2105.backend.model.TrueOrFalseQuestionAttempt;
+import com.idatt2105.backend.repository.AlternativeRepository;
+import com.idatt2105.backend.repository.QuestionRepository;
+import com.idatt2105.backend.repository.QuizRepository;
+import com.idatt2105.backend.util.InvalidIdException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Grades quiz attempts on the server, so that the score and the correct answers are never taken
+ * from the client. Each quiz is compiled into an {@link AnswerKey} once per version, and kept in a
+ * bounded cache ({@code quiz.grading.answer-key-cache.maximum-size}), so grading an attempt only
+ * reads the version of the quiz.
+ *
+ * <p>A question is answered correctly if a true or false answer matches, or if exactly the correct
+ * alternatives of a multiple choice question are selected. The score of an attempt is the sum of
+ * the points of the questions answered correctly. Hit and miss counts of the answer key cache are
+ * published as {@code cache.*} metrics.
+ */
+@Component
+public class QuizGrader implements MeterBinder {
+  private final QuizRepository quizRepository;
+  private final QuestionRepository questionRepository;
+  private final AlternativeRepository alternativeRepository;
+  private final Cache<Long, AnswerKey> answerKeys;
+
+  public QuizGrader(
+      QuizRepository quizRepository,
+      QuestionRepository questionRepository,
+      AlternativeRepository alternativeRepository,
+      @Value("${quiz.grading.answer-key-cache.maximum-size:10000}") long maximumSize) {
+    this.quizRepository = quizRepository;
+    this.questionRepository = questionRepository;
+    this.alternativeRepository = alternativeRepository;
+    this.answerKeys = Caffeine.newBuilder().maximumSize(maximumSize).recordStats().build();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CaffeineCacheMetrics.monitor(registry, answerKeys, "grading.answer-keys");
+  }
+
+  /**
+   * Grades a quiz attempt against the current version of its quiz. Sets the score and maximum score
+   * of the attempt, the points and correct answer of every true or false question attempt, and
+   * whether every alternative of a multiple choice question attempt was correct.
+   *
+   * @param quizAttempt The attempt to grade.
+   * @throws IllegalArgumentException If the attempt has no quiz id, or answers a question or
+   *     alternative that is not part of the quiz, or answers a question twice.
+   * @throws InvalidIdException If the quiz is not found.
+   */
+  public void grade(QuizAttempt quizAttempt) {
+    if (quizAttempt.getQuizId() == null) {
+      throw new IllegalArgumentException("Quiz id cannot be null.");
+    }
+    AnswerKey answerKey = getAnswerKey(quizAttempt.getQuizId());
+    quizAttempt.setScore(grade(answerKey, quizAttempt));
+    quizAttempt.setMaxScore(answerKey.maxScore());
+  }
+
+  /**
+   * Grades a number of quiz attempts, looking up the answer key of each quiz only once.
+   *
+   * @param quizAttempts The attempts to grade.
+   * @throws IllegalArgumentException If an attempt has no quiz id, or does not match its quiz.
+   * @throws InvalidIdException If a quiz is not found.
+   * @see #grade(QuizAttempt)
+   */
+  public void gradeAll(Collection<QuizAttempt> quizAttempts) {
+    Map<Long, AnswerKey> answerKeysByQuiz = new HashMap<>();
+    for (QuizAttempt quizAttempt : quizAttempts) {
+      if (quizAttempt.getQuizId() == null) {
+        throw new IllegalArgumentException("Quiz id cannot be null.");
+      }
+      AnswerKey answerKey =
+          answerKeysByQuiz.computeIfAbsent(quizAttempt.getQuizId(), this::getAnswerKey);
+      quizAttempt.setScore(grade(answerKey, quizAttempt));
+      quizAttempt.setMaxScore(answerKey.maxScore());
+    }
+  }
+
+  /**
+   * Gets the answer key of the current version of a quiz, compiling it if needed.
+   *
+   * @param quizId The id of the quiz.
+   * @throws InvalidIdException If the quiz is not found.
+   * @return The answer key.
+   */
+  public AnswerKey getAnswerKey(Long quizId) {
+    QuizVersionDTO version =
+        quizRepository
+            .findVersionById(quizId)
+            .orElseThrow(() -> new InvalidIdException("Quiz with id " + quizId + " not found"));
+    AnswerKey answerKey = answerKeys.getIfPresent(quizId);
+    if (answerKey != null && answerKey.getContentVersion() == version.getContentVersion()) {
+      return answerKey;
+    }
+    // Read after the version, so the key is never older than the version it is stored under
+    AnswerKey compiled =
+        AnswerKey.compile(
+            quizId,
+            version.getContentVersion(),
+            questionRepository.findByQuizIdOrderByIdAsc(quizId),
+            alternativeRepository.findRowsByQuizId(quizId));
+    answerKeys
+        .asMap()
+        .merge(
+            quizId,
+            compiled,
+            (stored, fresh) ->
+                stored.getContentVersion() > fresh.getContentVersion() ? stored : fresh);
+    return compiled;
+  }
+
+  /**
+   * Drops the answer key of a quiz that has been changed.
+   *
+   * @param event The event describing the new state of the quiz.
+   */
+  @EventListener
+  public void onQuizChanged(QuizChangedEvent event) {
+    answerKeys.invalidate(event.getQuizId());
+  }
+
+  /**
+   * Drops the answer key of a quiz whose questions have been changed.
+   *
+   * @param event The event naming the quiz.
+   */
+  @EventListener
+  public void onQuestionsChanged(QuestionsChangedEvent event) {
+    answerKeys.invalidate(event.getQuizId());
+  }
+
+  /**
+   * Grades the question attempts of a quiz attempt against an answer key.
+   *
+   * @param answerKey The answer key of the quiz.
+   * @param quizAttempt The attempt to grade. Its question attempts are updated.
+   * @throws IllegalArgumentException If the attempt answers a question or alternative that is not
+   *     part of the quiz, or answers a question or alternative twice.
+   * @return The score of the attempt.
+   */
+  static int grade(AnswerKey answerKey, QuizAttempt quizAttempt) {
+    boolean[] answered = new boolean[answerKey.questionCount()];
+    boolean[] shown = new boolean[answerKey.alternativeCount()];
+    int score = 0;
+    for (QuestionAttempt questionAttempt : quizAttempt.getQuestionAttempts()) {
+      Long questionId = questionAttempt.getQuestionId();
+      int question = questionId == null ? -1 : answerKey.indexOfQuestion(questionId);
+      if (question < 0) {
+        throw new IllegalArgumentException(
+            "Question " + questionId + " is not part of quiz " + answerKey.getQuizId());
+      }
+      if (answered[question]) {
+        throw new IllegalArgumentException("Question " + questionId + " is answered twice");
+      }
+      answered[question] = true;
+      questionAttempt.setPoints(answerKey.points(question));
+
+      boolean correct;
+      if (questionAttempt instanceof TrueOrFalseQuestionAttempt trueOrFalseAttempt) {
+        if (!answerKey.isTrueOrFalse(question)) {
+          throw new IllegalArgumentException(
+              "Question " + questionId + " is not a true or false question");
+        }
+        boolean correctAnswer = answerKey.correctAnswer(question);
+        trueOrFalseAttempt.setCorrectAnswer(correctAnswer);
+        correct =
+            trueOrFalseAttempt.getUserAnswer() != null
+                && trueOrFalseAttempt.getUserAnswer() == correctAnswer;
+      } else if (questionAttempt instanceof MultipleChoiceQuestionAttempt multipleChoiceAttempt) {
+        if (answerKey.isTrueOrFalse(question)) {
+          throw new IllegalArgumentException(
+              "Question " + questionId + " is not a multiple choice question");
+        }
+        correct = gradeAlternatives(answerKey, question, multipleChoiceAttempt, shown);
+      } else {
+        throw new IllegalArgumentException("Question " + questionId + " has no answer");
+      }
+      if (correct) {
+        score += answerKey.points(question);
+      }
+    }
+    // Grading changed the hash codes of the question attempts, so their set must be rebuilt
+    quizAttempt.setQuestionAttempts(new HashSet<>(quizAttempt.getQuestionAttempts()));
+    return score;
+  }
+
+  /**
+   * Marks the correct alternatives of a multiple choice question attempt.
+   *
+   * @param answerKey The answer key of the quiz.
+   * @param question The index of the question in the answer key.
+   * @param questionAttempt The question attempt.
+   * @param shown The alternatives of the quiz that have been graded so far.
+   * @return True if exactly the correct alternatives were selected.
+   */
+  private static boolean gradeAlternatives(
+      AnswerKey answerKey,
+      int question,
+      MultipleChoiceQuestionAttempt questionAttempt,
+      boolean[] shown) {
+    int correctSelected = 0;
+    boolean wrongSelected = false;
+    for (AlternativeRecord record : questionAttempt.getAlternatives()) {
+      Long alternativeId = record.getAlternativeId();
+      int alternative =
+          alternativeId == null ? -1 : answerKey.indexOfAlternative(question, alternativeId);
+      if (alternative < 0) {
+        throw new IllegalArgumentException(
+            "Alternative "
+                + alternativeId
+                + " is not part of question "
+                + questionAttempt.getQuestionId());
+      }
+      if (shown[alternative]) {
+        throw new IllegalArgumentException("Alternative " + alternativeId + " is answered twice");
+      }
+      shown[alternative] = true;
+
+      boolean alternativeCorrect = answerKey.isCorrectAlternative(alternative);
+      record.setWasCorrect(alternativeCorrect);
+      if (record.getWasSelected()) {
+        if (alternativeCorrect) {
+          correctSelected++;
+        } else {
+          wrongSelected = true;
+        }
+      }
+    }
+    questionAttempt.setAlternatives(new HashSet<>(questionAttempt.getAlternatives()));
+    return !wrongSelected && correctSelected == answerKey.correctAlternativeCount(question);
+  }
+}
@@ -0,0 +1,30 @@
+package com.idatt2105.backend.service;
+
+import java.util.List;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.idatt2105.backend.repository.QuizRepository;
+
+/**
+ * Builds every {@link QuizCatalogIndex} when the application starts, from one read of the public
+ * quizzes in the database instead of one read for each index.
+ */
+@Component
+public class QuizIndexRebuilder {
+  private final QuizRepository quizRepository;
+  private final List<QuizCatalogIndex> indexes;
+
+  public QuizIndexRebuilder(QuizRepository quizRepository, List<QuizCatalogIndex> indexes) {
+    this.quizRepository = quizRepository;
+    this.indexes = indexes;
+  }
+
+  /** Rebuilds all the indexes from the public quizzes in the database. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuild() {
+    QuizCatalogIndex.rebuild(quizRepository, indexes);
+  }
+}
@@ -0,0 +1,283 @@
+package com.idatt2105.backend.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.idatt2105.backend.dto.LeaderboardEntryDTO;
+import com.idatt2105.backend.event.QuizAttemptAddedEvent;
+import com.idatt2105.backend.model.User;
+import com.idatt2105.backend.repository.QuizAttemptRepository;
+import com.idatt2105.backend.repository.QuizAttemptRepository.AttemptScore;
+import com.idatt2105.backend.repository.QuizRepository;
+import com.idatt2105.backend.repository.UserRepository;
+import com.idatt2105.backend.util.InvalidIdException;
+import com.idatt2105.backend.util.OrderStatisticTree;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * In-memory leaderboards of the quizzes. The leaderboard of a quiz holds the best attempt of each
+ * user, ranked by score, then by who got it first. Ranks are counted in an {@link
+ * OrderStatisticTree}, so reading the top attempts or the rank of a user takes logarithmic time and
+ * never sorts the attempts in the database.
+ *
+ * <p>A leaderboard is loaded from the scores of the attempts of its quiz, archived attempts
+ * included, the first time it is read, and kept up to date as attempts are added. At most {@code
+ * quiz.leaderboard.capacity} leaderboards are kept, and a leaderboard that is neither read nor
+ * attempted for {@code quiz.leaderboard.idle-timeout} is dropped until it is read again. The number
+ * of leaderboards loaded and dropped is exposed as {@code quiz.leaderboards.*} metrics.
+ */
+@Component
+public class QuizLeaderboard implements MeterBinder {
+  /** The largest number of attempts that can be read from a leaderboard at once. */
+  public static final int MAX_TOP = 100;
+
+  private static final Comparator<Entry> RANKING =
+      Comparator.comparingInt(Entry::score)
+          .reversed()
+          .thenComparing(Entry::attemptTime, Comparator.nullsLast(Comparator.naturalOrder()))
+          .thenComparing(Entry::attemptId);
+
+  private final QuizAttemptRepository quizAttemptRepository;
+  private final QuizRepository quizRepository;
+  private final UserRepository userRepository;
+  private final AttemptArchive attemptArchive;
+  private final Cache<Long, Board> boards;
+
+  public QuizLeaderboard(
+      QuizAttemptRepository quizAttemptRepository,
+      QuizRepository quizRepository,
+      UserRepository userRepository,
+      AttemptArchive attemptArchive,
+      @Value("${quiz.leaderboard.capacity:1000}") int capacity,
+      @Value("${quiz.leaderboard.idle-timeout:30m}") Duration idleTimeout) {
+    this.quizAttemptRepository = quizAttemptRepository;
+    this.quizRepository = quizRepository;
+    this.userRepository = userRepository;
+    this.attemptArchive = attemptArchive;
+    this.boards =
+        Caffeine.newBuilder()
+            .maximumSize(capacity)
+            .expireAfterAccess(idleTimeout)
+            .recordStats()
+            .build();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CaffeineCacheMetrics.monitor(registry, boards, "quiz.leaderboards");
+  }
+
+  /**
+   * Gets the best attempts on a quiz.
+   *
+   * @param quizId The id of the quiz.
+   * @param limit The maximum number of attempts, at most {@value #MAX_TOP}.
+   * @throws IllegalArgumentException If the quiz id is null or the limit is out of range.
+   * @throws InvalidIdException If the quiz is not found.
+   * @return The best attempt of each of the highest ranked users, best first.
+   */
+  public List<LeaderboardEntryDTO> top(Long quizId, int limit) {
+    if (limit < 1 || limit > MAX_TOP) {
+      throw new IllegalArgumentException("Limit must be between 1 and " + MAX_TOP + ".");
+    }
+    Board board = board(quizId);
+    List<Entry> entries;
+    board.lock.readLock().lock();
+    try {
+      entries = board.ranking.first(limit);
+    } finally {
+      board.lock.readLock().unlock();
+    }
+
+    Map<Long, String> usernames =
+        userRepository.findAllById(entries.stream().map(Entry::userId).toList()).stream()
+            .collect(Collectors.toMap(User::getId, User::getUsername));
+    List<LeaderboardEntryDTO> top = new ArrayList<>(entries.size());
+    for (int i = 0; i < entries.size(); i++) {
+      top.add(entries.get(i).toDTO(i + 1, usernames::get));
+    }
+    return top;
+  }
+
+  /**
+   * Gets the best attempt of a user on a quiz, and its rank.
+   *
+   * @param quizId The id of the quiz.
+   * @param userId The id of the user.
+   * @throws IllegalArgumentException If the quiz id or user id is null.
+   * @throws InvalidIdException If the quiz is not found, or the user has not attempted it.
+   * @return The best attempt of the user, with its rank.
+   */
+  public LeaderboardEntryDTO rankOf(Long quizId, Long userId) {
+    if (userId == null) {
+      throw new IllegalArgumentException("User id cannot be null.");
+    }
+    Board board = board(quizId);
+    Entry entry;
+    int index;
+    board.lock.readLock().lock();
+    try {
+      entry = board.best.get(userId);
+      if (entry == null) {
+        throw new InvalidIdException(
+            "User with id " + userId + " has not attempted quiz with id " + quizId);
+      }
+      index = board.ranking.indexOf(entry);
+    } finally {
+      board.lock.readLock().unlock();
+    }
+    return entry.toDTO(
+        index + 1, id -> userRepository.findById(id).map(User::getUsername).orElse(null));
+  }
+
+  /**
+   * Adds an attempt to the leaderboard of its quiz once it is committed, if it is the best attempt
+   * of its user. Leaderboards that are not loaded are left alone, since the attempt is read when
+   * they are.
+   *
+   * @param event The event describing the attempt.
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onQuizAttemptAdded(QuizAttemptAddedEvent event) {
+    if (event.getQuizId() == null || event.getAttemptId() == null || event.getUserId() == null) {
+      return;
+    }
+    Board board = boards.getIfPresent(event.getQuizId());
+    if (board != null) {
+      board.offer(
+          new Entry(
+              event.getUserId(), event.getAttemptId(), event.getScore(), event.getAttemptTime()));
+    }
+  }
+
+  /**
+   * Gets the leaderboard of a quiz, loading it if needed.
+   *
+   * @param quizId The id of the quiz.
+   * @throws IllegalArgumentException If the quiz id is null.
+   * @throws InvalidIdException If the quiz is not found.
+   * @return The loaded leaderboard.
+   */
+  private Board board(Long quizId) {
+    if (quizId == null) {
+      throw new IllegalArgumentException("Quiz id cannot be null.");
+    }
+    Board board = boards.getIfPresent(quizId);
+    if (board == null) {
+      if (!quizRepository.existsById(quizId)) {
+        throw new InvalidIdException("Quiz with id " + quizId + " not found");
+      }
+      board = boards.get(quizId, id -> new Board());
+    }
+    board.load(quizId);
+    return board;
+  }
+
+  /**
+   * The leaderboard of one quiz. Adding the same attempt twice has no effect, so attempts that
+   * arrive while the leaderboard is loaded may safely be read from the database as well.
+   */
+  private final class Board {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final OrderStatisticTree<Entry> ranking = new OrderStatisticTree<>(RANKING);
+    // The entry of each user in the ranking
+    private final Map<Long, Entry> best = new HashMap<>();
+    private volatile boolean loaded;
+
+    /**
+     * Reads the attempts of the quiz from the database and the archive, unless they have been read
+     * already.
+     *
+     * @param quizId The id of the quiz.
+     */
+    private void load(Long quizId) {
+      if (loaded) {
+        return;
+      }
+      lock.writeLock().lock();
+      try {
+        if (!loaded) {
+          for (AttemptScore attempt : quizAttemptRepository.findScoresByQuizId(quizId)) {
+            offerLocked(
+                new Entry(
+                    attempt.getUserId(),
+                    attempt.getId(),
+                    attempt.getScore(),
+                    attempt.getAttemptTime()));
+          }
+          attemptArchive.forEachByQuizId(
+              quizId,
+              archived ->
+                  offerLocked(
+                      new Entry(
+                          archived.getUser().getId(),
+                          archived.getId(),
+                          archived.getScore(),
+                          archived.getAttemptTime())));
+          loaded = true;
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    /**
+     * Adds an attempt, if it is the best attempt of its user.
+     *
+     * @param entry The attempt.
+     */
+    private void offer(Entry entry) {
+      lock.writeLock().lock();
+      try {
+        offerLocked(entry);
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    private void offerLocked(Entry entry) {
+      Entry previous = best.get(entry.userId());
+      if (previous != null) {
+        if (RANKING.compare(entry, previous) >= 0) {
+          return;
+        }
+        ranking.remove(previous);
+      }
+      best.put(entry.userId(), entry);
+      ranking.add(entry);
+    }
+  }
+
+  /**
+   * An attempt on a leaderboard.
+   *
+   * @param userId The id of the user who made it.
+   * @param attemptId The id of the attempt.
+   * @param score The score it was given.
+   * @param attemptTime When it was made.
+   */
+  private record Entry(Long userId, Long attemptId, int score, LocalDateTime attemptTime) {
+    private LeaderboardEntryDTO toDTO(int rank, Function<Long, String> usernames) {
+      return new LeaderboardEntryDTO(
+          rank, userId, usernames.apply(userId), attemptId, score, attemptTime);
+    }
+  }
+}
@@ -0,0 +1,253 @@
+package com.idatt2105.backend.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.regex.Pattern;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.idatt2105.backend.event.QuizChangedEvent;
+import com.idatt2105.backend.model.Quiz;
+import com.idatt2105.backend.repository.QuizRepository;
+
+/**
+ * In-memory inverted index for full-text search over public quizzes. The title, description, tag
+ * names and category name of each quiz are tokenized into one document, and results are ranked with
+ * BM25. Terms in the title count twice, so a match in the title ranks above the same match in the
+ * description.
+ *
+ * <p>The index is kept up to date through {@link QuizChangedEvent}s, and rebuilt from the database
+ * on startup and on a schedule ({@code quiz.search.rebuild-cron}) to repair any drift.
+ */
+@Component
+public class QuizSearchIndex extends QuizCatalogIndex {
+  /** BM25 term frequency saturation. */
+  static final double K1 = 1.2;
+
+  /** BM25 document length normalization. */
+  static final double B = 0.75;
+
+  private static final int TITLE_WEIGHT = 2;
+  private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+  // term -> quiz id -> term frequency
+  private Map<String, Map<Long, Integer>> postings = new HashMap<>();
+  // quiz id -> term -> term frequency, kept so that a quiz can be removed again
+  private Map<Long, Map<String, Integer>> documents = new HashMap<>();
+  private Map<Long, Integer> documentLengths = new HashMap<>();
+  private long totalLength;
+
+  public QuizSearchIndex(QuizRepository quizRepository) {
+    super(quizRepository);
+  }
+
+  /** Rebuilds the whole index on a schedule, to repair any drift from the database. */
+  @Override
+  @Scheduled(cron = "${quiz.search.rebuild-cron:0 0 4 * * *}")
+  public void rebuild() {
+    super.rebuild();
+  }
+
+  @Override
+  protected Runnable prepare(List<Quiz> quizzes) {
+    return () -> {
+      postings = new HashMap<>();
+      documents = new HashMap<>();
+      documentLengths = new HashMap<>();
+      totalLength = 0;
+      for (Quiz quiz : quizzes) {
+        apply(QuizChangedEvent.of(quiz));
+      }
+    };
+  }
+
+  /**
+   * Updates the index after a quiz has changed.
+   *
+   * @param event The event describing the new state of the quiz.
+   */
+  @EventListener
+  public void onQuizChanged(QuizChangedEvent event) {
+    change(() -> apply(event));
+  }
+
+  /**
+   * Searches the public quizzes. A quiz matches if it contains any of the terms in the query, and
+   * quizzes are ordered by BM25 score, best first, with ties broken by id.
+   *
+   * @param query The search text.
+   * @param pageable Pageable object to control pagination. Sorting is ignored.
+   * @throws IllegalArgumentException If the query parameter is null.
+   * @return Page of ids of the matching quizzes.
+   */
+  public Page<Long> search(String query, Pageable pageable) {
+    if (query == null) {
+      throw new IllegalArgumentException("Query parameter cannot be null.");
+    }
+    ensureReady();
+    List<String> terms = tokenize(query);
+
+    lock.readLock().lock();
+    try {
+      Map<Long, Double> scores = new HashMap<>();
+      double averageLength = documents.isEmpty() ? 0 : (double) totalLength / documents.size();
+      for (String term : terms.stream().distinct().toList()) {
+        Map<Long, Integer> posting = postings.get(term);
+        if (posting == null) {
+          continue;
+        }
+        double idf = idf(documents.size(), posting.size());
+        posting.forEach(
+            (id, frequency) ->
+                scores.merge(
+                    id,
+                    idf * termWeight(frequency, documentLengths.get(id), averageLength),
+                    Double::sum));
+      }
+      return page(scores, pageable);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Splits text into lower case terms of letters and digits.
+   *
+   * @param text The text to split, may be null.
+   * @return The terms, in order of appearance.
+   */
+  static List<String> tokenize(String text) {
+    if (text == null || text.isBlank()) {
+      return Collections.emptyList();
+    }
+    List<String> terms = new ArrayList<>();
+    for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+      if (!token.isEmpty()) {
+        terms.add(token);
+      }
+    }
+    return terms;
+  }
+
+  /**
+   * Computes the BM25 inverse document frequency of a term.
+   *
+   * @param documentCount The number of indexed documents.
+   * @param matchCount The number of documents that contain the term.
+   * @return The inverse document frequency, always positive.
+   */
+  static double idf(int documentCount, int matchCount) {
+    return Math.log(1 + (documentCount - matchCount + 0.5) / (matchCount + 0.5));
+  }
+
+  /**
+   * Computes the BM25 weight of a term in a document, before it is scaled by idf.
+   *
+   * @param frequency The number of times the term occurs in the document.
+   * @param length The number of terms in the document.
+   * @param averageLength The average number of terms in a document.
+   * @return The term weight.
+   */
+  static double termWeight(int frequency, int length, double averageLength) {
+    double normalization = averageLength == 0 ? 1 : 1 - B + B * length / averageLength;
+    return frequency * (K1 + 1) / (frequency + K1 * normalization);
+  }
+
+  /**
+   * Replaces whatever is indexed for a quiz with its new state. Must hold the write lock.
+   *
+   * @param event The new state of the quiz.
+   */
+  private void apply(QuizChangedEvent event) {
+    Long id = event.getQuizId();
+    if (id == null) {
+      return;
+    }
+
+    Map<String, Integer> previous = documents.remove(id);
+    if (previous != null) {
+      previous.keySet().forEach(term -> removePosting(term, id));
+      totalLength -= documentLengths.remove(id);
+    }
+    if (!event.isPublic()) {
+      return;
+    }
+
+    Map<String, Integer> frequencies = new HashMap<>();
+    tokenize(event.getTitle()).forEach(term -> frequencies.merge(term, TITLE_WEIGHT, Integer::sum));
+    tokenize(event.getDescription()).forEach(term -> frequencies.merge(term, 1, Integer::sum));
+    tokenize(event.getCategoryName()).forEach(term -> frequencies.merge(term, 1, Integer::sum));
+    event.getTagNames().stream()
+        .flatMap(tag -> tokenize(tag).stream())
+        .forEach(term -> frequencies.merge(term, 1, Integer::sum));
+
+    int length = frequencies.values().stream().mapToInt(Integer::intValue).sum();
+    frequencies.forEach(
+        (term, frequency) ->
+            postings.computeIfAbsent(term, k -> new HashMap<>()).put(id, frequency));
+    documents.put(id, frequencies);
+    documentLengths.put(id, length);
+    totalLength += length;
+  }
+
+  private void removePosting(String term, Long id) {
+    Map<Long, Integer> posting = postings.get(term);
+    if (posting != null) {
+      posting.remove(id);
+      if (posting.isEmpty()) {
+        postings.remove(term);
+      }
+    }
+  }
+
+  /**
+   * Orders scored quizzes and cuts out the requested page. Only the quizzes up to the end of the
+   * page are kept in a bounded heap, so the full result is never sorted.
+   *
+   * @param scores The score of every matching quiz, by id.
+   * @param pageable The requested page.
+   * @return Page of quiz ids.
+   */
+  private static Page<Long> page(Map<Long, Double> scores, Pageable pageable) {
+    Comparator<Map.Entry<Long, Double>> ranking =
+        Map.Entry.<Long, Double>comparingByValue()
+            .reversed()
+            .thenComparing(Map.Entry.comparingByKey());
+    if (pageable.isUnpaged()) {
+      List<Long> content =
+          scores.entrySet().stream().sorted(ranking).map(Map.Entry::getKey).toList();
+      return new PageImpl<>(content, pageable, scores.size());
+    }
+
+    long end = pageable.getOffset() + pageable.getPageSize();
+    if (pageable.getOffset() >= scores.size()) {
+      return new PageImpl<>(Collections.emptyList(), pageable, scores.size());
+    }
+    int keep = (int) Math.min(end, scores.size());
+    PriorityQueue<Map.Entry<Long, Double>> top = new PriorityQueue<>(keep, ranking.reversed());
+    for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+      top.offer(entry);
+      if (top.size() > keep) {
+        top.poll();
+      }
+    }
+    List<Long> ranked = new ArrayList<>(top.size());
+    while (!top.isEmpty()) {
+      ranked.add(top.poll().getKey());
+    }
+    Collections.reverse(ranked);
+    List<Long> content = ranked.subList((int) pageable.getOffset(), ranked.size());
+    return new PageImpl<>(new ArrayList<>(content), pageable, scores.size());
+  }
+}
@@ -5,53 +5,83 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.idatt2105.backend.dto.CursorPageDTO;
 import com.idatt2105.backend.dto.QuizDTO;
+import com.idatt2105.backend.dto.QuizFilterDTO;
+import com.idatt2105.backend.dto.QuizSummaryDTO;
+import com.idatt2105.backend.dto.QuizVersionDTO;
+import com.idatt2105.backend.dto.SuggestionDTO;
 import com.idatt2105.backend.dto.UserDTO;
+import com.idatt2105.backend.event.CategoryCreatedEvent;
+import com.idatt2105.backend.event.QuizChangedEvent;
 import com.idatt2105.backend.model.Category;
 import com.idatt2105.backend.model.Quiz;
 import com.idatt2105.backend.model.Tag;
 import com.idatt2105.backend.model.User;
 import com.idatt2105.backend.repository.CategoryRepository;
 import com.idatt2105.backend.repository.QuizRepository;
-import com.idatt2105.backend.repository.TagRepository;
 import com.idatt2105.backend.repository.UserRepository;
 import com.idatt2105.backend.util.InvalidIdException;
+import com.idatt2105.backend.util.QuizCursor;
 
 /** Service class for Quiz entities. Handles business logic for Quiz entities. */
 @Service
 public class QuizService {
+  /** Upper bound for the size of a slice in the keyset-paginated catalog. */
+  public static final int MAX_CURSOR_PAGE_SIZE = 100;
 
   private final QuizRepository quizRepository;
   private final UserRepository userRepository;
-  private final TagRepository tagRepository;
   private final CategoryRepository categoryRepository;
+  private final QuizFilterIndex quizFilterIndex;
+  private final QuizSearchIndex quizSearchIndex;
+  private final QuizAutocompleteIndex quizAutocompleteIndex;
+  private final ReferenceDataCache referenceDataCache;
+  private final TagResolver tagResolver;
+  private final QuizTrendingIndex quizTrendingIndex;
+  private final ApplicationEventPublisher eventPublisher;
 
   @Autowired
   public QuizService(
       QuizRepository quizRepository,
       UserRepository userRepository,
-      TagRepository tagRepository,
-      CategoryRepository categoryRepository) {
+      CategoryRepository categoryRepository,
+      QuizFilterIndex quizFilterIndex,
+      QuizSearchIndex quizSearchIndex,
+      QuizAutocompleteIndex quizAutocompleteIndex,
+      ReferenceDataCache referenceDataCache,
+      TagResolver tagResolver,
+      QuizTrendingIndex quizTrendingIndex,
+      ApplicationEventPublisher eventPublisher) {
     this.quizRepository = quizRepository;
     this.userRepository = userRepository;
-    this.tagRepository = tagRepository;
     this.categoryRepository = categoryRepository;
+    this.quizFilterIndex = quizFilterIndex;
+    this.quizSearchIndex = quizSearchIndex;
+    this.quizAutocompleteIndex = quizAutocompleteIndex;
+    this.referenceDataCache = referenceDataCache;
+    this.tagResolver = tagResolver;
+    this.quizTrendingIndex = quizTrendingIndex;
+    this.eventPublisher = eventPublisher;
   }
 
   /**
    * Get all quizzes.
    *
    * @param pageable Pageable object to control pagination
-   * @return Page of quizzes
+   * @return Page of quiz summaries
    */
-  public Page<QuizDTO> getAllQuizzes(Pageable pageable) {
-    return quizRepository.findByIsPublicIsTrue(pageable).map(QuizDTO::new);
+  public Page<QuizSummaryDTO> getAllQuizzes(Pageable pageable) {
+    return withTagNames(quizRepository.findPublicSummaries(pageable));
   }
 
   /**
@@ -64,10 +94,30 @@ public class QuizService {
     if (id == null) {
       throw new IllegalArgumentException("Id parameter cannot be null.");
     }
-    Quiz quiz = findQuiz(id);
+    Quiz quiz =
+        quizRepository
+            .findWithDetailsById(id)
+            .orElseThrow(() -> new InvalidIdException("Quiz with id " + id + " not found"));
     return new QuizDTO(quiz);
   }
 
+  /**
+   * Get the version of a quiz, without loading the quiz.
+   *
+   * @param id The id of the quiz.
+   * @throws IllegalArgumentException If the id parameter is null.
+   * @throws InvalidIdException If the quiz is not found.
+   * @return QuizVersionDTO containing the version of the quiz.
+   */
+  public QuizVersionDTO getQuizVersion(Long id) {
+    if (id == null) {
+      throw new IllegalArgumentException("Id parameter cannot be null.");
+    }
+    return quizRepository
+        .findVersionById(id)
+        .orElseThrow(() -> new InvalidIdException("Quiz with id " + id + " not found"));
+  }
+
   /**
    * Save a quiz.
    *
@@ -85,6 +135,7 @@ public class QuizService {
     quiz.setLastModifiedDate(LocalDateTime.now());
     quiz.setCategory(category);
     Quiz savedQuiz = quizRepository.save(quiz);
+    eventPublisher.publishEvent(QuizChangedEvent.of(savedQuiz));
     return new QuizDTO(savedQuiz);
   }
 
@@ -119,7 +170,10 @@ public class QuizService {
     Optional.ofNullable(updatedQuiz.isRandomizedOrder())
         .ifPresent(existingQuiz::setRandomizedOrder);
 
-    quizRepository.save(existingQuiz);
+    existingQuiz.markModified();
+    Quiz savedQuiz = quizRepository.save(existingQuiz);
+    quizRepository.markModified(id, savedQuiz.getLastModifiedDate());
+    eventPublisher.publishEvent(QuizChangedEvent.of(savedQuiz));
   }
 
   /**
@@ -146,7 +200,9 @@ public class QuizService {
 
     foundQuiz.getUsers().add(user);
     user.getQuizzes().add(foundQuiz);
+    foundQuiz.markModified();
     quizRepository.save(foundQuiz);
+    quizRepository.markModified(quizId, foundQuiz.getLastModifiedDate());
   }
 
   /**
@@ -167,7 +223,9 @@ public class QuizService {
     User user = findUser(userId);
     foundQuiz.getUsers().remove(user);
     user.getQuizzes().remove(foundQuiz);
+    foundQuiz.markModified();
     quizRepository.save(foundQuiz);
+    quizRepository.markModified(quizId, foundQuiz.getLastModifiedDate());
   }
 
   /**
@@ -222,20 +280,11 @@ public class QuizService {
     Quiz quiz = findQuiz(dto.getId());
 
     // Save tags if they do not exist, get them if they do
-    List<Tag> savedTags = new ArrayList<>();
-    dto.getTags().stream()
-        .filter(Objects::nonNull)
-        .forEach(
-            tag -> {
-              if (tagRepository.existsByTagName(tag.getTagName())) {
-                savedTags.add(tagRepository.findByTagName(tag.getTagName()).get());
-              } else {
-                tag.setId(null); // Avoiding conflicts with existing tags
-                savedTags.add(tagRepository.save(tag));
-              }
-            });
-    quiz.addTags(savedTags);
+    quiz.addTags(tagResolver.resolve(tagNames(dto.getTags())));
+    quiz.markModified();
     Quiz savedQuiz = quizRepository.save(quiz);
+    quizRepository.markModified(savedQuiz.getId(), savedQuiz.getLastModifiedDate());
+    eventPublisher.publishEvent(QuizChangedEvent.of(savedQuiz));
     return new QuizDTO(savedQuiz);
   }
 
@@ -253,7 +302,10 @@ public class QuizService {
 
     Quiz quiz = findQuiz(dto.getId());
     quiz.removeTags(dto.getTags());
+    quiz.markModified();
     Quiz savedQuiz = quizRepository.save(quiz);
+    quizRepository.markModified(savedQuiz.getId(), savedQuiz.getLastModifiedDate());
+    eventPublisher.publishEvent(QuizChangedEvent.of(savedQuiz));
     return new QuizDTO(savedQuiz);
   }
 
@@ -288,22 +340,17 @@ public class QuizService {
             .collect(Collectors.toList());
 
     // Save new tags if they don't exist, and add them to the quiz
-    List<Tag> savedTags = new ArrayList<>();
-    tagsToAdd.forEach(
-        tag -> {
-          if (tagRepository.existsByTagName(tag.getTagName())) {
-            savedTags.add(tagRepository.findByTagName(tag.getTagName()).get());
-          } else {
-            tag.setId(null); // Avoiding conflicts with existing tags
-            savedTags.add(tagRepository.save(tag));
-          }
-        });
-    quiz.addTags(savedTags);
+    if (!tagsToAdd.isEmpty()) {
+      quiz.addTags(tagResolver.resolve(tagNames(tagsToAdd)));
+    }
 
     // Remove tags not present in the updatedTags list
     quiz.removeTags(tagsToRemove);
 
+    quiz.markModified();
     Quiz savedQuiz = quizRepository.save(quiz);
+    quizRepository.markModified(savedQuiz.getId(), savedQuiz.getLastModifiedDate());
+    eventPublisher.publishEvent(QuizChangedEvent.of(savedQuiz));
     return new QuizDTO(savedQuiz);
   }
 
@@ -313,20 +360,16 @@ public class QuizService {
    * @param tag The tag to search for.
    * @param pageable Pageable object to control pagination
    * @throws IllegalArgumentException If the tag parameter is null or empty.
-   * @return Page of quizzes that have the given tag
+   * @return Page of summaries of the quizzes that have the given tag
    */
-  public Page<QuizDTO> getQuizzesByTag(String tag, Pageable pageable) {
+  public Page<QuizSummaryDTO> getQuizzesByTag(String tag, Pageable pageable) {
     if (tag == null || tag.isEmpty()) {
       throw new IllegalArgumentException("Tag parameter cannot be null or empty.");
     }
-    Optional<Tag> foundTag = tagRepository.findByTagName(tag);
-    return foundTag
-        .map(
-            value ->
-                quizRepository
-                    .findByTagsContainsAndIsPublicIsTrue(value, pageable)
-                    .map(QuizDTO::new))
-        .orElseGet(Page::empty);
+    if (useFilterIndex(pageable)) {
+      return findQuizzesByIds(quizFilterIndex.findByAllTags(Set.of(tag), pageable));
+    }
+    return withTagNames(quizRepository.findPublicSummariesByTagName(tag, pageable));
   }
 
   /**
@@ -335,44 +378,33 @@ public class QuizService {
    * @return List<Tag> containing all tags.
    */
   public List<Tag> getAllTags() {
-    return tagRepository.findAll();
+    return referenceDataCache.getAllTags();
   }
 
   /**
    * Fetches quizzes by a list of tags. The result will contain quizzes that match the tags in the
-   * input, or these tags and more.
+   * input, or these tags and more. Tags that do not exist match no quizzes.
    *
    * @param tags List of tags to search for.
    * @param pageable Pageable object to control pagination.
-   * @throws IllegalArgumentException If the tags parameter is null or empty.
-   * @return Page of quizzes that have the given tags or more.
+   * @return Page of summaries of the quizzes that have the given tags or more.
    */
   @Transactional(readOnly = true)
-  public Page<QuizDTO> getQuizzesByTags(List<String> tags, Pageable pageable) {
+  public Page<QuizSummaryDTO> getQuizzesByTags(List<String> tags, Pageable pageable) {
     if (tags == null || tags.isEmpty()) {
-      return Page.empty();
+      return Page.empty(pageable);
     }
 
-    Set<Quiz> uniqueQuizzes = new HashSet<>();
-    Set<Tag> uniqueTags = new HashSet<>();
-
-    for (String tag : tags) {
-      Optional<Tag> foundTag = tagRepository.findByTagName(tag);
-      if (foundTag.isPresent()) {
-        uniqueQuizzes.addAll(
-            quizRepository.findByTagsContainsAndIsPublicIsTrue(foundTag.get(), pageable).toList());
-        uniqueTags.add(foundTag.get());
-      }
+    Set<String> tagNames = distinctNames(tags);
+    if (tagNames.isEmpty()) {
+      return Page.empty(pageable);
     }
 
-    // Filter quizzes that contain all the given tags
-    uniqueQuizzes.removeIf(quiz -> !quiz.getTags().containsAll(uniqueTags));
-
-    List<QuizDTO> pageContent =
-        uniqueQuizzes.stream().map(QuizDTO::new).collect(Collectors.toList());
-    int start = (int) pageable.getOffset();
-    int end = Math.min(start + pageable.getPageSize(), pageContent.size());
-    return new PageImpl<>(pageContent.subList(start, end), pageable, pageContent.size());
+    if (useFilterIndex(pageable)) {
+      return findQuizzesByIds(quizFilterIndex.findByAllTags(tagNames, pageable));
+    }
+    return withTagNames(
+        quizRepository.findPublicSummariesWithAllTags(tagNames, tagNames.size(), pageable));
   }
 
   /**
@@ -392,7 +424,10 @@ public class QuizService {
     }
     category.setId(null); // Avoids conflicts with existing categories
 
-    return categoryRepository.save(category);
+    Category savedCategory = categoryRepository.save(category);
+    referenceDataCache.evictCategories();
+    eventPublisher.publishEvent(new CategoryCreatedEvent(savedCategory.getName()));
+    return savedCategory;
   }
 
   /**
@@ -401,18 +436,91 @@ public class QuizService {
    * @param categoryName The name of the category to search for.
    * @param pageable Pageable object to control pagination
    * @throws IllegalArgumentException If the category parameter is null or empty.
-   * @return Page of quizzes that have the given category
+   * @return Page of summaries of the quizzes that have the given category
    */
-  public Page<QuizDTO> getQuizzesByCategory(String categoryName, Pageable pageable) {
+  public Page<QuizSummaryDTO> getQuizzesByCategory(String categoryName, Pageable pageable) {
     if (categoryName == null || categoryName.isEmpty()) {
       throw new IllegalArgumentException("Category parameter cannot be null or empty.");
     }
 
     Category foundCategory = findCategoryByName(categoryName);
 
-    return quizRepository
-        .findByCategoryAndIsPublicIsTrue(foundCategory, pageable)
-        .map(QuizDTO::new);
+    if (useFilterIndex(pageable)) {
+      return findQuizzesByIds(quizFilterIndex.findByCategory(foundCategory.getName(), pageable));
+    }
+    return withTagNames(quizRepository.findPublicSummariesByCategory(foundCategory, pageable));
+  }
+
+  /**
+   * Fetches the public quizzes matching a combined tag and category filter. The filter is answered
+   * by the in-memory index when it is ready, so only the quizzes on the requested page are read
+   * from the database, and by the database otherwise. Quizzes are ordered by id.
+   *
+   * @param filter The filter to apply.
+   * @param pageable Pageable object to control pagination. Sorting is ignored.
+   * @throws IllegalArgumentException If the filter parameter is null.
+   * @return Page of summaries of the quizzes matching the filter.
+   */
+  @Transactional(readOnly = true)
+  public Page<QuizSummaryDTO> filterQuizzes(QuizFilterDTO filter, Pageable pageable) {
+    if (filter == null) {
+      throw new IllegalArgumentException("Filter parameter cannot be null.");
+    }
+    if (quizFilterIndex.isReady()) {
+      return findQuizzesByIds(quizFilterIndex.filter(filter, pageable));
+    }
+
+    Set<String> allTags = distinctNames(filter.getAllTags());
+    Set<String> anyTags = distinctNames(filter.getAnyTags());
+    Set<String> noneTags = distinctNames(filter.getNoneTags());
+    String category =
+        filter.getCategory() == null || filter.getCategory().isEmpty()
+            ? null
+            : filter.getCategory();
+    Pageable unsorted =
+        pageable.isPaged()
+            ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize())
+            : Pageable.unpaged();
+    return withTagNames(
+        quizRepository.findPublicSummariesMatching(
+            category,
+            allTags,
+            anyTags,
+            noneTags,
+            allTags.size(),
+            anyTags.size(),
+            noneTags.size(),
+            unsorted));
+  }
+
+  /**
+   * Searches the public quizzes by title, description, tags and category. Quizzes that contain any
+   * of the words in the query match, and the most relevant quizzes come first.
+   *
+   * @param query The search text.
+   * @param pageable Pageable object to control pagination. Sorting is ignored.
+   * @throws IllegalArgumentException If the query parameter is null or blank.
+   * @return Page of quiz summaries, ordered by relevance.
+   */
+  @Transactional(readOnly = true)
+  public Page<QuizSummaryDTO> searchQuizzes(String query, Pageable pageable) {
+    if (query == null || query.isBlank()) {
+      throw new IllegalArgumentException("Query parameter cannot be null or empty.");
+    }
+    return findQuizzesByIds(quizSearchIndex.search(query, pageable));
+  }
+
+  /**
+   * Suggests tags, categories and public quiz titles that start with a prefix, ignoring case. The
+   * most used suggestions come first.
+   *
+   * @param prefix The prefix to complete.
+   * @param limit The maximum number of suggestions.
+   * @throws IllegalArgumentException If the prefix is null or the limit is out of range.
+   * @return List of suggestions.
+   */
+  public List<SuggestionDTO> autocomplete(String prefix, int limit) {
+    return quizAutocompleteIndex.suggest(prefix, limit);
   }
 
   /**
@@ -421,17 +529,167 @@ public class QuizService {
    * @return List of categories.
    */
   public List<Category> getAllCategories() {
-    return categoryRepository.findAll();
+    return referenceDataCache.getAllCategories();
   }
 
   /**
    * Get all pubilc quizzes
    *
    * @param pageable The page side, number, and sorting
-   * @return Page<QuizDTO> a page of QuizDTOs
+   * @return Page<QuizSummaryDTO> a page of quiz summaries
    */
-  public Page<QuizDTO> getAllPublicQuizzes(Pageable pageable) {
-    return quizRepository.findByIsPublicIsTrue(pageable).map(QuizDTO::new);
+  public Page<QuizSummaryDTO> getAllPublicQuizzes(Pageable pageable) {
+    return withTagNames(quizRepository.findPublicSummaries(pageable));
+  }
+
+  /**
+   * Get a slice of public quizzes using keyset pagination. Quizzes are ordered newest first. Unlike
+   * {@link #getAllPublicQuizzes(Pageable)}, no count query is issued and the cost of a slice does
+   * not depend on how deep into the catalog it is.
+   *
+   * @param cursor The cursor returned with the previous slice, or null for the first slice.
+   * @param size The maximum number of quizzes in the slice.
+   * @throws IllegalArgumentException If the size is out of range or the cursor is malformed.
+   * @return CursorPageDTO containing the quiz summaries and the cursor for the next slice.
+   */
+  public CursorPageDTO<QuizSummaryDTO> getPublicQuizzesByCursor(String cursor, int size) {
+    if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+      throw new IllegalArgumentException(
+          "Size must be between 1 and " + MAX_CURSOR_PAGE_SIZE + ".");
+    }
+
+    // Fetch one extra row to find out whether there is a next slice
+    Limit limit = Limit.of(size + 1);
+    List<QuizSummaryDTO> quizzes;
+    if (cursor == null || cursor.isEmpty()) {
+      quizzes = quizRepository.findNewestPublicSummaries(limit);
+    } else {
+      QuizCursor position = QuizCursor.decode(cursor);
+      quizzes =
+          position.getCreationDate() == null
+              ? quizRepository.findUndatedPublicSummariesAfter(position.getId(), limit)
+              : quizRepository.findPublicSummariesAfter(
+                  position.getCreationDate(), position.getId(), limit);
+    }
+
+    boolean hasNext = quizzes.size() > size;
+    List<QuizSummaryDTO> slice = new ArrayList<>(hasNext ? quizzes.subList(0, size) : quizzes);
+    String nextCursor = null;
+    if (hasNext) {
+      QuizSummaryDTO last = slice.get(slice.size() - 1);
+      nextCursor = new QuizCursor(last.getCreationDate(), last.getId()).encode();
+    }
+    return new CursorPageDTO<>(withTagNames(slice), nextCursor, hasNext);
+  }
+
+  /**
+   * Get the public quizzes with the most recent attempts and comments, as ranked by the {@link
+   * QuizTrendingIndex}.
+   *
+   * @param limit The maximum number of quizzes.
+   * @throws IllegalArgumentException If the limit is out of range.
+   * @return List of quiz summaries, most trending first.
+   */
+  public List<QuizSummaryDTO> getTrendingQuizzes(int limit) {
+    List<Long> ids = quizTrendingIndex.top(limit);
+    if (ids.isEmpty()) {
+      return new ArrayList<>();
+    }
+    Map<Long, QuizSummaryDTO> summaries =
+        quizRepository.findPublicSummariesByIdIn(ids).stream()
+            .collect(Collectors.toMap(QuizSummaryDTO::getId, summary -> summary));
+    List<QuizSummaryDTO> trending = new ArrayList<>(summaries.size());
+    for (Long id : ids) {
+      QuizSummaryDTO summary = summaries.get(id);
+      if (summary == null) {
+        // Deleted or no longer public, so it should not take a place in the ranking
+        quizTrendingIndex.remove(id);
+      } else {
+        trending.add(summary);
+      }
+    }
+    return withTagNames(trending);
+  }
+
+  /**
+   * Drops null tag names and all but one of the names that differ only in case. Tag names are
+   * compared case-insensitively by the database collation, so such names are one tag and must only
+   * be counted once.
+   *
+   * @param tags The tag names, may be null.
+   * @return The distinct tag names.
+   */
+  private static Set<String> distinctNames(Collection<String> tags) {
+    Map<String, String> namesByKey = new HashMap<>();
+    if (tags != null) {
+      for (String tag : tags) {
+        if (tag != null) {
+          namesByKey.putIfAbsent(tag.toLowerCase(Locale.ROOT), tag);
+        }
+      }
+    }
+    return new HashSet<>(namesByKey.values());
+  }
+
+  /**
+   * Checks whether a tag or category lookup can be answered by the in-memory index. The index
+   * returns quizzes ordered by id, so requests that ask for another order go to the database.
+   *
+   * @param pageable The requested page.
+   * @return True if the index should be used.
+   */
+  private boolean useFilterIndex(Pageable pageable) {
+    return quizFilterIndex.isReady() && pageable.getSort().isUnsorted();
+  }
+
+  /**
+   * Loads the summaries of the quizzes on a page of ids, keeping the order of the ids.
+   *
+   * @param ids Page of quiz ids.
+   * @return Page of quiz summaries.
+   */
+  private Page<QuizSummaryDTO> findQuizzesByIds(Page<Long> ids) {
+    if (ids.isEmpty()) {
+      return new PageImpl<>(new ArrayList<>(), ids.getPageable(), ids.getTotalElements());
+    }
+    Map<Long, QuizSummaryDTO> summaries =
+        quizRepository.findSummariesByIdIn(ids.getContent()).stream()
+            .collect(Collectors.toMap(QuizSummaryDTO::getId, summary -> summary));
+    List<QuizSummaryDTO> content =
+        ids.getContent().stream()
+            .map(summaries::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    return new PageImpl<>(withTagNames(content), ids.getPageable(), ids.getTotalElements());
+  }
+
+  /**
+   * Adds the tag names to a page of quiz summaries, using one query for the whole page.
+   *
+   * @param summaries Page of quiz summaries.
+   * @return The same page, with tag names.
+   */
+  private Page<QuizSummaryDTO> withTagNames(Page<QuizSummaryDTO> summaries) {
+    withTagNames(summaries.getContent());
+    return summaries;
+  }
+
+  /**
+   * Adds the tag names to a list of quiz summaries, using one query for the whole list.
+   *
+   * @param summaries List of quiz summaries.
+   * @return The same list, with tag names.
+   */
+  private List<QuizSummaryDTO> withTagNames(List<QuizSummaryDTO> summaries) {
+    if (summaries.isEmpty()) {
+      return summaries;
+    }
+    Map<Long, QuizSummaryDTO> byId =
+        summaries.stream().collect(Collectors.toMap(QuizSummaryDTO::getId, summary -> summary));
+    quizRepository
+        .findTagNamesByQuizIdIn(byId.keySet())
+        .forEach(row -> byId.get(row.getQuizId()).getTagNames().add(row.getTagName()));
+    return summaries;
   }
 
   /**
@@ -468,8 +726,18 @@ public class QuizService {
    * @return The category.
    */
   private Category findCategoryByName(String name) {
-    return categoryRepository
-        .findByName(name)
+    return referenceDataCache
+        .findCategoryByName(name)
         .orElseThrow(() -> new InvalidIdException("Category with name " + name + " not found"));
   }
+
+  /**
+   * Get the names of tags.
+   *
+   * @param tags The tags.
+   * @return The names of the tags, skipping null tags.
+   */
+  private static List<String> tagNames(Collection<Tag> tags) {
+    return tags.stream().filter(Objects::nonNull).map(Tag::getTagName).toList();
+  }
 }
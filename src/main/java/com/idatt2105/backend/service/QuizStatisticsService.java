@@ -0,0 +1,238 @@
+package com.idatt2105.backend.service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.idatt2105.backend.dto.QuizStatisticsDTO;
+import com.idatt2105.backend.event.QuizAttemptAddedEvent;
+import com.idatt2105.backend.model.QuizStatistics;
+import com.idatt2105.backend.repository.QuizAttemptRepository;
+import com.idatt2105.backend.repository.QuizAttemptRepository.ScoreCount;
+import com.idatt2105.backend.repository.QuizRepository;
+import com.idatt2105.backend.repository.QuizStatisticsRepository;
+import com.idatt2105.backend.util.InvalidIdException;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the score statistics of each quiz in memory, and adds the score of every attempt as it is
+ * added, so that reading them never scans the attempts.
+ *
+ * <p>The statistics of a quiz are loaded the first time they are read, from the stored statistics
+ * if they count as many attempts as the database and the archive hold, or else rebuilt from the
+ * attempts. Changed statistics are stored every {@code quiz.statistics.persist-interval} and on
+ * shutdown. Attempts added while the statistics of their quiz are being loaded may be missed or
+ * counted twice, which the count check corrects the next time they are loaded.
+ */
+@Slf4j
+@Service
+public class QuizStatisticsService implements SchedulingConfigurer {
+  private final QuizStatisticsRepository quizStatisticsRepository;
+  private final QuizAttemptRepository quizAttemptRepository;
+  private final QuizRepository quizRepository;
+  private final QuizGrader quizGrader;
+  private final AttemptArchive attemptArchive;
+  private final Duration persistInterval;
+
+  private final Map<Long, ScoreStatistics> statistics = new ConcurrentHashMap<>();
+
+  public QuizStatisticsService(
+      QuizStatisticsRepository quizStatisticsRepository,
+      QuizAttemptRepository quizAttemptRepository,
+      QuizRepository quizRepository,
+      QuizGrader quizGrader,
+      AttemptArchive attemptArchive,
+      @Value("${quiz.statistics.persist-interval:1m}") Duration persistInterval) {
+    if (persistInterval.isZero() || persistInterval.isNegative()) {
+      throw new IllegalArgumentException("Persist interval must be positive.");
+    }
+    this.quizStatisticsRepository = quizStatisticsRepository;
+    this.quizAttemptRepository = quizAttemptRepository;
+    this.quizRepository = quizRepository;
+    this.quizGrader = quizGrader;
+    this.attemptArchive = attemptArchive;
+    this.persistInterval = persistInterval;
+  }
+
+  /**
+   * Stores the changed statistics every {@code quiz.statistics.persist-interval}. The interval is
+   * bound as a {@link Duration}, since {@code @Scheduled} only reads milliseconds and ISO-8601.
+   *
+   * @param registrar The registrar of scheduled tasks.
+   */
+  @Override
+  public void configureTasks(ScheduledTaskRegistrar registrar) {
+    registrar.addFixedDelayTask(
+        new FixedDelayTask(this::persist, persistInterval, persistInterval));
+  }
+
+  /**
+   * Gets the score statistics of a quiz.
+   *
+   * @param quizId The id of the quiz.
+   * @throws IllegalArgumentException If the quiz id is null.
+   * @throws InvalidIdException If the quiz is not found.
+   * @return The statistics.
+   */
+  public QuizStatisticsDTO getStatistics(Long quizId) {
+    if (quizId == null) {
+      throw new IllegalArgumentException("Quiz id cannot be null.");
+    }
+    ScoreStatistics loaded = statistics.get(quizId);
+    if (loaded == null) {
+      checkQuizExists(quizId);
+      // Loaded outside the map, so that a slow rebuild does not block other quizzes
+      ScoreStatistics fresh = load(quizId);
+      loaded = statistics.putIfAbsent(quizId, fresh);
+      if (loaded == null) {
+        loaded = fresh;
+      }
+    }
+    return loaded.toDTO(quizId);
+  }
+
+  /**
+   * Rebuilds the score statistics of a quiz from its attempts, and stores them.
+   *
+   * @param quizId The id of the quiz.
+   * @throws IllegalArgumentException If the quiz id is null.
+   * @throws InvalidIdException If the quiz is not found.
+   * @return The rebuilt statistics.
+   */
+  public QuizStatisticsDTO rebuild(Long quizId) {
+    if (quizId == null) {
+      throw new IllegalArgumentException("Quiz id cannot be null.");
+    }
+    checkQuizExists(quizId);
+    ScoreStatistics rebuilt = rebuildFromAttempts(quizId);
+    statistics.put(quizId, rebuilt);
+    quizStatisticsRepository.save(rebuilt.toEntity(quizId));
+    return rebuilt.toDTO(quizId);
+  }
+
+  /**
+   * Adds the score of an added attempt to the statistics of its quiz, once the attempt is
+   * committed. Quizzes whose statistics are not loaded are left alone, since the attempt is read
+   * when they are.
+   *
+   * @param event The event describing the attempt.
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onQuizAttemptAdded(QuizAttemptAddedEvent event) {
+    if (event.getQuizId() == null || event.getMaxScore() == null) {
+      return;
+    }
+    ScoreStatistics loaded = statistics.get(event.getQuizId());
+    if (loaded != null) {
+      loaded.add(event.getScore(), event.getMaxScore());
+    }
+  }
+
+  /** Stores the statistics that have changed since they were last stored. */
+  @PreDestroy
+  public void persist() {
+    statistics.forEach(
+        (quizId, changed) -> {
+          if (!changed.isDirty()) {
+            return;
+          }
+          try {
+            quizStatisticsRepository.save(changed.toEntity(quizId));
+          } catch (RuntimeException e) {
+            changed.markDirty();
+            log.warn("Could not store the statistics of quiz {}", quizId, e);
+          }
+        });
+  }
+
+  /**
+   * Loads the statistics of a quiz from storage, or rebuilds them if they are missing or out of
+   * date.
+   *
+   * @param quizId The id of the quiz.
+   * @return The statistics.
+   */
+  private ScoreStatistics load(Long quizId) {
+    Optional<QuizStatistics> stored = quizStatisticsRepository.findById(quizId);
+    if (stored.isPresent()
+        && stored.get().getAttemptCount()
+            == quizAttemptRepository.countScoredByQuizId(quizId)
+                + attemptArchive.countScoredByQuizId(quizId)) {
+      try {
+        return ScoreStatistics.fromEntity(stored.get());
+      } catch (IllegalArgumentException e) {
+        log.warn("Stored statistics of quiz {} are unreadable, rebuilding them", quizId, e);
+      }
+    }
+    ScoreStatistics rebuilt = rebuildFromAttempts(quizId);
+    rebuilt.markDirty();
+    return rebuilt;
+  }
+
+  /**
+   * Computes the statistics of a quiz from the number of attempts given each score, in the database
+   * and in the archive. Attempts stored without their maximum score are counted against the current
+   * maximum score of the quiz.
+   *
+   * @param quizId The id of the quiz.
+   * @return The statistics.
+   */
+  private ScoreStatistics rebuildFromAttempts(Long quizId) {
+    ScoreStatistics rebuilt = new ScoreStatistics();
+    // The current maximum score, read from the answer key the first time it is needed
+    Integer[] currentMaxScore = new Integer[1];
+    for (ScoreCount scoreCount : quizAttemptRepository.countScoresByQuizId(quizId)) {
+      rebuilt.add(
+          scoreCount.getScore(),
+          maxScore(quizId, scoreCount.getMaxScore(), currentMaxScore),
+          scoreCount.getAttempts());
+    }
+    attemptArchive.forEachByQuizId(
+        quizId,
+        archived ->
+            rebuilt.add(
+                archived.getScore(), maxScore(quizId, archived.getMaxScore(), currentMaxScore)));
+    return rebuilt;
+  }
+
+  /**
+   * Gets the maximum score of an attempt, which is the current maximum score of its quiz if it was
+   * stored without one.
+   *
+   * @param quizId The id of the quiz.
+   * @param maxScore The stored maximum score of the attempt, or null.
+   * @param currentMaxScore Holds the current maximum score of the quiz once it has been read.
+   * @return The maximum score.
+   */
+  private int maxScore(Long quizId, Integer maxScore, Integer[] currentMaxScore) {
+    if (maxScore != null) {
+      return maxScore;
+    }
+    if (currentMaxScore[0] == null) {
+      currentMaxScore[0] = quizGrader.getAnswerKey(quizId).maxScore();
+    }
+    return currentMaxScore[0];
+  }
+
+  /**
+   * Checks that a quiz exists.
+   *
+   * @param quizId The id of the quiz.
+   * @throws InvalidIdException If the quiz is not found.
+   */
+  private void checkQuizExists(Long quizId) {
+    if (!quizRepository.existsById(quizId)) {
+      throw new InvalidIdException("Quiz with id " + quizId + " not found");
+    }
+  }
+}
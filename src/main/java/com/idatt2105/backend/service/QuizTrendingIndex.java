@@ -0,0 +1,240 @@
+package com.idatt2105.backend.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.idatt2105.backend.enumerator.QuizActivity;
+import com.idatt2105.backend.event.QuizActivityEvent;
+import com.idatt2105.backend.event.QuizChangedEvent;
+import com.idatt2105.backend.repository.QuizAttemptRepository;
+
+/**
+ * In-memory ranking of the quizzes with the most recent activity. Every attempt and comment adds
+ * its weight to the score of its quiz, and scores halve every {@code quiz.trending.half-life}.
+ *
+ * <p>Since all scores decay at the same rate, their order never changes by itself. Each score is
+ * therefore stored once, as the logarithm of its value projected back to a fixed point in time, and
+ * only the quiz that received the activity has to move in the ranking. Reading the top quizzes
+ * walks the first entries of the ranking and never touches the database.
+ *
+ * <p>At most {@code quiz.trending.capacity} quizzes are tracked, all of them public. A quiz that
+ * would rank below all of them is not tracked until it scores higher than the lowest one. Recent
+ * attempts are loaded on startup, and live activity arrives through {@link QuizActivityEvent}s.
+ */
+@Component
+public class QuizTrendingIndex {
+  /** The largest number of trending quizzes that can be read at once. */
+  public static final int MAX_TRENDING = 50;
+
+  // Activity older than this many half-lives adds less than 0.1% and is not loaded on startup
+  private static final int STARTUP_HALF_LIVES = 10;
+  private static final double LN_2 = Math.log(2);
+
+  private static final Comparator<Entry> RANKING =
+      Comparator.comparingDouble(Entry::logScore).reversed().thenComparing(Entry::quizId);
+
+  private final QuizAttemptRepository quizAttemptRepository;
+  private final QuizFilterIndex quizFilterIndex;
+  private final Duration halfLife;
+  private final int capacity;
+  private final LocalDateTime epoch = LocalDateTime.now();
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private final Map<Long, Entry> entries = new HashMap<>();
+  private final TreeSet<Entry> ranking = new TreeSet<>(RANKING);
+
+  public QuizTrendingIndex(
+      QuizAttemptRepository quizAttemptRepository,
+      QuizFilterIndex quizFilterIndex,
+      @Value("${quiz.trending.half-life:24h}") Duration halfLife,
+      @Value("${quiz.trending.capacity:1000}") int capacity) {
+    if (halfLife.isZero() || halfLife.isNegative()) {
+      throw new IllegalArgumentException("Half-life must be positive.");
+    }
+    if (capacity < MAX_TRENDING) {
+      throw new IllegalArgumentException("Capacity must be at least " + MAX_TRENDING + ".");
+    }
+    this.quizAttemptRepository = quizAttemptRepository;
+    this.quizFilterIndex = quizFilterIndex;
+    this.halfLife = halfLife;
+    this.capacity = capacity;
+  }
+
+  /** Loads the recent attempts on public quizzes, so that the ranking survives a restart. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    LocalDateTime now = LocalDateTime.now();
+    // Later attempts are published as events, so they are not read twice
+    quizAttemptRepository
+        .findPublicActivityBetween(now.minus(halfLife.multipliedBy(STARTUP_HALF_LIVES)), now)
+        .forEach(
+            activity ->
+                record(activity.getQuizId(), QuizActivity.ATTEMPT, activity.getAttemptTime()));
+  }
+
+  /**
+   * Adds the weight of an activity to the score of its quiz once it is committed, so that activity
+   * rolled back never counts. Activity on private quizzes is left out, so that they do not take the
+   * places of public quizzes in the ranking.
+   *
+   * @param event The event describing the activity.
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onQuizActivity(QuizActivityEvent event) {
+    if (!quizFilterIndex.isPublic(event.getQuizId())) {
+      return;
+    }
+    record(event.getQuizId(), event.getActivity(), event.getTime());
+  }
+
+  /**
+   * Stops tracking a quiz that is no longer public.
+   *
+   * @param event The event describing the new state of the quiz.
+   */
+  @EventListener
+  public void onQuizChanged(QuizChangedEvent event) {
+    if (!event.isPublic()) {
+      remove(event.getQuizId());
+    }
+  }
+
+  /**
+   * Adds the weight of an activity to the score of a quiz.
+   *
+   * @param quizId The id of the quiz.
+   * @param activity What the user did.
+   * @param time When the user did it.
+   */
+  public void record(Long quizId, QuizActivity activity, LocalDateTime time) {
+    if (quizId == null || activity == null || time == null) {
+      return;
+    }
+    double logWeight = Math.log(activity.getWeight()) + growth(time);
+
+    lock.writeLock().lock();
+    try {
+      Entry previous = entries.get(quizId);
+      double logScore = previous == null ? logWeight : logSum(previous.logScore(), logWeight);
+      if (previous != null) {
+        ranking.remove(previous);
+      } else if (entries.size() >= capacity) {
+        Entry lowest = ranking.last();
+        if (logScore <= lowest.logScore()) {
+          return;
+        }
+        ranking.remove(lowest);
+        entries.remove(lowest.quizId());
+      }
+      Entry entry = new Entry(quizId, logScore);
+      entries.put(quizId, entry);
+      ranking.add(entry);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Stops tracking a quiz.
+   *
+   * @param quizId The id of the quiz.
+   */
+  public void remove(Long quizId) {
+    lock.writeLock().lock();
+    try {
+      Entry entry = entries.remove(quizId);
+      if (entry != null) {
+        ranking.remove(entry);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Finds the quizzes with the highest scores.
+   *
+   * @param limit The maximum number of quizzes, at most {@link #MAX_TRENDING}.
+   * @throws IllegalArgumentException If the limit is out of range.
+   * @return The ids of the quizzes, highest score first.
+   */
+  public List<Long> top(int limit) {
+    if (limit < 1 || limit > MAX_TRENDING) {
+      throw new IllegalArgumentException("Limit must be between 1 and " + MAX_TRENDING + ".");
+    }
+    lock.readLock().lock();
+    try {
+      List<Long> ids = new ArrayList<>(limit);
+      Iterator<Entry> iterator = ranking.iterator();
+      while (iterator.hasNext() && ids.size() < limit) {
+        ids.add(iterator.next().quizId());
+      }
+      return ids;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Computes the score of a quiz at a point in time.
+   *
+   * @param quizId The id of the quiz.
+   * @param time The point in time.
+   * @return The decayed sum of the weights of its activities, or 0 if the quiz is not tracked.
+   */
+  public double score(Long quizId, LocalDateTime time) {
+    lock.readLock().lock();
+    try {
+      Entry entry = entries.get(quizId);
+      return entry == null ? 0 : Math.exp(entry.logScore() - growth(time));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Computes the natural logarithm of how much a score recorded at the epoch has decayed at a point
+   * in time, with the sign flipped.
+   *
+   * @param time The point in time.
+   * @return The number of half-lives since the epoch, times ln 2.
+   */
+  private double growth(LocalDateTime time) {
+    return LN_2 * Duration.between(epoch, time).toMillis() / halfLife.toMillis();
+  }
+
+  /**
+   * Adds two numbers given by their logarithms without leaving log space.
+   *
+   * @param a The logarithm of the first number.
+   * @param b The logarithm of the second number.
+   * @return The logarithm of the sum.
+   */
+  private static double logSum(double a, double b) {
+    double max = Math.max(a, b);
+    return max + Math.log1p(Math.exp(Math.min(a, b) - max));
+  }
+
+  /**
+   * The stored score of a quiz.
+   *
+   * @param quizId The id of the quiz.
+   * @param logScore The logarithm of the score, projected back to the epoch.
+   */
+  private record Entry(Long quizId, double logScore) {}
+}
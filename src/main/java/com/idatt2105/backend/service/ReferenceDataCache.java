@@ -0,0 +1,192 @@
+package com.idatt2105.backend.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.idatt2105.backend.model.Category;
+import com.idatt2105.backend.model.Tag;
+import com.idatt2105.backend.repository.CategoryRepository;
+import com.idatt2105.backend.repository.TagRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded local cache in front of {@link CategoryRepository} and {@link TagRepository}. Categories
+ * and tags change a few times a day but are read on every quiz save and listing, so lookups are
+ * answered from memory until they expire ({@code reference-data.cache.time-to-live}) or are evicted
+ * by a write through this application.
+ *
+ * <p>The cache holds immutable copies, and every call returns new detached entities, so callers can
+ * neither change the cached values nor trigger lazy loading on them. Names that are not found are
+ * not cached. Hit and miss counts are published as {@code cache.*} metrics.
+ */
+@Component
+public class ReferenceDataCache implements MeterBinder {
+  private static final String ALL = "all";
+
+  private final CategoryRepository categoryRepository;
+  private final TagRepository tagRepository;
+
+  private final Cache<String, CategoryEntry> categoriesByName;
+  private final Cache<String, List<CategoryEntry>> allCategories;
+  private final Cache<String, TagEntry> tagsByName;
+  private final Cache<String, List<TagEntry>> allTags;
+
+  public ReferenceDataCache(
+      CategoryRepository categoryRepository,
+      TagRepository tagRepository,
+      @Value("${reference-data.cache.maximum-size:1000}") long maximumSize,
+      @Value("${reference-data.cache.time-to-live:10m}") Duration timeToLive) {
+    this.categoryRepository = categoryRepository;
+    this.tagRepository = tagRepository;
+    this.categoriesByName = newCache(maximumSize, timeToLive);
+    this.allCategories = newCache(1, timeToLive);
+    this.tagsByName = newCache(maximumSize, timeToLive);
+    this.allTags = newCache(1, timeToLive);
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CaffeineCacheMetrics.monitor(registry, categoriesByName, "reference.categories");
+    CaffeineCacheMetrics.monitor(registry, allCategories, "reference.categories.all");
+    CaffeineCacheMetrics.monitor(registry, tagsByName, "reference.tags");
+    CaffeineCacheMetrics.monitor(registry, allTags, "reference.tags.all");
+  }
+
+  /**
+   * Finds a category by name.
+   *
+   * @param name The name of the category.
+   * @return The category, if it exists.
+   */
+  public Optional<Category> findCategoryByName(String name) {
+    if (name == null) {
+      return Optional.empty();
+    }
+    CategoryEntry entry =
+        categoriesByName.get(
+            name, key -> categoryRepository.findByName(key).map(CategoryEntry::of).orElse(null));
+    return Optional.ofNullable(entry).map(CategoryEntry::toEntity);
+  }
+
+  /**
+   * Gets all categories.
+   *
+   * @return List of all categories.
+   */
+  public List<Category> getAllCategories() {
+    return allCategories
+        .get(ALL, key -> categoryRepository.findAll().stream().map(CategoryEntry::of).toList())
+        .stream()
+        .map(CategoryEntry::toEntity)
+        .toList();
+  }
+
+  /**
+   * Finds a tag by name.
+   *
+   * @param tagName The name of the tag.
+   * @return The tag, if it exists.
+   */
+  public Optional<Tag> findTagByName(String tagName) {
+    if (tagName == null) {
+      return Optional.empty();
+    }
+    TagEntry entry =
+        tagsByName.get(
+            tagName, key -> tagRepository.findByTagName(key).map(TagEntry::of).orElse(null));
+    return Optional.ofNullable(entry).map(TagEntry::toEntity);
+  }
+
+  /**
+   * Looks up tags by name in the cache only, without reading missing names from the repository.
+   *
+   * @param tagNames The names of the tags.
+   * @return The cached tags, by name.
+   */
+  public Map<String, Tag> findCachedTags(Collection<String> tagNames) {
+    return tagsByName.getAllPresent(tagNames).entrySet().stream()
+        .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().toEntity()));
+  }
+
+  /**
+   * Adds tags that have just been read from the repository to the cache.
+   *
+   * @param tags The tags to cache.
+   */
+  public void putTags(Collection<Tag> tags) {
+    tags.forEach(tag -> tagsByName.put(tag.getTagName(), TagEntry.of(tag)));
+  }
+
+  /**
+   * Gets all tags.
+   *
+   * @return List of all tags.
+   */
+  public List<Tag> getAllTags() {
+    return allTags
+        .get(ALL, key -> tagRepository.findAll().stream().map(TagEntry::of).toList())
+        .stream()
+        .map(TagEntry::toEntity)
+        .toList();
+  }
+
+  /** Drops every cached category. Must be called after a category is created or changed. */
+  public void evictCategories() {
+    categoriesByName.invalidateAll();
+    allCategories.invalidateAll();
+  }
+
+  /** Drops every cached tag. Must be called after a tag is created or changed. */
+  public void evictTags() {
+    tagsByName.invalidateAll();
+    allTags.invalidateAll();
+  }
+
+  private static <V> Cache<String, V> newCache(long maximumSize, Duration timeToLive) {
+    return Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(timeToLive)
+        .recordStats()
+        .build();
+  }
+
+  /** Immutable copy of a category. */
+  private record CategoryEntry(Long id, String name, String pictureUrl) {
+    static CategoryEntry of(Category category) {
+      return new CategoryEntry(category.getId(), category.getName(), category.getPictureUrl());
+    }
+
+    Category toEntity() {
+      Category category = new Category();
+      category.setId(id);
+      category.setName(name);
+      category.setPictureUrl(pictureUrl);
+      return category;
+    }
+  }
+
+  /** Immutable copy of a tag. */
+  private record TagEntry(Long id, String tagName) {
+    static TagEntry of(Tag tag) {
+      return new TagEntry(tag.getId(), tag.getTagName());
+    }
+
+    Tag toEntity() {
+      Tag tag = new Tag(tagName);
+      tag.setId(id);
+      return tag;
+    }
+  }
+}
@@ -0,0 +1,211 @@
+package com.idatt2105.backend.service;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import com.idatt2105.backend.dto.QuizStatisticsDTO;
+import com.idatt2105.backend.model.QuizStatistics;
+
+/**
+ * Running statistics of the scores given to the attempts of one quiz. Each score is counted as a
+ * percentage of the highest score the quiz could be given when it was attempted, so that attempts
+ * made before and after the quiz was changed can be compared.
+ *
+ * <p>The mean and variance are kept with Welford's algorithm, and the scores are counted in {@value
+ * #BUCKETS} buckets of equal width, the last of which also holds full scores. Adding a score and
+ * reading the statistics take constant time. Percentiles are interpolated within their bucket, so
+ * they are exact to within one bucket width.
+ *
+ * <p>All methods are safe to call from several threads.
+ */
+public class ScoreStatistics {
+  /** Number of buckets in the histogram. */
+  public static final int BUCKETS = 10;
+
+  /** Width of each bucket of the histogram, in percent. */
+  public static final double BUCKET_WIDTH = 100.0 / BUCKETS;
+
+  private long count;
+  private double mean;
+  // Sum of squared differences from the mean
+  private double m2;
+  private double min = Double.NaN;
+  private double max = Double.NaN;
+  private final long[] histogram = new long[BUCKETS];
+  private boolean dirty;
+
+  /**
+   * Converts a score to a percentage of the highest score.
+   *
+   * @param score The score.
+   * @param maxScore The highest score that could be given.
+   * @return The percentage, or NaN if no score could be given.
+   */
+  public static double percent(int score, int maxScore) {
+    if (maxScore <= 0) {
+      return Double.NaN;
+    }
+    return Math.max(0, Math.min(100, 100.0 * score / maxScore));
+  }
+
+  /**
+   * Adds a score.
+   *
+   * @param score The score.
+   * @param maxScore The highest score that could be given. Scores of quizzes without points are
+   *     ignored.
+   */
+  public void add(int score, int maxScore) {
+    add(score, maxScore, 1);
+  }
+
+  /**
+   * Adds the same score a number of times.
+   *
+   * @param score The score.
+   * @param maxScore The highest score that could be given. Scores of quizzes without points are
+   *     ignored.
+   * @param times The number of times to add it.
+   */
+  public synchronized void add(int score, int maxScore, long times) {
+    double value = percent(score, maxScore);
+    if (Double.isNaN(value) || times <= 0) {
+      return;
+    }
+    long total = count + times;
+    double delta = value - mean;
+    mean += delta * times / total;
+    m2 += delta * delta * count * times / total;
+    count = total;
+    min = Double.isNaN(min) ? value : Math.min(min, value);
+    max = Double.isNaN(max) ? value : Math.max(max, value);
+    histogram[bucket(value)] += times;
+    dirty = true;
+  }
+
+  /**
+   * Gets the number of scores added.
+   *
+   * @return The number of scores.
+   */
+  public synchronized long getCount() {
+    return count;
+  }
+
+  /**
+   * Checks whether scores have been added since the statistics were last stored.
+   *
+   * @return True if the statistics have changed.
+   */
+  public synchronized boolean isDirty() {
+    return dirty;
+  }
+
+  /** Marks the statistics as changed, so that they are stored again. */
+  public synchronized void markDirty() {
+    dirty = true;
+  }
+
+  /**
+   * Creates the stored form of the statistics, and marks them as stored.
+   *
+   * @param quizId The id of the quiz.
+   * @return The entity to store.
+   */
+  public synchronized QuizStatistics toEntity(Long quizId) {
+    QuizStatistics entity = new QuizStatistics();
+    entity.setQuizId(quizId);
+    entity.setAttemptCount(count);
+    entity.setMean(mean);
+    entity.setM2(m2);
+    entity.setMinPercent(count == 0 ? null : min);
+    entity.setMaxPercent(count == 0 ? null : max);
+    entity.setHistogram(
+        Arrays.stream(histogram).mapToObj(Long::toString).collect(Collectors.joining(",")));
+    dirty = false;
+    return entity;
+  }
+
+  /**
+   * Restores statistics from their stored form.
+   *
+   * @param entity The stored statistics.
+   * @throws IllegalArgumentException If the stored histogram does not have {@value #BUCKETS}
+   *     buckets.
+   * @return The statistics.
+   */
+  public static ScoreStatistics fromEntity(QuizStatistics entity) {
+    ScoreStatistics statistics = new ScoreStatistics();
+    String[] buckets =
+        entity.getHistogram() == null ? new String[0] : entity.getHistogram().split(",");
+    if (buckets.length != BUCKETS) {
+      throw new IllegalArgumentException("Stored histogram must have " + BUCKETS + " buckets.");
+    }
+    for (int i = 0; i < BUCKETS; i++) {
+      statistics.histogram[i] = Long.parseLong(buckets[i]);
+    }
+    statistics.count = entity.getAttemptCount();
+    statistics.mean = entity.getMean();
+    statistics.m2 = entity.getM2();
+    statistics.min = entity.getMinPercent() == null ? Double.NaN : entity.getMinPercent();
+    statistics.max = entity.getMaxPercent() == null ? Double.NaN : entity.getMaxPercent();
+    return statistics;
+  }
+
+  /**
+   * Reads the current statistics.
+   *
+   * @param quizId The id of the quiz.
+   * @return The statistics. Everything but the count is null if no scores have been added.
+   */
+  public synchronized QuizStatisticsDTO toDTO(Long quizId) {
+    QuizStatisticsDTO dto = new QuizStatisticsDTO();
+    dto.setQuizId(quizId);
+    dto.setAttemptCount(count);
+    dto.setBucketWidth(BUCKET_WIDTH);
+    dto.setHistogram(Arrays.stream(histogram).boxed().toList());
+    if (count > 0) {
+      double variance = m2 / count;
+      dto.setMean(mean);
+      dto.setVariance(variance);
+      dto.setStandardDeviation(Math.sqrt(variance));
+      dto.setMin(min);
+      dto.setMax(max);
+      dto.setPercentile25(percentile(0.25));
+      dto.setMedian(percentile(0.5));
+      dto.setPercentile75(percentile(0.75));
+      dto.setPercentile90(percentile(0.9));
+    }
+    return dto;
+  }
+
+  /**
+   * Estimates a percentile from the histogram, assuming the scores in a bucket are spread evenly
+   * over it. Must be called while holding the lock, with at least one score added.
+   *
+   * @param fraction The fraction of scores at or below the percentile.
+   * @return The estimated percentile, between the lowest and highest score.
+   */
+  private double percentile(double fraction) {
+    double rank = fraction * count;
+    long below = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      if (histogram[i] > 0 && below + histogram[i] >= rank) {
+        double value = (i + (rank - below) / histogram[i]) * BUCKET_WIDTH;
+        return Math.max(min, Math.min(max, value));
+      }
+      below += histogram[i];
+    }
+    return max;
+  }
+
+  /**
+   * Finds the bucket of a percentage.
+   *
+   * @param percent The percentage, between 0 and 100.
+   * @return The index of its bucket.
+   */
+  private static int bucket(double percent) {
+    return Math.min(BUCKETS - 1, (int) (percent / BUCKET_WIDTH));
+  }
+}
@@ -0,0 +1,163 @@
+package com.idatt2105.backend.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.hibernate.SessionFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.idatt2105.backend.event.TagsCreatedEvent;
+import com.idatt2105.backend.model.Tag;
+import com.idatt2105.backend.repository.TagRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Resolves tag names to stored tags in bulk, creating the tags that do not exist yet. Names are
+ * first looked up in the {@link ReferenceDataCache}, the rest are read with one {@code IN} query,
+ * and the missing ones are inserted in one batch that skips names another request has inserted in
+ * the meantime. A second {@code IN} query then reads back the ids of the new tags.
+ *
+ * <p>Tags are resolved in their own transaction, so that tags created concurrently are visible once
+ * the insert has waited for them, and new tags are kept even if the caller rolls back. Names are
+ * inserted in sorted order so that concurrent batches lock them in the same order, and a batch that
+ * still loses a lock conflict is retried.
+ *
+ * <p>The batch insert bypasses Hibernate, so the query cache of tag lookups by name is evicted once
+ * new tags are committed, and a {@link TagsCreatedEvent} is published with their names.
+ */
+@Component
+public class TagResolver {
+  private static final String INSERT_IGNORE_TAG = "INSERT IGNORE INTO tags (tag_name) VALUES (?)";
+  private static final int MAX_ATTEMPTS = 3;
+  private static final Comparator<String> INSERT_ORDER =
+      String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.naturalOrder());
+
+  private final TagRepository tagRepository;
+  private final ReferenceDataCache referenceDataCache;
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final SessionFactory sessionFactory;
+  private final ApplicationEventPublisher eventPublisher;
+
+  public TagResolver(
+      TagRepository tagRepository,
+      ReferenceDataCache referenceDataCache,
+      JdbcTemplate jdbcTemplate,
+      PlatformTransactionManager transactionManager,
+      EntityManagerFactory entityManagerFactory,
+      ApplicationEventPublisher eventPublisher) {
+    this.tagRepository = tagRepository;
+    this.eventPublisher = eventPublisher;
+    this.referenceDataCache = referenceDataCache;
+    this.jdbcTemplate = jdbcTemplate;
+    this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+  }
+
+  /**
+   * Finds the tags with the given names, and creates those that do not exist.
+   *
+   * @param tagNames The names of the tags. Null names and duplicates are ignored.
+   * @throws IllegalArgumentException If the tagNames parameter is null.
+   * @return The stored tags, in the order their names were first given.
+   */
+  public List<Tag> resolve(Collection<String> tagNames) {
+    if (tagNames == null) {
+      throw new IllegalArgumentException("Tag names parameter cannot be null.");
+    }
+    Set<String> names = new LinkedHashSet<>();
+    tagNames.stream().filter(Objects::nonNull).forEach(names::add);
+    if (names.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return transactionTemplate.execute(status -> resolveNames(names));
+      } catch (DataAccessException e) {
+        if (attempt == MAX_ATTEMPTS) {
+          throw e;
+        }
+      }
+    }
+  }
+
+  /**
+   * Resolves distinct tag names in the current transaction.
+   *
+   * @param names The distinct, non-null names of the tags.
+   * @return The stored tags, in the order of the names.
+   */
+  private List<Tag> resolveNames(Set<String> names) {
+    Map<String, Tag> tags = new HashMap<>(referenceDataCache.findCachedTags(names));
+    List<String> unresolved = names.stream().filter(name -> !tags.containsKey(name)).toList();
+    if (!unresolved.isEmpty()) {
+      List<Tag> found = new ArrayList<>(tagRepository.findByTagNameIn(unresolved));
+      List<String> missing =
+          unresolved.stream()
+              .filter(name -> match(found, name) == null)
+              .sorted(INSERT_ORDER)
+              .toList();
+      if (!missing.isEmpty()) {
+        jdbcTemplate.batchUpdate(
+            INSERT_IGNORE_TAG, missing.stream().map(name -> new Object[] {name}).toList());
+        referenceDataCache.evictTags();
+        List<Tag> created = tagRepository.findByTagNameIn(missing);
+        List<String> createdNames = created.stream().map(Tag::getTagName).toList();
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+              @Override
+              public void afterCommit() {
+                sessionFactory.getCache().evictQueryRegion(TagRepository.QUERY_CACHE_REGION);
+                eventPublisher.publishEvent(new TagsCreatedEvent(createdNames));
+              }
+            });
+        found.addAll(created);
+      }
+      referenceDataCache.putTags(found);
+      unresolved.forEach(name -> tags.put(name, match(found, name)));
+    }
+
+    List<Tag> resolved = new ArrayList<>(names.size());
+    names.stream().map(tags::get).filter(Objects::nonNull).forEach(resolved::add);
+    return resolved;
+  }
+
+  /**
+   * Finds the tag for a name among tags read from the database. The database may compare names
+   * without regard to case, so an exact match is preferred but not required.
+   *
+   * @param tags The tags read from the database.
+   * @param name The requested name.
+   * @return The matching tag, or null if there is none.
+   */
+  private static Tag match(List<Tag> tags, String name) {
+    Tag caseInsensitiveMatch = null;
+    for (Tag tag : tags) {
+      if (tag.getTagName().equals(name)) {
+        return tag;
+      }
+      if (caseInsensitiveMatch == null && tag.getTagName().equalsIgnoreCase(name)) {
+        caseInsensitiveMatch = tag;
+      }
+    }
+    return caseInsensitiveMatch;
+  }
+}
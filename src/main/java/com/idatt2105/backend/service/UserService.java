@@ -1,9 +1,11 @@
 package com.idatt2105.backend.service;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 
@@ -20,6 +22,7 @@ import com.idatt2105.backend.dto.QuizDTO;
 import com.idatt2105.backend.dto.UserDTO;
 import com.idatt2105.backend.model.Quiz;
 import com.idatt2105.backend.model.User;
+import com.idatt2105.backend.repository.QuizRepository;
 import com.idatt2105.backend.repository.UserRepository;
 import com.idatt2105.backend.util.ExistingUserException;
 import com.idatt2105.backend.util.InvalidCredentialsException;
@@ -31,11 +34,13 @@ import jakarta.validation.constraints.NotNull;
 @Service
 public class UserService implements UserDetailsService {
   private final UserRepository userRepository;
+  private final QuizRepository quizRepository;
   private final PasswordEncoder passwordEncoder;
 
   @Autowired
-  public UserService(UserRepository userRepository) {
+  public UserService(UserRepository userRepository, QuizRepository quizRepository) {
     this.userRepository = userRepository;
+    this.quizRepository = quizRepository;
     this.passwordEncoder = new BCryptPasswordEncoder();
   }
 
@@ -129,7 +134,8 @@ public class UserService implements UserDetailsService {
   }
 
   /**
-   * Updates a user in the database.
+   * Updates a user in the database. The username is shown on the quizzes of the user, so if it
+   * changes, the quizzes are marked as modified and their ETags change.
    *
    * @param id (Long) Id of the user to update.
    * @param user (User) User with updated information.
@@ -138,11 +144,16 @@ public class UserService implements UserDetailsService {
    */
   public UserDTO updateUser(Long id, @Validated @NotNull User user) {
     User existingUser = findUserById(id);
+    boolean renamed = !Objects.equals(existingUser.getUsername(), user.getUsername());
     existingUser.setUsername(user.getUsername());
     existingUser.setPassword(user.getPassword());
     User updatedUser = userRepository.save(existingUser);
+    LocalDateTime modified = LocalDateTime.now();
     List<QuizDTO> quizDTOs = new ArrayList<>();
     for (Quiz quiz : updatedUser.getQuizzes()) {
+      if (renamed) {
+        quizRepository.markModified(quiz.getId(), modified);
+      }
       quizDTOs.add(new QuizDTO(quiz));
     }
     return new UserDTO(updatedUser.getId(), updatedUser.getUsername(), quizDTOs);
@@ -0,0 +1,8 @@
+package com.idatt2105.backend.util;
+
+/** Exception for when a quiz attempt cannot be accepted because the write queue is full. */
+public class AttemptQueueFullException extends RuntimeException {
+  public AttemptQueueFullException(String message) {
+    super(message);
+  }
+}
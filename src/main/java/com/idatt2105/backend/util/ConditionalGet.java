@@ -0,0 +1,75 @@
+package com.idatt2105.backend.util;
+
+import java.util.function.Supplier;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import com.idatt2105.backend.dto.QuizVersionDTO;
+
+/**
+ * Answers conditional GET requests for a quiz and its questions from the version of the quiz alone.
+ * The ETag and Last-Modified headers are compared with {@code If-None-Match} and {@code
+ * If-Modified-Since} before the body is built, so a client that already has the current version
+ * gets a 304 Not Modified without the quiz being loaded.
+ *
+ * <p>Responses may be stored by shared caches if the quiz is public, and only by the client
+ * otherwise. Either way they must be revalidated before they are reused.
+ */
+public final class ConditionalGet {
+  private static final CacheControl PUBLIC_QUIZ = CacheControl.noCache().cachePublic();
+  private static final CacheControl PRIVATE_QUIZ = CacheControl.noCache().cachePrivate();
+
+  private ConditionalGet() {}
+
+  /**
+   * Builds the response to a GET request for a representation of a quiz.
+   *
+   * @param request The request, with its conditional headers.
+   * @param version The current version of the quiz.
+   * @param representation The name of the representation, such as "quiz" or "questions".
+   * @param body Builds the body if the client does not have the current version.
+   * @param <T> The type of the body.
+   * @return 304 Not Modified without a body, or 200 OK with the body.
+   */
+  public static <T> ResponseEntity<T> ifModified(
+      WebRequest request, QuizVersionDTO version, String representation, Supplier<T> body) {
+    return ifModified(request, version, representation, new HttpHeaders(), body);
+  }
+
+  /**
+   * Builds the response to a GET request for a representation of a quiz, with extra headers that
+   * describe the body. Of these, only {@code Vary} is also sent with a 304 Not Modified.
+   *
+   * @param request The request, with its conditional headers.
+   * @param version The current version of the quiz.
+   * @param representation The name of the representation, such as "quiz" or "questions".
+   * @param headers Headers describing the body, such as its content type and encoding.
+   * @param body Builds the body if the client does not have the current version.
+   * @param <T> The type of the body.
+   * @return 304 Not Modified without a body, or 200 OK with the body.
+   */
+  public static <T> ResponseEntity<T> ifModified(
+      WebRequest request,
+      QuizVersionDTO version,
+      String representation,
+      HttpHeaders headers,
+      Supplier<T> body) {
+    CacheControl cacheControl = version.isPublic() ? PUBLIC_QUIZ : PRIVATE_QUIZ;
+    // Also sets the ETag and Last-Modified headers of the response
+    if (request.checkNotModified(version.toETag(representation), version.getLastModifiedMillis())) {
+      HttpHeaders notModifiedHeaders = new HttpHeaders();
+      if (headers.containsKey(HttpHeaders.VARY)) {
+        notModifiedHeaders.put(HttpHeaders.VARY, headers.get(HttpHeaders.VARY));
+      }
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+          .cacheControl(cacheControl)
+          .headers(notModifiedHeaders)
+          .build();
+    }
+    return ResponseEntity.ok().cacheControl(cacheControl).headers(headers).body(body.get());
+  }
+}
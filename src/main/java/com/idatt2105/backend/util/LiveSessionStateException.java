@@ -0,0 +1,11 @@
+package com.idatt2105.backend.util;
+
+/**
+ * Exception for when a live session is not in a state that allows what was asked, such as answering
+ * a question that is not open, or answering it twice.
+ */
+public class LiveSessionStateException extends RuntimeException {
+  public LiveSessionStateException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,233 @@
+package com.idatt2105.backend.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A sorted set that knows the size of every subtree, so that the rank of an element is found in
+ * logarithmic time. {@link java.util.TreeSet} can only count the elements before an element by
+ * walking them.
+ *
+ * <p>The set is a treap: a binary search tree whose nodes are also heap-ordered by a random
+ * priority, which keeps its expected depth logarithmic without rebalancing rules.
+ *
+ * <p>The set is not thread-safe.
+ *
+ * @param <E> The type of the elements. The comparator must be consistent with equals.
+ */
+public class OrderStatisticTree<E> {
+  private final Comparator<? super E> comparator;
+  private Node<E> root;
+
+  public OrderStatisticTree(Comparator<? super E> comparator) {
+    if (comparator == null) {
+      throw new IllegalArgumentException("Comparator cannot be null.");
+    }
+    this.comparator = comparator;
+  }
+
+  /**
+   * Gets the number of elements.
+   *
+   * @return The number of elements.
+   */
+  public int size() {
+    return size(root);
+  }
+
+  /**
+   * Adds an element, unless an equal element is already in the set.
+   *
+   * @param element The element to add.
+   * @return True if the element was added.
+   */
+  public boolean add(E element) {
+    if (contains(element)) {
+      return false;
+    }
+    Split<E> parts = split(root, element);
+    root = merge(merge(parts.left(), new Node<>(element)), parts.right());
+    return true;
+  }
+
+  /**
+   * Removes an element.
+   *
+   * @param element The element to remove.
+   * @return True if the element was in the set.
+   */
+  public boolean remove(E element) {
+    if (!contains(element)) {
+      return false;
+    }
+    root = remove(root, element);
+    return true;
+  }
+
+  /**
+   * Checks whether an element is in the set.
+   *
+   * @param element The element.
+   * @return True if an equal element is in the set.
+   */
+  public boolean contains(E element) {
+    Node<E> node = root;
+    while (node != null) {
+      int comparison = comparator.compare(element, node.element);
+      if (comparison == 0) {
+        return true;
+      }
+      node = comparison < 0 ? node.left : node.right;
+    }
+    return false;
+  }
+
+  /**
+   * Counts the elements that come before an element. The element does not have to be in the set.
+   *
+   * @param element The element.
+   * @return The number of elements less than it, which is its index if it is in the set.
+   */
+  public int indexOf(E element) {
+    int index = 0;
+    Node<E> node = root;
+    while (node != null) {
+      int comparison = comparator.compare(element, node.element);
+      if (comparison <= 0) {
+        if (comparison == 0) {
+          return index + size(node.left);
+        }
+        node = node.left;
+      } else {
+        index += size(node.left) + 1;
+        node = node.right;
+      }
+    }
+    return index;
+  }
+
+  /**
+   * Gets the first elements of the set, in order.
+   *
+   * @param limit The maximum number of elements.
+   * @return The first elements, at most limit of them.
+   */
+  public List<E> first(int limit) {
+    List<E> elements = new ArrayList<>(Math.min(limit, size()));
+    Deque<Node<E>> path = new ArrayDeque<>();
+    Node<E> node = root;
+    while (elements.size() < limit && (node != null || !path.isEmpty())) {
+      if (node != null) {
+        path.push(node);
+        node = node.left;
+      } else {
+        node = path.pop();
+        elements.add(node.element);
+        node = node.right;
+      }
+    }
+    return elements;
+  }
+
+  /** Removes every element. */
+  public void clear() {
+    root = null;
+  }
+
+  /**
+   * Splits a subtree into the elements less than a key, and the rest.
+   *
+   * @param node The root of the subtree.
+   * @param key The key to split at.
+   * @return The roots of the two parts.
+   */
+  private Split<E> split(Node<E> node, E key) {
+    if (node == null) {
+      return new Split<>(null, null);
+    }
+    if (comparator.compare(node.element, key) < 0) {
+      Split<E> parts = split(node.right, key);
+      node.right = parts.left();
+      return new Split<>(node.update(), parts.right());
+    }
+    Split<E> parts = split(node.left, key);
+    node.left = parts.right();
+    return new Split<>(parts.left(), node.update());
+  }
+
+  /**
+   * Joins two subtrees, where every element of the first is less than every element of the second.
+   *
+   * @param left The root of the first subtree.
+   * @param right The root of the second subtree.
+   * @return The root of the joined tree.
+   */
+  private Node<E> merge(Node<E> left, Node<E> right) {
+    if (left == null) {
+      return right;
+    }
+    if (right == null) {
+      return left;
+    }
+    if (left.priority > right.priority) {
+      left.right = merge(left.right, right);
+      return left.update();
+    }
+    right.left = merge(left, right.left);
+    return right.update();
+  }
+
+  /**
+   * Removes an element that is known to be in a subtree.
+   *
+   * @param node The root of the subtree.
+   * @param element The element to remove.
+   * @return The new root of the subtree.
+   */
+  private Node<E> remove(Node<E> node, E element) {
+    int comparison = comparator.compare(element, node.element);
+    if (comparison == 0) {
+      return merge(node.left, node.right);
+    }
+    if (comparison < 0) {
+      node.left = remove(node.left, element);
+    } else {
+      node.right = remove(node.right, element);
+    }
+    return node.update();
+  }
+
+  private static int size(Node<?> node) {
+    return node == null ? 0 : node.size;
+  }
+
+  /**
+   * The two parts of a split subtree.
+   *
+   * @param left The root of the elements less than the key, or null if there are none.
+   * @param right The root of the rest, or null if there are none.
+   */
+  private record Split<E>(Node<E> left, Node<E> right) {}
+
+  /** A node of the tree, with the size of the subtree it is the root of. */
+  private static final class Node<E> {
+    private final E element;
+    private final int priority = ThreadLocalRandom.current().nextInt();
+    private int size = 1;
+    private Node<E> left;
+    private Node<E> right;
+
+    private Node(E element) {
+      this.element = element;
+    }
+
+    private Node<E> update() {
+      size = 1 + size(left) + size(right);
+      return this;
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package com.idatt2105.backend.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import lombok.Data;
+
+/**
+ * Position in the public quiz catalog when it is read with keyset pagination. The catalog is
+ * ordered by creation date and id, both descending, so a cursor holds the sort key of the last quiz
+ * on a page. Quizzes without a creation date come last, ordered by id. Clients only ever see the
+ * encoded form, which they pass back unchanged.
+ */
+@Data
+public class QuizCursor {
+  private static final String SEPARATOR = "|";
+  // Stands in for a missing creation date
+  private static final String NO_DATE = "-";
+
+  private final LocalDateTime creationDate;
+  private final Long id;
+
+  /**
+   * Encodes the cursor as an opaque, URL-safe string.
+   *
+   * @return The encoded cursor.
+   */
+  public String encode() {
+    String raw = (creationDate == null ? NO_DATE : creationDate.toString()) + SEPARATOR + id;
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Decodes a cursor previously created by {@link #encode()}.
+   *
+   * @param cursor The encoded cursor.
+   * @throws IllegalArgumentException If the cursor is null or malformed.
+   * @return The decoded cursor.
+   */
+  public static QuizCursor decode(String cursor) {
+    if (cursor == null || cursor.isBlank()) {
+      throw new IllegalArgumentException("Cursor cannot be null or empty.");
+    }
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int separator = raw.lastIndexOf(SEPARATOR);
+      if (separator < 0) {
+        throw new IllegalArgumentException("Malformed cursor: " + cursor);
+      }
+      String date = raw.substring(0, separator);
+      LocalDateTime creationDate = NO_DATE.equals(date) ? null : LocalDateTime.parse(date);
+      Long id = Long.valueOf(raw.substring(separator + 1));
+      return new QuizCursor(creationDate, id);
+    } catch (DateTimeParseException | IllegalArgumentException e) {
+      throw new IllegalArgumentException("Malformed cursor: " + cursor, e);
+    }
+  }
+}
@@ -2,6 +2,7 @@ package com.idatt2105.backend.util;
 
 import java.time.LocalDate;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -84,4 +85,36 @@ public class RestExceptionHandler {
     errorResponse.setTimestamp(LocalDate.now().toString());
     return ResponseEntity.status(400).body(errorResponse);
   }
+
+  /**
+   * Handles AttemptQueueFullException, asking the client to retry shortly.
+   *
+   * @param e The AttemptQueueFullException.
+   * @return The response entity with the error response.
+   */
+  @ExceptionHandler(AttemptQueueFullException.class)
+  ResponseEntity<ErrorResponse> handleAttemptQueueFullException(AttemptQueueFullException e) {
+    ErrorResponse errorResponse = new ErrorResponse();
+    errorResponse.setTitle(e.getMessage());
+    errorResponse.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+    errorResponse.setTimestamp(LocalDate.now().toString());
+    return ResponseEntity.status(errorResponse.getStatus())
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(errorResponse);
+  }
+
+  /**
+   * Handles LiveSessionStateException.
+   *
+   * @param e The LiveSessionStateException.
+   * @return The response entity with the error response.
+   */
+  @ExceptionHandler(LiveSessionStateException.class)
+  ResponseEntity<ErrorResponse> handleLiveSessionStateException(LiveSessionStateException e) {
+    ErrorResponse errorResponse = new ErrorResponse();
+    errorResponse.setTitle(e.getMessage());
+    errorResponse.setStatus(HttpStatus.CONFLICT.value());
+    errorResponse.setTimestamp(LocalDate.now().toString());
+    return ResponseEntity.status(errorResponse.getStatus()).body(errorResponse);
+  }
 }
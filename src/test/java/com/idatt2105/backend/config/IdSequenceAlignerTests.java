@@ -0,0 +1,39 @@
+package com.idatt2105.backend.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.idatt2105.backend.model.QuizAttempt;
+import com.idatt2105.backend.model.User;
+import com.idatt2105.backend.repository.UserRepository;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** The IdSequenceAlignerTests class is a test class that tests the IdSequenceAligner class. */
+@SpringBootTest
+class IdSequenceAlignerTests {
+  @Autowired private IdSequenceAligner idSequenceAligner;
+  @Autowired private JdbcTemplate jdbcTemplate;
+  @Autowired private UserRepository userRepository;
+
+  /**
+   * This method tests the alignSequences method of the IdSequenceAligner class. It verifies that a
+   * sequence behind a row inserted without it is moved past the id of the row.
+   */
+  @Test
+  void alignSequencesMovesSequencePastExistingRows() {
+    User user = userRepository.save(new User("sequenceAligner" + System.nanoTime(), "password"));
+    Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM quiz_attempt", Long.class);
+    long existingId = (maxId == null ? 0 : maxId) + 10_000;
+    jdbcTemplate.update(
+        "INSERT INTO quiz_attempt (id, user_id, score) VALUES (?, ?, 0)", existingId, user.getId());
+
+    idSequenceAligner.alignSequences();
+
+    long next =
+        jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR " + QuizAttempt.ID_SEQUENCE, Long.class);
+    assertTrue(next - QuizAttempt.ID_ALLOCATION_SIZE >= existingId, next + " <= " + existingId);
+  }
+}
@@ -0,0 +1,159 @@
+package com.idatt2105.backend.controller;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.idatt2105.backend.dto.QuestionAttemptDTO;
+import com.idatt2105.backend.dto.QuizAttemptDTO;
+import com.idatt2105.backend.enumerator.QuestionType;
+import com.idatt2105.backend.model.Quiz;
+import com.idatt2105.backend.model.TrueOrFalseQuestion;
+import com.idatt2105.backend.model.User;
+import com.idatt2105.backend.repository.QuestionRepository;
+import com.idatt2105.backend.repository.QuizRepository;
+import com.idatt2105.backend.repository.UserRepository;
+import com.idatt2105.backend.service.AttemptArchive;
+import com.idatt2105.backend.service.AttemptArchiver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests archiving attempts against the database. Archived attempts must be gone from the attempt
+ * tables, and still be listed and read like attempts in the database.
+ */
+@SpringBootTest(
+    properties = {
+      // A database of its own, since every attempt in it is archived
+      "spring.datasource.url=jdbc:h2:mem:archivetest;DB_CLOSE_DELAY=-1;MODE=MySQL",
+      "quiz.attempts.archive.max-age=0s"
+    })
+@AutoConfigureMockMvc(addFilters = false)
+class AttemptArchivingTests {
+  @TempDir private static Path archiveDirectory;
+
+  @Autowired private MockMvc mockMvc;
+  @Autowired private ObjectMapper objectMapper;
+  @Autowired private QuizRepository quizRepository;
+  @Autowired private QuestionRepository questionRepository;
+  @Autowired private UserRepository userRepository;
+  @Autowired private AttemptArchiver attemptArchiver;
+  @Autowired private AttemptArchive attemptArchive;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @DynamicPropertySource
+  static void archiveProperties(DynamicPropertyRegistry registry) {
+    registry.add("quiz.attempts.archive.directory", () -> archiveDirectory.toString());
+  }
+
+  /**
+   * This method tests that archived attempts are deleted from the attempt tables, and are listed
+   * among newer attempts in the database, on any page and in any order, and read with their
+   * question attempts.
+   */
+  @Test
+  void archivedAttemptsAreListedAndRead() throws Exception {
+    User user = userRepository.save(new User("archive" + System.nanoTime(), "password"));
+    Quiz quiz = new Quiz();
+    quiz.setTitle("Archived quiz");
+    quiz = quizRepository.save(quiz);
+    TrueOrFalseQuestion question = new TrueOrFalseQuestion();
+    question.setQuestionText("True or false");
+    question.setPoints(2);
+    question.setCorrectAnswer(true);
+    question.setQuiz(quiz);
+    question = questionRepository.save(question);
+
+    QuizAttemptDTO attempt = new QuizAttemptDTO();
+    attempt.setTitle(quiz.getTitle());
+    attempt.setQuizId(quiz.getId());
+    attempt.setUserId(user.getId());
+    QuestionAttemptDTO questionAttempt = new QuestionAttemptDTO();
+    questionAttempt.setType(QuestionType.TRUE_OR_FALSE);
+    questionAttempt.setQuestionId(question.getId());
+    questionAttempt.setUserAnswer(true);
+    attempt.getQuestionAttempts().add(questionAttempt);
+    long first = add(attempt);
+    long second = add(attempt);
+
+    assertEquals(2, attemptArchiver.archiveOldAttempts());
+    assertEquals(0, count("quiz_attempt"));
+    assertEquals(0, count("question_attempt"));
+    assertEquals(2, attemptArchive.size());
+
+    questionAttempt.setUserAnswer(false);
+    long third = add(attempt);
+    long fourth = add(attempt);
+
+    JsonNode page = getJson("/api/attempts/all/" + user.getId() + "?size=2&sort=score,desc");
+    assertEquals(4, page.get("totalElements").asInt());
+    assertEquals(first, page.get("content").get(0).get("id").asLong());
+    assertEquals(second, page.get("content").get(1).get("id").asLong());
+    assertEquals(2, page.get("content").get(1).get("score").asInt());
+    page = getJson("/api/attempts/all/" + user.getId() + "?size=2&page=1&sort=score,desc");
+    assertEquals(third, page.get("content").get(0).get("id").asLong());
+    // Rows of the database are read from past the stored attempts before the page
+    page = getJson("/api/attempts/all/" + user.getId() + "?size=1&page=3&sort=score,desc");
+    assertEquals(fourth, page.get("content").get(0).get("id").asLong());
+    // Pages by id and by attempt time are read from the index of the archive
+    page = getJson("/api/attempts/all/" + user.getId() + "?size=2&page=0");
+    assertEquals(first, page.get("content").get(0).get("id").asLong());
+    assertEquals(second, page.get("content").get(1).get("id").asLong());
+    page = getJson("/api/attempts/all/" + user.getId() + "?size=3&page=0&sort=attemptTime,desc");
+    assertEquals(4, page.get("totalElements").asInt());
+    assertEquals(fourth, page.get("content").get(0).get("id").asLong());
+    assertEquals(second, page.get("content").get(2).get("id").asLong());
+    page = getJson("/api/attempts/all/" + user.getId() + "?size=3&page=1&sort=attemptTime,desc");
+    assertEquals(first, page.get("content").get(0).get("id").asLong());
+
+    JsonNode archived = getJson("/api/attempts/" + first);
+    assertEquals(2, archived.get("score").asInt());
+    JsonNode archivedQuestion = archived.get("questionAttempts").get(0);
+    assertEquals(question.getId(), archivedQuestion.get("questionId").asLong());
+    assertEquals(true, archivedQuestion.get("userAnswer").asBoolean());
+  }
+
+  private long add(QuizAttemptDTO attempt) throws Exception {
+    String response =
+        mockMvc
+            .perform(
+                post("/api/attempts/add")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(attempt))
+                    .secure(true))
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    return objectMapper.readTree(response).get("id").asLong();
+  }
+
+  private JsonNode getJson(String path) throws Exception {
+    String response =
+        mockMvc
+            .perform(get(path).secure(true))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    return objectMapper.readTree(response);
+  }
+
+  private long count(String table) {
+    return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+  }
+}
@@ -15,12 +15,16 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.idatt2105.backend.dto.QuizAttemptDTO;
+import com.idatt2105.backend.dto.QuizAttemptSummaryDTO;
 import com.idatt2105.backend.model.QuizAttempt;
+import com.idatt2105.backend.service.AttemptExporter;
 import com.idatt2105.backend.service.AttemptService;
+import com.idatt2105.backend.util.AttemptQueueFullException;
 
 import static org.mockito.BDDMockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -30,6 +34,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 class AttemptControllerTests {
   @Autowired MockMvc mockMvc;
   @MockBean private AttemptService attemptService;
+  @MockBean private AttemptExporter attemptExporter;
 
   /**
    * This method tests the addQuizAttempt endpoint with a valid body.
@@ -56,6 +61,65 @@ class AttemptControllerTests {
         .andExpect(jsonPath("$.id").value(1));
   }
 
+  /**
+   * This method tests the addQuizAttempt endpoint with an attempt that does not match its quiz.
+   *
+   * <p>It verifies that the endpoint returns an HTTP status code of 400 Bad Request when the
+   * attempt cannot be graded.
+   *
+   * @throws Exception if the test fails
+   */
+  @Test
+  void addQuizAttemptThatCannotBeGradedIsBadRequest() throws Exception {
+    QuizAttemptDTO quizAttemptDTO = new QuizAttemptDTO();
+    when(attemptService.addQuizAttempt(quizAttemptDTO))
+        .thenThrow(new IllegalArgumentException("Question 7 is not part of quiz 1"));
+
+    mockMvc
+        .perform(
+            post("/api/attempts/add")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(quizAttemptDTO))
+                .secure(true))
+        .andExpect(status().isBadRequest());
+  }
+
+  /**
+   * This method tests the addQuizAttempt endpoint when attempts are written behind.
+   *
+   * <p>It verifies that the endpoint returns an HTTP status code of 202 Accepted with the id of the
+   * attempt, and 429 Too Many Requests with a Retry-After header when the write queue is full.
+   *
+   * @throws Exception if the test fails
+   */
+  @Test
+  void addQuizAttemptWrittenBehindIsAcceptedOrThrottled() throws Exception {
+    QuizAttemptDTO quizAttemptDTO = new QuizAttemptDTO();
+    QuizAttempt expected = new QuizAttempt();
+    expected.setId(1L);
+    when(attemptService.isWriteBehind()).thenReturn(true);
+    when(attemptService.addQuizAttempt(quizAttemptDTO))
+        .thenReturn(expected)
+        .thenThrow(new AttemptQueueFullException("Too many quiz attempts, try again shortly"));
+
+    mockMvc
+        .perform(
+            post("/api/attempts/add")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(quizAttemptDTO))
+                .secure(true))
+        .andExpect(status().isAccepted())
+        .andExpect(jsonPath("$.id").value(1));
+    mockMvc
+        .perform(
+            post("/api/attempts/add")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(quizAttemptDTO))
+                .secure(true))
+        .andExpect(status().isTooManyRequests())
+        .andExpect(header().string("Retry-After", "1"));
+  }
+
   /**
    * This method tests the addQuizAttempt endpoint in the AttemptController class with an empty
    * body.
@@ -72,6 +136,57 @@ class AttemptControllerTests {
         .andExpect(status().isBadRequest());
   }
 
+  /**
+   * This method tests the addQuizAttempts endpoint with a valid batch.
+   *
+   * <p>It verifies that the endpoint returns an HTTP status code of 201 Created and the created
+   * attempts in the order they were given.
+   *
+   * @throws Exception if the test fails
+   */
+  @Test
+  void addQuizAttempts() throws Exception {
+    List<QuizAttemptDTO> quizAttemptDTOs = List.of(new QuizAttemptDTO(), new QuizAttemptDTO());
+    QuizAttempt first = new QuizAttempt();
+    first.setId(1L);
+    QuizAttempt second = new QuizAttempt();
+    second.setId(2L);
+    when(attemptService.addQuizAttempts(quizAttemptDTOs)).thenReturn(List.of(first, second));
+
+    mockMvc
+        .perform(
+            post("/api/attempts/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(quizAttemptDTOs))
+                .secure(true))
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$.length()").value(2))
+        .andExpect(jsonPath("$[1].id").value(2));
+  }
+
+  /**
+   * This method tests the addQuizAttempts endpoint with a batch that cannot be added.
+   *
+   * <p>It verifies that the endpoint returns an HTTP status code of 400 Bad Request when an attempt
+   * in the batch cannot be graded.
+   *
+   * @throws Exception if the test fails
+   */
+  @Test
+  void addQuizAttemptsThatCannotBeGradedIsBadRequest() throws Exception {
+    List<QuizAttemptDTO> quizAttemptDTOs = List.of(new QuizAttemptDTO());
+    when(attemptService.addQuizAttempts(quizAttemptDTOs))
+        .thenThrow(new IllegalArgumentException("Quiz id cannot be null."));
+
+    mockMvc
+        .perform(
+            post("/api/attempts/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(quizAttemptDTOs))
+                .secure(true))
+        .andExpect(status().isBadRequest());
+  }
+
   /**
    * This method tests the getAllAttemptsForUser endpoint with a valid user ID.
    *
@@ -82,13 +197,18 @@ class AttemptControllerTests {
    */
   @Test
   void getAllAttemptsForUser() throws Exception {
-    QuizAttempt quizAttempt = new QuizAttempt();
-    quizAttempt.setId(1L);
-    Page<QuizAttempt> page = new PageImpl<>(List.of(quizAttempt));
+    QuizAttemptSummaryDTO summary = new QuizAttemptSummaryDTO();
+    summary.setId(1L);
+    summary.setQuestionCount(3);
+    Page<QuizAttemptSummaryDTO> page = new PageImpl<>(List.of(summary));
     when(attemptService.getAllAttemptsForUser(any(Long.class), any(Pageable.class)))
         .thenReturn(page);
 
-    mockMvc.perform(get("/api/attempts/all/1").secure(true)).andExpect(status().isOk());
+    mockMvc
+        .perform(get("/api/attempts/all/1").secure(true))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content[0].questionCount").value(3))
+        .andExpect(jsonPath("$.content[0].questionAttempts").doesNotExist());
   }
 
   /**
@@ -0,0 +1,195 @@
+package com.idatt2105.backend.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.idatt2105.backend.model.Quiz;
+import com.idatt2105.backend.model.QuizAttempt;
+import com.idatt2105.backend.model.TrueOrFalseQuestionAttempt;
+import com.idatt2105.backend.model.User;
+import com.idatt2105.backend.repository.QuizAttemptRepository;
+import com.idatt2105.backend.repository.QuizRepository;
+import com.idatt2105.backend.repository.UserRepository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/** Tests exporting the attempts on the quizzes of an author against the database. */
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+class AttemptExportTests {
+  @Autowired private MockMvc mockMvc;
+  @Autowired private ObjectMapper objectMapper;
+  @Autowired private QuizRepository quizRepository;
+  @Autowired private QuizAttemptRepository quizAttemptRepository;
+  @Autowired private UserRepository userRepository;
+
+  private User author;
+  private User student;
+  private List<Long> exported;
+
+  @BeforeEach
+  void setUp() {
+    author = userRepository.save(new User("exportAuthor" + System.nanoTime(), "password"));
+    student = userRepository.save(new User("exportStudent" + System.nanoTime(), "password"));
+    User otherAuthor = userRepository.save(new User("otherAuthor" + System.nanoTime(), "password"));
+    Quiz first = quiz("Fractions, \"part 1\"", author);
+    Quiz second = quiz("Decimals", author);
+    Quiz other = quiz("Not exported", otherAuthor);
+
+    exported = new ArrayList<>();
+    exported.add(attempt(first, 3).getId());
+    exported.add(attempt(second, 5).getId());
+    exported.add(legacyAttempt(first, 1).getId());
+    attempt(other, 2);
+  }
+
+  /**
+   * This method tests that the NDJSON export holds one line per attempt on the quizzes of the
+   * author, lowest id first since none is archived, and no others. An attempt stored without a
+   * question count is given the number of its question attempts.
+   */
+  @Test
+  void exportsAttemptsAsNdjson() throws Exception {
+    String body = export("ndjson", "application/x-ndjson");
+
+    String[] lines = body.split("\n");
+    assertEquals(3, lines.length);
+    for (int i = 0; i < lines.length; i++) {
+      JsonNode row = objectMapper.readTree(lines[i]);
+      assertEquals(exported.get(i), row.get("id").asLong());
+      assertEquals(student.getId(), row.get("userId").asLong());
+      assertEquals(4, row.get("questionCount").asInt());
+    }
+    assertEquals("Fractions, \"part 1\"", objectMapper.readTree(lines[0]).get("title").asText());
+  }
+
+  /**
+   * This method tests that the CSV export has a header, one row per attempt, and quotes titles with
+   * commas and quotes in them.
+   */
+  @Test
+  void exportsAttemptsAsCsv() throws Exception {
+    String body = export("csv", "text/csv");
+
+    String[] lines = body.split("\n");
+    assertEquals(4, lines.length);
+    assertEquals("id,quizId,title,userId,score,maxScore,attemptTime,questionCount", lines[0]);
+    assertTrue(lines[1].startsWith(exported.get(0) + ","));
+    assertTrue(lines[1].contains(",\"Fractions, \"\"part 1\"\"\"," + student.getId() + ",3,10,"));
+    assertTrue(lines[2].contains(",Decimals," + student.getId() + ",5,10,"));
+    assertTrue(lines[3].endsWith(",4"));
+  }
+
+  /**
+   * This method tests that titles a spreadsheet would read as formulas are prefixed with an
+   * apostrophe in the CSV export, and still quoted when they need to be.
+   */
+  @Test
+  void neutralizesFormulasInCsv() throws Exception {
+    attempt(quiz("=HYPERLINK(\"http://example.com\")", author), 1);
+    attempt(quiz("@SUM(A1:A2)", author), 1);
+    attempt(quiz("-2+3,4", author), 1);
+    attempt(quiz("\tTabbed", author), 1);
+
+    String body = export("csv", "text/csv");
+
+    assertTrue(body.contains(",\"'=HYPERLINK(\"\"http://example.com\"\")\","), body);
+    assertTrue(body.contains(",'@SUM(A1:A2),"), body);
+    assertTrue(body.contains(",\"'-2+3,4\","), body);
+    assertTrue(body.contains(",'\tTabbed,"), body);
+    assertTrue(body.contains(",Decimals,"), body);
+  }
+
+  /**
+   * This method tests that an export for an unknown author is 404, and one in an unknown format is
+   * 400, both before the export is started.
+   */
+  @Test
+  void rejectsUnknownAuthorAndFormat() throws Exception {
+    mockMvc
+        .perform(get("/api/attempts/export/author/" + Long.MAX_VALUE).secure(true))
+        .andExpect(status().isNotFound());
+    mockMvc
+        .perform(
+            get("/api/attempts/export/author/" + author.getId())
+                .param("format", "xlsx")
+                .secure(true))
+        .andExpect(status().isBadRequest());
+  }
+
+  private String export(String format, String mediaType) throws Exception {
+    MvcResult started =
+        mockMvc
+            .perform(
+                get("/api/attempts/export/author/" + author.getId())
+                    .param("format", format)
+                    .secure(true))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+    return mockMvc
+        .perform(asyncDispatch(started))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith(mediaType))
+        .andExpect(
+            header()
+                .string(
+                    "Content-Disposition",
+                    "attachment; filename=\"attempts-" + author.getId() + "." + format + "\""))
+        .andReturn()
+        .getResponse()
+        .getContentAsString();
+  }
+
+  private Quiz quiz(String title, User quizAuthor) {
+    Quiz quiz = new Quiz();
+    quiz.setTitle(title);
+    quiz.setAuthorId(quizAuthor.getId());
+    return quizRepository.save(quiz);
+  }
+
+  private QuizAttempt attempt(Quiz quiz, int score) {
+    QuizAttempt attempt = new QuizAttempt();
+    attempt.setTitle(quiz.getTitle());
+    attempt.setQuizId(quiz.getId());
+    attempt.setUser(student);
+    attempt.setScore(score);
+    attempt.setMaxScore(10);
+    attempt.setQuestionCount(4);
+    return quizAttemptRepository.save(attempt);
+  }
+
+  private QuizAttempt legacyAttempt(Quiz quiz, int score) {
+    QuizAttempt attempt = new QuizAttempt();
+    attempt.setTitle(quiz.getTitle());
+    attempt.setQuizId(quiz.getId());
+    attempt.setUser(student);
+    attempt.setScore(score);
+    attempt.setMaxScore(10);
+    for (long questionId = 1; questionId <= 4; questionId++) {
+      TrueOrFalseQuestionAttempt questionAttempt = new TrueOrFalseQuestionAttempt();
+      questionAttempt.setQuestionId(questionId);
+      questionAttempt.setUserAnswer(true);
+      questionAttempt.setCorrectAnswer(true);
+      questionAttempt.setQuizAttempt(attempt);
+      attempt.getQuestionAttempts().add(questionAttempt);
+    }
+    return quizAttemptRepository.save(attempt);
+  }
+}
@@ -0,0 +1,165 @@
+package com.idatt2105.backend.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.idatt2105.backend.dto.AlternativeDTO;
+import com.idatt2105.backend.dto.QuestionAttemptDTO;
+import com.idatt2105.backend.dto.QuizAttemptDTO;
+import com.idatt2105.backend.enumerator.QuestionType;
+import com.idatt2105.backend.model.Alternative;
+import com.idatt2105.backend.model.AlternativeRecord;
+import com.idatt2105.backend.model.MultipleChoiceQuestion;
+import com.idatt2105.backend.model.Quiz;
+import com.idatt2105.backend.model.TrueOrFalseQuestion;
+import com.idatt2105.backend.model.User;
+import com.idatt2105.backend.repository.QuestionRepository;
+import com.idatt2105.backend.repository.QuizRepository;
+import com.idatt2105.backend.repository.UserRepository;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Compares how many attempts per second are added through {@code POST /api/attempts/add}, one
+ * attempt per request, and through {@code POST /api/attempts/batch}. Not part of the test suite,
+ * run it with {@code mvn test -Dtest=AttemptIngestionBenchmark}.
+ *
+ * <p>The test database is used unless another is given, for example with {@code
+ * -Dspring.datasource.url=jdbc:mysql://localhost:3306/benchmark?rewriteBatchedStatements=true}.
+ * Round trips are much cheaper to an in-memory database, so the difference is larger on a real one.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+class AttemptIngestionBenchmark {
+  private static final int QUESTIONS = 5;
+  private static final int ALTERNATIVES = 4;
+  private static final int ATTEMPTS = 2_000;
+  private static final int BATCH_SIZE = 50;
+  private static final int WARMUP_ROUNDS = 2;
+
+  @Autowired private MockMvc mockMvc;
+  @Autowired private ObjectMapper objectMapper;
+  @Autowired private QuizRepository quizRepository;
+  @Autowired private QuestionRepository questionRepository;
+  @Autowired private UserRepository userRepository;
+
+  private QuizAttemptDTO attempt;
+
+  @BeforeEach
+  void setUp() {
+    User user = userRepository.save(new User("benchmark" + System.nanoTime(), "password"));
+    Quiz quiz = new Quiz();
+    quiz.setTitle("Benchmark quiz");
+    quiz = quizRepository.save(quiz);
+
+    attempt = new QuizAttemptDTO();
+    attempt.setTitle(quiz.getTitle());
+    attempt.setQuizId(quiz.getId());
+    attempt.setUserId(user.getId());
+    for (int i = 0; i < QUESTIONS; i++) {
+      MultipleChoiceQuestion question = new MultipleChoiceQuestion();
+      question.setQuestionText("Multiple choice " + i);
+      question.setPoints(1);
+      question.setQuiz(quiz);
+      for (int j = 0; j < ALTERNATIVES; j++) {
+        AlternativeDTO alternative = new AlternativeDTO();
+        alternative.setAlternativeText("Alternative " + j);
+        alternative.setCorrect(j == 0);
+        question.addAlternative(alternative);
+      }
+      question = questionRepository.save(question);
+      QuestionAttemptDTO questionAttempt = new QuestionAttemptDTO();
+      questionAttempt.setType(QuestionType.MULTIPLE_CHOICE);
+      questionAttempt.setQuestionId(question.getId());
+      questionAttempt.setQuestionText(question.getQuestionText());
+      for (Alternative alternative : question.getAlternatives()) {
+        AlternativeRecord record = new AlternativeRecord();
+        record.setAlternativeId(alternative.getId());
+        record.setAlternativeText(alternative.getAlternativeText());
+        record.setWasSelected(alternative.isCorrect());
+        questionAttempt.getAlternatives().add(record);
+      }
+      attempt.getQuestionAttempts().add(questionAttempt);
+
+      TrueOrFalseQuestion trueOrFalse = new TrueOrFalseQuestion();
+      trueOrFalse.setQuestionText("True or false " + i);
+      trueOrFalse.setPoints(1);
+      trueOrFalse.setCorrectAnswer(true);
+      trueOrFalse.setQuiz(quiz);
+      trueOrFalse = questionRepository.save(trueOrFalse);
+      QuestionAttemptDTO trueOrFalseAttempt = new QuestionAttemptDTO();
+      trueOrFalseAttempt.setType(QuestionType.TRUE_OR_FALSE);
+      trueOrFalseAttempt.setQuestionId(trueOrFalse.getId());
+      trueOrFalseAttempt.setQuestionText(trueOrFalse.getQuestionText());
+      trueOrFalseAttempt.setUserAnswer(true);
+      attempt.getQuestionAttempts().add(trueOrFalseAttempt);
+    }
+  }
+
+  /** Adds the same number of attempts through both endpoints, and reports attempts per second. */
+  @Test
+  void compareSingleAndBatchSubmission() throws Exception {
+    String single = objectMapper.writeValueAsString(attempt);
+    List<QuizAttemptDTO> batch = new ArrayList<>();
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      batch.add(attempt);
+    }
+    String batchBody = objectMapper.writeValueAsString(batch);
+
+    for (int round = 0; round < WARMUP_ROUNDS; round++) {
+      addSingly(single, ATTEMPTS / 4);
+      addInBatches(batchBody, ATTEMPTS / 4);
+    }
+    double singlyPerSecond = addSingly(single, ATTEMPTS);
+    double batchedPerSecond = addInBatches(batchBody, ATTEMPTS);
+
+    System.out.printf(
+        "%d attempts of %d questions:%n"
+            + "  /api/attempts/add    %10.1f attempts/s%n"
+            + "  /api/attempts/batch  %10.1f attempts/s (%d per request, %.1fx)%n",
+        ATTEMPTS,
+        2 * QUESTIONS,
+        singlyPerSecond,
+        batchedPerSecond,
+        BATCH_SIZE,
+        batchedPerSecond / singlyPerSecond);
+  }
+
+  private double addSingly(String body, int attempts) throws Exception {
+    long start = System.nanoTime();
+    for (int i = 0; i < attempts; i++) {
+      mockMvc
+          .perform(
+              post("/api/attempts/add")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(body)
+                  .secure(true))
+          .andExpect(status().isCreated());
+    }
+    return attempts * 1e9 / (System.nanoTime() - start);
+  }
+
+  private double addInBatches(String body, int attempts) throws Exception {
+    long start = System.nanoTime();
+    for (int i = 0; i < attempts; i += BATCH_SIZE) {
+      mockMvc
+          .perform(
+              post("/api/attempts/batch")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(body)
+                  .secure(true))
+          .andExpect(status().isCreated());
+    }
+    return attempts * 1e9 / (System.nanoTime() - start);
+  }
+}
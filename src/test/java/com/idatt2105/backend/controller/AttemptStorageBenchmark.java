@@ -0,0 +1,193 @@
+package com.idatt2105.backend.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.idatt2105.backend.dto.AlternativeDTO;
+import com.idatt2105.backend.model.Alternative;
+import com.idatt2105.backend.model.AlternativeRecord;
+import com.idatt2105.backend.model.MultipleChoiceQuestion;
+import com.idatt2105.backend.model.MultipleChoiceQuestionAttempt;
+import com.idatt2105.backend.model.Quiz;
+import com.idatt2105.backend.model.QuizAttempt;
+import com.idatt2105.backend.model.TrueOrFalseQuestion;
+import com.idatt2105.backend.model.TrueOrFalseQuestionAttempt;
+import com.idatt2105.backend.model.User;
+import com.idatt2105.backend.repository.QuestionRepository;
+import com.idatt2105.backend.repository.QuizAttemptRepository;
+import com.idatt2105.backend.repository.QuizRepository;
+import com.idatt2105.backend.repository.UserRepository;
+import com.idatt2105.backend.service.CompactAttemptMigrator;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Compares attempts stored in rows with the same attempts stored in the compact format: the rows of
+ * the attempt tables, the bytes they take and how long {@code GET /api/attempts/{id}} takes. Not
+ * part of the test suite, run it with {@code mvn test -Dtest=AttemptStorageBenchmark}.
+ *
+ * <p>The attempts are saved in rows, measured, moved with {@link CompactAttemptMigrator} and
+ * measured again. The attempts are stored in an H2 file database under {@code target}, whose {@code
+ * DISK_SPACE_USED} tells how many bytes each table takes.
+ */
+@SpringBootTest(
+    properties = {
+      "quiz.attempts.compact-storage=true",
+      // A file database, since H2 cannot tell the size of in-memory tables
+      "spring.datasource.url=jdbc:h2:file:./target/attempt-storage-benchmark;MODE=MySQL",
+      "spring.jpa.hibernate.ddl-auto=create-drop"
+    })
+@AutoConfigureMockMvc(addFilters = false)
+class AttemptStorageBenchmark {
+  private static final int QUESTIONS = 5;
+  private static final int ALTERNATIVES = 4;
+  private static final int ATTEMPTS = 5_000;
+  private static final int READS = 2_000;
+  private static final int WARMUP_READS = 1_000;
+
+  @Autowired private MockMvc mockMvc;
+  @Autowired private QuizRepository quizRepository;
+  @Autowired private QuestionRepository questionRepository;
+  @Autowired private QuizAttemptRepository quizAttemptRepository;
+  @Autowired private UserRepository userRepository;
+  @Autowired private CompactAttemptMigrator compactAttemptMigrator;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  /** Saves attempts in rows, moves them to the compact format, and reports both. */
+  @Test
+  void compareRowAndCompactStorage() throws Exception {
+    List<Long> ids = saveAttemptsInRows();
+
+    Map<String, Long> rowsBefore = compactAttemptMigrator.countRows();
+    long bytesBefore = bytes(rowsBefore);
+    double microsBefore = readMicros(ids);
+
+    long start = System.nanoTime();
+    long migrated = compactAttemptMigrator.migrateAll();
+    long migrationMillis = (System.nanoTime() - start) / 1_000_000;
+
+    Map<String, Long> rowsAfter = compactAttemptMigrator.countRows();
+    long bytesAfter = bytes(rowsAfter);
+    double microsAfter = readMicros(ids);
+
+    System.out.printf(
+        "%d attempts of %d questions, %d moved in %d ms:%n"
+            + "  rows     %s%n"
+            + "  compact  %s%n"
+            + "  bytes    %d rows, %d compact%n"
+            + "  GET /api/attempts/{id}  %.1f us rows, %.1f us compact%n",
+        ATTEMPTS,
+        2 * QUESTIONS,
+        migrated,
+        migrationMillis,
+        rowsBefore,
+        rowsAfter,
+        bytesBefore,
+        bytesAfter,
+        microsBefore,
+        microsAfter);
+  }
+
+  private List<Long> saveAttemptsInRows() {
+    User user = userRepository.save(new User("storage" + System.nanoTime(), "password"));
+    Quiz quiz = new Quiz();
+    quiz.setTitle("Storage quiz");
+    quiz = quizRepository.save(quiz);
+    List<MultipleChoiceQuestion> multipleChoiceQuestions = new ArrayList<>();
+    List<TrueOrFalseQuestion> trueOrFalseQuestions = new ArrayList<>();
+    for (int i = 0; i < QUESTIONS; i++) {
+      MultipleChoiceQuestion question = new MultipleChoiceQuestion();
+      question.setQuestionText("Multiple choice " + i);
+      question.setPoints(1);
+      question.setQuiz(quiz);
+      for (int j = 0; j < ALTERNATIVES; j++) {
+        AlternativeDTO alternative = new AlternativeDTO();
+        alternative.setAlternativeText("Alternative " + j);
+        alternative.setCorrect(j == 0);
+        question.addAlternative(alternative);
+      }
+      multipleChoiceQuestions.add(questionRepository.save(question));
+      TrueOrFalseQuestion trueOrFalse = new TrueOrFalseQuestion();
+      trueOrFalse.setQuestionText("True or false " + i);
+      trueOrFalse.setPoints(1);
+      trueOrFalse.setCorrectAnswer(true);
+      trueOrFalse.setQuiz(quiz);
+      trueOrFalseQuestions.add(questionRepository.save(trueOrFalse));
+    }
+
+    List<Long> ids = new ArrayList<>(ATTEMPTS);
+    List<QuizAttempt> batch = new ArrayList<>();
+    for (int n = 0; n < ATTEMPTS; n++) {
+      QuizAttempt attempt = new QuizAttempt();
+      attempt.setTitle(quiz.getTitle());
+      attempt.setQuizId(quiz.getId());
+      attempt.setUser(user);
+      for (MultipleChoiceQuestion question : multipleChoiceQuestions) {
+        MultipleChoiceQuestionAttempt questionAttempt = new MultipleChoiceQuestionAttempt();
+        questionAttempt.setQuestionId(question.getId());
+        questionAttempt.setQuestionText(question.getQuestionText());
+        questionAttempt.setPoints(question.getPoints());
+        questionAttempt.setQuizAttempt(attempt);
+        for (Alternative alternative : question.getAlternatives()) {
+          AlternativeRecord record = new AlternativeRecord();
+          record.setAlternativeId(alternative.getId());
+          record.setAlternativeText(alternative.getAlternativeText());
+          record.setWasCorrect(alternative.isCorrect());
+          record.setWasSelected(alternative.isCorrect() == (n % 2 == 0));
+          questionAttempt.addAlternative(record);
+        }
+        attempt.getQuestionAttempts().add(questionAttempt);
+      }
+      for (TrueOrFalseQuestion question : trueOrFalseQuestions) {
+        TrueOrFalseQuestionAttempt questionAttempt = new TrueOrFalseQuestionAttempt();
+        questionAttempt.setQuestionId(question.getId());
+        questionAttempt.setQuestionText(question.getQuestionText());
+        questionAttempt.setPoints(question.getPoints());
+        questionAttempt.setCorrectAnswer(true);
+        questionAttempt.setUserAnswer(n % 3 != 0);
+        questionAttempt.setQuizAttempt(attempt);
+        attempt.getQuestionAttempts().add(questionAttempt);
+      }
+      batch.add(attempt);
+      if (batch.size() == 100 || n == ATTEMPTS - 1) {
+        quizAttemptRepository.saveAll(batch).forEach(saved -> ids.add(saved.getId()));
+        batch.clear();
+      }
+    }
+    return ids;
+  }
+
+  private double readMicros(List<Long> ids) throws Exception {
+    for (int i = 0; i < WARMUP_READS; i++) {
+      read(ids.get(i % ids.size()));
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < READS; i++) {
+      read(ids.get((i * 7919) % ids.size()));
+    }
+    return (System.nanoTime() - start) / 1e3 / READS;
+  }
+
+  private void read(Long id) throws Exception {
+    mockMvc.perform(get("/api/attempts/" + id).secure(true)).andExpect(status().isOk());
+  }
+
+  /** Sums the bytes of the attempt tables. */
+  private long bytes(Map<String, Long> tables) {
+    long bytes = 0;
+    for (String table : tables.keySet()) {
+      bytes +=
+          jdbcTemplate.queryForObject("SELECT DISK_SPACE_USED(?)", Long.class, table.toUpperCase());
+    }
+    return bytes;
+  }
+}
@@ -0,0 +1,183 @@
+package com.idatt2105.backend.controller;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.idatt2105.backend.dto.AlternativeDTO;
+import com.idatt2105.backend.dto.QuestionAttemptDTO;
+import com.idatt2105.backend.dto.QuizAttemptDTO;
+import com.idatt2105.backend.enumerator.QuestionType;
+import com.idatt2105.backend.model.Alternative;
+import com.idatt2105.backend.model.AlternativeRecord;
+import com.idatt2105.backend.model.MultipleChoiceQuestion;
+import com.idatt2105.backend.model.MultipleChoiceQuestionAttempt;
+import com.idatt2105.backend.model.QuestionAttempt;
+import com.idatt2105.backend.model.Quiz;
+import com.idatt2105.backend.model.QuizAttempt;
+import com.idatt2105.backend.model.TrueOrFalseQuestion;
+import com.idatt2105.backend.model.TrueOrFalseQuestionAttempt;
+import com.idatt2105.backend.model.User;
+import com.idatt2105.backend.repository.QuestionRepository;
+import com.idatt2105.backend.repository.QuizAttemptRepository;
+import com.idatt2105.backend.repository.QuizRepository;
+import com.idatt2105.backend.repository.UserRepository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests adding attempts with the write-behind queue enabled, against the database. An accepted
+ * attempt must be written shortly after with the ids it was acknowledged with, and read back like
+ * an attempt saved by Hibernate.
+ */
+@SpringBootTest(properties = "quiz.attempts.write-behind.enabled=true")
+@AutoConfigureMockMvc(addFilters = false)
+class AttemptWriteBehindTests {
+  @Autowired private MockMvc mockMvc;
+  @Autowired private ObjectMapper objectMapper;
+  @Autowired private QuizRepository quizRepository;
+  @Autowired private QuestionRepository questionRepository;
+  @Autowired private QuizAttemptRepository quizAttemptRepository;
+  @Autowired private UserRepository userRepository;
+
+  /**
+   * This method tests that an added attempt is accepted with its id, and that the attempt, its
+   * question attempts and alternative records are found in the database soon after.
+   */
+  @Test
+  void addedAttemptIsAcceptedAndWrittenBehind() throws Exception {
+    User user = userRepository.save(new User("writeBehind" + System.nanoTime(), "password"));
+    Quiz quiz = new Quiz();
+    quiz.setTitle("Write-behind quiz");
+    quiz = quizRepository.save(quiz);
+
+    TrueOrFalseQuestion trueOrFalse = new TrueOrFalseQuestion();
+    trueOrFalse.setQuestionText("True or false");
+    trueOrFalse.setPoints(2);
+    trueOrFalse.setCorrectAnswer(true);
+    trueOrFalse.setQuiz(quiz);
+    trueOrFalse = questionRepository.save(trueOrFalse);
+    MultipleChoiceQuestion multipleChoice = new MultipleChoiceQuestion();
+    multipleChoice.setQuestionText("Multiple choice");
+    multipleChoice.setPoints(3);
+    multipleChoice.setQuiz(quiz);
+    for (int i = 0; i < 2; i++) {
+      AlternativeDTO alternative = new AlternativeDTO();
+      alternative.setAlternativeText("Alternative " + i);
+      alternative.setCorrect(i == 0);
+      multipleChoice.addAlternative(alternative);
+    }
+    multipleChoice = questionRepository.save(multipleChoice);
+
+    QuizAttemptDTO attempt = new QuizAttemptDTO();
+    attempt.setTitle(quiz.getTitle());
+    attempt.setQuizId(quiz.getId());
+    attempt.setUserId(user.getId());
+    QuestionAttemptDTO trueOrFalseAttempt = new QuestionAttemptDTO();
+    trueOrFalseAttempt.setType(QuestionType.TRUE_OR_FALSE);
+    trueOrFalseAttempt.setQuestionId(trueOrFalse.getId());
+    trueOrFalseAttempt.setUserAnswer(true);
+    attempt.getQuestionAttempts().add(trueOrFalseAttempt);
+    QuestionAttemptDTO multipleChoiceAttempt = new QuestionAttemptDTO();
+    multipleChoiceAttempt.setType(QuestionType.MULTIPLE_CHOICE);
+    multipleChoiceAttempt.setQuestionId(multipleChoice.getId());
+    for (Alternative alternative : multipleChoice.getAlternatives()) {
+      AlternativeRecord record = new AlternativeRecord();
+      record.setAlternativeId(alternative.getId());
+      record.setAlternativeText(alternative.getAlternativeText());
+      record.setWasSelected(!alternative.isCorrect());
+      multipleChoiceAttempt.getAlternatives().add(record);
+    }
+    attempt.getQuestionAttempts().add(multipleChoiceAttempt);
+
+    String response =
+        mockMvc
+            .perform(
+                post("/api/attempts/add")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(attempt))
+                    .secure(true))
+            .andExpect(status().isAccepted())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    JsonNode accepted = objectMapper.readTree(response);
+    long id = accepted.get("id").asLong();
+    assertEquals(2, accepted.get("score").asInt());
+
+    QuizAttempt written = awaitAttempt(id);
+    assertEquals(2, written.getScore());
+    assertEquals(user.getId(), written.getUser().getId());
+    assertEquals(2, written.getQuestionAttempts().size());
+    for (QuestionAttempt questionAttempt : written.getQuestionAttempts()) {
+      if (questionAttempt instanceof TrueOrFalseQuestionAttempt writtenTrueOrFalse) {
+        assertTrue(writtenTrueOrFalse.getCorrectAnswer());
+        assertEquals(2, writtenTrueOrFalse.getPoints());
+      } else {
+        MultipleChoiceQuestionAttempt writtenMultipleChoice =
+            (MultipleChoiceQuestionAttempt) questionAttempt;
+        assertEquals(2, writtenMultipleChoice.getAlternatives().size());
+        for (AlternativeRecord record : writtenMultipleChoice.getAlternatives()) {
+          assertEquals(record.getWasCorrect(), !record.getWasSelected());
+        }
+      }
+    }
+  }
+
+  /**
+   * This method tests that an attempt without an answer to a true or false question is rejected
+   * before it is acknowledged, since the writer could never insert it.
+   */
+  @Test
+  void attemptWithoutTrueOrFalseAnswerIsRejected() throws Exception {
+    User user = userRepository.save(new User("writeBehindNull" + System.nanoTime(), "password"));
+    Quiz quiz = new Quiz();
+    quiz.setTitle("Write-behind null answer quiz");
+    quiz = quizRepository.save(quiz);
+    TrueOrFalseQuestion trueOrFalse = new TrueOrFalseQuestion();
+    trueOrFalse.setQuestionText("True or false");
+    trueOrFalse.setPoints(1);
+    trueOrFalse.setCorrectAnswer(true);
+    trueOrFalse.setQuiz(quiz);
+    trueOrFalse = questionRepository.save(trueOrFalse);
+
+    QuizAttemptDTO attempt = new QuizAttemptDTO();
+    attempt.setTitle(quiz.getTitle());
+    attempt.setQuizId(quiz.getId());
+    attempt.setUserId(user.getId());
+    QuestionAttemptDTO trueOrFalseAttempt = new QuestionAttemptDTO();
+    trueOrFalseAttempt.setType(QuestionType.TRUE_OR_FALSE);
+    trueOrFalseAttempt.setQuestionId(trueOrFalse.getId());
+    attempt.getQuestionAttempts().add(trueOrFalseAttempt);
+
+    mockMvc
+        .perform(
+            post("/api/attempts/add")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(attempt))
+                .secure(true))
+        .andExpect(status().isBadRequest());
+  }
+
+  private QuizAttempt awaitAttempt(long id) throws InterruptedException {
+    long deadline = System.nanoTime() + 10_000_000_000L;
+    while (System.nanoTime() < deadline) {
+      Optional<QuizAttempt> written = quizAttemptRepository.findWithQuestionAttemptsById(id);
+      if (written.isPresent()) {
+        return written.get();
+      }
+      Thread.sleep(20);
+    }
+    throw new AssertionError("Attempt " + id + " was not written");
+  }
+}
@@ -0,0 +1,237 @@
+package com.idatt2105.backend.controller;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.idatt2105.backend.dto.AlternativeDTO;
+import com.idatt2105.backend.dto.QuestionAttemptDTO;
+import com.idatt2105.backend.dto.QuizAttemptDTO;
+import com.idatt2105.backend.enumerator.QuestionType;
+import com.idatt2105.backend.model.Alternative;
+import com.idatt2105.backend.model.AlternativeRecord;
+import com.idatt2105.backend.model.MultipleChoiceQuestion;
+import com.idatt2105.backend.model.MultipleChoiceQuestionAttempt;
+import com.idatt2105.backend.model.Quiz;
+import com.idatt2105.backend.model.QuizAttempt;
+import com.idatt2105.backend.model.TrueOrFalseQuestion;
+import com.idatt2105.backend.model.TrueOrFalseQuestionAttempt;
+import com.idatt2105.backend.model.User;
+import com.idatt2105.backend.repository.QuestionRepository;
+import com.idatt2105.backend.repository.QuizAttemptRepository;
+import com.idatt2105.backend.repository.QuizRepository;
+import com.idatt2105.backend.repository.UserRepository;
+import com.idatt2105.backend.service.CompactAttemptMigrator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests storing attempts in the compact format against the database. A compact attempt must be a
+ * single row that reads back like an attempt stored in rows, and the migration must move attempts
+ * stored in rows to the compact format without changing how they read.
+ */
+@SpringBootTest(properties = "quiz.attempts.compact-storage=true")
+@AutoConfigureMockMvc(addFilters = false)
+class CompactAttemptStorageTests {
+  @Autowired private MockMvc mockMvc;
+  @Autowired private ObjectMapper objectMapper;
+  @Autowired private QuizRepository quizRepository;
+  @Autowired private QuestionRepository questionRepository;
+  @Autowired private QuizAttemptRepository quizAttemptRepository;
+  @Autowired private UserRepository userRepository;
+  @Autowired private CompactAttemptMigrator compactAttemptMigrator;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  private User user;
+  private Quiz quiz;
+  private TrueOrFalseQuestion trueOrFalse;
+  private MultipleChoiceQuestion multipleChoice;
+
+  @BeforeEach
+  void setUp() {
+    user = userRepository.save(new User("compact" + System.nanoTime(), "password"));
+    quiz = new Quiz();
+    quiz.setTitle("Compact quiz");
+    quiz = quizRepository.save(quiz);
+
+    trueOrFalse = new TrueOrFalseQuestion();
+    trueOrFalse.setQuestionText("True or false");
+    trueOrFalse.setPoints(2);
+    trueOrFalse.setCorrectAnswer(true);
+    trueOrFalse.setQuiz(quiz);
+    trueOrFalse = questionRepository.save(trueOrFalse);
+    multipleChoice = new MultipleChoiceQuestion();
+    multipleChoice.setQuestionText("Multiple choice");
+    multipleChoice.setPoints(3);
+    multipleChoice.setQuiz(quiz);
+    for (int i = 0; i < 3; i++) {
+      AlternativeDTO alternative = new AlternativeDTO();
+      alternative.setAlternativeText("Alternative " + i);
+      alternative.setCorrect(i == 0);
+      multipleChoice.addAlternative(alternative);
+    }
+    multipleChoice = questionRepository.save(multipleChoice);
+  }
+
+  /**
+   * This method tests that an added attempt is stored as one row with its encoded answers, and is
+   * read back with its graded question attempts.
+   */
+  @Test
+  void addedAttemptIsStoredAsOneRow() throws Exception {
+    QuizAttemptDTO attempt = new QuizAttemptDTO();
+    attempt.setTitle(quiz.getTitle());
+    attempt.setQuizId(quiz.getId());
+    attempt.setUserId(user.getId());
+    QuestionAttemptDTO trueOrFalseAttempt = new QuestionAttemptDTO();
+    trueOrFalseAttempt.setType(QuestionType.TRUE_OR_FALSE);
+    trueOrFalseAttempt.setQuestionId(trueOrFalse.getId());
+    trueOrFalseAttempt.setUserAnswer(true);
+    attempt.getQuestionAttempts().add(trueOrFalseAttempt);
+    QuestionAttemptDTO multipleChoiceAttempt = new QuestionAttemptDTO();
+    multipleChoiceAttempt.setType(QuestionType.MULTIPLE_CHOICE);
+    multipleChoiceAttempt.setQuestionId(multipleChoice.getId());
+    for (Alternative alternative : multipleChoice.getAlternatives()) {
+      AlternativeRecord record = new AlternativeRecord();
+      record.setAlternativeId(alternative.getId());
+      record.setAlternativeText(alternative.getAlternativeText());
+      record.setWasSelected(alternative.isCorrect());
+      multipleChoiceAttempt.getAlternatives().add(record);
+    }
+    attempt.getQuestionAttempts().add(multipleChoiceAttempt);
+
+    String response =
+        mockMvc
+            .perform(
+                post("/api/attempts/add")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(attempt))
+                    .secure(true))
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    long id = objectMapper.readTree(response).get("id").asLong();
+
+    Map<String, Object> row =
+        jdbcTemplate.queryForMap("SELECT score, answers FROM quiz_attempt WHERE id = ?", id);
+    assertEquals(5, ((Number) row.get("score")).intValue());
+    assertNotNull(row.get("answers"));
+    assertEquals(0, countQuestionAttemptRows(id));
+
+    JsonNode read = readAttempt(id);
+    assertEquals(5, read.get("score").asInt());
+    assertEquals(
+        normalize(objectMapper.readTree(response).get("questionAttempts")),
+        normalize(read.get("questionAttempts")));
+  }
+
+  /**
+   * This method tests that the migration moves an attempt stored in rows to the compact format,
+   * deleting its question attempt and alternative record rows, and that it reads the same after.
+   */
+  @Test
+  void migratedAttemptReadsTheSame() throws Exception {
+    QuizAttempt stored = new QuizAttempt();
+    stored.setTitle(quiz.getTitle());
+    stored.setQuizId(quiz.getId());
+    stored.setUser(user);
+    stored.setScore(2);
+    TrueOrFalseQuestionAttempt trueOrFalseAttempt = new TrueOrFalseQuestionAttempt();
+    trueOrFalseAttempt.setQuestionId(trueOrFalse.getId());
+    trueOrFalseAttempt.setQuestionText(trueOrFalse.getQuestionText());
+    trueOrFalseAttempt.setPoints(2);
+    trueOrFalseAttempt.setUserAnswer(true);
+    trueOrFalseAttempt.setCorrectAnswer(true);
+    trueOrFalseAttempt.setQuizAttempt(stored);
+    stored.getQuestionAttempts().add(trueOrFalseAttempt);
+    MultipleChoiceQuestionAttempt multipleChoiceAttempt = new MultipleChoiceQuestionAttempt();
+    multipleChoiceAttempt.setQuestionId(multipleChoice.getId());
+    multipleChoiceAttempt.setPoints(3);
+    multipleChoiceAttempt.setQuizAttempt(stored);
+    for (Alternative alternative : multipleChoice.getAlternatives()) {
+      AlternativeRecord record = new AlternativeRecord();
+      record.setAlternativeId(alternative.getId());
+      record.setAlternativeText(alternative.getAlternativeText());
+      record.setWasCorrect(alternative.isCorrect());
+      multipleChoiceAttempt.addAlternative(record);
+    }
+    stored.getQuestionAttempts().add(multipleChoiceAttempt);
+    long id = quizAttemptRepository.save(stored).getId();
+    assertEquals(2, countQuestionAttemptRows(id));
+    JsonNode before = readAttempt(id);
+
+    assertTrue(compactAttemptMigrator.migrateAll() >= 1);
+
+    assertEquals(0, countQuestionAttemptRows(id));
+    assertEquals(0L, compactAttemptMigrator.migrateAll());
+    // The question count of the attempt is recorded when it is migrated
+    ((ObjectNode) before).put("questionCount", 2);
+    assertEquals(normalize(before), normalize(readAttempt(id)));
+  }
+
+  private long countQuestionAttemptRows(long quizAttemptId) {
+    return jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM question_attempt WHERE quiz_attempt_id = ?",
+        Long.class,
+        quizAttemptId);
+  }
+
+  private JsonNode readAttempt(long id) throws Exception {
+    String response =
+        mockMvc
+            .perform(get("/api/attempts/" + id).secure(true))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    return objectMapper.readTree(response);
+  }
+
+  /**
+   * Removes the ids of question attempts and alternative records, which compact attempts do not
+   * have, and sorts arrays, which are read from sets.
+   */
+  private static JsonNode normalize(JsonNode node) {
+    if (node instanceof ArrayNode array) {
+      List<JsonNode> elements = new ArrayList<>();
+      array.forEach(element -> elements.add(normalize(element)));
+      elements.sort(Comparator.comparing(JsonNode::toString));
+      ArrayNode sorted = array.arrayNode();
+      sorted.addAll(elements);
+      return sorted;
+    }
+    if (node instanceof ObjectNode object) {
+      ObjectNode copy = object.objectNode();
+      object
+          .fields()
+          .forEachRemaining(field -> copy.set(field.getKey(), normalize(field.getValue())));
+      if (copy.has("questionAttempts")) {
+        // The attempt keeps its id, only its rows are dropped
+        return copy;
+      }
+      copy.remove("id");
+      return copy;
+    }
+    return node;
+  }
+}
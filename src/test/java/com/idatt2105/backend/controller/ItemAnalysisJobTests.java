@@ -0,0 +1,156 @@
+package com.idatt2105.backend.controller;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.idatt2105.backend.dto.AlternativeDTO;
+import com.idatt2105.backend.dto.QuestionAttemptDTO;
+import com.idatt2105.backend.dto.QuizAttemptDTO;
+import com.idatt2105.backend.enumerator.QuestionType;
+import com.idatt2105.backend.model.Alternative;
+import com.idatt2105.backend.model.AlternativeRecord;
+import com.idatt2105.backend.model.MultipleChoiceQuestion;
+import com.idatt2105.backend.model.Quiz;
+import com.idatt2105.backend.model.TrueOrFalseQuestion;
+import com.idatt2105.backend.model.User;
+import com.idatt2105.backend.repository.QuestionRepository;
+import com.idatt2105.backend.repository.QuizRepository;
+import com.idatt2105.backend.repository.UserRepository;
+import com.idatt2105.backend.service.ItemAnalysisService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests the item analysis job against the database: attempts are added and graded through the
+ * attempt endpoints, the quiz is analyzed, and the analysis of each question is read through the
+ * question endpoint.
+ */
+@SpringBootTest(
+    properties =
+        // A database of its own, since the attempts it adds would take ids other contexts allocate
+        "spring.datasource.url=jdbc:h2:mem:itemanalysistest;DB_CLOSE_DELAY=-1;MODE=MySQL")
+@AutoConfigureMockMvc(addFilters = false)
+class ItemAnalysisJobTests {
+  @Autowired private MockMvc mockMvc;
+  @Autowired private ObjectMapper objectMapper;
+  @Autowired private QuizRepository quizRepository;
+  @Autowired private QuestionRepository questionRepository;
+  @Autowired private UserRepository userRepository;
+  @Autowired private ItemAnalysisService itemAnalysisService;
+
+  /**
+   * This method tests that analyzing a quiz stores the difficulty, discrimination and alternative
+   * frequencies of each of its questions, and that a question that has not been analyzed is 404.
+   */
+  @Test
+  void analyzedQuestionsAreReadThroughTheEndpoint() throws Exception {
+    User user = userRepository.save(new User("analysis" + System.nanoTime(), "password"));
+    Quiz quiz = new Quiz();
+    quiz.setTitle("Analyzed quiz");
+    quiz = quizRepository.save(quiz);
+    TrueOrFalseQuestion trueOrFalse = new TrueOrFalseQuestion();
+    trueOrFalse.setQuestionText("True or false");
+    trueOrFalse.setPoints(2);
+    trueOrFalse.setCorrectAnswer(true);
+    trueOrFalse.setQuiz(quiz);
+    trueOrFalse = questionRepository.save(trueOrFalse);
+    MultipleChoiceQuestion multipleChoice = new MultipleChoiceQuestion();
+    multipleChoice.setQuestionText("Multiple choice");
+    multipleChoice.setPoints(3);
+    multipleChoice.setQuiz(quiz);
+    for (int i = 0; i < 3; i++) {
+      AlternativeDTO alternative = new AlternativeDTO();
+      alternative.setAlternativeText("Alternative " + i);
+      alternative.setCorrect(i == 0);
+      multipleChoice.addAlternative(alternative);
+    }
+    multipleChoice = questionRepository.save(multipleChoice);
+    List<Alternative> alternatives =
+        multipleChoice.getAlternatives().stream()
+            .sorted((a, b) -> a.getAlternativeText().compareTo(b.getAlternativeText()))
+            .toList();
+
+    mockMvc
+        .perform(get("/api/question/" + trueOrFalse.getId() + "/analytics").secure(true))
+        .andExpect(status().isNotFound());
+
+    // Scores 5, 2 and 3
+    add(user, quiz, trueOrFalse, true, multipleChoice, alternatives.get(0));
+    add(user, quiz, trueOrFalse, true, multipleChoice, alternatives.get(1));
+    add(user, quiz, trueOrFalse, false, multipleChoice, alternatives.get(0));
+    assertEquals(2, itemAnalysisService.analyzeQuiz(quiz.getId()).getItems().size());
+
+    JsonNode trueOrFalseAnalytics = getAnalytics(trueOrFalse.getId());
+    assertEquals(3, trueOrFalseAnalytics.get("responseCount").asLong());
+    assertEquals(2.0 / 3, trueOrFalseAnalytics.get("difficulty").asDouble(), 1e-9);
+    assertFalse(trueOrFalseAnalytics.get("discrimination").isNull());
+
+    JsonNode multipleChoiceAnalytics = getAnalytics(multipleChoice.getId());
+    assertEquals(2, multipleChoiceAnalytics.get("correctCount").asLong());
+    JsonNode frequencies = multipleChoiceAnalytics.get("alternativeFrequencies");
+    assertEquals(2.0 / 3, frequencies.get(alternatives.get(0).getId().toString()).asDouble(), 1e-9);
+    assertEquals(1.0 / 3, frequencies.get(alternatives.get(1).getId().toString()).asDouble(), 1e-9);
+    assertFalse(frequencies.has(alternatives.get(2).getId().toString()));
+  }
+
+  private void add(
+      User user,
+      Quiz quiz,
+      TrueOrFalseQuestion trueOrFalse,
+      boolean userAnswer,
+      MultipleChoiceQuestion multipleChoice,
+      Alternative selected)
+      throws Exception {
+    QuizAttemptDTO attempt = new QuizAttemptDTO();
+    attempt.setTitle(quiz.getTitle());
+    attempt.setQuizId(quiz.getId());
+    attempt.setUserId(user.getId());
+    QuestionAttemptDTO trueOrFalseAttempt = new QuestionAttemptDTO();
+    trueOrFalseAttempt.setType(QuestionType.TRUE_OR_FALSE);
+    trueOrFalseAttempt.setQuestionId(trueOrFalse.getId());
+    trueOrFalseAttempt.setUserAnswer(userAnswer);
+    attempt.getQuestionAttempts().add(trueOrFalseAttempt);
+    QuestionAttemptDTO multipleChoiceAttempt = new QuestionAttemptDTO();
+    multipleChoiceAttempt.setType(QuestionType.MULTIPLE_CHOICE);
+    multipleChoiceAttempt.setQuestionId(multipleChoice.getId());
+    for (Alternative alternative : multipleChoice.getAlternatives()) {
+      AlternativeRecord record = new AlternativeRecord();
+      record.setAlternativeId(alternative.getId());
+      record.setAlternativeText(alternative.getAlternativeText());
+      record.setWasSelected(alternative.getId().equals(selected.getId()));
+      multipleChoiceAttempt.getAlternatives().add(record);
+    }
+    attempt.getQuestionAttempts().add(multipleChoiceAttempt);
+
+    mockMvc
+        .perform(
+            post("/api/attempts/add")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(attempt))
+                .secure(true))
+        .andExpect(status().isCreated());
+  }
+
+  private JsonNode getAnalytics(Long questionId) throws Exception {
+    String response =
+        mockMvc
+            .perform(get("/api/question/" + questionId + "/analytics").secure(true))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    return objectMapper.readTree(response);
+  }
+}
@@ -0,0 +1,194 @@
+package com.idatt2105.backend.controller;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.idatt2105.backend.dto.AlternativeDTO;
+import com.idatt2105.backend.dto.LiveAnswerDTO;
+import com.idatt2105.backend.model.Alternative;
+import com.idatt2105.backend.model.MultipleChoiceQuestion;
+import com.idatt2105.backend.model.Quiz;
+import com.idatt2105.backend.model.TrueOrFalseQuestion;
+import com.idatt2105.backend.model.User;
+import com.idatt2105.backend.repository.QuestionRepository;
+import com.idatt2105.backend.repository.QuizRepository;
+import com.idatt2105.backend.repository.UserRepository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests running a live session through its endpoints against the database: players join, listen for
+ * events, and answer the questions shown by the host, and their answers are stored as attempts when
+ * the session ends.
+ */
+@SpringBootTest(
+    properties =
+        // A database of its own, since the attempts it adds would take ids other contexts allocate
+        "spring.datasource.url=jdbc:h2:mem:livesessiontest;DB_CLOSE_DELAY=-1;MODE=MySQL")
+@AutoConfigureMockMvc(addFilters = false)
+class LiveSessionControllerTests {
+  @Autowired private MockMvc mockMvc;
+  @Autowired private ObjectMapper objectMapper;
+  @Autowired private QuizRepository quizRepository;
+  @Autowired private QuestionRepository questionRepository;
+  @Autowired private UserRepository userRepository;
+
+  /**
+   * This method tests a live session from start to end: answers are counted per question, a second
+   * answer and an answer from another than the host are rejected, every event is pushed to a player
+   * listening, and the attempts are stored with their scores.
+   */
+  @Test
+  void liveSessionIsPlayedAndStored() throws Exception {
+    User host = userRepository.save(new User("liveHost" + System.nanoTime(), "password"));
+    User first = userRepository.save(new User("liveFirst" + System.nanoTime(), "password"));
+    User second = userRepository.save(new User("liveSecond" + System.nanoTime(), "password"));
+    Quiz quiz = new Quiz();
+    quiz.setTitle("Live quiz");
+    quiz = quizRepository.save(quiz);
+    TrueOrFalseQuestion trueOrFalse = new TrueOrFalseQuestion();
+    trueOrFalse.setQuestionText("True or false");
+    trueOrFalse.setPoints(2);
+    trueOrFalse.setCorrectAnswer(true);
+    trueOrFalse.setQuiz(quiz);
+    questionRepository.save(trueOrFalse);
+    MultipleChoiceQuestion multipleChoice = new MultipleChoiceQuestion();
+    multipleChoice.setQuestionText("Multiple choice");
+    multipleChoice.setPoints(3);
+    multipleChoice.setQuiz(quiz);
+    for (int i = 0; i < 3; i++) {
+      AlternativeDTO alternative = new AlternativeDTO();
+      alternative.setAlternativeText("Alternative " + i);
+      alternative.setCorrect(i == 0);
+      multipleChoice.addAlternative(alternative);
+    }
+    multipleChoice = questionRepository.save(multipleChoice);
+    List<Alternative> alternatives =
+        multipleChoice.getAlternatives().stream()
+            .sorted((a, b) -> a.getAlternativeText().compareTo(b.getAlternativeText()))
+            .toList();
+
+    JsonNode session =
+        perform(
+            "/api/live?quizId=" + quiz.getId() + "&hostId=" + host.getId(), status().isCreated());
+    String code = session.get("code").asText();
+    assertEquals("LOBBY", session.get("state").asText());
+    assertEquals(2, session.get("questionCount").asInt());
+
+    perform("/api/live/" + code + "/players?userId=" + first.getId(), status().isOk());
+    JsonNode joined =
+        perform("/api/live/" + code + "/players?userId=" + second.getId(), status().isOk());
+    assertEquals(2, joined.get("playerCount").asInt());
+    perform("/api/live/" + code + "/players?userId=" + host.getId(), status().isBadRequest());
+    perform("/api/live/NOCODE/players?userId=" + first.getId(), status().isNotFound());
+    MvcResult events =
+        mockMvc
+            .perform(
+                get("/api/live/" + code + "/events")
+                    .param("userId", "" + first.getId())
+                    .secure(true))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    perform(
+        "/api/live/" + code + "/questions/next?hostId=" + first.getId(), status().isBadRequest());
+    JsonNode question =
+        perform("/api/live/" + code + "/questions/next?hostId=" + host.getId(), status().isOk());
+    assertEquals(0, question.get("index").asInt());
+    assertTrue(question.get("alternatives").isNull());
+    answer(code, first, 0, true, List.of(), status().isAccepted());
+    answer(code, first, 0, false, List.of(), status().isConflict());
+    answer(code, second, 0, false, List.of(), status().isAccepted());
+    answer(code, second, 1, false, List.of(), status().isConflict());
+    JsonNode results =
+        perform("/api/live/" + code + "/questions/close?hostId=" + host.getId(), status().isOk());
+    assertEquals(2, results.get("answerCount").asLong());
+    assertEquals(1, results.get("correctCount").asLong());
+    assertEquals(1, results.get("trueCount").asLong());
+
+    question =
+        perform("/api/live/" + code + "/questions/next?hostId=" + host.getId(), status().isOk());
+    assertEquals(3, question.get("alternatives").size());
+    assertNull(question.get("alternatives").get(0).get("isCorrect"));
+    answer(code, first, 1, null, List.of(alternatives.get(0).getId()), status().isAccepted());
+    answer(code, second, 1, null, List.of(alternatives.get(1).getId()), status().isAccepted());
+
+    JsonNode standings =
+        perform("/api/live/" + code + "/end?hostId=" + host.getId(), status().isOk());
+    assertEquals(2, standings.size());
+    assertEquals(first.getId(), standings.get(0).get("userId").asLong());
+    assertEquals(5, standings.get(0).get("score").asInt());
+    assertEquals(0, standings.get(1).get("score").asInt());
+    // Ended sessions are dropped
+    answer(code, second, 1, null, List.of(), status().isNotFound());
+
+    JsonNode attempt =
+        objectMapper.readTree(
+            mockMvc
+                .perform(
+                    get("/api/attempts/" + standings.get(0).get("attemptId").asLong()).secure(true))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString());
+    assertEquals(5, attempt.get("score").asInt());
+    assertEquals(5, attempt.get("maxScore").asInt());
+    assertEquals(quiz.getId(), attempt.get("quizId").asLong());
+
+    // Events are written to the stream in the background, until it is closed at the end
+    events.getAsyncResult(5000);
+    String stream = events.getResponse().getContentAsString();
+    for (String event : List.of("session", "question", "results", "ended")) {
+      assertTrue(stream.contains("event:" + event + "\n"), event);
+    }
+  }
+
+  private JsonNode perform(String url, ResultMatcher expectedStatus) throws Exception {
+    String response =
+        mockMvc
+            .perform(post(url).secure(true))
+            .andExpect(expectedStatus)
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    return response.isEmpty() ? null : objectMapper.readTree(response);
+  }
+
+  private void answer(
+      String code,
+      User user,
+      int questionIndex,
+      Boolean answer,
+      List<Long> alternativeIds,
+      ResultMatcher expectedStatus)
+      throws Exception {
+    LiveAnswerDTO liveAnswer = new LiveAnswerDTO();
+    liveAnswer.setUserId(user.getId());
+    liveAnswer.setQuestionIndex(questionIndex);
+    liveAnswer.setAnswer(answer);
+    liveAnswer.setAlternativeIds(alternativeIds);
+    mockMvc
+        .perform(
+            post("/api/live/" + code + "/answers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(liveAnswer))
+                .secure(true))
+        .andExpect(expectedStatus);
+  }
+}
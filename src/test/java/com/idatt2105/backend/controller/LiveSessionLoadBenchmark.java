@@ -0,0 +1,305 @@
+package com.idatt2105.backend.controller;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.web.SecurityFilterChain;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.idatt2105.backend.dto.AlternativeDTO;
+import com.idatt2105.backend.dto.LiveAnswerDTO;
+import com.idatt2105.backend.model.MultipleChoiceQuestion;
+import com.idatt2105.backend.model.Quiz;
+import com.idatt2105.backend.model.User;
+import com.idatt2105.backend.repository.QuestionRepository;
+import com.idatt2105.backend.repository.QuizRepository;
+import com.idatt2105.backend.repository.UserRepository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Load test of a live session over real connections: {@code -Dlive.players} players (2000 by
+ * default) join a session, listen for its events on one server-sent event stream each, and answer
+ * every question as soon as it is pushed to them, all at once. Reports how fast players join, how
+ * long it takes until every player has a question, how many answers are accepted per second, and
+ * how long storing the attempts takes. Not part of the test suite, run it with {@code mvn test
+ * -Dtest=LiveSessionLoadBenchmark -Dlive.players=5000}.
+ *
+ * <p>The client runs in the same process as the server, so the numbers are a lower bound of what a
+ * node sustains with clients elsewhere. The live session endpoints are opened without
+ * authentication for the test.
+ */
+@SpringBootTest(
+    webEnvironment = WebEnvironment.RANDOM_PORT,
+    properties = {
+      "spring.datasource.url=jdbc:h2:mem:liveload;DB_CLOSE_DELAY=-1;MODE=MySQL",
+      "server.tomcat.max-connections=20000",
+      "server.tomcat.accept-count=2000"
+    })
+class LiveSessionLoadBenchmark {
+  private static final int PLAYERS = Integer.getInteger("live.players", 2000);
+  private static final int QUESTIONS = 5;
+  private static final int ALTERNATIVES = 4;
+  private static final long TIMEOUT_SECONDS = 120;
+
+  @Autowired private ObjectMapper objectMapper;
+  @Autowired private QuizRepository quizRepository;
+  @Autowired private QuestionRepository questionRepository;
+  @Autowired private UserRepository userRepository;
+  @LocalServerPort private int port;
+
+  private HttpClient client;
+  private String code;
+  private Long hostId;
+  // The question every player answers when it is pushed, and when it was opened
+  private volatile int questionIndex;
+  private volatile long openedNanos;
+  private volatile CountDownLatch received;
+  private volatile CountDownLatch answered;
+  private final AtomicInteger failedAnswers = new AtomicInteger();
+
+  /** Lets the load test reach the live session endpoints without tokens. */
+  @TestConfiguration
+  static class OpenLiveSessions {
+    @Bean
+    @Order(0)
+    SecurityFilterChain liveSessionFilterChain(HttpSecurity http) throws Exception {
+      return http.securityMatcher("/api/live/**")
+          .csrf(AbstractHttpConfigurer::disable)
+          .authorizeHttpRequests(authorize -> authorize.anyRequest().permitAll())
+          .build();
+    }
+  }
+
+  @Test
+  void playLiveSessionWithManyPlayers() throws Exception {
+    hostId = userRepository.save(new User("liveLoadHost" + System.nanoTime(), "password")).getId();
+    List<User> users = new ArrayList<>(PLAYERS);
+    for (int i = 0; i < PLAYERS; i++) {
+      users.add(new User("liveLoad" + i + "-" + System.nanoTime(), "password"));
+    }
+    List<Long> userIds = userRepository.saveAll(users).stream().map(User::getId).toList();
+    Quiz quiz = new Quiz();
+    quiz.setTitle("Live load quiz");
+    quiz = quizRepository.save(quiz);
+    for (int i = 0; i < QUESTIONS; i++) {
+      MultipleChoiceQuestion question = new MultipleChoiceQuestion();
+      question.setQuestionText("Multiple choice " + i);
+      question.setPoints(1);
+      question.setQuiz(quiz);
+      for (int j = 0; j < ALTERNATIVES; j++) {
+        AlternativeDTO alternative = new AlternativeDTO();
+        alternative.setAlternativeText("Alternative " + j);
+        alternative.setCorrect(j == 0);
+        question.addAlternative(alternative);
+      }
+      questionRepository.save(question);
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(16);
+    client =
+        HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(executor)
+            .connectTimeout(Duration.ofSeconds(30))
+            .build();
+    try {
+      code = post("/api/live?quizId=" + quiz.getId() + "&hostId=" + hostId).get("code").asText();
+
+      long start = System.nanoTime();
+      List<CompletableFuture<HttpResponse<String>>> joins = new ArrayList<>(PLAYERS);
+      for (Long userId : userIds) {
+        joins.add(postAsync("/api/live/" + code + "/players?userId=" + userId, ""));
+      }
+      for (CompletableFuture<HttpResponse<String>> join : joins) {
+        assertEquals(200, join.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).statusCode());
+      }
+      long joinNanos = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      CountDownLatch subscribed = new CountDownLatch(PLAYERS);
+      CountDownLatch ended = new CountDownLatch(PLAYERS);
+      long[][] latencies = new long[QUESTIONS][PLAYERS];
+      for (int i = 0; i < PLAYERS; i++) {
+        Player player = new Player(i, userIds.get(i), subscribed, ended, latencies);
+        client.sendAsync(
+            HttpRequest.newBuilder(uri("/api/live/" + code + "/events?userId=" + userIds.get(i)))
+                .GET()
+                .build(),
+            HttpResponse.BodyHandlers.fromLineSubscriber(player));
+      }
+      assertTrue(subscribed.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), "players listening");
+      long subscribeNanos = System.nanoTime() - start;
+
+      System.out.printf(
+          "%d players joined in %d ms (%.0f/s), listening after %d ms%n",
+          PLAYERS, joinNanos / 1_000_000, PLAYERS * 1e9 / joinNanos, subscribeNanos / 1_000_000);
+      for (int q = 0; q < QUESTIONS; q++) {
+        questionIndex = q;
+        received = new CountDownLatch(PLAYERS);
+        answered = new CountDownLatch(PLAYERS);
+        openedNanos = System.nanoTime();
+        post("/api/live/" + code + "/questions/next?hostId=" + hostId);
+        assertTrue(received.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), "question pushed");
+        assertTrue(answered.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), "question answered");
+        long answerNanos = System.nanoTime() - openedNanos;
+        JsonNode results = post("/api/live/" + code + "/questions/close?hostId=" + hostId);
+        assertEquals(PLAYERS, results.get("answerCount").asLong());
+
+        long[] sorted = latencies[q].clone();
+        Arrays.sort(sorted);
+        System.out.printf(
+            "Question %d: pushed to every player in %d ms (p50 %d ms, p99 %d ms),"
+                + " %d answers in %d ms (%.0f/s)%n",
+            q,
+            sorted[PLAYERS - 1] / 1_000_000,
+            sorted[PLAYERS / 2] / 1_000_000,
+            sorted[(int) (PLAYERS * 0.99)] / 1_000_000,
+            PLAYERS,
+            answerNanos / 1_000_000,
+            PLAYERS * 1e9 / answerNanos);
+      }
+      assertEquals(0, failedAnswers.get());
+
+      start = System.nanoTime();
+      JsonNode standings = post("/api/live/" + code + "/end?hostId=" + hostId);
+      long endNanos = System.nanoTime() - start;
+      assertEquals(PLAYERS, standings.size());
+      assertTrue(ended.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), "standings pushed");
+      System.out.printf(
+          "Ended and stored %d attempts in %d ms%n", standings.size(), endNanos / 1_000_000);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * A player listening for the events of the session, who answers each question as it arrives. Four
+   * in five answers select the correct alternative.
+   */
+  private class Player implements Flow.Subscriber<String> {
+    private final int index;
+    private final Long userId;
+    private final CountDownLatch subscribed;
+    private final CountDownLatch ended;
+    private final long[][] latencies;
+    private final Random random;
+    private String event;
+
+    private Player(
+        int index,
+        Long userId,
+        CountDownLatch subscribed,
+        CountDownLatch ended,
+        long[][] latencies) {
+      this.index = index;
+      this.userId = userId;
+      this.subscribed = subscribed;
+      this.ended = ended;
+      this.latencies = latencies;
+      this.random = new Random(index);
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(String line) {
+      if (line.startsWith("event:")) {
+        event = line.substring("event:".length());
+      } else if (line.startsWith("data:")) {
+        onEvent(event, line.substring("data:".length()));
+      }
+    }
+
+    private void onEvent(String name, String data) {
+      switch (name) {
+        case "session" -> subscribed.countDown();
+        case "question" -> {
+          int question = questionIndex;
+          latencies[question][index] = System.nanoTime() - openedNanos;
+          received.countDown();
+          answer(question, data);
+        }
+        case "ended" -> ended.countDown();
+        default -> {}
+      }
+    }
+
+    private void answer(int question, String data) {
+      LiveAnswerDTO answer = new LiveAnswerDTO();
+      answer.setUserId(userId);
+      answer.setQuestionIndex(question);
+      try {
+        JsonNode alternatives = objectMapper.readTree(data).get("alternatives");
+        int selected = random.nextInt(5) < 4 ? 0 : 1 + random.nextInt(ALTERNATIVES - 1);
+        answer.setAlternativeIds(List.of(alternatives.get(selected).get("id").asLong()));
+        CountDownLatch answering = answered;
+        postAsync("/api/live/" + code + "/answers", objectMapper.writeValueAsString(answer))
+            .whenComplete(
+                (response, e) -> {
+                  if (e != null || response.statusCode() != 202) {
+                    failedAnswers.incrementAndGet();
+                  }
+                  answering.countDown();
+                });
+      } catch (Exception e) {
+        failedAnswers.incrementAndGet();
+        answered.countDown();
+      }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {}
+
+    @Override
+    public void onComplete() {}
+  }
+
+  private JsonNode post(String path) throws Exception {
+    HttpResponse<String> response = postAsync(path, "").get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    assertTrue(response.statusCode() < 300, path + " " + response.statusCode());
+    return objectMapper.readTree(response.body());
+  }
+
+  private CompletableFuture<HttpResponse<String>> postAsync(String path, String body) {
+    return client.sendAsync(
+        HttpRequest.newBuilder(uri(path))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build(),
+        HttpResponse.BodyHandlers.ofString());
+  }
+
+  private URI uri(String path) {
+    return URI.create("http://localhost:" + port + path);
+  }
+}
@@ -1,7 +1,9 @@
 package com.idatt2105.backend.controller;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
@@ -15,23 +17,29 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.idatt2105.backend.dto.AlternativeDTO;
+import com.idatt2105.backend.dto.QuestionAnalyticsDTO;
 import com.idatt2105.backend.dto.QuestionDTO;
+import com.idatt2105.backend.dto.QuizVersionDTO;
 import com.idatt2105.backend.enumerator.QuestionType;
 import com.idatt2105.backend.model.Alternative;
 import com.idatt2105.backend.model.MultipleChoiceQuestion;
 import com.idatt2105.backend.model.Question;
 import com.idatt2105.backend.model.TrueOrFalseQuestion;
+import com.idatt2105.backend.service.ItemAnalysisService;
 import com.idatt2105.backend.service.QuestionService;
 import com.idatt2105.backend.util.InvalidIdException;
 import com.idatt2105.backend.util.InvalidQuestionTypeException;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -41,6 +49,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 class QuestionControllerTests {
   @Autowired MockMvc mockMvc;
   @MockBean private QuestionService questionService;
+  @MockBean private ItemAnalysisService itemAnalysisService;
 
   /**
    * The BasicFunctionalityTests class is a test class that tests the basic functionality of the
@@ -74,6 +83,8 @@ class QuestionControllerTests {
       when(questionService.getQuestionById(1L)).thenReturn(question1);
       when(questionService.updateQuestion(any(QuestionDTO.class))).thenReturn(question1);
       when(questionService.getQuestionsByQuizId(1L)).thenReturn(questions);
+      when(questionService.getQuizVersion(1L))
+          .thenReturn(new QuizVersionDTO(1L, 5L, LocalDateTime.of(2024, 3, 1, 12, 0), false));
       when(questionService.addAlternative(any(AlternativeDTO.class))).thenReturn(alternative);
       when(questionService.updateTrueOrFalseQuestion(any(QuestionDTO.class))).thenReturn(question2);
       doNothing().when(questionService).deleteAlternative(1L);
@@ -114,6 +125,33 @@ class QuestionControllerTests {
           .andExpect(jsonPath("$.id").value(1));
     }
 
+    /**
+     * This method tests the behavior of the getQuestionAnalytics endpoint.
+     *
+     * <p>It verifies that the endpoint returns the stored analysis of a question, and an HTTP
+     * status code of 404 Not Found for a question that has not been analyzed.
+     *
+     * @throws Exception if the test fails
+     */
+    @Test
+    void getQuestionAnalyticsReturnsOkOrNotFound() throws Exception {
+      QuestionAnalyticsDTO analytics = new QuestionAnalyticsDTO();
+      analytics.setQuestionId(1L);
+      analytics.setDifficulty(0.75);
+      analytics.setAlternativeFrequencies(Map.of(3L, 0.25));
+      when(itemAnalysisService.getAnalytics(1L)).thenReturn(analytics);
+      when(itemAnalysisService.getAnalytics(2L)).thenThrow(new InvalidIdException("Not analyzed"));
+
+      mockMvc
+          .perform(get("/api/question/1/analytics").secure(true))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.difficulty").value(0.75))
+          .andExpect(jsonPath("$.alternativeFrequencies.3").value(0.25));
+      mockMvc
+          .perform(get("/api/question/2/analytics").secure(true))
+          .andExpect(status().isNotFound());
+    }
+
     /**
      * This method tests the behavior of the deleteQuestionById endpoint with a valid question ID.
      *
@@ -161,7 +199,29 @@ class QuestionControllerTests {
           .perform(get("/api/question/get/all/1").secure(true))
           .andExpect(status().isOk())
           .andExpect(jsonPath("$[0].id").value(1))
-          .andExpect(jsonPath("$[1].id").value(2));
+          .andExpect(jsonPath("$[1].id").value(2))
+          .andExpect(header().string("ETag", "\"questions-1-5\""))
+          .andExpect(header().string("Cache-Control", "no-cache, private"));
+    }
+
+    /**
+     * This method tests the behavior of the getQuestionsByQuizId endpoint when the client has not
+     * seen a change since the last modified date of the quiz.
+     *
+     * <p>It verifies that the endpoint returns an HTTP status code of 304 Not Modified without
+     * loading the questions.
+     *
+     * @throws Exception if the test fails
+     */
+    @Test
+    void getQuestionsByQuizIdNotModifiedSinceIsNotModified() throws Exception {
+      mockMvc
+          .perform(
+              get("/api/question/get/all/1")
+                  .header("If-Modified-Since", "Fri, 01 Mar 2030 12:00:00 GMT")
+                  .secure(true))
+          .andExpect(status().isNotModified());
+      verify(questionService, never()).getQuestionsByQuizId(1L);
     }
 
     /**
@@ -1,5 +1,8 @@
 package com.idatt2105.backend.controller;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -21,19 +24,37 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.idatt2105.backend.dto.CursorPageDTO;
+import com.idatt2105.backend.dto.LeaderboardEntryDTO;
 import com.idatt2105.backend.dto.QuizDTO;
+import com.idatt2105.backend.dto.QuizFilterDTO;
+import com.idatt2105.backend.dto.QuizStatisticsDTO;
+import com.idatt2105.backend.dto.QuizSummaryDTO;
+import com.idatt2105.backend.dto.QuizVersionDTO;
+import com.idatt2105.backend.dto.SuggestionDTO;
 import com.idatt2105.backend.dto.UserDTO;
+import com.idatt2105.backend.enumerator.SuggestionType;
 import com.idatt2105.backend.model.Category;
 import com.idatt2105.backend.model.Tag;
+import com.idatt2105.backend.service.QuizBundleCache;
+import com.idatt2105.backend.service.QuizLeaderboard;
 import com.idatt2105.backend.service.QuizService;
+import com.idatt2105.backend.service.QuizStatisticsService;
+import com.idatt2105.backend.util.InvalidIdException;
 
+import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -44,6 +65,9 @@ public class QuizControllerTests {
   @Autowired MockMvc mockMvc;
 
   @MockBean private QuizService quizService;
+  @MockBean private QuizBundleCache quizBundleCache;
+  @MockBean private QuizStatisticsService quizStatisticsService;
+  @MockBean private QuizLeaderboard quizLeaderboard;
 
   /**
    * The BasicFunctionalityTests class is a test class that tests the basic functionality of the
@@ -52,6 +76,7 @@ public class QuizControllerTests {
   @Nested
   class BasicFunctionalityTests {
     QuizDTO quizDTO;
+    QuizSummaryDTO summaryDTO;
     UserDTO userDTO;
     Set<UserDTO> users;
     Set<Tag> tags;
@@ -79,13 +104,19 @@ public class QuizControllerTests {
 
       when(quizService.save(any(QuizDTO.class))).thenReturn(quizDTO);
       when(quizService.getQuizById(1L)).thenReturn(quizDTO);
+      when(quizService.getQuizVersion(1L))
+          .thenReturn(new QuizVersionDTO(1L, 3L, LocalDateTime.of(2024, 3, 1, 12, 0), true));
       when(quizService.getUsersByQuizId(1L)).thenReturn(users);
       when(quizService.addTags(any(QuizDTO.class))).thenReturn(quizDTO);
       when(quizService.deleteTags(any(QuizDTO.class))).thenReturn(quizDTO);
 
-      List<QuizDTO> quizzes = new ArrayList<>();
-      quizzes.add(quizDTO);
-      Page<QuizDTO> quizPage = new PageImpl<>(quizzes);
+      summaryDTO = new QuizSummaryDTO();
+      summaryDTO.setId(1L);
+      summaryDTO.setTitle("Quiz Title");
+
+      List<QuizSummaryDTO> quizzes = new ArrayList<>();
+      quizzes.add(summaryDTO);
+      Page<QuizSummaryDTO> quizPage = new PageImpl<>(quizzes);
       when(quizService.getAllQuizzes(any())).thenReturn(quizPage);
     }
 
@@ -102,6 +133,148 @@ public class QuizControllerTests {
       mockMvc.perform(get("/api/quizzes").secure(true)).andExpect(status().isOk());
     }
 
+    /**
+     * This method tests the behavior of the getPublicQuizzesByCursor endpoint.
+     *
+     * <p>It verifies that the endpoint returns an HTTP status code of 200 OK together with the
+     * slice and the cursor for the next slice.
+     *
+     * @throws Exception if the test fails
+     */
+    @Test
+    void getPublicQuizzesByCursorReturnsOkAndSlice() throws Exception {
+      when(quizService.getPublicQuizzesByCursor("abc", 1))
+          .thenReturn(new CursorPageDTO<>(List.of(summaryDTO), "def", true));
+
+      mockMvc
+          .perform(
+              get("/api/quizzes/scroll").param("cursor", "abc").param("size", "1").secure(true))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.content[0].id").value(1))
+          .andExpect(jsonPath("$.nextCursor").value("def"))
+          .andExpect(jsonPath("$.hasNext").value(true));
+    }
+
+    /**
+     * This method tests the behavior of the getPublicQuizzesByCursor endpoint with a malformed
+     * cursor.
+     *
+     * <p>It verifies that the endpoint returns an HTTP status code of 400 Bad Request.
+     *
+     * @throws Exception if the test fails
+     */
+    @Test
+    void getPublicQuizzesByCursorWithMalformedCursorIsBadRequest() throws Exception {
+      when(quizService.getPublicQuizzesByCursor(eq("bad"), anyInt()))
+          .thenThrow(new IllegalArgumentException("Malformed cursor"));
+
+      mockMvc
+          .perform(get("/api/quizzes/scroll").param("cursor", "bad").secure(true))
+          .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * This method tests the behavior of the getTrendingQuizzes endpoint.
+     *
+     * <p>It verifies that the endpoint returns an HTTP status code of 200 OK together with the
+     * trending quizzes.
+     *
+     * @throws Exception if the test fails
+     */
+    @Test
+    void getTrendingQuizzesReturnsOkAndQuizzes() throws Exception {
+      when(quizService.getTrendingQuizzes(5)).thenReturn(List.of(summaryDTO));
+
+      mockMvc
+          .perform(get("/api/quizzes/trending").param("limit", "5").secure(true))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$[0].id").value(1));
+    }
+
+    /**
+     * This method tests the behavior of the getTrendingQuizzes endpoint with a limit that is too
+     * large.
+     *
+     * <p>It verifies that the endpoint returns an HTTP status code of 400 Bad Request.
+     *
+     * @throws Exception if the test fails
+     */
+    @Test
+    void getTrendingQuizzesWithInvalidLimitIsBadRequest() throws Exception {
+      when(quizService.getTrendingQuizzes(500))
+          .thenThrow(new IllegalArgumentException("Limit out of range"));
+
+      mockMvc
+          .perform(get("/api/quizzes/trending").param("limit", "500").secure(true))
+          .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * This method tests the behavior of the getQuizStatistics and rebuildQuizStatistics endpoints.
+     *
+     * <p>It verifies that the statistics are returned with an HTTP status code of 200 OK, and that
+     * a quiz that does not exist gives 404 Not Found.
+     *
+     * @throws Exception if the test fails
+     */
+    @Test
+    void getQuizStatisticsReturnsOkAndStatistics() throws Exception {
+      QuizStatisticsDTO statistics = new QuizStatisticsDTO();
+      statistics.setQuizId(1L);
+      statistics.setAttemptCount(4);
+      statistics.setMean(62.5);
+      when(quizStatisticsService.getStatistics(1L)).thenReturn(statistics);
+      when(quizStatisticsService.rebuild(1L)).thenReturn(statistics);
+      when(quizStatisticsService.getStatistics(2L))
+          .thenThrow(new InvalidIdException("Quiz with id 2 not found"));
+
+      mockMvc
+          .perform(get("/api/quizzes/1/stats").secure(true))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.attemptCount").value(4))
+          .andExpect(jsonPath("$.mean").value(62.5));
+      mockMvc
+          .perform(post("/api/quizzes/1/stats/rebuild").secure(true))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.attemptCount").value(4));
+      mockMvc.perform(get("/api/quizzes/2/stats").secure(true)).andExpect(status().isNotFound());
+    }
+
+    /**
+     * This method tests the behavior of the getLeaderboard and getLeaderboardRank endpoints.
+     *
+     * <p>It verifies that the leaderboard and the rank of a user are returned with an HTTP status
+     * code of 200 OK, that a limit out of range gives 400 Bad Request, and that a user without
+     * attempts gives 404 Not Found.
+     *
+     * @throws Exception if the test fails
+     */
+    @Test
+    void getLeaderboardReturnsOkAndRanks() throws Exception {
+      LeaderboardEntryDTO first = new LeaderboardEntryDTO(1, 2L, "Best", 7L, 10, null);
+      when(quizLeaderboard.top(1L, 3)).thenReturn(List.of(first));
+      when(quizLeaderboard.top(1L, 500)).thenThrow(new IllegalArgumentException("Limit"));
+      when(quizLeaderboard.rankOf(1L, 2L)).thenReturn(first);
+      when(quizLeaderboard.rankOf(1L, 3L))
+          .thenThrow(new InvalidIdException("User with id 3 has not attempted quiz with id 1"));
+
+      mockMvc
+          .perform(get("/api/quizzes/1/leaderboard").param("top", "3").secure(true))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$[0].rank").value(1))
+          .andExpect(jsonPath("$[0].username").value("Best"));
+      mockMvc
+          .perform(get("/api/quizzes/1/leaderboard").param("top", "500").secure(true))
+          .andExpect(status().isBadRequest());
+      mockMvc
+          .perform(get("/api/quizzes/1/leaderboard/2").secure(true))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.attemptId").value(7));
+      mockMvc
+          .perform(get("/api/quizzes/1/leaderboard/3").secure(true))
+          .andExpect(status().isNotFound());
+    }
+
     /**
      * This method tests the behavior of the getQuizById endpoint with a valid quiz ID.
      *
@@ -112,7 +285,100 @@ public class QuizControllerTests {
      */
     @Test
     void getQuizByIdReturnsOkAndQuiz() throws Exception {
-      mockMvc.perform(get("/api/quizzes/1").secure(true)).andExpect(status().isOk());
+      mockMvc
+          .perform(get("/api/quizzes/1").secure(true))
+          .andExpect(status().isOk())
+          .andExpect(header().stringValues("ETag", "\"quiz-1-3\""))
+          .andExpect(header().exists("Last-Modified"))
+          .andExpect(header().string("Cache-Control", "no-cache, public"));
+    }
+
+    /**
+     * This method tests the behavior of the getQuizBundle endpoint.
+     *
+     * <p>It verifies that the endpoint returns an HTTP status code of 200 OK together with the
+     * serialized bundle as it is stored in the cache, and an ETag for the bundle.
+     *
+     * @throws Exception if the test fails
+     */
+    @Test
+    void getQuizBundleReturnsOkAndBundle() throws Exception {
+      byte[] json =
+          "{\"quiz\":{\"id\":1},\"questions\":[{\"id\":7}]}".getBytes(StandardCharsets.UTF_8);
+      when(quizBundleCache.getBundle(any(), eq(false))).thenReturn(ByteBuffer.wrap(json));
+
+      mockMvc
+          .perform(get("/api/quizzes/1/bundle").secure(true))
+          .andExpect(status().isOk())
+          .andExpect(header().string("Content-Type", "application/json"))
+          .andExpect(header().doesNotExist("Content-Encoding"))
+          .andExpect(header().stringValues("Vary", hasItem("Accept-Encoding")))
+          .andExpect(jsonPath("$.quiz.id").value(1))
+          .andExpect(jsonPath("$.questions[0].id").value(7))
+          .andExpect(header().string("ETag", "\"bundle-1-3\""));
+    }
+
+    /**
+     * This method tests the behavior of the getQuizBundle endpoint when the client accepts gzip.
+     *
+     * <p>It verifies that the gzipped bundle is returned with a Content-Encoding header and an ETag
+     * of its own.
+     *
+     * @throws Exception if the test fails
+     */
+    @Test
+    void getQuizBundleReturnsGzippedBundleWhenAccepted() throws Exception {
+      byte[] gzipped = {31, -117, 8, 0};
+      when(quizBundleCache.isGzipEnabled()).thenReturn(true);
+      when(quizBundleCache.getBundle(any(), eq(true))).thenReturn(ByteBuffer.wrap(gzipped));
+
+      mockMvc
+          .perform(
+              get("/api/quizzes/1/bundle").header("Accept-Encoding", "br, gzip;q=0.8").secure(true))
+          .andExpect(status().isOk())
+          .andExpect(header().string("Content-Encoding", "gzip"))
+          .andExpect(header().string("ETag", "\"bundle-gzip-1-3\""))
+          .andExpect(content().bytes(gzipped));
+
+      mockMvc
+          .perform(get("/api/quizzes/1/bundle").header("Accept-Encoding", "gzip;q=0").secure(true))
+          .andExpect(status().isOk())
+          .andExpect(header().doesNotExist("Content-Encoding"));
+      verify(quizBundleCache).getBundle(any(), eq(false));
+    }
+
+    /**
+     * This method tests the behavior of the getQuizById endpoint when the client already has the
+     * current version of the quiz.
+     *
+     * <p>It verifies that the endpoint returns an HTTP status code of 304 Not Modified without
+     * loading the quiz.
+     *
+     * @throws Exception if the test fails
+     */
+    @Test
+    void getQuizByIdWithCurrentETagIsNotModified() throws Exception {
+      mockMvc
+          .perform(get("/api/quizzes/1").header("If-None-Match", "\"quiz-1-3\"").secure(true))
+          .andExpect(status().isNotModified())
+          .andExpect(header().string("ETag", "\"quiz-1-3\""));
+      verify(quizService, never()).getQuizById(1L);
+    }
+
+    /**
+     * This method tests the behavior of the getQuizById endpoint when the client has an older
+     * version of the quiz.
+     *
+     * <p>It verifies that the endpoint returns an HTTP status code of 200 OK with the quiz.
+     *
+     * @throws Exception if the test fails
+     */
+    @Test
+    void getQuizByIdWithOutdatedETagReturnsQuiz() throws Exception {
+      mockMvc
+          .perform(get("/api/quizzes/1").header("If-None-Match", "\"quiz-1-2\"").secure(true))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.id").value(1));
     }
 
     /**
@@ -243,12 +509,14 @@ public class QuizControllerTests {
       // Mocking
       QuizService quizService = mock(QuizService.class);
       Pageable pageable = mock(Pageable.class);
-      Page<QuizDTO> page = new PageImpl<>(new ArrayList<>());
+      Page<QuizSummaryDTO> page = new PageImpl<>(new ArrayList<>());
       when(quizService.getQuizzesByTag(anyString(), eq(pageable))).thenReturn(page);
 
       // Testing
-      QuizController quizController = new QuizController(quizService);
-      ResponseEntity<Page<QuizDTO>> response = quizController.getQuizzesByTag("tag", pageable);
+      QuizController quizController =
+          new QuizController(quizService, quizBundleCache, quizStatisticsService, quizLeaderboard);
+      ResponseEntity<Page<QuizSummaryDTO>> response =
+          quizController.getQuizzesByTag("tag", pageable);
 
       // Verification
       assert (response.getStatusCode()).equals(HttpStatus.OK);
@@ -265,12 +533,13 @@ public class QuizControllerTests {
       // Mocking
       QuizService quizService = mock(QuizService.class);
       Pageable pageable = mock(Pageable.class);
-      Page<QuizDTO> page = new PageImpl<>(new ArrayList<>());
+      Page<QuizSummaryDTO> page = new PageImpl<>(new ArrayList<>());
       when(quizService.getQuizzesByCategory(anyString(), eq(pageable))).thenReturn(page);
 
       // Testing
-      QuizController quizController = new QuizController(quizService);
-      ResponseEntity<Page<QuizDTO>> response =
+      QuizController quizController =
+          new QuizController(quizService, quizBundleCache, quizStatisticsService, quizLeaderboard);
+      ResponseEntity<Page<QuizSummaryDTO>> response =
           quizController.getQuizzesByCategory("category", pageable);
 
       // Verification
@@ -291,7 +560,8 @@ public class QuizControllerTests {
       when(quizService.updateTags(anyLong(), any())).thenReturn(quizDTO);
 
       // Testing
-      QuizController quizController = new QuizController(quizService);
+      QuizController quizController =
+          new QuizController(quizService, quizBundleCache, quizStatisticsService, quizLeaderboard);
       ResponseEntity<QuizDTO> response = quizController.updateTags(1L, new ArrayList<>());
 
       // Verification
@@ -312,7 +582,8 @@ public class QuizControllerTests {
       when(quizService.getAllTags()).thenReturn(tags);
 
       // Testing
-      QuizController quizController = new QuizController(quizService);
+      QuizController quizController =
+          new QuizController(quizService, quizBundleCache, quizStatisticsService, quizLeaderboard);
       ResponseEntity<List<Tag>> response = quizController.getAllTags();
 
       // Verification
@@ -333,7 +604,8 @@ public class QuizControllerTests {
       when(quizService.getAllCategories()).thenReturn(categories);
 
       // Testing
-      QuizController quizController = new QuizController(quizService);
+      QuizController quizController =
+          new QuizController(quizService, quizBundleCache, quizStatisticsService, quizLeaderboard);
       ResponseEntity<List<Category>> response = quizController.getAllCategories();
 
       // Verification
@@ -351,12 +623,13 @@ public class QuizControllerTests {
       // Mocking
       QuizService quizService = mock(QuizService.class);
       Pageable pageable = mock(Pageable.class);
-      Page<QuizDTO> page = new PageImpl<>(new ArrayList<>());
+      Page<QuizSummaryDTO> page = new PageImpl<>(new ArrayList<>());
       when(quizService.getAllPublicQuizzes(eq(pageable))).thenReturn(page);
 
       // Testing
-      QuizController quizController = new QuizController(quizService);
-      ResponseEntity<Page<QuizDTO>> response = quizController.getAllPublicQuizzes(pageable);
+      QuizController quizController =
+          new QuizController(quizService, quizBundleCache, quizStatisticsService, quizLeaderboard);
+      ResponseEntity<Page<QuizSummaryDTO>> response = quizController.getAllPublicQuizzes(pageable);
 
       // Verification
       assert (response.getStatusCode()).equals(HttpStatus.OK);
@@ -376,7 +649,8 @@ public class QuizControllerTests {
       when(quizService.createCategory(any())).thenReturn(category);
 
       // Testing
-      QuizController quizController = new QuizController(quizService);
+      QuizController quizController =
+          new QuizController(quizService, quizBundleCache, quizStatisticsService, quizLeaderboard);
       ResponseEntity<Category> response = quizController.createCategory(category);
 
       // Verification
@@ -394,17 +668,115 @@ public class QuizControllerTests {
       // Mocking
       QuizService quizService = mock(QuizService.class);
       Pageable pageable = mock(Pageable.class);
-      Page<QuizDTO> page = new PageImpl<>(new ArrayList<>());
+      Page<QuizSummaryDTO> page = new PageImpl<>(new ArrayList<>());
       when(quizService.getQuizzesByTags(any(), eq(pageable))).thenReturn(page);
 
       // Testing
-      QuizController quizController = new QuizController(quizService);
-      ResponseEntity<Page<QuizDTO>> response =
+      QuizController quizController =
+          new QuizController(quizService, quizBundleCache, quizStatisticsService, quizLeaderboard);
+      ResponseEntity<Page<QuizSummaryDTO>> response =
           quizController.filterQuizzesByTags(new ArrayList<>(), pageable);
 
       // Verification
       assert (response.getStatusCode()).equals(HttpStatus.OK);
     }
+
+    /**
+     * This method tests the searchQuizzes endpoint. It verifies that the endpoint returns an HTTP
+     * status code of 200 OK and the quizzes found by the service.
+     *
+     * @throws Exception if an error occurs while performing the request
+     */
+    @Test
+    void testSearchQuizzes() throws Exception {
+      when(quizService.searchQuizzes(eq("quiz title"), any(Pageable.class)))
+          .thenReturn(new PageImpl<>(List.of(summaryDTO)));
+
+      mockMvc
+          .perform(get("/api/quizzes/search").param("q", "quiz title").secure(true))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.content[0].title").value("Quiz Title"));
+    }
+
+    /**
+     * This method tests the searchQuizzes endpoint with a blank query. It verifies that the
+     * endpoint returns an HTTP status code of 400 Bad Request.
+     *
+     * @throws Exception if an error occurs while performing the request
+     */
+    @Test
+    void testSearchQuizzesWithBlankQuery() throws Exception {
+      mockMvc
+          .perform(get("/api/quizzes/search").param("q", " ").secure(true))
+          .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * This method tests the autocomplete endpoint. It verifies that the endpoint returns an HTTP
+     * status code of 200 OK and the suggestions found by the service.
+     *
+     * @throws Exception if an error occurs while performing the request
+     */
+    @Test
+    void testAutocomplete() throws Exception {
+      when(quizService.autocomplete("qu", 5))
+          .thenReturn(List.of(new SuggestionDTO("Quiz Title", SuggestionType.QUIZ, 1)));
+
+      mockMvc
+          .perform(
+              get("/api/quizzes/autocomplete")
+                  .param("prefix", "qu")
+                  .param("limit", "5")
+                  .secure(true))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$[0].text").value("Quiz Title"))
+          .andExpect(jsonPath("$[0].type").value("QUIZ"));
+    }
+
+    /**
+     * This method tests the autocomplete endpoint with a limit that is out of range. It verifies
+     * that the endpoint returns an HTTP status code of 400 Bad Request.
+     *
+     * @throws Exception if an error occurs while performing the request
+     */
+    @Test
+    void testAutocompleteWithInvalidLimit() throws Exception {
+      when(quizService.autocomplete("qu", 0)).thenThrow(IllegalArgumentException.class);
+
+      mockMvc
+          .perform(
+              get("/api/quizzes/autocomplete")
+                  .param("prefix", "qu")
+                  .param("limit", "0")
+                  .secure(true))
+          .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * This method tests the filterQuizzes endpoint with a combined tag and category filter.
+     *
+     * <p>It verifies that the endpoint returns an HTTP status code of 200 OK and the quizzes found
+     * by the service.
+     *
+     * @throws Exception if an error occurs while performing the request
+     */
+    @Test
+    void testFilterQuizzes() throws Exception {
+      QuizFilterDTO filter = new QuizFilterDTO();
+      filter.setAllTags(Set.of("TestTag"));
+      filter.setCategory("Category");
+      when(quizService.filterQuizzes(eq(filter), any(Pageable.class)))
+          .thenReturn(new PageImpl<>(List.of(summaryDTO)));
+
+      mockMvc
+          .perform(
+              post("/api/quizzes/filter")
+                  .secure(true)
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(asJsonString(filter)))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.content[0].id").value(1L));
+    }
   }
 
   /**
@@ -0,0 +1,221 @@
+package com.idatt2105.backend.controller;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.idatt2105.backend.dto.AlternativeDTO;
+import com.idatt2105.backend.model.AlternativeRecord;
+import com.idatt2105.backend.model.MultipleChoiceQuestion;
+import com.idatt2105.backend.model.MultipleChoiceQuestionAttempt;
+import com.idatt2105.backend.model.Quiz;
+import com.idatt2105.backend.model.QuizAttempt;
+import com.idatt2105.backend.model.TrueOrFalseQuestion;
+import com.idatt2105.backend.model.TrueOrFalseQuestionAttempt;
+import com.idatt2105.backend.model.User;
+import com.idatt2105.backend.repository.QuestionRepository;
+import com.idatt2105.backend.repository.QuizAttemptRepository;
+import com.idatt2105.backend.repository.QuizRepository;
+import com.idatt2105.backend.repository.UserRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the SQL statements issued by the quiz, question and attempt read endpoints. The counts
+ * must not grow with the number of questions, alternatives or question attempts.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc(addFilters = false)
+class ReadPathStatementCountTests {
+  private static final int QUESTIONS = 6;
+  private static final int ALTERNATIVES = 4;
+
+  @Autowired private MockMvc mockMvc;
+  @Autowired private EntityManagerFactory entityManagerFactory;
+  @Autowired private QuizRepository quizRepository;
+  @Autowired private QuestionRepository questionRepository;
+  @Autowired private QuizAttemptRepository quizAttemptRepository;
+  @Autowired private UserRepository userRepository;
+
+  private Statistics statistics;
+  private User user;
+  private Quiz quiz;
+  private QuizAttempt attempt;
+
+  @BeforeEach
+  void setUp() {
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    user = userRepository.save(new User("statementCounter" + System.nanoTime(), "password"));
+
+    quiz = new Quiz();
+    quiz.setTitle("Statement count quiz");
+    quiz.setPublic(true);
+    quiz.setAuthorId(user.getId());
+    quiz = quizRepository.save(quiz);
+    user.getQuizzes().add(quiz);
+    userRepository.save(user);
+
+    attempt = new QuizAttempt();
+    attempt.setTitle(quiz.getTitle());
+    attempt.setQuizId(quiz.getId());
+    attempt.setUser(user);
+    for (int i = 0; i < QUESTIONS; i++) {
+      MultipleChoiceQuestion question = new MultipleChoiceQuestion();
+      question.setQuestionText("Multiple choice " + i);
+      question.setQuiz(quiz);
+      MultipleChoiceQuestionAttempt questionAttempt = new MultipleChoiceQuestionAttempt();
+      questionAttempt.setQuestionText(question.getQuestionText());
+      questionAttempt.setQuizAttempt(attempt);
+      for (int j = 0; j < ALTERNATIVES; j++) {
+        AlternativeDTO alternative = new AlternativeDTO();
+        alternative.setAlternativeText("Alternative " + j);
+        alternative.setCorrect(j == 0);
+        question.addAlternative(alternative);
+
+        AlternativeRecord record = new AlternativeRecord();
+        record.setAlternativeText(alternative.getAlternativeText());
+        record.setWasCorrect(j == 0);
+        record.setWasSelected(j == 1);
+        questionAttempt.addAlternative(record);
+      }
+      questionRepository.save(question);
+      attempt.getQuestionAttempts().add(questionAttempt);
+
+      TrueOrFalseQuestion trueOrFalse = new TrueOrFalseQuestion();
+      trueOrFalse.setQuestionText("True or false " + i);
+      trueOrFalse.setQuiz(quiz);
+      questionRepository.save(trueOrFalse);
+      TrueOrFalseQuestionAttempt trueOrFalseAttempt = new TrueOrFalseQuestionAttempt();
+      trueOrFalseAttempt.setQuestionText(trueOrFalse.getQuestionText());
+      trueOrFalseAttempt.setUserAnswer(true);
+      trueOrFalseAttempt.setCorrectAnswer(false);
+      trueOrFalseAttempt.setQuizAttempt(attempt);
+      attempt.getQuestionAttempts().add(trueOrFalseAttempt);
+    }
+    attempt = quizAttemptRepository.save(attempt);
+  }
+
+  /**
+   * This method tests that reading a quiz reads its version, and then loads it together with its
+   * category, tags and users in a single statement.
+   */
+  @Test
+  void getQuizByIdIssuesTwoStatements() throws Exception {
+    statistics.clear();
+    mockMvc
+        .perform(get("/api/quizzes/" + quiz.getId()).secure(true))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.userDTOs.length()").value(1));
+    assertEquals(2, statistics.getPrepareStatementCount());
+  }
+
+  /**
+   * This method tests that reading the questions of a quiz reads the version of the quiz, and then
+   * loads the alternatives of all multiple choice questions in one batch instead of one statement
+   * per question.
+   */
+  @Test
+  void getQuestionsByQuizIdIssuesThreeStatements() throws Exception {
+    statistics.clear();
+    mockMvc
+        .perform(get("/api/question/get/all/" + quiz.getId()).secure(true))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(2 * QUESTIONS));
+    assertEquals(3, statistics.getPrepareStatementCount());
+  }
+
+  /**
+   * This method tests that reading the bundle of a quiz reads its version, and then the quiz, its
+   * questions and all their alternatives in one statement each. Once the bundle is cached, only the
+   * version is read.
+   */
+  @Test
+  void getQuizBundleIssuesFourStatementsThenOne() throws Exception {
+    for (int expected : new int[] {4, 1}) {
+      statistics.clear();
+      mockMvc
+          .perform(get("/api/quizzes/" + quiz.getId() + "/bundle").secure(true))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.quiz.userDTOs.length()").value(1))
+          .andExpect(jsonPath("$.questions.length()").value(2 * QUESTIONS))
+          .andExpect(jsonPath("$.questions[0].alternatives.length()").value(ALTERNATIVES));
+      assertEquals(expected, statistics.getPrepareStatementCount());
+    }
+  }
+
+  /**
+   * This method tests that a conditional read of a quiz or its questions that the client already
+   * has is answered from the version of the quiz alone.
+   */
+  @Test
+  void notModifiedReadsIssueOneStatement() throws Exception {
+    for (String path : new String[] {"/api/quizzes/", "/api/question/get/all/"}) {
+      String eTag =
+          mockMvc
+              .perform(get(path + quiz.getId()).secure(true))
+              .andReturn()
+              .getResponse()
+              .getHeader("ETag");
+
+      statistics.clear();
+      mockMvc
+          .perform(get(path + quiz.getId()).header("If-None-Match", eTag).secure(true))
+          .andExpect(status().isNotModified());
+      assertEquals(1, statistics.getPrepareStatementCount());
+    }
+  }
+
+  /**
+   * This method tests that reading an attempt loads its question attempts with it, and the
+   * alternatives of all multiple choice attempts in one batch.
+   */
+  @Test
+  void getAttemptByIdIssuesTwoStatements() throws Exception {
+    statistics.clear();
+    mockMvc
+        .perform(get("/api/attempts/" + attempt.getId()).secure(true))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.questionAttempts.length()").value(2 * QUESTIONS));
+    assertEquals(2, statistics.getPrepareStatementCount());
+  }
+
+  /**
+   * This method tests that listing the attempts of a user checks the user, and then selects the
+   * summaries of the page and counts the attempts in one statement each, whichever attempts are on
+   * the page and however many questions they have.
+   */
+  @Test
+  void getAllAttemptsForUserIssuesThreeStatementsPerPage() throws Exception {
+    for (int i = 0; i < 2; i++) {
+      QuizAttempt counted = new QuizAttempt();
+      counted.setTitle(quiz.getTitle());
+      counted.setQuizId(quiz.getId());
+      counted.setUser(user);
+      counted.setQuestionCount(2 * QUESTIONS);
+      quizAttemptRepository.save(counted);
+    }
+
+    for (int page = 0; page < 3; page++) {
+      statistics.clear();
+      mockMvc
+          .perform(
+              get("/api/attempts/all/" + user.getId() + "?size=1&page=" + page + "&sort=id")
+                  .secure(true))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.totalElements").value(3))
+          .andExpect(jsonPath("$.content[0].questionCount").value(2 * QUESTIONS))
+          .andExpect(jsonPath("$.content[0].questionAttempts").doesNotExist());
+      assertEquals(3, statistics.getPrepareStatementCount());
+    }
+  }
+}
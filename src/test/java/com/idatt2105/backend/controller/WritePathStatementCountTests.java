@@ -0,0 +1,178 @@
+package com.idatt2105.backend.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.idatt2105.backend.dto.AlternativeDTO;
+import com.idatt2105.backend.dto.QuestionAttemptDTO;
+import com.idatt2105.backend.dto.QuizAttemptDTO;
+import com.idatt2105.backend.enumerator.QuestionType;
+import com.idatt2105.backend.model.Alternative;
+import com.idatt2105.backend.model.AlternativeRecord;
+import com.idatt2105.backend.model.MultipleChoiceQuestion;
+import com.idatt2105.backend.model.Quiz;
+import com.idatt2105.backend.model.TrueOrFalseQuestion;
+import com.idatt2105.backend.model.User;
+import com.idatt2105.backend.repository.QuestionRepository;
+import com.idatt2105.backend.repository.QuizAttemptRepository;
+import com.idatt2105.backend.repository.QuizRepository;
+import com.idatt2105.backend.repository.UserRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the SQL statements issued when attempts are added. The rows of an attempt must be inserted
+ * in JDBC batches, not one statement per row.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+class WritePathStatementCountTests {
+  private static final int QUESTIONS = 3;
+  private static final int ALTERNATIVES = 4;
+  private static final int ATTEMPTS = 20;
+
+  // One attempt, one question attempt per question and one record per alternative
+  private static final int ENTITIES_PER_ATTEMPT = 1 + 2 * QUESTIONS + QUESTIONS * ALTERNATIVES;
+  // Question attempts are also inserted into the table of their subclass
+  private static final int ROWS_PER_ATTEMPT = ENTITIES_PER_ATTEMPT + 2 * QUESTIONS;
+
+  @Autowired private MockMvc mockMvc;
+  @Autowired private ObjectMapper objectMapper;
+  @Autowired private EntityManagerFactory entityManagerFactory;
+  @Autowired private QuizRepository quizRepository;
+  @Autowired private QuestionRepository questionRepository;
+  @Autowired private QuizAttemptRepository quizAttemptRepository;
+  @Autowired private UserRepository userRepository;
+
+  private Statistics statistics;
+  private QuizAttemptDTO attempt;
+
+  @BeforeEach
+  void setUp() {
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    User user = userRepository.save(new User("batchWriter" + System.nanoTime(), "password"));
+
+    Quiz quiz = new Quiz();
+    quiz.setTitle("Batch insert quiz");
+    quiz = quizRepository.save(quiz);
+
+    // Every question is worth one point, and every attempt answers all of them correctly
+    attempt = new QuizAttemptDTO();
+    attempt.setTitle(quiz.getTitle());
+    attempt.setQuizId(quiz.getId());
+    attempt.setUserId(user.getId());
+    for (int i = 0; i < QUESTIONS; i++) {
+      MultipleChoiceQuestion question = new MultipleChoiceQuestion();
+      question.setQuestionText("Multiple choice " + i);
+      question.setPoints(1);
+      question.setQuiz(quiz);
+      for (int j = 0; j < ALTERNATIVES; j++) {
+        AlternativeDTO alternative = new AlternativeDTO();
+        alternative.setAlternativeText("Alternative " + j);
+        alternative.setCorrect(j == 0);
+        question.addAlternative(alternative);
+      }
+      question = questionRepository.save(question);
+      QuestionAttemptDTO questionAttempt = new QuestionAttemptDTO();
+      questionAttempt.setType(QuestionType.MULTIPLE_CHOICE);
+      questionAttempt.setQuestionId(question.getId());
+      questionAttempt.setQuestionText(question.getQuestionText());
+      for (Alternative alternative : question.getAlternatives()) {
+        AlternativeRecord record = new AlternativeRecord();
+        record.setAlternativeId(alternative.getId());
+        record.setAlternativeText(alternative.getAlternativeText());
+        record.setWasSelected(alternative.isCorrect());
+        questionAttempt.getAlternatives().add(record);
+      }
+      attempt.getQuestionAttempts().add(questionAttempt);
+
+      TrueOrFalseQuestion trueOrFalse = new TrueOrFalseQuestion();
+      trueOrFalse.setQuestionText("True or false " + i);
+      trueOrFalse.setPoints(1);
+      trueOrFalse.setCorrectAnswer(true);
+      trueOrFalse.setQuiz(quiz);
+      trueOrFalse = questionRepository.save(trueOrFalse);
+      QuestionAttemptDTO trueOrFalseAttempt = new QuestionAttemptDTO();
+      trueOrFalseAttempt.setType(QuestionType.TRUE_OR_FALSE);
+      trueOrFalseAttempt.setQuestionId(trueOrFalse.getId());
+      trueOrFalseAttempt.setQuestionText(trueOrFalse.getQuestionText());
+      trueOrFalseAttempt.setUserAnswer(true);
+      attempt.getQuestionAttempts().add(trueOrFalseAttempt);
+    }
+  }
+
+  /**
+   * This method tests that a batch of attempts is graded and inserted with a small number of
+   * statements, far fewer than the number of rows inserted.
+   */
+  @Test
+  void addQuizAttemptsInsertsRowsInBatches() throws Exception {
+    List<QuizAttemptDTO> attempts = new ArrayList<>();
+    for (int i = 0; i < ATTEMPTS; i++) {
+      attempts.add(attempt);
+    }
+    long attemptsBefore = quizAttemptRepository.count();
+
+    statistics.clear();
+    mockMvc
+        .perform(
+            post("/api/attempts/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(attempts))
+                .secure(true))
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$.length()").value(ATTEMPTS))
+        .andExpect(jsonPath("$[0].score").value(2 * QUESTIONS));
+
+    assertEquals(ATTEMPTS * ENTITIES_PER_ATTEMPT, statistics.getEntityInsertCount());
+    long statements = statistics.getPrepareStatementCount();
+    assertTrue(
+        statements * 10 < ATTEMPTS * ROWS_PER_ATTEMPT,
+        statements + " statements for " + ATTEMPTS * ROWS_PER_ATTEMPT + " rows");
+    assertEquals(attemptsBefore + ATTEMPTS, quizAttemptRepository.count());
+  }
+
+  /**
+   * This method tests that a batch with an attempt that does not match its quiz is rejected as a
+   * whole, and that none of its attempts are added.
+   */
+  @Test
+  void addQuizAttemptsWithInvalidAttemptAddsNone() throws Exception {
+    QuizAttemptDTO invalid = new QuizAttemptDTO();
+    invalid.setQuizId(attempt.getQuizId());
+    invalid.setUserId(attempt.getUserId());
+    QuestionAttemptDTO unknownQuestion = new QuestionAttemptDTO();
+    unknownQuestion.setType(QuestionType.TRUE_OR_FALSE);
+    unknownQuestion.setQuestionId(-1L);
+    unknownQuestion.setUserAnswer(true);
+    invalid.getQuestionAttempts().add(unknownQuestion);
+    long attemptsBefore = quizAttemptRepository.count();
+
+    mockMvc
+        .perform(
+            post("/api/attempts/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(attempt, invalid)))
+                .secure(true))
+        .andExpect(status().isBadRequest());
+
+    assertEquals(attemptsBefore, quizAttemptRepository.count());
+  }
+}
@@ -193,7 +193,7 @@ class CommentTests {
       assertEquals(comment, comment);
       assertEquals(comment.hashCode(), comment.hashCode());
       assertEquals(
-          ("Comment(id=1, content=This is a comment., user=User(id=1, username=null, password=null, profilePictureUrl=null, role=null, quizzes=[], quizAttempts=[]), quiz=Quiz(id=1, title=null, description=null, quizPictureUrl=null, creationDate=null, lastModifiedDate=null, isPublic=false, randomizedOrder=false, authorId=null, users=[], questions=[], tags=[], category=null)"
+          ("Comment(id=1, content=This is a comment., user=User(id=1, username=null, password=null, profilePictureUrl=null, role=null, quizzes=[], quizAttempts=[]), quiz=Quiz(id=1, title=null, description=null, quizPictureUrl=null, creationDate=null, lastModifiedDate=null, contentVersion=0, isPublic=false, randomizedOrder=false, authorId=null, users=[], questions=[], tags=[], category=null)"
               + ", creationDate="
               + creationDate
               + ", lastModifiedDate="
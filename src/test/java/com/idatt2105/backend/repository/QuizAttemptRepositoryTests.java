@@ -0,0 +1,89 @@
+package com.idatt2105.backend.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+
+import com.idatt2105.backend.dto.QuizAttemptSummaryDTO;
+import com.idatt2105.backend.model.QuizAttempt;
+import com.idatt2105.backend.model.User;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/** The QuizAttemptRepositoryTests class is a test class that tests the QuizAttemptRepository. */
+@DataJpaTest
+class QuizAttemptRepositoryTests {
+  @Autowired private QuizAttemptRepository quizAttemptRepository;
+  @Autowired private UserRepository userRepository;
+
+  private User user;
+
+  @BeforeEach
+  void setUp() {
+    user = userRepository.save(new User("attempts", "password"));
+    LocalDateTime time = LocalDateTime.of(2024, 1, 1, 12, 0);
+    save(4, 10, time);
+    save(4, null, null);
+    save(7, 10, time.plusHours(1));
+    save(2, null, time);
+    save(7, 5, null);
+    save(4, 5, time.plusHours(1));
+  }
+
+  /**
+   * This method tests the countSummariesBefore and findSummariesAfter methods of the
+   * QuizAttemptRepository. It verifies that, in every order and from every attempt, they agree with
+   * the positions of the attempts when the database sorts them all, with null values sorted where
+   * the database puts them.
+   */
+  @Test
+  void summariesAreFoundRelativeToEveryAttempt() {
+    List<Sort> sorts =
+        List.of(
+            Sort.by("id"),
+            Sort.by(Sort.Direction.DESC, "score").and(Sort.by("id")),
+            Sort.by("maxScore").and(Sort.by(Sort.Direction.DESC, "id")),
+            Sort.by(Sort.Direction.DESC, "maxScore").and(Sort.by("score")).and(Sort.by("id")),
+            Sort.by(Sort.Direction.DESC, "attemptTime").and(Sort.by(Sort.Direction.DESC, "id")),
+            Sort.by("questionCount").and(Sort.by("score")).and(Sort.by("id")));
+    for (Sort sort : sorts) {
+      List<QuizAttemptSummaryDTO> summaries =
+          quizAttemptRepository.findSummariesByUserId(user.getId(), sort);
+      List<Long> ordered = ids(summaries);
+      assertEquals(
+          ordered,
+          ids(quizAttemptRepository.findSummariesAfter(user.getId(), sort, null, 0, 10)),
+          sort.toString());
+      for (int i = 0; i < summaries.size(); i++) {
+        QuizAttemptSummaryDTO key = summaries.get(i);
+        assertEquals(
+            i,
+            quizAttemptRepository.countSummariesBefore(user.getId(), sort, key),
+            sort.toString());
+        assertEquals(
+            ordered.subList(Math.min(i + 2, ordered.size()), ordered.size()),
+            ids(quizAttemptRepository.findSummariesAfter(user.getId(), sort, key, 1, 10)),
+            sort.toString());
+      }
+    }
+  }
+
+  private void save(int score, Integer maxScore, LocalDateTime attemptTime) {
+    QuizAttempt quizAttempt = new QuizAttempt();
+    quizAttempt.setUser(user);
+    quizAttempt.setScore(score);
+    quizAttempt.setMaxScore(maxScore);
+    quizAttempt.setAttemptTime(attemptTime);
+    quizAttempt.setQuestionCount(score % 3);
+    quizAttemptRepository.save(quizAttempt);
+  }
+
+  private static List<Long> ids(List<QuizAttemptSummaryDTO> summaries) {
+    return summaries.stream().map(QuizAttemptSummaryDTO::getId).toList();
+  }
+}
@@ -0,0 +1,311 @@
+package com.idatt2105.backend.repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import com.idatt2105.backend.dto.QuizSummaryDTO;
+import com.idatt2105.backend.model.Category;
+import com.idatt2105.backend.model.Quiz;
+import com.idatt2105.backend.model.Tag;
+import com.idatt2105.backend.model.User;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** The QuizRepositoryTests class is a test class that tests the QuizRepository class. */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class QuizRepositoryTests {
+  @Autowired private QuizRepository quizRepository;
+  @Autowired private TagRepository tagRepository;
+  @Autowired private EntityManager entityManager;
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  private final List<Quiz> publicQuizzes = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    quizRepository.deleteAll();
+    LocalDateTime base = LocalDateTime.of(2024, 1, 1, 12, 0);
+    for (int i = 0; i < 5; i++) {
+      // Two quizzes share each creation date to exercise the id tie-breaker
+      publicQuizzes.add(saveQuiz("Quiz " + i, base.plusDays(i / 2), true));
+    }
+    saveQuiz("Private quiz", base.plusDays(10), false);
+  }
+
+  /**
+   * This method tests that the first slice of the catalog contains the newest public quizzes. It
+   * verifies the ordering and that private quizzes are left out.
+   */
+  @Test
+  void firstSliceContainsNewestPublicQuizzes() {
+    List<QuizSummaryDTO> slice = quizRepository.findNewestPublicSummaries(Limit.of(2));
+
+    assertEquals(2, slice.size());
+    assertEquals(publicQuizzes.get(4).getId(), slice.get(0).getId());
+    assertEquals(publicQuizzes.get(3).getId(), slice.get(1).getId());
+  }
+
+  /**
+   * This method tests that walking the catalog with keyset pagination visits every public quiz
+   * exactly once, including quizzes that share a creation date.
+   */
+  @Test
+  void seekingFromLastQuizVisitsEveryPublicQuizOnce() {
+    List<Long> visited = new ArrayList<>();
+    List<QuizSummaryDTO> slice = quizRepository.findNewestPublicSummaries(Limit.of(2));
+    while (!slice.isEmpty()) {
+      slice.forEach(quiz -> visited.add(quiz.getId()));
+      QuizSummaryDTO last = slice.get(slice.size() - 1);
+      slice =
+          quizRepository.findPublicSummariesAfter(
+              last.getCreationDate(), last.getId(), Limit.of(2));
+    }
+
+    List<Long> expected = new ArrayList<>();
+    for (int i = publicQuizzes.size() - 1; i >= 0; i--) {
+      expected.add(publicQuizzes.get(i).getId());
+    }
+    assertEquals(expected, visited);
+  }
+
+  /**
+   * This method tests that quizzes without a creation date are listed after all the dated ones. It
+   * verifies that seeking from a dated or an undated quiz reaches every undated quiz once.
+   */
+  @Test
+  void seekingReachesQuizzesWithoutCreationDateLast() {
+    Quiz firstUndated = saveQuiz("Undated 0", null, true);
+    Quiz secondUndated = saveQuiz("Undated 1", null, true);
+
+    List<Long> visited = new ArrayList<>();
+    List<QuizSummaryDTO> slice = quizRepository.findNewestPublicSummaries(Limit.of(2));
+    while (!slice.isEmpty()) {
+      slice.forEach(quiz -> visited.add(quiz.getId()));
+      QuizSummaryDTO last = slice.get(slice.size() - 1);
+      slice =
+          last.getCreationDate() == null
+              ? quizRepository.findUndatedPublicSummariesAfter(last.getId(), Limit.of(2))
+              : quizRepository.findPublicSummariesAfter(
+                  last.getCreationDate(), last.getId(), Limit.of(2));
+    }
+
+    assertEquals(publicQuizzes.size() + 2, visited.size());
+    assertEquals(
+        List.of(secondUndated.getId(), firstUndated.getId()),
+        visited.subList(publicQuizzes.size(), visited.size()));
+  }
+
+  /**
+   * This method tests that seeking past the oldest quiz returns an empty slice. It verifies that
+   * the end of the catalog is detected.
+   */
+  @Test
+  void seekingPastOldestQuizReturnsEmptySlice() {
+    Quiz oldest = publicQuizzes.get(0);
+    assertTrue(
+        quizRepository
+            .findPublicSummariesAfter(oldest.getCreationDate(), oldest.getId(), Limit.of(10))
+            .isEmpty());
+  }
+
+  /**
+   * This method tests that filtering by several tags only returns quizzes that have all of them. It
+   * verifies that paging and the total are applied after the intersection.
+   */
+  @Test
+  void filteringByTagsReturnsQuizzesWithAllTags() {
+    List<Tag> tags = saveTags(3);
+    Quiz both = publicQuizzes.get(0);
+    both.addTags(tags.subList(0, 2));
+    Quiz all = publicQuizzes.get(1);
+    all.addTags(tags);
+    Quiz onlyFirst = publicQuizzes.get(2);
+    onlyFirst.addTags(tags.subList(0, 1));
+    quizRepository.saveAll(List.of(both, all, onlyFirst));
+    entityManager.flush();
+
+    Page<QuizSummaryDTO> page =
+        quizRepository.findPublicSummariesWithAllTags(
+            Set.of("Tag0", "Tag1"), 2, PageRequest.of(0, 1));
+
+    assertEquals(2, page.getTotalElements());
+    assertEquals(2, page.getTotalPages());
+    Page<QuizSummaryDTO> second =
+        quizRepository.findPublicSummariesWithAllTags(
+            Set.of("Tag0", "Tag1"), 2, PageRequest.of(1, 1));
+    Set<Long> ids = Set.of(page.getContent().get(0).getId(), second.getContent().get(0).getId());
+    assertEquals(Set.of(both.getId(), all.getId()), ids);
+  }
+
+  /**
+   * This method tests that a combined filter is answered by the database like the filter index
+   * answers it: every non-empty part must match, and the quizzes are ordered by id.
+   */
+  @Test
+  void filteringByCombinedFilterAppliesEveryPart() {
+    Category science = new Category();
+    science.setName("Science");
+    entityManager.persist(science);
+    List<Tag> tags = saveTags(3);
+    publicQuizzes.get(0).addTags(tags.subList(0, 2));
+    publicQuizzes.get(1).addTags(tags);
+    publicQuizzes.get(2).addTags(tags.subList(1, 2));
+    publicQuizzes.get(3).addTags(tags.subList(0, 1));
+    publicQuizzes.subList(0, 3).forEach(quiz -> quiz.setCategory(science));
+    quizRepository.saveAll(publicQuizzes);
+    entityManager.flush();
+
+    assertEquals(
+        ids(0, 1, 2, 3, 4),
+        ids(
+            quizRepository.findPublicSummariesMatching(
+                null, Set.of(), Set.of(), Set.of(), 0, 0, 0, PageRequest.of(0, 10))));
+    assertEquals(
+        ids(0, 1, 2),
+        ids(
+            quizRepository.findPublicSummariesMatching(
+                "Science", Set.of(), Set.of(), Set.of(), 0, 0, 0, PageRequest.of(0, 10))));
+    assertEquals(
+        ids(0, 3),
+        ids(
+            quizRepository.findPublicSummariesMatching(
+                null, Set.of("Tag0"), Set.of(), Set.of("Tag2"), 1, 0, 1, PageRequest.of(0, 10))));
+    Page<QuizSummaryDTO> page =
+        quizRepository.findPublicSummariesMatching(
+            "Science", Set.of(), Set.of("Tag1", "Tag2"), Set.of(), 0, 2, 0, PageRequest.of(1, 2));
+    assertEquals(3, page.getTotalElements());
+    assertEquals(ids(2), ids(page));
+  }
+
+  /**
+   * This method tests that filtering by tags costs the same number of statements no matter how many
+   * tags are requested. This is what keeps the latency flat as the filter grows.
+   */
+  @Test
+  void filteringByTagsIssuesConstantNumberOfStatements() {
+    List<Tag> tags = saveTags(8);
+    publicQuizzes.forEach(quiz -> quiz.addTags(tags));
+    quizRepository.saveAll(publicQuizzes);
+    entityManager.flush();
+    entityManager.clear();
+
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    List<Long> statementCounts = new ArrayList<>();
+    for (int tagCount : new int[] {1, 2, 4, 8}) {
+      Set<String> tagNames =
+          IntStream.range(0, tagCount).mapToObj(i -> "Tag" + i).collect(Collectors.toSet());
+      statistics.clear();
+
+      Page<QuizSummaryDTO> page =
+          quizRepository.findPublicSummariesWithAllTags(tagNames, tagCount, PageRequest.of(0, 2));
+
+      assertEquals(publicQuizzes.size(), page.getTotalElements());
+      statementCounts.add(statistics.getPrepareStatementCount());
+    }
+
+    // One statement for the page and one for the total, independent of the number of tags
+    assertTrue(statementCounts.stream().allMatch(count -> count == 2L), statementCounts.toString());
+  }
+
+  /**
+   * This method tests that a quiz summary carries the category, author and counts of the quiz, and
+   * that tag names are fetched for a whole page at once.
+   */
+  @Test
+  void summariesCarryCategoryAuthorAndCounts() {
+    Category category = new Category();
+    category.setName("Science");
+    entityManager.persist(category);
+    User author = new User("author", "password");
+    entityManager.persist(author);
+    List<Tag> tags = saveTags(2);
+    Quiz quiz = publicQuizzes.get(0);
+    quiz.setCategory(category);
+    quiz.setAuthorId(author.getId());
+    quiz.addTags(tags);
+    quiz.getUsers().add(author);
+    author.getQuizzes().add(quiz);
+    quizRepository.save(quiz);
+    entityManager.flush();
+    entityManager.clear();
+
+    QuizSummaryDTO summary = quizRepository.findSummariesByIdIn(List.of(quiz.getId())).get(0);
+
+    assertEquals("Science", summary.getCategoryName());
+    assertEquals("author", summary.getAuthorName());
+    assertEquals(0, summary.getQuestionCount());
+    assertEquals(1, summary.getParticipantCount());
+    Set<String> tagNames =
+        quizRepository
+            .findTagNamesByQuizIdIn(List.of(quiz.getId(), publicQuizzes.get(1).getId()))
+            .stream()
+            .map(QuizRepository.QuizTagName::getTagName)
+            .collect(Collectors.toSet());
+    assertEquals(Set.of("Tag0", "Tag1"), tagNames);
+  }
+
+  /**
+   * This method tests that listing quiz summaries costs the same number of statements no matter how
+   * many quizzes, participants and tags are on the page.
+   */
+  @Test
+  void listingSummariesIssuesConstantNumberOfStatements() {
+    List<Tag> tags = saveTags(4);
+    publicQuizzes.forEach(quiz -> quiz.addTags(tags));
+    quizRepository.saveAll(publicQuizzes);
+    entityManager.flush();
+    entityManager.clear();
+
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    Page<QuizSummaryDTO> page = quizRepository.findPublicSummaries(PageRequest.of(0, 4));
+    quizRepository.findTagNamesByQuizIdIn(
+        page.getContent().stream().map(QuizSummaryDTO::getId).collect(Collectors.toList()));
+
+    // The page, the total and the tag names
+    assertEquals(3L, statistics.getPrepareStatementCount());
+    assertEquals(publicQuizzes.size(), page.getTotalElements());
+  }
+
+  private List<Long> ids(int... indexes) {
+    return IntStream.of(indexes).mapToObj(i -> publicQuizzes.get(i).getId()).toList();
+  }
+
+  private static List<Long> ids(Page<QuizSummaryDTO> page) {
+    return page.getContent().stream().map(QuizSummaryDTO::getId).toList();
+  }
+
+  private List<Tag> saveTags(int count) {
+    return IntStream.range(0, count)
+        .mapToObj(i -> tagRepository.save(new Tag("Tag" + i)))
+        .collect(Collectors.toList());
+  }
+
+  private Quiz saveQuiz(String title, LocalDateTime creationDate, boolean isPublic) {
+    Quiz quiz = new Quiz();
+    quiz.setTitle(title);
+    quiz.setCreationDate(creationDate);
+    quiz.setLastModifiedDate(creationDate);
+    quiz.setPublic(isPublic);
+    return quizRepository.save(quiz);
+  }
+}
@@ -0,0 +1,145 @@
+package com.idatt2105.backend.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.idatt2105.backend.model.Category;
+import com.idatt2105.backend.model.Quiz;
+import com.idatt2105.backend.service.TagResolver;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The SecondLevelCacheTests class is a test class that tests the Hibernate second-level cache and
+ * query cache against the database.
+ */
+@SpringBootTest
+class SecondLevelCacheTests {
+  @Autowired private EntityManagerFactory entityManagerFactory;
+  @Autowired private QuizRepository quizRepository;
+  @Autowired private CategoryRepository categoryRepository;
+  @Autowired private TagRepository tagRepository;
+  @Autowired private TagResolver tagResolver;
+  @Autowired private MeterRegistry meterRegistry;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  void setUp() {
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+  }
+
+  /**
+   * This method tests that a quiz read by id in a new session is served from the second-level cache
+   * without a statement.
+   */
+  @Test
+  void findQuizByIdIsServedFromCache() {
+    Quiz quiz = new Quiz();
+    quiz.setTitle("Cached quiz");
+    Long id = quizRepository.save(quiz).getId();
+    quizRepository.findById(id);
+
+    statistics.clear();
+    assertEquals("Cached quiz", quizRepository.findById(id).orElseThrow().getTitle());
+
+    assertEquals(0, statistics.getPrepareStatementCount());
+    assertEquals(1, statistics.getDomainDataRegionStatistics(Quiz.CACHE_REGION).getHitCount());
+  }
+
+  /**
+   * This method tests that marking a quiz as modified evicts only that quiz from the second-level
+   * cache, and that saving a copy of the quiz read before the change keeps the newer version.
+   */
+  @Test
+  void markModifiedEvictsOnlyThatQuiz() {
+    Quiz quiz = new Quiz();
+    quiz.setTitle("Modified quiz");
+    Long id = quizRepository.save(quiz).getId();
+    Quiz other = new Quiz();
+    other.setTitle("Other quiz");
+    Long otherId = quizRepository.save(other).getId();
+    Quiz stale = quizRepository.findById(id).orElseThrow();
+    quizRepository.findById(otherId);
+
+    quizRepository.markModified(id, LocalDateTime.now());
+    statistics.clear();
+    quizRepository.findById(otherId);
+    assertEquals(0, statistics.getPrepareStatementCount());
+
+    stale.setTitle("Stale copy");
+    quizRepository.save(stale);
+    quizRepository.markModified(id, LocalDateTime.now());
+    assertEquals(2, quizRepository.findVersionById(id).orElseThrow().getContentVersion());
+  }
+
+  /**
+   * This method tests that lookups of categories by name are answered from the query cache until a
+   * category is written.
+   */
+  @Test
+  void findCategoryByNameUsesQueryCache() {
+    Category category = new Category();
+    category.setName("Cached category");
+    categoryRepository.save(category);
+    categoryRepository.findByName("Cached category");
+
+    statistics.clear();
+    assertTrue(categoryRepository.findByName("Cached category").isPresent());
+    assertEquals(0, statistics.getPrepareStatementCount());
+    assertEquals(
+        1,
+        statistics.getQueryRegionStatistics(CategoryRepository.QUERY_CACHE_REGION).getHitCount());
+
+    Category other = new Category();
+    other.setName("Other cached category");
+    categoryRepository.save(other);
+    statistics.clear();
+    assertTrue(categoryRepository.findByName("Cached category").isPresent());
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  /**
+   * This method tests that a tag that was looked up before it existed is found once it has been
+   * created by the batch insert of the TagResolver, which bypasses Hibernate.
+   */
+  @Test
+  void tagCreatedByResolverIsFoundAfterCachedMiss() {
+    assertTrue(tagRepository.findByTagName("cached-miss").isEmpty());
+    assertTrue(tagRepository.findByTagName("cached-miss").isEmpty());
+
+    tagResolver.resolve(List.of("cached-miss"));
+
+    assertTrue(tagRepository.findByTagName("cached-miss").isPresent());
+  }
+
+  /** This method tests that second-level cache statistics are published per region as metrics. */
+  @Test
+  void cacheStatisticsArePublishedAsMetrics() {
+    Quiz quiz = new Quiz();
+    quiz.setTitle("Measured quiz");
+    Long id = quizRepository.save(quiz).getId();
+    quizRepository.findById(id);
+    quizRepository.findById(id);
+
+    assertTrue(
+        meterRegistry
+                .get("hibernate.second.level.cache.requests")
+                .tag("region", Quiz.CACHE_REGION)
+                .tag("result", "hit")
+                .functionCounter()
+                .count()
+            >= 1);
+  }
+}
@@ -0,0 +1,206 @@
+package com.idatt2105.backend.service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.idatt2105.backend.model.QuestionAttempt;
+import com.idatt2105.backend.model.QuizAttempt;
+import com.idatt2105.backend.model.TrueOrFalseQuestionAttempt;
+import com.idatt2105.backend.model.User;
+import com.idatt2105.backend.repository.QuizAttemptRepository;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/** The AttemptArchiveTests class is a test class that tests the AttemptArchive class. */
+class AttemptArchiveTests {
+  @TempDir private Path directory;
+
+  private QuizAttemptRepository quizAttemptRepository;
+  private CompactAttemptFormat compactAttemptFormat;
+  private AttemptArchive archive;
+
+  @BeforeEach
+  void setUp() {
+    quizAttemptRepository = mock(QuizAttemptRepository.class);
+    compactAttemptFormat = new CompactAttemptFormat(false);
+    archive = openArchive();
+  }
+
+  /**
+   * This method tests the write and publish methods of the AttemptArchive class. It verifies that
+   * attempts are only read once their segment is published, that they are found and visited by id,
+   * user and quiz with the columns they were written with, visited with their answers when asked
+   * for, and that they are found again when the archive is opened anew.
+   */
+  @Test
+  void publishedAttemptsAreIndexedAndReadBack() {
+    LocalDateTime attemptTime = LocalDateTime.of(2023, 3, 14, 15, 9, 26, 535_897_000);
+    QuizAttempt first = attempt(1L, 1L, 10L, 4, attemptTime);
+    TrueOrFalseQuestionAttempt questionAttempt = new TrueOrFalseQuestionAttempt();
+    questionAttempt.setQuestionId(100L);
+    questionAttempt.setPoints(4);
+    questionAttempt.setUserAnswer(true);
+    questionAttempt.setCorrectAnswer(true);
+    first.getQuestionAttempts().add(questionAttempt);
+    QuizAttempt second = attempt(2L, 1L, null, 0, null);
+    second.setAnswers(compactAttemptFormat.encode(List.of()));
+    QuizAttempt third = attempt(3L, 2L, 10L, 2, attemptTime);
+    third.setAnswers(compactAttemptFormat.encode(List.of()));
+
+    Path pending = archive.write(List.of(first, second, third));
+    assertTrue(archive.findById(1L).isEmpty());
+    archive.publish(pending);
+
+    for (AttemptArchive opened : List.of(archive, openArchive())) {
+      assertEquals(3, opened.size());
+      assertEquals(1, opened.segmentCount());
+      assertEquals(Set.of(1L, 2L), ids(opened.findByUserId(1L)));
+      assertEquals(Set.of(1L, 3L), ids(opened.findByQuizId(10L)));
+      List<QuizAttempt> visited = new ArrayList<>();
+      opened.forEachByQuizId(10L, visited::add);
+      assertEquals(Set.of(1L, 3L), ids(visited));
+      visited.clear();
+      opened.forEachByQuizId(10L, true, visited::add);
+      QuizAttempt visitedFirst = visited.get(visited.get(0).getId() == 1L ? 0 : 1);
+      assertEquals(
+          100L, compactAttemptFormat.decode(visitedFirst.getAnswers()).get(0).getQuestionId());
+      assertEquals(2, opened.countScoredByQuizId(10L));
+
+      QuizAttempt read = opened.findById(1L).orElseThrow();
+      assertEquals("Quiz 10", read.getTitle());
+      assertEquals(attemptTime, read.getAttemptTime());
+      assertEquals(4, read.getScore());
+      assertEquals(4, read.getMaxScore());
+      assertEquals(1L, read.getUser().getId());
+      assertEquals(1, read.getQuestionCount());
+      List<QuestionAttempt> decoded = compactAttemptFormat.decode(read.getAnswers());
+      assertEquals(100L, decoded.get(0).getQuestionId());
+      assertTrue(((TrueOrFalseQuestionAttempt) decoded.get(0)).getUserAnswer());
+
+      QuizAttempt withoutQuiz = opened.findById(2L).orElseThrow();
+      assertNull(withoutQuiz.getQuizId());
+      assertNull(withoutQuiz.getAttemptTime());
+      assertArrayEquals(second.getAnswers(), withoutQuiz.getAnswers());
+      assertEquals(0, withoutQuiz.getQuestionCount());
+    }
+  }
+
+  /**
+   * This method tests the open method of the AttemptArchive class. It verifies that a pending
+   * segment whose attempts are still in the database is deleted, and one whose attempts are gone is
+   * published.
+   */
+  @Test
+  void pendingSegmentsAreSettledOnOpen() throws Exception {
+    QuizAttempt kept = attempt(1L, 1L, 10L, 1, null);
+    kept.setAnswers(compactAttemptFormat.encode(List.of()));
+    QuizAttempt deleted = attempt(2L, 1L, 10L, 1, null);
+    deleted.setAnswers(compactAttemptFormat.encode(List.of()));
+    Path rolledBack = archive.write(List.of(kept));
+    Path committed = archive.write(List.of(deleted));
+    when(quizAttemptRepository.countByIdIn(anyCollection()))
+        .thenAnswer(invocation -> invocation.getArgument(0, List.class).contains(1L) ? 1L : 0L);
+
+    AttemptArchive reopened = openArchive();
+    assertEquals(Set.of(2L), ids(reopened.findByUserId(1L)));
+    assertFalse(Files.exists(rolledBack));
+    assertFalse(Files.exists(committed));
+    assertEquals(1, reopened.segmentCount());
+  }
+
+  /**
+   * This method tests the findHistoryByUserId method of the AttemptArchive class with the attempts
+   * of a user spread over two segments. It verifies that they are counted and read a slice at a
+   * time in the order of their ids, and of their attempt times with no time first.
+   */
+  @Test
+  void historyOfUserIsReadInOrderAcrossSegments() {
+    LocalDateTime early = LocalDateTime.of(2023, 1, 1, 10, 0);
+    archive.publish(
+        archive.write(
+            List.of(
+                attempt(1L, 1L, 10L, 0, early.plusHours(3)),
+                attempt(2L, 2L, 10L, 0, early),
+                attempt(4L, 1L, 10L, 0, early),
+                attempt(5L, 1L, 10L, 0, null))));
+    archive.publish(
+        archive.write(
+            List.of(
+                attempt(3L, 1L, null, 0, early.plusHours(2)),
+                attempt(6L, 1L, 10L, 0, early),
+                attempt(7L, 2L, 10L, 0, early))));
+
+    AttemptArchive.UserHistory byId = archive.findHistoryByUserId(1L, false);
+    assertEquals(5, byId.size());
+    assertEquals(List.of(1L, 3L, 4L, 5L, 6L), orderedIds(byId.read(0, 5)));
+    assertEquals(List.of(4L, 5L), orderedIds(byId.read(2, 2)));
+    assertEquals(List.of(6L), orderedIds(byId.read(4, 2)));
+    assertTrue(byId.read(5, 1).isEmpty());
+
+    AttemptArchive.UserHistory byTime = archive.findHistoryByUserId(1L, true);
+    assertEquals(List.of(5L, 4L, 6L, 3L, 1L), orderedIds(byTime.read(0, 5)));
+    assertEquals(List.of(4L, 6L, 3L), orderedIds(byTime.read(1, 3)));
+    assertEquals(early.plusHours(2), byTime.read(3, 1).get(0).getAttemptTime());
+    assertEquals(0, archive.findHistoryByUserId(3L, true).size());
+  }
+
+  /**
+   * This method tests the write method of the AttemptArchive class with an attempt without an id.
+   * It verifies that an exception is thrown and that no pending segment is left behind.
+   */
+  @Test
+  void writingAttemptWithoutIdLeavesNoSegment() throws Exception {
+    QuizAttempt withoutId = attempt(null, 1L, 10L, 1, null);
+
+    assertThrows(IllegalArgumentException.class, () -> archive.write(List.of(withoutId)));
+    try (var files = Files.list(directory)) {
+      assertEquals(0, files.count());
+    }
+  }
+
+  private AttemptArchive openArchive() {
+    AttemptArchive opened =
+        new AttemptArchive(quizAttemptRepository, compactAttemptFormat, directory);
+    opened.open();
+    return opened;
+  }
+
+  private static QuizAttempt attempt(
+      Long id, Long userId, Long quizId, int score, LocalDateTime attemptTime) {
+    User user = new User();
+    user.setId(userId);
+    QuizAttempt quizAttempt = new QuizAttempt();
+    quizAttempt.setId(id);
+    quizAttempt.setUser(user);
+    quizAttempt.setQuizId(quizId);
+    quizAttempt.setTitle(quizId == null ? null : "Quiz " + quizId);
+    quizAttempt.setScore(score);
+    quizAttempt.setMaxScore(quizId == null ? 0 : 4);
+    quizAttempt.setAttemptTime(attemptTime);
+    return quizAttempt;
+  }
+
+  private static List<Long> orderedIds(List<QuizAttempt> quizAttempts) {
+    return quizAttempts.stream().map(QuizAttempt::getId).toList();
+  }
+
+  private static Set<Long> ids(List<QuizAttempt> quizAttempts) {
+    return Set.copyOf(quizAttempts.stream().map(QuizAttempt::getId).toList());
+  }
+}
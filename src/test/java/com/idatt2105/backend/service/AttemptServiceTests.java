@@ -1,5 +1,9 @@
 package com.idatt2105.backend.service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -7,16 +11,23 @@ import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import com.idatt2105.backend.dto.QuestionAttemptDTO;
 import com.idatt2105.backend.dto.QuizAttemptDTO;
+import com.idatt2105.backend.dto.QuizAttemptSummaryDTO;
 import com.idatt2105.backend.enumerator.QuestionType;
+import com.idatt2105.backend.enumerator.QuizActivity;
+import com.idatt2105.backend.event.QuizActivityEvent;
 import com.idatt2105.backend.model.AlternativeRecord;
 import com.idatt2105.backend.model.MultipleChoiceQuestionAttempt;
 import com.idatt2105.backend.model.QuestionAttempt;
@@ -29,9 +40,21 @@ import com.idatt2105.backend.util.InvalidIdException;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.AdditionalAnswers.returnsFirstArg;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /** The AttemptServiceTests class is a test class that tests the AttemptService class. */
@@ -41,6 +64,16 @@ class AttemptServiceTests {
 
   @Mock private UserRepository userRepository;
 
+  @Mock private ApplicationEventPublisher eventPublisher;
+
+  @Mock private QuizGrader quizGrader;
+
+  @Mock private AttemptWriteBehindQueue writeBehindQueue;
+
+  @Mock private CompactAttemptFormat compactAttemptFormat;
+
+  @Mock private AttemptArchive attemptArchive;
+
   @InjectMocks private AttemptService attemptService;
 
   private User user;
@@ -74,6 +107,114 @@ class AttemptServiceTests {
     assertEquals(expected, actual);
   }
 
+  /**
+   * The addQuizAttemptPublishesActivity method tests the addQuizAttempt method of the
+   * AttemptService class. It verifies that the attempt is announced as activity on its quiz.
+   */
+  @Test
+  void addQuizAttemptPublishesActivity() {
+    QuizAttemptDTO input = new QuizAttemptDTO();
+    input.setQuizId(2L);
+    input.setUserId(1L);
+
+    QuizAttempt saved = new QuizAttempt();
+    saved.setQuizId(2L);
+    saved.setAttemptTime(LocalDateTime.of(2024, 3, 1, 12, 0));
+
+    when(quizAttemptRepository.save(any(QuizAttempt.class))).thenReturn(saved);
+    when(userRepository.findById(1L)).thenReturn(Optional.ofNullable(user));
+
+    attemptService.addQuizAttempt(input);
+    verify(eventPublisher)
+        .publishEvent(new QuizActivityEvent(2L, QuizActivity.ATTEMPT, saved.getAttemptTime()));
+  }
+
+  /**
+   * The addQuizAttemptIsGradedBeforeItIsSaved method tests the addQuizAttempt method of the
+   * AttemptService class. It verifies that the score is set by the grader, not taken from the
+   * client, before the attempt is saved.
+   */
+  @Test
+  void addQuizAttemptIsGradedBeforeItIsSaved() {
+    QuizAttemptDTO input = new QuizAttemptDTO();
+    input.setQuizId(1L);
+    input.setScore(100);
+    input.setUserId(1L);
+
+    when(userRepository.findById(1L)).thenReturn(Optional.ofNullable(user));
+    when(quizAttemptRepository.save(any(QuizAttempt.class))).thenAnswer(returnsFirstArg());
+    doAnswer(
+            invocation -> {
+              invocation.<QuizAttempt>getArgument(0).setScore(3);
+              return null;
+            })
+        .when(quizGrader)
+        .grade(any(QuizAttempt.class));
+
+    assertEquals(3, attemptService.addQuizAttempt(input).getScore());
+    InOrder inOrder = inOrder(quizGrader, quizAttemptRepository);
+    inOrder.verify(quizGrader).grade(any(QuizAttempt.class));
+    inOrder.verify(quizAttemptRepository).save(any(QuizAttempt.class));
+  }
+
+  /**
+   * The addQuizAttemptIsQueuedWhenWrittenBehind method tests the addQuizAttempt method of the
+   * AttemptService class. It verifies that a graded attempt is queued instead of saved when
+   * attempts are written behind.
+   */
+  @Test
+  void addQuizAttemptIsQueuedWhenWrittenBehind() {
+    QuizAttemptDTO input = new QuizAttemptDTO();
+    input.setQuizId(1L);
+    input.setUserId(1L);
+
+    when(userRepository.findById(1L)).thenReturn(Optional.ofNullable(user));
+    when(writeBehindQueue.isEnabled()).thenReturn(true);
+    when(writeBehindQueue.enqueue(any(QuizAttempt.class))).thenAnswer(returnsFirstArg());
+
+    QuizAttempt actual = attemptService.addQuizAttempt(input);
+    InOrder inOrder = inOrder(quizGrader, writeBehindQueue);
+    inOrder.verify(quizGrader).grade(actual);
+    inOrder.verify(writeBehindQueue).enqueue(actual);
+    verify(quizAttemptRepository, never()).save(any(QuizAttempt.class));
+    verify(eventPublisher, never()).publishEvent(any(QuizActivityEvent.class));
+  }
+
+  /**
+   * The addQuizAttemptIsStoredCompactly method tests the addQuizAttempt method of the
+   * AttemptService class. It verifies that when the compact format is enabled, the attempt is saved
+   * with its encoded answers and without question attempt rows, and is returned with its question
+   * attempts and the saved id.
+   */
+  @Test
+  void addQuizAttemptIsStoredCompactly() {
+    QuizAttemptDTO input = new QuizAttemptDTO();
+    input.setQuizId(1L);
+    input.setUserId(1L);
+    QuestionAttemptDTO questionAttemptDTO = new QuestionAttemptDTO();
+    questionAttemptDTO.setType(QuestionType.TRUE_OR_FALSE);
+    questionAttemptDTO.setUserAnswer(true);
+    input.getQuestionAttempts().add(questionAttemptDTO);
+    byte[] answers = {1, 0, 0};
+
+    when(userRepository.findById(1L)).thenReturn(Optional.ofNullable(user));
+    when(compactAttemptFormat.isEnabled()).thenReturn(true);
+    when(compactAttemptFormat.encode(any())).thenReturn(answers);
+    when(quizAttemptRepository.save(any(QuizAttempt.class)))
+        .thenAnswer(
+            invocation -> {
+              QuizAttempt saved = invocation.getArgument(0);
+              assertEquals(0, saved.getQuestionAttempts().size());
+              assertEquals(answers, saved.getAnswers());
+              saved.setId(9L);
+              return saved;
+            });
+
+    QuizAttempt actual = attemptService.addQuizAttempt(input);
+    assertEquals(9L, actual.getId());
+    assertEquals(1, actual.getQuestionAttempts().size());
+  }
+
   /**
    * The addQuizAttemptWithInvalidUserIdThrowsException method tests the addQuizAttempt method of
    * the AttemptService class. It verifies that the method throws an InvalidIdException when the
@@ -93,26 +234,227 @@ class AttemptServiceTests {
     assertThrows(InvalidIdException.class, () -> attemptService.addQuizAttempt(input));
   }
 
+  /**
+   * The addQuizAttemptsReadsUsersOnceAndGradesTogether method tests the addQuizAttempts method of
+   * the AttemptService class. It verifies that the users are read in one query, that the attempts
+   * are graded together before they are saved, and that each is announced as activity.
+   */
+  @Test
+  void addQuizAttemptsReadsUsersOnceAndGradesTogether() {
+    QuizAttemptDTO first = new QuizAttemptDTO();
+    first.setQuizId(1L);
+    first.setUserId(1L);
+    QuizAttemptDTO second = new QuizAttemptDTO();
+    second.setQuizId(2L);
+    second.setUserId(1L);
+
+    when(userRepository.findAllById(Set.of(1L))).thenReturn(List.of(user));
+    when(quizAttemptRepository.saveAll(anyList())).thenAnswer(returnsFirstArg());
+
+    List<QuizAttempt> actual = attemptService.addQuizAttempts(List.of(first, second));
+    assertEquals(List.of(1L, 2L), actual.stream().map(QuizAttempt::getQuizId).toList());
+    assertEquals(user, actual.get(1).getUser());
+    verify(userRepository, never()).findById(any(Long.class));
+    InOrder inOrder = inOrder(quizGrader, quizAttemptRepository);
+    inOrder.verify(quizGrader).gradeAll(actual);
+    inOrder.verify(quizAttemptRepository).saveAll(actual);
+    verify(eventPublisher, times(2)).publishEvent(any(QuizActivityEvent.class));
+  }
+
+  /**
+   * The addQuizAttemptsWithInvalidUserIdThrowsException method tests the addQuizAttempts method of
+   * the AttemptService class. It verifies that no attempt is saved when one of the users is not
+   * found.
+   */
+  @Test
+  void addQuizAttemptsWithInvalidUserIdThrowsException() {
+    QuizAttemptDTO input = new QuizAttemptDTO();
+    input.setQuizId(1L);
+    input.setUserId(2L);
+
+    when(userRepository.findAllById(Set.of(2L))).thenReturn(List.of());
+
+    List<QuizAttemptDTO> inputs = List.of(input);
+    assertThrows(InvalidIdException.class, () -> attemptService.addQuizAttempts(inputs));
+    verify(quizAttemptRepository, never()).saveAll(anyList());
+  }
+
+  /**
+   * The addQuizAttemptsWithInvalidBatchThrowsException method tests the addQuizAttempts method of
+   * the AttemptService class. It verifies that the method throws an IllegalArgumentException when
+   * the batch is null, contains null, or is too long.
+   */
+  @Test
+  void addQuizAttemptsWithInvalidBatchThrowsException() {
+    assertThrows(IllegalArgumentException.class, () -> attemptService.addQuizAttempts(null));
+
+    List<QuizAttemptDTO> withNull = new ArrayList<>();
+    withNull.add(null);
+    assertThrows(IllegalArgumentException.class, () -> attemptService.addQuizAttempts(withNull));
+
+    List<QuizAttemptDTO> tooMany =
+        Collections.nCopies(AttemptService.MAX_BATCH_SIZE + 1, new QuizAttemptDTO());
+    assertThrows(IllegalArgumentException.class, () -> attemptService.addQuizAttempts(tooMany));
+  }
+
   /**
    * The getAllAttemptsForUser method tests the getAllAttemptsForUser method of the AttemptService
-   * class. It verifies that the method returns all attempts for a user.
+   * class. It verifies that the method returns summaries of all attempts for a user.
    */
   @Test
   void getAllAttemptsForUser() {
-    QuizAttempt quizAttempt = new QuizAttempt();
-    quizAttempt.setId(1L);
-    User user = new User();
-    user.setId(1L);
+    QuizAttemptSummaryDTO summary = summaryWithScore(1L, 0);
 
-    Page<QuizAttempt> expected = new PageImpl<>(List.of(quizAttempt));
-    when(quizAttemptRepository.findByUserId(any(Long.class), any(Pageable.class)))
+    Page<QuizAttemptSummaryDTO> expected = new PageImpl<>(List.of(summary));
+    when(quizAttemptRepository.findSummariesByUserId(any(Long.class), any(Pageable.class)))
         .thenReturn(expected);
     when(userRepository.existsById(1L)).thenReturn(true);
+    AttemptArchive.UserHistory history = mock(AttemptArchive.UserHistory.class);
+    when(attemptArchive.findHistoryByUserId(1L, false)).thenReturn(history);
 
-    Page<QuizAttempt> actual = attemptService.getAllAttemptsForUser(1L, Pageable.ofSize(1));
+    Page<QuizAttemptSummaryDTO> actual =
+        attemptService.getAllAttemptsForUser(1L, Pageable.ofSize(1));
     assertEquals(expected, actual);
   }
 
+  /**
+   * The getAllAttemptsForUserMergesArchivedAttempts method tests that the getAllAttemptsForUser
+   * method merges the archived attempts of a user with those in the database in the order of the
+   * page. Only the rows of the page are read from the database, and archived attempts are listed
+   * with the question count they were archived with, without reading their question attempts.
+   */
+  @Test
+  void getAllAttemptsForUserMergesArchivedAttempts() {
+    QuizAttempt archivedBest = attemptWithScore(1L, 9);
+    archivedBest.setQuestionCount(3);
+    QuizAttempt archivedWorst = attemptWithScore(2L, 1);
+    archivedWorst.setQuestionCount(1);
+    QuizAttemptSummaryDTO storedSecond = summaryWithScore(3L, 5);
+    QuizAttemptSummaryDTO storedThird = summaryWithScore(4L, 3);
+    when(userRepository.existsById(1L)).thenReturn(true);
+    when(attemptArchive.findByUserId(1L))
+        .thenReturn(new ArrayList<>(List.of(archivedWorst, archivedBest)));
+    stubStoredSummaries(
+        List.of(storedSecond, storedThird),
+        Comparator.comparing(QuizAttemptSummaryDTO::getScore).reversed());
+    Page<QuizAttemptSummaryDTO> page =
+        attemptService.getAllAttemptsForUser(
+            1L, PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "score")));
+
+    assertEquals(4, page.getTotalElements());
+    assertEquals(
+        List.of(4L, 2L), page.getContent().stream().map(QuizAttemptSummaryDTO::getId).toList());
+    assertEquals(1, page.getContent().get(1).getQuestionCount());
+    verify(attemptArchive, never()).findById(any(Long.class));
+    // The stored attempt before the page is skipped after the archived attempt before it
+    verify(quizAttemptRepository)
+        .findSummariesAfter(
+            eq(1L),
+            eq(Sort.by(Sort.Direction.DESC, "score").and(Sort.by("id"))),
+            argThat(boundary -> boundary.getId() == 1L),
+            eq(1L),
+            eq(2));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> attemptService.getAllAttemptsForUser(1L, PageRequest.of(0, 2, Sort.by("user"))));
+  }
+
+  /**
+   * The getAttemptByIdReadsArchivedAttempt method tests that the getAttemptById method reads an
+   * attempt that is not in the database from the archive.
+   */
+  @Test
+  void getAttemptByIdReadsArchivedAttempt() {
+    QuizAttempt archived = attemptWithScore(1L, 4);
+    archived.setAnswers(new byte[] {1, 0, 0});
+    when(quizAttemptRepository.findWithQuestionAttemptsById(1L)).thenReturn(Optional.empty());
+    when(attemptArchive.findById(1L)).thenReturn(Optional.of(archived));
+    when(compactAttemptFormat.decode(archived.getAnswers())).thenReturn(List.of());
+
+    QuizAttempt actual = attemptService.getAttemptById(1L);
+    assertEquals(1L, actual.getId());
+    assertEquals(4, actual.getScore());
+  }
+
+  /**
+   * The getAllAttemptsForUserWithMixedCaseTitles method tests that attempts whose titles differ in
+   * case are paged through once each when archived attempts are merged in a sorted order, and that
+   * they cannot be sorted by title, which the database orders without regard to case.
+   */
+  @Test
+  void getAllAttemptsForUserWithMixedCaseTitles() {
+    QuizAttempt archivedLower = attemptWithScore(1L, 1);
+    archivedLower.setTitle("apple");
+    archivedLower.setQuestionCount(0);
+    QuizAttempt archivedUpper = attemptWithScore(2L, 2);
+    archivedUpper.setTitle("Banana");
+    archivedUpper.setQuestionCount(0);
+    List<QuizAttemptSummaryDTO> stored =
+        List.of(
+            new QuizAttemptSummaryDTO(3L, 1L, "cherry", 3, 10, null, 0),
+            new QuizAttemptSummaryDTO(4L, 1L, "Date", 4, 10, null, 0));
+    when(userRepository.existsById(1L)).thenReturn(true);
+    when(attemptArchive.findByUserId(1L))
+        .thenAnswer(invocation -> new ArrayList<>(List.of(archivedUpper, archivedLower)));
+    stubStoredSummaries(stored, Comparator.comparing(QuizAttemptSummaryDTO::getScore));
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> attemptService.getAllAttemptsForUser(1L, PageRequest.of(0, 1, Sort.by("title"))));
+    List<String> titles = new ArrayList<>();
+    for (int page = 0; page < 4; page++) {
+      titles.addAll(
+          attemptService
+              .getAllAttemptsForUser(1L, PageRequest.of(page, 1, Sort.by("score")))
+              .getContent()
+              .stream()
+              .map(QuizAttemptSummaryDTO::getTitle)
+              .toList());
+    }
+    assertEquals(List.of("apple", "Banana", "cherry", "Date"), titles);
+  }
+
+  /**
+   * Stubs the attempts of user 1 in the database, which are counted and read relative to a summary
+   * in an order.
+   *
+   * @param stored The summaries of the attempts, in the order.
+   * @param order The order, which must end with the id if scores are equal.
+   */
+  private void stubStoredSummaries(
+      List<QuizAttemptSummaryDTO> stored, Comparator<QuizAttemptSummaryDTO> order) {
+    Comparator<QuizAttemptSummaryDTO> byId = order.thenComparing(QuizAttemptSummaryDTO::getId);
+    when(quizAttemptRepository.countByUserId(1L)).thenReturn((long) stored.size());
+    when(quizAttemptRepository.countSummariesBefore(eq(1L), any(Sort.class), any()))
+        .thenAnswer(
+            invocation ->
+                stored.stream()
+                    .filter(summary -> byId.compare(summary, invocation.getArgument(2)) < 0)
+                    .count());
+    when(quizAttemptRepository.findSummariesAfter(
+            eq(1L), any(Sort.class), any(), anyLong(), anyInt()))
+        .thenAnswer(
+            invocation -> {
+              QuizAttemptSummaryDTO key = invocation.getArgument(2);
+              return stored.stream()
+                  .filter(summary -> key == null || byId.compare(summary, key) > 0)
+                  .skip(invocation.<Long>getArgument(3))
+                  .limit(invocation.<Integer>getArgument(4))
+                  .toList();
+            });
+  }
+
+  private static QuizAttemptSummaryDTO summaryWithScore(Long id, int score) {
+    return new QuizAttemptSummaryDTO(id, 1L, "Quiz", score, 10, null, 0);
+  }
+
+  private static QuizAttempt attemptWithScore(Long id, int score) {
+    QuizAttempt quizAttempt = new QuizAttempt();
+    quizAttempt.setId(id);
+    quizAttempt.setScore(score);
+    return quizAttempt;
+  }
+
   /**
    * The getAllAttemptsForUserWithInvalidUserIdThrowsException method tests the
    * getAllAttemptsForUser method of the AttemptService class. It verifies that the method throws an
@@ -154,6 +496,52 @@ class AttemptServiceTests {
         () -> attemptService.getAllAttemptsForUser(null, Pageable.ofSize(1)));
   }
 
+  /**
+   * The getAttemptById method tests the getAttemptById method of the AttemptService class. It
+   * verifies that the attempt is loaded together with its question attempts.
+   */
+  @Test
+  void getAttemptById() {
+    QuizAttempt expected = new QuizAttempt();
+    expected.setId(1L);
+    when(quizAttemptRepository.findWithQuestionAttemptsById(1L)).thenReturn(Optional.of(expected));
+
+    assertEquals(expected, attemptService.getAttemptById(1L));
+  }
+
+  /**
+   * The getAttemptByIdDecodesCompactAttempt method tests that the getAttemptById method returns the
+   * question attempts of a compact attempt decoded from its row, without joining their tables.
+   */
+  @Test
+  void getAttemptByIdDecodesCompactAttempt() {
+    QuizAttempt stored = new QuizAttempt();
+    stored.setId(1L);
+    stored.setAnswers(new byte[] {1, 0, 1});
+    TrueOrFalseQuestionAttempt questionAttempt = new TrueOrFalseQuestionAttempt();
+    questionAttempt.setQuestionId(3L);
+    when(compactAttemptFormat.isEnabled()).thenReturn(true);
+    when(quizAttemptRepository.findById(1L)).thenReturn(Optional.of(stored));
+    when(compactAttemptFormat.decode(stored.getAnswers())).thenReturn(List.of(questionAttempt));
+
+    QuizAttempt actual = attemptService.getAttemptById(1L);
+    assertEquals(Set.of(questionAttempt), actual.getQuestionAttempts());
+    assertSame(actual, questionAttempt.getQuizAttempt());
+    assertEquals(0, stored.getQuestionAttempts().size());
+    verify(quizAttemptRepository, never()).findWithQuestionAttemptsById(1L);
+  }
+
+  /**
+   * The getAttemptByIdWithUnknownIdThrowsException method tests that the getAttemptById method
+   * throws an exception when no attempt has the given id.
+   */
+  @Test
+  void getAttemptByIdWithUnknownIdThrowsException() {
+    when(quizAttemptRepository.findWithQuestionAttemptsById(1L)).thenReturn(Optional.empty());
+
+    assertThrows(InvalidIdException.class, () -> attemptService.getAttemptById(1L));
+  }
+
   /** The AttemptParsingTests class is a test class that tests the parsing of attempts. */
   @Nested
   class AttemptParsingTests {
@@ -195,6 +583,7 @@ class AttemptServiceTests {
       QuestionAttemptDTO questionAttempt = new QuestionAttemptDTO();
       questionAttempt.setType(QuestionType.MULTIPLE_CHOICE);
       AlternativeRecord alternative = new AlternativeRecord();
+      alternative.setAlternativeText("Alternative");
       alternative.wasCorrect(true);
       alternative.wasSelected(true);
       questionAttempt.setAlternatives(Set.of(alternative));
@@ -214,6 +603,7 @@ class AttemptServiceTests {
     void trueOrFalseAttemptsAreParsedCorrectly() {
       QuestionAttemptDTO questionAttempt = new QuestionAttemptDTO();
       questionAttempt.setType(QuestionType.TRUE_OR_FALSE);
+      questionAttempt.setUserAnswer(false);
       input.setQuestionAttempts(Set.of(questionAttempt));
 
       QuizAttempt actual = attemptService.addQuizAttempt(input);
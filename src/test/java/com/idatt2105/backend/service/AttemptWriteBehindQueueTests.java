@@ -0,0 +1,292 @@
+package com.idatt2105.backend.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.idatt2105.backend.event.QuizActivityEvent;
+import com.idatt2105.backend.model.AlternativeRecord;
+import com.idatt2105.backend.model.MultipleChoiceQuestionAttempt;
+import com.idatt2105.backend.model.QuestionAttempt;
+import com.idatt2105.backend.model.QuizAttempt;
+import com.idatt2105.backend.model.TrueOrFalseQuestionAttempt;
+import com.idatt2105.backend.model.User;
+import com.idatt2105.backend.repository.EntityIdGenerator;
+import com.idatt2105.backend.util.AttemptQueueFullException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The AttemptWriteBehindQueueTests class is a test class that tests the AttemptWriteBehindQueue
+ * class.
+ */
+class AttemptWriteBehindQueueTests {
+  private JdbcTemplate jdbcTemplate;
+  private ApplicationEventPublisher eventPublisher;
+  private EntityIdGenerator entityIdGenerator;
+  private SimpleMeterRegistry meterRegistry;
+  @TempDir private Path directory;
+
+  // Rows inserted per table, and the largest number of attempts inserted at once
+  private final Map<String, Integer> insertedRows = new ConcurrentHashMap<>();
+  private final AtomicInteger largestGroup = new AtomicInteger();
+
+  @BeforeEach
+  void setUp() {
+    jdbcTemplate = mock(JdbcTemplate.class);
+    eventPublisher = mock(ApplicationEventPublisher.class);
+    entityIdGenerator = mock(EntityIdGenerator.class);
+    meterRegistry = new SimpleMeterRegistry();
+
+    AtomicLong nextId = new AtomicLong(1);
+    when(entityIdGenerator.nextIds(any(), anyInt()))
+        .thenAnswer(
+            invocation -> {
+              int count = invocation.getArgument(1);
+              long first = nextId.getAndAdd(count);
+              return LongStream.range(first, first + count).toArray();
+            });
+    doAnswer(
+            invocation -> {
+              String table = invocation.<String>getArgument(0).split(" ")[2];
+              int rows = invocation.<List<?>>getArgument(1).size();
+              insertedRows.merge(table, rows, Integer::sum);
+              if (table.equals("quiz_attempt")) {
+                largestGroup.accumulateAndGet(rows, Math::max);
+              }
+              return new int[rows];
+            })
+        .when(jdbcTemplate)
+        .batchUpdate(anyString(), anyList());
+  }
+
+  /**
+   * This method tests the enqueue method of the AttemptWriteBehindQueue class. It verifies that the
+   * attempt and its rows are given distinct ids, and that attempts are rejected once the queue is
+   * full.
+   */
+  @Test
+  void enqueueAssignsIdsAndRejectsWhenFull() {
+    AttemptWriteBehindQueue queue = queue(2, 10);
+
+    QuizAttempt first = queue.enqueue(attempt());
+    assertNotNull(first.getId());
+    long distinctIds =
+        first.getQuestionAttempts().stream()
+            .map(QuestionAttempt::getId)
+            .filter(Objects::nonNull)
+            .distinct()
+            .count();
+    assertEquals(2, distinctIds);
+    MultipleChoiceQuestionAttempt multipleChoice =
+        first.getQuestionAttempts().stream()
+            .filter(MultipleChoiceQuestionAttempt.class::isInstance)
+            .map(MultipleChoiceQuestionAttempt.class::cast)
+            .findFirst()
+            .orElseThrow();
+    assertTrue(
+        multipleChoice.getAlternatives().stream().allMatch(record -> record.getId() != null));
+
+    queue.enqueue(attempt());
+    assertThrows(AttemptQueueFullException.class, () -> queue.enqueue(attempt()));
+    assertEquals(2, queue.size());
+    assertEquals(
+        1,
+        meterRegistry
+            .get("attempts.write-behind.attempts")
+            .tag("result", "rejected")
+            .functionCounter()
+            .count());
+  }
+
+  /**
+   * This method tests that the writer commits queued attempts in groups of at most the group size,
+   * that every queued attempt is written when the queue is stopped, and that no attempt is accepted
+   * after that.
+   */
+  @Test
+  void writerCommitsInGroupsAndFlushesOnStop() {
+    AttemptWriteBehindQueue queue = queue(10, 3);
+    for (int i = 0; i < 7; i++) {
+      queue.enqueue(attempt());
+    }
+
+    queue.start();
+    queue.stop();
+
+    assertEquals(0, queue.size());
+    assertEquals(7, insertedRows.get("quiz_attempt"));
+    assertEquals(14, insertedRows.get("question_attempt"));
+    assertEquals(7, insertedRows.get("true_or_false_question_attempt"));
+    assertEquals(14, insertedRows.get("alternative_record"));
+    assertTrue(largestGroup.get() <= 3);
+    verify(eventPublisher, times(7)).publishEvent(any(QuizActivityEvent.class));
+    assertEquals(
+        7,
+        meterRegistry
+            .get("attempts.write-behind.attempts")
+            .tag("result", "written")
+            .functionCounter()
+            .count());
+    assertTrue(meterRegistry.get("attempts.write-behind.commits").functionTimer().count() >= 3);
+    assertThrows(AttemptQueueFullException.class, () -> queue.enqueue(attempt()));
+  }
+
+  /**
+   * This method tests that a group the database refuses is counted as failed and kept in the
+   * dead-letter file, and that its attempts are not announced as activity.
+   */
+  @Test
+  void groupThatIsRefusedIsKeptInDeadLetterFile() throws IOException {
+    doThrow(new IllegalStateException("Constraint violated"))
+        .when(jdbcTemplate)
+        .batchUpdate(anyString(), anyList());
+    AttemptWriteBehindQueue queue = queue(10, 10);
+    QuizAttempt attempt = queue.enqueue(attempt());
+
+    queue.start();
+    queue.stop();
+
+    assertEquals(
+        1,
+        meterRegistry
+            .get("attempts.write-behind.attempts")
+            .tag("result", "failed")
+            .functionCounter()
+            .count());
+    verify(eventPublisher, times(0)).publishEvent(any(QuizActivityEvent.class));
+    List<String> lines = Files.readAllLines(directory.resolve("dead-letter.ndjson"));
+    assertEquals(1, lines.size());
+    assertEquals(
+        attempt.getId().longValue(),
+        new ObjectMapper().readTree(lines.get(0)).get("quiz_attempt").get(0).get(0).asLong());
+  }
+
+  /**
+   * This method tests that a group is retried for as long as the database cannot be reached, and
+   * written once it can, instead of being given up after a few tries.
+   */
+  @Test
+  void groupIsRetriedUntilDatabaseIsReachable() {
+    AtomicInteger outage = new AtomicInteger(6);
+    doAnswer(
+            invocation -> {
+              if (outage.getAndDecrement() > 0) {
+                throw new IllegalStateException("Database is down");
+              }
+              return new int[invocation.<List<?>>getArgument(1).size()];
+            })
+        .when(jdbcTemplate)
+        .batchUpdate(anyString(), anyList());
+    doAnswer(
+            invocation -> {
+              if (outage.get() > 0) {
+                throw new IllegalStateException("Database is down");
+              }
+              return null;
+            })
+        .when(jdbcTemplate)
+        .execute(anyString());
+    AttemptWriteBehindQueue queue = queue(10, 10);
+    queue.enqueue(attempt());
+
+    queue.start();
+    long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+    while (outage.get() > 0 && System.nanoTime() < deadline) {
+      Thread.onSpinWait();
+    }
+    queue.stop();
+
+    assertEquals(
+        1,
+        meterRegistry
+            .get("attempts.write-behind.attempts")
+            .tag("result", "written")
+            .functionCounter()
+            .count());
+    assertEquals(
+        0,
+        meterRegistry
+            .get("attempts.write-behind.attempts")
+            .tag("result", "failed")
+            .functionCounter()
+            .count());
+    assertTrue(Files.notExists(directory.resolve("dead-letter.ndjson")));
+  }
+
+  private AttemptWriteBehindQueue queue(int capacity, int groupSize) {
+    AttemptWriteBehindQueue queue =
+        new AttemptWriteBehindQueue(
+            entityIdGenerator,
+            jdbcTemplate,
+            mock(PlatformTransactionManager.class),
+            eventPublisher,
+            new ObjectMapper(),
+            true,
+            capacity,
+            groupSize,
+            Duration.ofMillis(10),
+            Duration.ofMillis(1),
+            directory.resolve("dead-letter.ndjson"));
+    queue.bindTo(meterRegistry);
+    return queue;
+  }
+
+  private static QuizAttempt attempt() {
+    User user = new User();
+    user.setId(1L);
+    QuizAttempt attempt = new QuizAttempt();
+    attempt.setQuizId(1L);
+    attempt.setUser(user);
+
+    TrueOrFalseQuestionAttempt trueOrFalse = new TrueOrFalseQuestionAttempt();
+    trueOrFalse.setQuestionId(10L);
+    trueOrFalse.setUserAnswer(true);
+    trueOrFalse.setCorrectAnswer(true);
+    trueOrFalse.setQuizAttempt(attempt);
+    attempt.getQuestionAttempts().add(trueOrFalse);
+
+    MultipleChoiceQuestionAttempt multipleChoice = new MultipleChoiceQuestionAttempt();
+    multipleChoice.setQuestionId(11L);
+    multipleChoice.setQuizAttempt(attempt);
+    for (long alternativeId = 20; alternativeId < 22; alternativeId++) {
+      AlternativeRecord record = new AlternativeRecord();
+      record.setAlternativeId(alternativeId);
+      record.setAlternativeText("Alternative " + alternativeId);
+      multipleChoice.addAlternative(record);
+    }
+    attempt.getQuestionAttempts().add(multipleChoice);
+    return attempt;
+  }
+}
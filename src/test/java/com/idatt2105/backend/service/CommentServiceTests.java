@@ -9,8 +9,10 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
 
 import com.idatt2105.backend.dto.CommentDTO;
+import com.idatt2105.backend.event.QuizActivityEvent;
 import com.idatt2105.backend.model.Comment;
 import com.idatt2105.backend.model.Quiz;
 import com.idatt2105.backend.model.User;
@@ -32,6 +34,7 @@ class CommentServiceTests {
   @Mock private CommentRepository commentRepository;
   @Mock private QuizRepository quizRepository;
   @Mock private UserRepository userRepository;
+  @Mock private ApplicationEventPublisher eventPublisher;
   @InjectMocks private CommentService commentService;
 
   @BeforeEach
@@ -87,7 +90,7 @@ class CommentServiceTests {
 
     /**
      * The saveComment method tests the saveComment method of the CommentService class. It verifies
-     * that the method saves a comment to the database.
+     * that the method saves a comment to the database and announces it as activity on its quiz.
      */
     @Test
     void saveComment() {
@@ -100,6 +103,7 @@ class CommentServiceTests {
       when(commentRepository.save(any(Comment.class))).thenAnswer(returnsFirstArg());
       CommentDTO saved = commentService.saveComment(dto);
       assertEquals(dto.getContent(), saved.getContent());
+      verify(eventPublisher).publishEvent(any(QuizActivityEvent.class));
     }
 
     /**
@@ -0,0 +1,102 @@
+package com.idatt2105.backend.service;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.idatt2105.backend.model.AlternativeRecord;
+import com.idatt2105.backend.model.MultipleChoiceQuestionAttempt;
+import com.idatt2105.backend.model.QuestionAttempt;
+import com.idatt2105.backend.model.TrueOrFalseQuestionAttempt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The CompactAttemptFormatTests class is a test class that tests the CompactAttemptFormat class.
+ */
+class CompactAttemptFormatTests {
+  private final CompactAttemptFormat format = new CompactAttemptFormat(true);
+
+  /**
+   * This method tests that encoded question attempts decode to equal question attempts, including
+   * missing answers, texts and ids, negative points and text outside ASCII.
+   */
+  @Test
+  void encodedQuestionAttemptsDecodeToEqualOnes() {
+    TrueOrFalseQuestionAttempt answered = trueOrFalse(10L, "Is the sky blue?", true, true);
+    answered.setMediaUrl("https://example.com/sky.png");
+    answered.setPoints(-3);
+    TrueOrFalseQuestionAttempt unanswered = trueOrFalse(null, null, null, false);
+    MultipleChoiceQuestionAttempt multipleChoice = new MultipleChoiceQuestionAttempt();
+    multipleChoice.setQuestionId(Long.MAX_VALUE - 1);
+    multipleChoice.setQuestionText("Hvilken farge har havet? 🌊");
+    multipleChoice.setPoints(300);
+    multipleChoice.addAlternative(alternative(20L, "Blå", true, true));
+    multipleChoice.addAlternative(alternative(21L, "Grønn", false, true));
+    multipleChoice.addAlternative(alternative(null, "", false, false));
+    List<QuestionAttempt> questionAttempts = List.of(answered, unanswered, multipleChoice);
+
+    byte[] encoded = format.encode(questionAttempts);
+
+    assertEquals(CompactAttemptFormat.VERSION, encoded[0]);
+    assertEquals(questionAttempts, format.decode(encoded));
+    assertEquals(List.of(), format.decode(format.encode(Set.of())));
+  }
+
+  /**
+   * This method tests that long, repetitive question attempts are deflated, and still decode to
+   * equal question attempts.
+   */
+  @Test
+  void longQuestionAttemptsAreDeflated() {
+    List<QuestionAttempt> questionAttempts =
+        List.of(
+            trueOrFalse(1L, "A rather long question text ".repeat(20), true, false),
+            trueOrFalse(2L, "A rather long question text ".repeat(20), false, false));
+
+    byte[] encoded = format.encode(questionAttempts);
+
+    assertEquals(1, encoded[1]);
+    assertTrue(encoded.length < 200);
+    assertEquals(questionAttempts, format.decode(encoded));
+  }
+
+  /** This method tests that values of an unknown version or damaged values are not decoded. */
+  @Test
+  void unknownOrDamagedValuesAreNotDecoded() {
+    byte[] encoded = format.encode(List.of(trueOrFalse(1L, "Question", true, true)));
+
+    byte[] unknownVersion = encoded.clone();
+    unknownVersion[0] = CompactAttemptFormat.VERSION + 1;
+    byte[] truncated = new byte[encoded.length - 3];
+    System.arraycopy(encoded, 0, truncated, 0, truncated.length);
+
+    assertThrows(IllegalStateException.class, () -> format.decode(unknownVersion));
+    assertThrows(IllegalStateException.class, () -> format.decode(truncated));
+    assertThrows(IllegalStateException.class, () -> format.decode(new byte[] {1}));
+  }
+
+  private static TrueOrFalseQuestionAttempt trueOrFalse(
+      Long questionId, String questionText, Boolean userAnswer, boolean correctAnswer) {
+    TrueOrFalseQuestionAttempt trueOrFalse = new TrueOrFalseQuestionAttempt();
+    trueOrFalse.setQuestionId(questionId);
+    trueOrFalse.setQuestionText(questionText);
+    trueOrFalse.setUserAnswer(userAnswer);
+    trueOrFalse.setCorrectAnswer(correctAnswer);
+    trueOrFalse.setPoints(1);
+    return trueOrFalse;
+  }
+
+  private static AlternativeRecord alternative(
+      Long alternativeId, String text, boolean wasCorrect, boolean wasSelected) {
+    AlternativeRecord alternative = new AlternativeRecord();
+    alternative.setAlternativeId(alternativeId);
+    alternative.setAlternativeText(text);
+    alternative.setWasCorrect(wasCorrect);
+    alternative.setWasSelected(wasSelected);
+    return alternative;
+  }
+}
@@ -0,0 +1,90 @@
+package com.idatt2105.backend.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import com.idatt2105.backend.service.ItemAnalysis.Response;
+import com.idatt2105.backend.service.ItemAnalysis.ScoredAttempt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares how long the item analysis of a synthetic set of a million attempts on a quiz of ten
+ * questions takes when the attempts are added one by one, and when they are analyzed in partitions
+ * on a fork/join pool of one thread per processor. Not part of the test suite, run it with {@code
+ * mvn test -Dtest=ItemAnalysisBenchmark}.
+ *
+ * <p>Reading the attempts from the database is not measured, only the analysis of them.
+ */
+class ItemAnalysisBenchmark {
+  private static final int ATTEMPTS = 1_000_000;
+  private static final int QUESTIONS = 10;
+  private static final int ALTERNATIVES = 4;
+  private static final int WARMUP_ROUNDS = 3;
+  private static final int ROUNDS = 5;
+
+  @Test
+  void compareSequentialAndParallelAnalysis() {
+    List<ScoredAttempt> attempts = attempts();
+    ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    try {
+      for (int i = 0; i < WARMUP_ROUNDS; i++) {
+        sequential(attempts);
+        ItemAnalysis.analyze(attempts, pool);
+      }
+      long sequentialNanos = 0;
+      long parallelNanos = 0;
+      for (int i = 0; i < ROUNDS; i++) {
+        long start = System.nanoTime();
+        ItemAnalysis sequential = sequential(attempts);
+        sequentialNanos += System.nanoTime() - start;
+        start = System.nanoTime();
+        ItemAnalysis parallel = ItemAnalysis.analyze(attempts, pool);
+        parallelNanos += System.nanoTime() - start;
+        assertEquals(
+            sequential.getItems().get(1L).getCorrect(), parallel.getItems().get(1L).getCorrect());
+      }
+      System.out.printf(
+          "Item analysis of %d attempts: sequential %d ms, parallel on %d threads %d ms%n",
+          ATTEMPTS,
+          sequentialNanos / ROUNDS / 1_000_000,
+          pool.getParallelism(),
+          parallelNanos / ROUNDS / 1_000_000);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private static ItemAnalysis sequential(List<ScoredAttempt> attempts) {
+    ItemAnalysis analysis = new ItemAnalysis();
+    attempts.forEach(analysis::add);
+    return analysis;
+  }
+
+  /**
+   * Generates attempts where each question is harder than the one before, and an attempt with a
+   * higher ability answers more questions correctly, so that the questions discriminate.
+   */
+  private static List<ScoredAttempt> attempts() {
+    Random random = new Random(42);
+    List<ScoredAttempt> attempts = new ArrayList<>(ATTEMPTS);
+    for (int i = 0; i < ATTEMPTS; i++) {
+      double ability = random.nextDouble();
+      List<Response> responses = new ArrayList<>(QUESTIONS);
+      int score = 0;
+      for (long questionId = 1; questionId <= QUESTIONS; questionId++) {
+        boolean correct = random.nextDouble() < ability * (1.2 - 0.1 * questionId);
+        score += correct ? 1 : 0;
+        long firstAlternative = questionId * ALTERNATIVES;
+        long selected = correct ? firstAlternative : firstAlternative + 1 + random.nextInt(3);
+        responses.add(new Response(questionId, correct, 1, new long[] {selected}));
+      }
+      attempts.add(new ScoredAttempt(score, responses));
+    }
+    return attempts;
+  }
+}
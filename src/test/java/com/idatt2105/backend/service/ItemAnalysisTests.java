@@ -0,0 +1,128 @@
+package com.idatt2105.backend.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import com.idatt2105.backend.service.ItemAnalysis.Response;
+import com.idatt2105.backend.service.ItemAnalysis.ScoredAttempt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** The ItemAnalysisTests class is a test class that tests the ItemAnalysis class. */
+class ItemAnalysisTests {
+  private static final long[] NONE = new long[0];
+
+  /**
+   * This method tests the add method of the ItemAnalysis class. It verifies the difficulty, the
+   * point-biserial discrimination against the rest score, and the selections of each alternative of
+   * a small set of attempts worked out by hand.
+   */
+  @Test
+  void computesDifficultyDiscriminationAndSelections() {
+    ItemAnalysis analysis = new ItemAnalysis();
+    analysis.add(attempt(3, new Response(1, true, 1, NONE), choice(true, 10)));
+    analysis.add(attempt(2, new Response(1, true, 1, NONE), choice(false, 11)));
+    analysis.add(attempt(1, new Response(1, false, 1, NONE), choice(true, 10)));
+    analysis.add(attempt(0, new Response(1, false, 1, NONE), choice(false, 11, 12)));
+
+    ItemAnalysis.Item trueOrFalse = analysis.getItems().get(1L);
+    assertEquals(4, trueOrFalse.getResponses());
+    assertEquals(0.5, trueOrFalse.getDifficulty());
+    // Rest scores 2, 1, 1, 0: the correct responses average 1.5, the others 0.5
+    assertEquals(Math.sqrt(0.5), trueOrFalse.getDiscrimination(), 1e-12);
+
+    ItemAnalysis.Item multipleChoice = analysis.getItems().get(2L);
+    assertEquals(0.5, multipleChoice.getDifficulty());
+    assertEquals(Map.of(10L, 2L, 11L, 2L, 12L, 1L), multipleChoice.getSelections());
+  }
+
+  /**
+   * This method tests the getDiscrimination method of the Item class. It verifies that the
+   * discrimination of a question every attempt answered correctly is undefined.
+   */
+  @Test
+  void discriminationIsUndefinedWithoutVariation() {
+    ItemAnalysis analysis = new ItemAnalysis();
+    analysis.add(attempt(1, new Response(1, true, 1, NONE)));
+    analysis.add(attempt(2, new Response(1, true, 1, NONE)));
+
+    assertEquals(1.0, analysis.getItems().get(1L).getDifficulty());
+    assertTrue(Double.isNaN(analysis.getItems().get(1L).getDiscrimination()));
+  }
+
+  /**
+   * This method tests the analyze method of the ItemAnalysis class. It verifies that analyzing
+   * attempts in partitions on a fork/join pool gives the same result as adding them one by one.
+   */
+  @Test
+  void parallelAnalysisMatchesSequentialAnalysis() {
+    Random random = new Random(42);
+    List<ScoredAttempt> attempts = new ArrayList<>();
+    for (int i = 0; i < 20 * ItemAnalysis.MIN_PARTITION_SIZE + 17; i++) {
+      List<Response> responses = new ArrayList<>();
+      int score = 0;
+      for (long questionId = 1; questionId <= 5; questionId++) {
+        boolean correct = random.nextDouble() < 0.2 * questionId;
+        score += correct ? 2 : 0;
+        long[] selected = {questionId * 10 + random.nextInt(4)};
+        responses.add(new Response(questionId, correct, 2, selected));
+      }
+      attempts.add(new ScoredAttempt(score, responses));
+    }
+    ItemAnalysis sequential = new ItemAnalysis();
+    attempts.forEach(sequential::add);
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      ItemAnalysis parallel = ItemAnalysis.analyze(attempts, pool);
+      assertEquals(sequential.getItems().keySet(), parallel.getItems().keySet());
+      sequential
+          .getItems()
+          .forEach(
+              (questionId, expected) -> {
+                ItemAnalysis.Item actual = parallel.getItems().get(questionId);
+                assertEquals(expected.getResponses(), actual.getResponses());
+                assertEquals(expected.getCorrect(), actual.getCorrect());
+                assertEquals(expected.getDiscrimination(), actual.getDiscrimination(), 1e-9);
+                assertEquals(expected.getSelections(), actual.getSelections());
+              });
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * This method tests the partitionSize method of the ItemAnalysis class. It verifies that a batch
+   * of the default size is split into more than one partition, and into enough for every thread of
+   * the pool, whatever the parallelism of the common pool.
+   */
+  @Test
+  void defaultBatchIsSplitIntoPartitionsForEveryThread() {
+    // The default of quiz.item-analysis.batch-size
+    int batchSize = 5000;
+    for (int parallelism : new int[] {1, 4, ForkJoinPool.getCommonPoolParallelism()}) {
+      int partitionSize = ItemAnalysis.partitionSize(batchSize, parallelism);
+      int partitions = (batchSize + partitionSize - 1) / partitionSize;
+      assertTrue(partitions > 1, "parallelism " + parallelism);
+      assertTrue(
+          partitions >= Math.min(parallelism, batchSize / ItemAnalysis.MIN_PARTITION_SIZE),
+          "parallelism " + parallelism);
+    }
+    assertEquals(
+        ItemAnalysis.MIN_PARTITION_SIZE, ItemAnalysis.partitionSize(100, 4), "small batch");
+  }
+
+  private static ScoredAttempt attempt(int score, Response... responses) {
+    return new ScoredAttempt(score, List.of(responses));
+  }
+
+  private static Response choice(boolean correct, long... selected) {
+    return new Response(2, correct, 1, selected);
+  }
+}
@@ -0,0 +1,312 @@
+package com.idatt2105.backend.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.idatt2105.backend.dto.LiveQuestionDTO;
+import com.idatt2105.backend.dto.LiveQuestionResultsDTO;
+import com.idatt2105.backend.dto.QuestionAttemptDTO;
+import com.idatt2105.backend.dto.QuizAttemptDTO;
+import com.idatt2105.backend.enumerator.LiveSessionState;
+import com.idatt2105.backend.enumerator.QuestionType;
+import com.idatt2105.backend.model.AlternativeRecord;
+import com.idatt2105.backend.model.MultipleChoiceQuestion;
+import com.idatt2105.backend.model.TrueOrFalseQuestion;
+import com.idatt2105.backend.repository.AlternativeRepository.AlternativeRow;
+import com.idatt2105.backend.util.InvalidIdException;
+import com.idatt2105.backend.util.LiveSessionStateException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** The LiveSessionTests class is a test class that tests the LiveSession class. */
+class LiveSessionTests {
+  private static final long HOST = 1L;
+
+  private LiveSession session;
+
+  @BeforeEach
+  void setUp() {
+    // Question 10 is true or false worth 2 points, question 11 has alternatives 20 to 22 worth 3
+    TrueOrFalseQuestion trueOrFalse = new TrueOrFalseQuestion();
+    trueOrFalse.setId(10L);
+    trueOrFalse.setPoints(2);
+    trueOrFalse.setCorrectAnswer(true);
+    MultipleChoiceQuestion multipleChoice = new MultipleChoiceQuestion();
+    multipleChoice.setId(11L);
+    multipleChoice.setPoints(3);
+    AnswerKey answerKey =
+        AnswerKey.compile(
+            5L,
+            0,
+            List.of(trueOrFalse, multipleChoice),
+            List.of(row(11L, 20L, true), row(11L, 21L, false), row(11L, 22L, true)));
+    List<LiveQuestionDTO> questions =
+        List.of(
+            new LiveQuestionDTO(0, 10L, QuestionType.TRUE_OR_FALSE, "True?", null, 2, null),
+            new LiveQuestionDTO(
+                1,
+                11L,
+                QuestionType.MULTIPLE_CHOICE,
+                "Which?",
+                null,
+                3,
+                List.of(
+                    new LiveQuestionDTO.AlternativeEntry(20L, "A"),
+                    new LiveQuestionDTO.AlternativeEntry(21L, "B"),
+                    new LiveQuestionDTO.AlternativeEntry(22L, "C"))));
+    session = new LiveSession("ABCDEF", 5L, "Quiz", HOST, answerKey, questions);
+  }
+
+  /**
+   * This method tests the answer method of the LiveSession class. It verifies that answers are only
+   * accepted for the open question, once per player, and that they are graded like the quiz grader
+   * grades them.
+   */
+  @Test
+  void answersAreGradedOnceForTheOpenQuestion() {
+    session.join(2L, "player", 10);
+
+    assertThrows(LiveSessionStateException.class, () -> session.answer(2L, 0, true, null));
+    assertThrows(InvalidIdException.class, () -> session.answer(3L, 0, true, null));
+    assertEquals(0, session.openNextQuestion().getIndex());
+    assertThrows(IllegalArgumentException.class, () -> session.answer(2L, 0, null, null));
+    assertTrue(session.answer(2L, 0, true, null));
+    assertThrows(LiveSessionStateException.class, () -> session.answer(2L, 0, false, null));
+    assertThrows(LiveSessionStateException.class, session::openNextQuestion);
+
+    session.closeQuestion(10);
+    session.openNextQuestion();
+    assertThrows(LiveSessionStateException.class, () -> session.answer(2L, 0, true, null));
+    assertThrows(IllegalArgumentException.class, () -> session.answer(2L, 1, null, List.of(23L)));
+    assertThrows(
+        IllegalArgumentException.class, () -> session.answer(2L, 1, null, List.of(20L, 20L)));
+    // Only one of the two correct alternatives
+    assertFalse(session.answer(2L, 1, null, List.of(20L)));
+
+    assertEquals(2, session.getStandings(10).get(0).getScore());
+    session.end(10);
+    assertEquals(LiveSessionState.ENDED, session.getState());
+    assertThrows(LiveSessionStateException.class, () -> session.join(3L, "late", 10));
+  }
+
+  /**
+   * This method tests the getResults method of the LiveSession class. It verifies that answers
+   * given from many threads at once are all counted, per question and per alternative.
+   */
+  @Test
+  void concurrentAnswersAreAllCounted() throws Exception {
+    int players = 4000;
+    for (long userId = 2; userId < players + 2; userId++) {
+      session.join(userId, "player" + userId, players);
+    }
+    assertThrows(LiveSessionStateException.class, () -> session.join(1_000_000L, "extra", players));
+
+    session.openNextQuestion();
+    answerConcurrently(players, userId -> session.answer(userId, 0, userId % 4 != 0, null));
+    LiveQuestionResultsDTO trueOrFalse = session.closeQuestion(10);
+    assertEquals(players, trueOrFalse.getAnswerCount());
+    assertEquals(players * 3 / 4, trueOrFalse.getCorrectCount());
+    assertEquals(players * 3 / 4, trueOrFalse.getTrueCount());
+
+    session.openNextQuestion();
+    answerConcurrently(
+        players,
+        userId ->
+            session.answer(
+                userId, 1, null, userId % 2 == 0 ? List.of(20L, 22L) : List.of(21L, 22L)));
+    LiveQuestionResultsDTO multipleChoice = session.closeQuestion(3);
+    assertEquals(players / 2, multipleChoice.getCorrectCount());
+    assertEquals(
+        Map.of(20L, 2000L, 21L, 2000L, 22L, 4000L), multipleChoice.getAlternativeSelections());
+    assertEquals(List.of(20L, 22L), multipleChoice.getCorrectAlternativeIds());
+    assertNull(multipleChoice.getTrueCount());
+
+    // Players answering both correctly have 5 points, and the first of them to join ranks first
+    assertEquals(5, multipleChoice.getStandings().get(0).getScore());
+    assertEquals(2L, multipleChoice.getStandings().get(0).getUserId());
+    assertEquals(players, session.getRankedPlayersWithAnswers().size());
+  }
+
+  /**
+   * This method tests the closeQuestion method of the LiveSession class. It verifies that answers
+   * racing the close are either accepted and part of the results and scores pushed at the close, or
+   * rejected.
+   */
+  @Test
+  void answersRacingTheCloseAreCountedOrRejected() throws Exception {
+    int players = 4000;
+    for (long userId = 2; userId < players + 2; userId++) {
+      session.join(userId, "player" + userId, players);
+    }
+    session.openNextQuestion();
+    AtomicInteger accepted = new AtomicInteger();
+    AtomicInteger rejected = new AtomicInteger();
+    CountDownLatch halfway = new CountDownLatch(players / 2);
+    Thread closing =
+        new Thread(
+            () -> {
+              try {
+                halfway.await();
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+              session.closeQuestion(10);
+            });
+    closing.start();
+    answerConcurrently(
+        players,
+        userId -> {
+          try {
+            session.answer(userId, 0, true, null);
+            accepted.incrementAndGet();
+          } catch (LiveSessionStateException e) {
+            rejected.incrementAndGet();
+          }
+          halfway.countDown();
+        });
+    closing.join();
+
+    LiveQuestionResultsDTO results = session.getResults(0, 10);
+    assertEquals(players, accepted.get() + rejected.get());
+    assertEquals(accepted.get(), results.getAnswerCount());
+    assertEquals(accepted.get(), results.getCorrectCount());
+    assertEquals(accepted.get(), session.getRankedPlayersWithAnswers().size());
+    int scores = 0;
+    for (LiveSession.Player player : session.getRankedPlayersWithAnswers()) {
+      scores += player.getScore();
+    }
+    assertEquals(accepted.get() * 2, scores);
+    assertThrows(
+        LiveSessionStateException.class, () -> session.answer(players + 1L, 0, true, null));
+  }
+
+  /**
+   * This method tests the join method of the LiveSession class. It verifies that players joining
+   * from many threads at once never pass the limit, and that none joins once the session has ended.
+   */
+  @Test
+  void concurrentJoinsStayWithinLimitAndEnd() throws Exception {
+    int limit = 1000;
+    AtomicInteger full = new AtomicInteger();
+    answerConcurrently(
+        4000,
+        userId -> {
+          try {
+            session.join(userId, "player" + userId, limit);
+          } catch (LiveSessionStateException e) {
+            full.incrementAndGet();
+          }
+        });
+    assertEquals(limit, session.getPlayerCount());
+    assertEquals(3000, full.get());
+
+    AtomicInteger playersAtEnd = new AtomicInteger();
+    CountDownLatch halfway = new CountDownLatch(2000);
+    Thread ending =
+        new Thread(
+            () -> {
+              try {
+                halfway.await();
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+              session.end(10);
+              playersAtEnd.set(session.getPlayerCount());
+            });
+    ending.start();
+    answerConcurrently(
+        4000,
+        userId -> {
+          try {
+            session.join(userId + 10_000, "late" + userId, Integer.MAX_VALUE);
+          } catch (LiveSessionStateException e) {
+            // The session has ended
+          }
+          halfway.countDown();
+        });
+    ending.join();
+    assertEquals(playersAtEnd.get(), session.getPlayerCount());
+  }
+
+  /**
+   * This method tests the toQuizAttempt method of the LiveSession class. It verifies that the
+   * attempt holds the answered questions of the player, with every alternative shown.
+   */
+  @Test
+  void toQuizAttemptHoldsTheAnsweredQuestions() {
+    LiveSession.Player player = session.join(2L, "player", 10);
+    session.openNextQuestion();
+    session.closeQuestion(10);
+    session.openNextQuestion();
+    session.answer(2L, 1, null, List.of(21L));
+
+    QuizAttemptDTO attempt = session.toQuizAttempt(player);
+
+    assertEquals(5L, attempt.getQuizId());
+    assertEquals(2L, attempt.getUserId());
+    assertEquals(1, attempt.getQuestionAttempts().size());
+    QuestionAttemptDTO questionAttempt = attempt.getQuestionAttempts().iterator().next();
+    assertEquals(11L, questionAttempt.getQuestionId());
+    assertEquals(3, questionAttempt.getAlternatives().size());
+    for (AlternativeRecord record : questionAttempt.getAlternatives()) {
+      assertEquals(record.getAlternativeId() == 21L, record.getWasSelected());
+    }
+  }
+
+  private interface Answering {
+    void answer(long userId);
+  }
+
+  private static void answerConcurrently(int players, Answering answering) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (long userId = 2; userId < players + 2; userId++) {
+        long player = userId;
+        futures.add(executor.submit(() -> answering.answer(player)));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static AlternativeRow row(Long questionId, Long id, boolean correct) {
+    return new AlternativeRow() {
+      @Override
+      public Long getQuestionId() {
+        return questionId;
+      }
+
+      @Override
+      public Long getId() {
+        return id;
+      }
+
+      @Override
+      public String getAlternativeText() {
+        return "Alternative " + id;
+      }
+
+      @Override
+      public boolean isCorrect() {
+        return correct;
+      }
+    };
+  }
+}
@@ -1,5 +1,6 @@
 package com.idatt2105.backend.service;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -11,10 +12,12 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
 
 import com.idatt2105.backend.dto.AlternativeDTO;
 import com.idatt2105.backend.dto.QuestionDTO;
 import com.idatt2105.backend.enumerator.QuestionType;
+import com.idatt2105.backend.event.QuestionsChangedEvent;
 import com.idatt2105.backend.model.Alternative;
 import com.idatt2105.backend.model.MultipleChoiceQuestion;
 import com.idatt2105.backend.model.Question;
@@ -33,6 +36,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.AdditionalAnswers.returnsFirstArg;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -43,6 +47,7 @@ class QuestionServiceTests {
   @Mock private QuestionRepository questionRepository;
   @Mock private QuizRepository quizRepository;
   @Mock private AlternativeRepository alternativeRepository;
+  @Mock private ApplicationEventPublisher eventPublisher;
 
   /**
    * The BasicFunctionality class is a test class that tests the basic functionality of the
@@ -125,6 +130,40 @@ class QuestionServiceTests {
       assertEquals("Updated question text", actual.getQuestionText());
     }
 
+    /**
+     * The updateQuestionMarksQuizModified method tests the updateQuestion method of the
+     * QuestionService class. It verifies that the quiz of the question gets a new version.
+     */
+    @Test
+    void updateQuestionMarksQuizModified() {
+      Quiz quiz = new Quiz();
+      quiz.setId(4L);
+      MultipleChoiceQuestion question = new MultipleChoiceQuestion();
+      question.setQuiz(quiz);
+      when(questionRepository.findById(3L)).thenReturn(Optional.of(question));
+      QuestionDTO input = new QuestionDTO();
+      input.setQuestionId(3L);
+
+      questionService.updateQuestion(input);
+
+      verify(quizRepository).markModified(eq(4L), any(LocalDateTime.class));
+    }
+
+    /**
+     * The deleteAlternativeMarksQuizModified method tests the deleteAlternative method of the
+     * QuestionService class. It verifies that the quiz of the alternative gets a new version, and
+     * that the change is announced.
+     */
+    @Test
+    void deleteAlternativeMarksQuizModified() {
+      when(alternativeRepository.findQuizIdById(1L)).thenReturn(Optional.of(4L));
+
+      questionService.deleteAlternative(1L);
+
+      verify(quizRepository).markModified(eq(4L), any(LocalDateTime.class));
+      verify(eventPublisher).publishEvent(new QuestionsChangedEvent(4L));
+    }
+
     /**
      * The updateTrueOrFalseQuestionUpdatesQuestion method tests the updateTrueOrFalseQuestion
      * method of the QuestionService class. It verifies that the method updates a true or false
@@ -207,7 +246,7 @@ class QuestionServiceTests {
       when(alternativeRepository.save(any(Alternative.class))).thenReturn(new Alternative());
 
       QuestionService questionService =
-          new QuestionService(questionRepository, null, alternativeRepository);
+          new QuestionService(questionRepository, null, alternativeRepository, eventPublisher);
       Set<Alternative> updatedAlternatives =
           questionService.updateAlternatives(questionId, alternativeDTOs);
 
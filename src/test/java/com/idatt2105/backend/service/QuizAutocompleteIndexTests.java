@@ -0,0 +1,149 @@
+package com.idatt2105.backend.service;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.idatt2105.backend.dto.SuggestionDTO;
+import com.idatt2105.backend.enumerator.SuggestionType;
+import com.idatt2105.backend.event.CategoryCreatedEvent;
+import com.idatt2105.backend.event.QuizChangedEvent;
+import com.idatt2105.backend.event.TagsCreatedEvent;
+import com.idatt2105.backend.model.Category;
+import com.idatt2105.backend.model.Quiz;
+import com.idatt2105.backend.model.Tag;
+import com.idatt2105.backend.repository.CategoryRepository;
+import com.idatt2105.backend.repository.QuizRepository;
+import com.idatt2105.backend.repository.TagRepository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/** The QuizAutocompleteIndexTests class is a test class that tests the QuizAutocompleteIndex. */
+public class QuizAutocompleteIndexTests {
+  private QuizAutocompleteIndex index;
+
+  @BeforeEach
+  void setUp() {
+    QuizRepository quizRepository = mock(QuizRepository.class);
+    TagRepository tagRepository = mock(TagRepository.class);
+    CategoryRepository categoryRepository = mock(CategoryRepository.class);
+    Category science = category("Science");
+    when(categoryRepository.findAll()).thenReturn(List.of(science, category("Sports")));
+    when(tagRepository.findAll())
+        .thenReturn(List.of(new Tag("Space"), new Tag("Physics"), new Tag("Spanish")));
+    when(quizRepository.findAllPublicWithTags())
+        .thenReturn(
+            List.of(
+                quiz(1L, "Solar system", science, "Space", "Physics"),
+                quiz(2L, "Space race", science, "Space")));
+    index = new QuizAutocompleteIndex(quizRepository, tagRepository, categoryRepository);
+    index.rebuild();
+  }
+
+  /**
+   * This method tests the suggest method of the QuizAutocompleteIndex class. It verifies that tags,
+   * categories and quiz titles are suggested, most used first.
+   */
+  @Test
+  void suggestRanksByUsage() {
+    assertEquals(
+        List.of(
+            new SuggestionDTO("Space", SuggestionType.TAG, 2),
+            new SuggestionDTO("Space race", SuggestionType.QUIZ, 1),
+            new SuggestionDTO("Spanish", SuggestionType.TAG, 0)),
+        index.suggest("SPA", 10));
+    assertEquals(
+        new SuggestionDTO("Science", SuggestionType.CATEGORY, 2), index.suggest("s", 1).get(0));
+    assertTrue(index.suggest("xyz", 10).isEmpty());
+  }
+
+  /**
+   * This method tests the onQuizChanged method of the QuizAutocompleteIndex class. It verifies that
+   * counts move with the quiz, and that titles of quizzes made private are no longer suggested.
+   */
+  @Test
+  void onQuizChangedUpdatesCounts() {
+    index.onQuizChanged(
+        new QuizChangedEvent(2L, "Space race", null, "Sports", Set.of("Spanish"), true));
+
+    assertEquals(
+        List.of(
+            new SuggestionDTO("Space", SuggestionType.TAG, 1),
+            new SuggestionDTO("Space race", SuggestionType.QUIZ, 1),
+            new SuggestionDTO("Spanish", SuggestionType.TAG, 1)),
+        index.suggest("spa", 10));
+
+    index.onQuizChanged(
+        new QuizChangedEvent(2L, "Space race", null, "Sports", Set.of("Spanish"), false));
+
+    assertEquals(
+        List.of(
+            new SuggestionDTO("Space", SuggestionType.TAG, 1),
+            new SuggestionDTO("Spanish", SuggestionType.TAG, 0)),
+        index.suggest("spa", 10));
+  }
+
+  /**
+   * This method tests the onCategoryCreated method of the QuizAutocompleteIndex class. It verifies
+   * that a new category is suggested right away.
+   */
+  @Test
+  void onCategoryCreatedAddsCategory() {
+    index.onCategoryCreated(new CategoryCreatedEvent("History"));
+
+    assertEquals(
+        List.of(new SuggestionDTO("History", SuggestionType.CATEGORY, 0)), index.suggest("hi", 10));
+  }
+
+  /**
+   * This method tests the onTagsCreated method of the QuizAutocompleteIndex class. It verifies that
+   * new tags are suggested right away, before any quiz uses them.
+   */
+  @Test
+  void onTagsCreatedAddsTags() {
+    index.onTagsCreated(new TagsCreatedEvent(List.of("Java", "JavaScript")));
+
+    assertEquals(
+        List.of(
+            new SuggestionDTO("Java", SuggestionType.TAG, 0),
+            new SuggestionDTO("JavaScript", SuggestionType.TAG, 0)),
+        index.suggest("jav", 10));
+  }
+
+  /**
+   * This method tests the suggest method of the QuizAutocompleteIndex class. It verifies that the
+   * method throws an IllegalArgumentException when given invalid parameters.
+   */
+  @Test
+  void suggestThrowsExceptionWhenParametersAreInvalid() {
+    assertThrows(IllegalArgumentException.class, () -> index.suggest(null, 10));
+    assertThrows(IllegalArgumentException.class, () -> index.suggest("s", 0));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> index.suggest("s", QuizAutocompleteIndex.MAX_SUGGESTIONS + 1));
+  }
+
+  private static Category category(String name) {
+    Category category = new Category();
+    category.setName(name);
+    return category;
+  }
+
+  private static Quiz quiz(Long id, String title, Category category, String... tagNames) {
+    Quiz quiz = new Quiz();
+    quiz.setId(id);
+    quiz.setTitle(title);
+    quiz.setPublic(true);
+    quiz.setCategory(category);
+    for (String tagName : tagNames) {
+      quiz.getTags().add(new Tag(tagName));
+    }
+    return quiz;
+  }
+}
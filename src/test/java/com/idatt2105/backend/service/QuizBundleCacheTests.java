@@ -0,0 +1,188 @@
+package com.idatt2105.backend.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.idatt2105.backend.dto.QuizBundleDTO;
+import com.idatt2105.backend.dto.QuizDTO;
+import com.idatt2105.backend.dto.QuizVersionDTO;
+import com.idatt2105.backend.event.QuestionsChangedEvent;
+import com.idatt2105.backend.event.QuizChangedEvent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/** The QuizBundleCacheTests class is a test class that tests the QuizBundleCache class. */
+public class QuizBundleCacheTests {
+  private QuizBundleService quizBundleService;
+  private QuizBundleCache cache;
+
+  @BeforeEach
+  void setUp() {
+    quizBundleService = mock(QuizBundleService.class);
+    when(quizBundleService.getQuizBundle(anyLong()))
+        .thenAnswer(invocation -> bundle(invocation.getArgument(0)));
+    cache =
+        new QuizBundleCache(
+            quizBundleService,
+            new ObjectMapper().findAndRegisterModules(),
+            DataSize.ofMegabytes(1),
+            true);
+  }
+
+  /**
+   * This method tests the getBundle method of the QuizBundleCache class. It verifies that the
+   * bundle of a quiz is serialized once per version, and that every read gets the whole JSON.
+   */
+  @Test
+  void getBundleServesSameVersionFromCache() {
+    String first = text(cache.getBundle(version(1L, 0, true), false));
+    String second = text(cache.getBundle(version(1L, 0, true), false));
+
+    assertEquals(first, second);
+    assertTrue(first.contains("\"title\":\"Quiz 1\""));
+    verify(quizBundleService, times(1)).getQuizBundle(1L);
+    assertEquals(0.5, cache.hitRatio(), 1e-9);
+
+    cache.getBundle(version(1L, 1, true), false);
+    verify(quizBundleService, times(2)).getQuizBundle(1L);
+    assertEquals(1, cache.size());
+  }
+
+  /**
+   * This method tests the getBundle method of the QuizBundleCache class. It verifies that the
+   * gzipped bundle decompresses to the same JSON as the plain one.
+   */
+  @Test
+  void getBundleGzipsJson() throws IOException {
+    String json = text(cache.getBundle(version(1L, 0, true), false));
+    ByteBuffer gzipped = cache.getBundle(version(1L, 0, true), true);
+
+    byte[] compressed = new byte[gzipped.remaining()];
+    gzipped.get(compressed);
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+      assertEquals(json, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+    }
+  }
+
+  /**
+   * This method tests the getBundle method of the QuizBundleCache class. It verifies that bundles
+   * of private quizzes are built for every read and never stored.
+   */
+  @Test
+  void getBundleDoesNotCachePrivateQuizzes() {
+    cache.getBundle(version(1L, 0, false), false);
+    cache.getBundle(version(1L, 0, false), false);
+
+    verify(quizBundleService, times(2)).getQuizBundle(1L);
+    assertEquals(0, cache.size());
+    assertEquals(0, cache.memoryUsed());
+  }
+
+  /**
+   * This method tests the event listeners of the QuizBundleCache class. It verifies that the bundle
+   * of a quiz is dropped when the quiz or its questions change.
+   */
+  @Test
+  void changesEvictBundle() {
+    cache.getBundle(version(1L, 0, true), false);
+    cache.getBundle(version(2L, 0, true), false);
+
+    cache.onQuizChanged(new QuizChangedEvent(1L, "Quiz 1", null, null, Set.of(), true));
+    assertEquals(1, cache.size());
+    cache.onQuestionsChanged(new QuestionsChangedEvent(2L));
+    assertEquals(0, cache.size());
+    assertEquals(0, cache.memoryUsed());
+  }
+
+  /**
+   * This method tests the getBundle method of the QuizBundleCache class. It verifies that the least
+   * recently used bundles are evicted once the cache is full.
+   */
+  @Test
+  void getBundleEvictsLeastRecentlyUsed() {
+    cache.getBundle(version(1L, 0, true), false);
+    long entryBytes = cache.memoryUsed();
+    cache =
+        new QuizBundleCache(
+            quizBundleService,
+            new ObjectMapper().findAndRegisterModules(),
+            DataSize.ofBytes(entryBytes * 2),
+            true);
+
+    cache.getBundle(version(1L, 0, true), false);
+    cache.getBundle(version(2L, 0, true), false);
+    // Reading quiz 1 again makes quiz 2 the least recently used
+    cache.getBundle(version(1L, 0, true), false);
+    cache.getBundle(version(3L, 0, true), false);
+
+    assertEquals(2, cache.size());
+    assertTrue(cache.memoryUsed() <= entryBytes * 2);
+    cache.getBundle(version(1L, 0, true), false);
+    verify(quizBundleService, times(2)).getQuizBundle(1L);
+    cache.getBundle(version(2L, 0, true), false);
+    verify(quizBundleService, times(2)).getQuizBundle(2L);
+  }
+
+  /**
+   * This method tests the bindTo method of the QuizBundleCache class. It verifies that requests,
+   * the hit ratio and memory use are published as metrics.
+   */
+  @Test
+  void bindToPublishesMetrics() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    cache.bindTo(registry);
+    cache.getBundle(version(1L, 0, true), false);
+    cache.getBundle(version(1L, 0, true), true);
+
+    assertEquals(
+        1,
+        registry.get("quiz.bundle.cache.requests").tag("result", "hit").functionCounter().count());
+    assertEquals(
+        1,
+        registry.get("quiz.bundle.cache.requests").tag("result", "miss").functionCounter().count());
+    assertEquals(0.5, registry.get("quiz.bundle.cache.hit.ratio").gauge().value(), 1e-9);
+    assertEquals(
+        cache.memoryUsed(), (long) registry.get("quiz.bundle.cache.memory").gauge().value());
+    verify(quizBundleService, never()).getQuizBundle(2L);
+  }
+
+  private static QuizVersionDTO version(Long quizId, long contentVersion, boolean isPublic) {
+    return new QuizVersionDTO(quizId, contentVersion, LocalDateTime.now(), isPublic);
+  }
+
+  private static QuizBundleDTO bundle(Long quizId) {
+    QuizDTO quiz = new QuizDTO();
+    quiz.setId(quizId);
+    quiz.setTitle("Quiz " + quizId);
+    QuizBundleDTO.QuestionEntry question = new QuizBundleDTO.QuestionEntry();
+    question.setId(quizId * 10);
+    question.setQuestionText("Question of quiz " + quizId);
+    return new QuizBundleDTO(quiz, List.of(question));
+  }
+
+  private static String text(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,123 @@
+package com.idatt2105.backend.service;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.idatt2105.backend.dto.QuizBundleDTO;
+import com.idatt2105.backend.dto.QuizBundleDTO.AlternativeEntry;
+import com.idatt2105.backend.dto.QuizBundleDTO.QuestionEntry;
+import com.idatt2105.backend.enumerator.QuestionType;
+import com.idatt2105.backend.model.MultipleChoiceQuestion;
+import com.idatt2105.backend.model.Quiz;
+import com.idatt2105.backend.model.TrueOrFalseQuestion;
+import com.idatt2105.backend.repository.AlternativeRepository;
+import com.idatt2105.backend.repository.AlternativeRepository.AlternativeRow;
+import com.idatt2105.backend.repository.QuestionRepository;
+import com.idatt2105.backend.repository.QuizRepository;
+import com.idatt2105.backend.util.InvalidIdException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+/** The QuizBundleServiceTests class is a test class that tests the QuizBundleService class. */
+@SpringBootTest
+class QuizBundleServiceTests {
+  @InjectMocks private QuizBundleService quizBundleService;
+  @Mock private QuizRepository quizRepository;
+  @Mock private QuestionRepository questionRepository;
+  @Mock private AlternativeRepository alternativeRepository;
+
+  /**
+   * This method tests the getQuizBundle method of the QuizBundleService class. It verifies that
+   * both kinds of questions are included in order, each multiple choice question with its own
+   * alternatives, and that no correct answers are given away.
+   */
+  @Test
+  void getQuizBundleIncludesQuestionsAndAlternatives() {
+    Quiz quiz = new Quiz();
+    quiz.setId(1L);
+    quiz.setTitle("Capitals");
+    TrueOrFalseQuestion trueOrFalse = new TrueOrFalseQuestion();
+    trueOrFalse.setId(10L);
+    trueOrFalse.setQuestionText("Oslo is the capital of Norway");
+    trueOrFalse.setCorrectAnswer(true);
+    MultipleChoiceQuestion multipleChoice = new MultipleChoiceQuestion();
+    multipleChoice.setId(11L);
+    multipleChoice.setQuestionText("What is the capital of Sweden?");
+    MultipleChoiceQuestion withoutAlternatives = new MultipleChoiceQuestion();
+    withoutAlternatives.setId(12L);
+
+    when(quizRepository.findWithDetailsById(1L)).thenReturn(Optional.of(quiz));
+    when(questionRepository.findByQuizIdOrderByIdAsc(1L))
+        .thenReturn(List.of(trueOrFalse, multipleChoice, withoutAlternatives));
+    when(alternativeRepository.findRowsByQuizId(1L))
+        .thenReturn(List.of(row(11L, 20L, "Stockholm", true), row(11L, 21L, "Oslo", false)));
+
+    QuizBundleDTO bundle = quizBundleService.getQuizBundle(1L);
+
+    assertEquals("Capitals", bundle.getQuiz().getTitle());
+    QuestionEntry first = bundle.getQuestions().get(0);
+    assertEquals(QuestionType.TRUE_OR_FALSE, first.getType());
+    assertNull(first.getAlternatives());
+
+    QuestionEntry second = bundle.getQuestions().get(1);
+    assertEquals(QuestionType.MULTIPLE_CHOICE, second.getType());
+    assertEquals(
+        List.of(new AlternativeEntry(20L, "Stockholm"), new AlternativeEntry(21L, "Oslo")),
+        second.getAlternatives());
+    assertTrue(bundle.getQuestions().get(2).getAlternatives().isEmpty());
+  }
+
+  /**
+   * This method tests the getQuizBundle method of the QuizBundleService class. It verifies that the
+   * method throws an InvalidIdException when the quiz is not found.
+   */
+  @Test
+  void getQuizBundleThrowsExceptionWhenQuizIsNotFound() {
+    when(quizRepository.findWithDetailsById(2L)).thenReturn(Optional.empty());
+
+    assertThrows(InvalidIdException.class, () -> quizBundleService.getQuizBundle(2L));
+  }
+
+  /**
+   * This method tests the getQuizBundle method of the QuizBundleService class. It verifies that the
+   * method throws an IllegalArgumentException when given null as a parameter.
+   */
+  @Test
+  void getQuizBundleThrowsExceptionWhenGivenNullAsParameter() {
+    assertThrows(IllegalArgumentException.class, () -> quizBundleService.getQuizBundle(null));
+  }
+
+  private static AlternativeRow row(
+      Long questionId, Long id, String alternativeText, boolean correct) {
+    return new AlternativeRow() {
+      @Override
+      public Long getQuestionId() {
+        return questionId;
+      }
+
+      @Override
+      public Long getId() {
+        return id;
+      }
+
+      @Override
+      public String getAlternativeText() {
+        return alternativeText;
+      }
+
+      @Override
+      public boolean isCorrect() {
+        return correct;
+      }
+    };
+  }
+}
@@ -0,0 +1,158 @@
+package com.idatt2105.backend.service;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import com.idatt2105.backend.dto.QuizFilterDTO;
+import com.idatt2105.backend.event.QuizChangedEvent;
+import com.idatt2105.backend.model.Category;
+import com.idatt2105.backend.model.Quiz;
+import com.idatt2105.backend.model.Tag;
+import com.idatt2105.backend.repository.QuizRepository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/** The QuizFilterIndexTests class is a test class that tests the QuizFilterIndex class. */
+public class QuizFilterIndexTests {
+  private QuizRepository quizRepository;
+  private QuizFilterIndex index;
+
+  @BeforeEach
+  void setUp() {
+    quizRepository = mock(QuizRepository.class);
+    when(quizRepository.findAllPublicWithTags())
+        .thenReturn(
+            List.of(
+                quiz(1L, "Science", "Physics", "Easy"),
+                quiz(2L, "Science", "Chemistry", "Hard"),
+                quiz(3L, "History", "Europe", "Easy"),
+                quiz(4L, "Science", "Physics", "Hard")));
+    index = new QuizFilterIndex(quizRepository);
+    index.rebuild();
+  }
+
+  /**
+   * This method tests the filter method of the QuizFilterIndex class. It verifies that all parts of
+   * a filter are combined.
+   */
+  @Test
+  void filterCombinesAllParts() {
+    QuizFilterDTO filter = new QuizFilterDTO();
+    filter.setCategory("Science");
+    filter.setAnyTags(Set.of("Physics", "Chemistry"));
+    filter.setNoneTags(Set.of("Hard"));
+
+    assertEquals(List.of(1L), index.filter(filter, Pageable.unpaged()).getContent());
+  }
+
+  /**
+   * This method tests the findByAllTags method of the QuizFilterIndex class. It verifies that only
+   * quizzes with every tag are found, and that names are matched case-insensitively.
+   */
+  @Test
+  void findByAllTagsIntersectsTags() {
+    assertEquals(
+        List.of(4L),
+        index.findByAllTags(Set.of("physics", "HARD"), Pageable.unpaged()).getContent());
+    assertTrue(index.findByAllTags(Set.of("Physics", "Unknown"), Pageable.unpaged()).isEmpty());
+  }
+
+  /**
+   * This method tests the findByCategory method of the QuizFilterIndex class. It verifies that the
+   * requested page and the total are computed from the bitmap.
+   */
+  @Test
+  void findByCategoryPagesThroughIds() {
+    Page<Long> page = index.findByCategory("Science", PageRequest.of(1, 2));
+
+    assertEquals(List.of(4L), page.getContent());
+    assertEquals(3, page.getTotalElements());
+    assertTrue(index.findByCategory("Science", PageRequest.of(5, 2)).getContent().isEmpty());
+  }
+
+  /**
+   * This method tests the onQuizChanged method of the QuizFilterIndex class. It verifies that a
+   * changed quiz is moved to its new tags and category, and removed when it is made private.
+   */
+  @Test
+  void onQuizChangedUpdatesPostings() {
+    index.onQuizChanged(new QuizChangedEvent(3L, "Quiz", null, "Science", Set.of("Hard"), true));
+
+    assertFalse(index.findByCategory("History", Pageable.unpaged()).hasContent());
+    assertEquals(
+        List.of(2L, 3L, 4L), index.findByAllTags(Set.of("Hard"), Pageable.unpaged()).getContent());
+
+    assertTrue(index.isPublic(3L));
+
+    index.onQuizChanged(new QuizChangedEvent(3L, "Quiz", null, "Science", Set.of("Hard"), false));
+
+    assertEquals(
+        List.of(2L, 4L), index.findByAllTags(Set.of("Hard"), Pageable.unpaged()).getContent());
+    assertFalse(index.isPublic(3L));
+  }
+
+  /**
+   * This method tests the filter method of the QuizFilterIndex class. It verifies that the index is
+   * built on first use if it was not built at startup.
+   */
+  @Test
+  void filterBuildsIndexOnFirstUse() {
+    QuizFilterIndex lazyIndex = new QuizFilterIndex(quizRepository);
+    assertFalse(lazyIndex.isReady());
+
+    assertEquals(2, lazyIndex.findByAllTags(Set.of("Easy"), Pageable.unpaged()).getSize());
+    assertTrue(lazyIndex.isReady());
+  }
+
+  /**
+   * This method tests the onQuizChanged method of the QuizFilterIndex class. It verifies that a
+   * quiz id too large for the index leaves it unready for good, without rebuilding it on every
+   * lookup.
+   */
+  @Test
+  void quizIdBeyondIntegerRangeDisablesIndex() {
+    index.onQuizChanged(
+        new QuizChangedEvent(Integer.MAX_VALUE + 1L, "Quiz", null, "Science", Set.of(), true));
+
+    assertFalse(index.isReady());
+    index.findByCategory("Science", Pageable.unpaged());
+    index.findByCategory("History", Pageable.unpaged());
+    assertFalse(index.isReady());
+    verify(quizRepository, times(1)).findAllPublicWithTags();
+  }
+
+  /**
+   * This method tests the filter method of the QuizFilterIndex class. It verifies that the method
+   * throws an IllegalArgumentException when given null as a parameter.
+   */
+  @Test
+  void filterThrowsExceptionWhenParameterIsNull() {
+    assertThrows(IllegalArgumentException.class, () -> index.filter(null, Pageable.unpaged()));
+  }
+
+  private static Quiz quiz(Long id, String categoryName, String... tagNames) {
+    Quiz quiz = new Quiz();
+    quiz.setId(id);
+    quiz.setPublic(true);
+    Category category = new Category();
+    category.setName(categoryName);
+    quiz.setCategory(category);
+    for (String tagName : tagNames) {
+      quiz.getTags().add(new Tag(tagName));
+    }
+    return quiz;
+  }
+}
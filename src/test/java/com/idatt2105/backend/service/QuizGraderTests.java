@@ -0,0 +1,233 @@
+package com.idatt2105.backend.service;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.idatt2105.backend.dto.QuizVersionDTO;
+import com.idatt2105.backend.event.QuestionsChangedEvent;
+import com.idatt2105.backend.model.AlternativeRecord;
+import com.idatt2105.backend.model.MultipleChoiceQuestion;
+import com.idatt2105.backend.model.MultipleChoiceQuestionAttempt;
+import com.idatt2105.backend.model.QuestionAttempt;
+import com.idatt2105.backend.model.QuizAttempt;
+import com.idatt2105.backend.model.TrueOrFalseQuestion;
+import com.idatt2105.backend.model.TrueOrFalseQuestionAttempt;
+import com.idatt2105.backend.repository.AlternativeRepository;
+import com.idatt2105.backend.repository.AlternativeRepository.AlternativeRow;
+import com.idatt2105.backend.repository.QuestionRepository;
+import com.idatt2105.backend.repository.QuizRepository;
+import com.idatt2105.backend.util.InvalidIdException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/** The QuizGraderTests class is a test class that tests the QuizGrader and its AnswerKey. */
+public class QuizGraderTests {
+  private QuizRepository quizRepository;
+  private QuestionRepository questionRepository;
+  private QuizGrader quizGrader;
+
+  @BeforeEach
+  void setUp() {
+    quizRepository = mock(QuizRepository.class);
+    questionRepository = mock(QuestionRepository.class);
+    AlternativeRepository alternativeRepository = mock(AlternativeRepository.class);
+    quizGrader = new QuizGrader(quizRepository, questionRepository, alternativeRepository, 100);
+
+    // Question 10 is true or false worth 2 points, question 11 has alternatives 20 to 22 worth 3
+    TrueOrFalseQuestion trueOrFalse = new TrueOrFalseQuestion();
+    trueOrFalse.setId(10L);
+    trueOrFalse.setPoints(2);
+    trueOrFalse.setCorrectAnswer(true);
+    MultipleChoiceQuestion multipleChoice = new MultipleChoiceQuestion();
+    multipleChoice.setId(11L);
+    multipleChoice.setPoints(3);
+    when(questionRepository.findByQuizIdOrderByIdAsc(1L))
+        .thenReturn(List.of(trueOrFalse, multipleChoice));
+    when(alternativeRepository.findRowsByQuizId(1L))
+        .thenReturn(List.of(row(11L, 20L, true), row(11L, 21L, false), row(11L, 22L, true)));
+    setVersion(0);
+  }
+
+  /**
+   * This method tests the grade method of the QuizGrader class. It verifies that the score is the
+   * sum of the points of the correctly answered questions, and that the correct answers are filled
+   * in by the server.
+   */
+  @Test
+  void gradeScoresCorrectAnswers() {
+    QuizAttempt attempt = attempt(trueOrFalse(10L, true), multipleChoice(11L, 20L, 22L));
+    attempt.setScore(100);
+
+    quizGrader.grade(attempt);
+
+    assertEquals(5, attempt.getScore());
+    for (QuestionAttempt questionAttempt : attempt.getQuestionAttempts()) {
+      if (questionAttempt instanceof TrueOrFalseQuestionAttempt trueOrFalseAttempt) {
+        assertTrue(trueOrFalseAttempt.getCorrectAnswer());
+        assertEquals(2, trueOrFalseAttempt.getPoints());
+      } else {
+        for (AlternativeRecord record :
+            ((MultipleChoiceQuestionAttempt) questionAttempt).getAlternatives()) {
+          assertEquals(record.getAlternativeId() != 21L, record.getWasCorrect());
+        }
+      }
+    }
+  }
+
+  /**
+   * This method tests the grade method of the QuizGrader class. It verifies that a multiple choice
+   * question only counts if exactly the correct alternatives are selected.
+   */
+  @Test
+  void gradeRequiresExactlyTheCorrectAlternatives() {
+    QuizAttempt missingOne = attempt(trueOrFalse(10L, false), multipleChoice(11L, 20L));
+    quizGrader.grade(missingOne);
+    assertEquals(0, missingOne.getScore());
+
+    QuizAttempt oneTooMany = attempt(multipleChoice(11L, 20L, 21L, 22L));
+    quizGrader.grade(oneTooMany);
+    assertEquals(0, oneTooMany.getScore());
+  }
+
+  /**
+   * This method tests the grade method of the QuizGrader class. It verifies that attempts that do
+   * not match the quiz are rejected.
+   */
+  @Test
+  void gradeRejectsAnswersThatDoNotMatchQuiz() {
+    assertThrows(
+        IllegalArgumentException.class, () -> quizGrader.grade(attempt(trueOrFalse(12L, true))));
+    assertThrows(
+        IllegalArgumentException.class, () -> quizGrader.grade(attempt(trueOrFalse(11L, true))));
+    assertThrows(
+        IllegalArgumentException.class, () -> quizGrader.grade(attempt(multipleChoice(11L, 30L))));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> quizGrader.grade(attempt(trueOrFalse(10L, true), trueOrFalse(10L, false))));
+
+    QuizAttempt withoutQuiz = attempt();
+    withoutQuiz.setQuizId(null);
+    assertThrows(IllegalArgumentException.class, () -> quizGrader.grade(withoutQuiz));
+
+    when(quizRepository.findVersionById(2L)).thenReturn(Optional.empty());
+    QuizAttempt unknownQuiz = attempt();
+    unknownQuiz.setQuizId(2L);
+    assertThrows(InvalidIdException.class, () -> quizGrader.grade(unknownQuiz));
+  }
+
+  /**
+   * This method tests the getAnswerKey method of the QuizGrader class. It verifies that the key is
+   * compiled once per version of the quiz, and dropped when the questions change.
+   */
+  @Test
+  void getAnswerKeyIsCachedPerVersion() {
+    AnswerKey first = quizGrader.getAnswerKey(1L);
+    assertSame(first, quizGrader.getAnswerKey(1L));
+    verify(questionRepository, times(1)).findByQuizIdOrderByIdAsc(1L);
+
+    setVersion(1);
+    AnswerKey second = quizGrader.getAnswerKey(1L);
+    assertEquals(1, second.getContentVersion());
+    verify(questionRepository, times(2)).findByQuizIdOrderByIdAsc(1L);
+
+    quizGrader.onQuestionsChanged(new QuestionsChangedEvent(1L));
+    quizGrader.getAnswerKey(1L);
+    verify(questionRepository, times(3)).findByQuizIdOrderByIdAsc(1L);
+  }
+
+  /**
+   * This method tests the compile method of the AnswerKey class. It verifies that questions and
+   * alternatives are found by id, and that ids from other questions are not.
+   */
+  @Test
+  void answerKeyFindsQuestionsAndAlternatives() {
+    AnswerKey answerKey = quizGrader.getAnswerKey(1L);
+
+    assertEquals(2, answerKey.questionCount());
+    assertEquals(5, answerKey.maxScore());
+    int multipleChoice = answerKey.indexOfQuestion(11L);
+    assertEquals(1, multipleChoice);
+    assertFalse(answerKey.isTrueOrFalse(multipleChoice));
+    assertEquals(2, answerKey.correctAlternativeCount(multipleChoice));
+    assertEquals(2, answerKey.indexOfAlternative(multipleChoice, 22L));
+    assertEquals(-1, answerKey.indexOfAlternative(0, 20L));
+    assertEquals(-1, answerKey.indexOfQuestion(99L));
+  }
+
+  private void setVersion(long contentVersion) {
+    when(quizRepository.findVersionById(1L))
+        .thenReturn(Optional.of(new QuizVersionDTO(1L, contentVersion, LocalDateTime.now(), true)));
+  }
+
+  private static QuizAttempt attempt(QuestionAttempt... questionAttempts) {
+    QuizAttempt attempt = new QuizAttempt();
+    attempt.setQuizId(1L);
+    for (QuestionAttempt questionAttempt : questionAttempts) {
+      questionAttempt.setQuizAttempt(attempt);
+      attempt.getQuestionAttempts().add(questionAttempt);
+    }
+    return attempt;
+  }
+
+  private static TrueOrFalseQuestionAttempt trueOrFalse(Long questionId, boolean userAnswer) {
+    TrueOrFalseQuestionAttempt questionAttempt = new TrueOrFalseQuestionAttempt();
+    questionAttempt.setQuestionId(questionId);
+    questionAttempt.setUserAnswer(userAnswer);
+    return questionAttempt;
+  }
+
+  private static MultipleChoiceQuestionAttempt multipleChoice(
+      Long questionId, Long... selectedAlternativeIds) {
+    MultipleChoiceQuestionAttempt questionAttempt = new MultipleChoiceQuestionAttempt();
+    questionAttempt.setQuestionId(questionId);
+    Set<Long> selected = new HashSet<>(List.of(selectedAlternativeIds));
+    // Every alternative of question 11 is shown, together with any unknown selected alternative
+    selected.addAll(List.of(20L, 21L, 22L));
+    for (Long alternativeId : selected) {
+      AlternativeRecord record = new AlternativeRecord();
+      record.setAlternativeId(alternativeId);
+      record.setAlternativeText("Alternative " + alternativeId);
+      record.setWasSelected(List.of(selectedAlternativeIds).contains(alternativeId));
+      questionAttempt.addAlternative(record);
+    }
+    return questionAttempt;
+  }
+
+  private static AlternativeRow row(Long questionId, Long id, boolean correct) {
+    return new AlternativeRow() {
+      @Override
+      public Long getQuestionId() {
+        return questionId;
+      }
+
+      @Override
+      public Long getId() {
+        return id;
+      }
+
+      @Override
+      public String getAlternativeText() {
+        return "Alternative " + id;
+      }
+
+      @Override
+      public boolean isCorrect() {
+        return correct;
+      }
+    };
+  }
+}
@@ -0,0 +1,79 @@
+package com.idatt2105.backend.service;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import com.idatt2105.backend.model.Category;
+import com.idatt2105.backend.model.Quiz;
+import com.idatt2105.backend.repository.CategoryRepository;
+import com.idatt2105.backend.repository.QuizRepository;
+import com.idatt2105.backend.repository.TagRepository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/** The QuizIndexRebuilderTests class is a test class that tests the QuizIndexRebuilder class. */
+public class QuizIndexRebuilderTests {
+  /**
+   * This method tests the rebuild method of the QuizIndexRebuilder class. It verifies that the
+   * public quizzes are read once and given to every index.
+   */
+  @Test
+  void rebuildReadsQuizzesOnceForAllIndexes() {
+    QuizRepository quizRepository = mock(QuizRepository.class);
+    Quiz quiz = new Quiz();
+    quiz.setId(1L);
+    quiz.setTitle("Physics basics");
+    quiz.setPublic(true);
+    Category category = new Category();
+    category.setName("Science");
+    quiz.setCategory(category);
+    when(quizRepository.findAllPublicWithTags()).thenReturn(List.of(quiz));
+    QuizFilterIndex filterIndex = new QuizFilterIndex(quizRepository);
+    QuizSearchIndex searchIndex = new QuizSearchIndex(quizRepository);
+    QuizAutocompleteIndex autocompleteIndex =
+        new QuizAutocompleteIndex(
+            quizRepository, mock(TagRepository.class), mock(CategoryRepository.class));
+
+    new QuizIndexRebuilder(quizRepository, List.of(filterIndex, searchIndex, autocompleteIndex))
+        .rebuild();
+
+    verify(quizRepository, times(1)).findAllPublicWithTags();
+    assertTrue(filterIndex.isReady());
+    assertTrue(searchIndex.isReady());
+    assertTrue(autocompleteIndex.isReady());
+    assertEquals(
+        List.of(1L), filterIndex.findByCategory("Science", Pageable.unpaged()).getContent());
+    assertEquals(List.of(1L), searchIndex.search("physics", Pageable.unpaged()).getContent());
+    assertEquals("Physics basics", autocompleteIndex.suggest("phy", 1).get(0).getText());
+  }
+
+  /**
+   * This method tests the rebuild method of the QuizIndexRebuilder class. It verifies that no index
+   * is marked ready when preparing one of them fails.
+   */
+  @Test
+  void rebuildLeavesIndexesUnbuiltWhenOneFails() {
+    QuizRepository quizRepository = mock(QuizRepository.class);
+    TagRepository tagRepository = mock(TagRepository.class);
+    when(quizRepository.findAllPublicWithTags()).thenReturn(List.of());
+    when(tagRepository.findAll()).thenThrow(new IllegalStateException("Unavailable"));
+    QuizFilterIndex filterIndex = new QuizFilterIndex(quizRepository);
+    QuizAutocompleteIndex autocompleteIndex =
+        new QuizAutocompleteIndex(quizRepository, tagRepository, mock(CategoryRepository.class));
+    QuizIndexRebuilder rebuilder =
+        new QuizIndexRebuilder(quizRepository, List.of(filterIndex, autocompleteIndex));
+
+    assertThrows(IllegalStateException.class, rebuilder::rebuild);
+    assertFalse(filterIndex.isReady());
+    assertFalse(autocompleteIndex.isReady());
+  }
+}
@@ -0,0 +1,148 @@
+package com.idatt2105.backend.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.idatt2105.backend.dto.LeaderboardEntryDTO;
+import com.idatt2105.backend.event.QuizAttemptAddedEvent;
+import com.idatt2105.backend.model.User;
+import com.idatt2105.backend.repository.QuizAttemptRepository;
+import com.idatt2105.backend.repository.QuizAttemptRepository.AttemptScore;
+import com.idatt2105.backend.repository.QuizRepository;
+import com.idatt2105.backend.repository.UserRepository;
+import com.idatt2105.backend.util.InvalidIdException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/** The QuizLeaderboardTests class is a test class that tests the QuizLeaderboard class. */
+public class QuizLeaderboardTests {
+  private QuizAttemptRepository quizAttemptRepository;
+  private QuizRepository quizRepository;
+  private QuizLeaderboard leaderboard;
+  private LocalDateTime now;
+
+  @BeforeEach
+  void setUp() {
+    quizAttemptRepository = mock(QuizAttemptRepository.class);
+    quizRepository = mock(QuizRepository.class);
+    UserRepository userRepository = mock(UserRepository.class);
+    leaderboard =
+        new QuizLeaderboard(
+            quizAttemptRepository,
+            quizRepository,
+            userRepository,
+            mock(AttemptArchive.class),
+            10,
+            Duration.ofMinutes(30));
+    now = LocalDateTime.now();
+
+    when(quizRepository.existsById(1L)).thenReturn(true);
+    when(userRepository.findAllById(anyIterable()))
+        .thenReturn(List.of(new User(1L, "one"), new User(2L, "two"), new User(3L, "three")));
+    when(userRepository.findById(any())).thenReturn(Optional.of(new User(3L, "three")));
+  }
+
+  /**
+   * This method tests the top method of the QuizLeaderboard class. It verifies that only the best
+   * attempt of each user is ranked, by score and then by time, and that the leaderboard is read
+   * from the database only once.
+   */
+  @Test
+  void topRanksBestAttemptOfEachUser() {
+    when(quizAttemptRepository.findScoresByQuizId(1L))
+        .thenReturn(
+            List.of(
+                score(10L, 1L, 5, now),
+                score(11L, 1L, 8, now.plusMinutes(1)),
+                score(12L, 2L, 8, now),
+                score(13L, 3L, 2, now)));
+
+    List<LeaderboardEntryDTO> top = leaderboard.top(1L, 10);
+    assertEquals(
+        List.of(12L, 11L, 13L), top.stream().map(LeaderboardEntryDTO::getAttemptId).toList());
+    assertEquals(List.of(1, 2, 3), top.stream().map(LeaderboardEntryDTO::getRank).toList());
+    assertEquals("two", top.get(0).getUsername());
+
+    assertEquals(1, leaderboard.top(1L, 1).size());
+    verify(quizAttemptRepository, times(1)).findScoresByQuizId(1L);
+    assertThrows(IllegalArgumentException.class, () -> leaderboard.top(1L, 0));
+    assertThrows(
+        IllegalArgumentException.class, () -> leaderboard.top(1L, QuizLeaderboard.MAX_TOP + 1));
+  }
+
+  /**
+   * This method tests the onQuizAttemptAdded and rankOf methods of the QuizLeaderboard class. It
+   * verifies that a better attempt moves its user up, that a worse or repeated attempt changes
+   * nothing, and that users without attempts and missing quizzes are not found.
+   */
+  @Test
+  void addedAttemptsMoveUsersUp() {
+    when(quizAttemptRepository.findScoresByQuizId(1L))
+        .thenReturn(List.of(score(10L, 1L, 5, now), score(11L, 2L, 8, now)));
+    assertEquals(2, leaderboard.rankOf(1L, 1L).getRank());
+
+    leaderboard.onQuizAttemptAdded(new QuizAttemptAddedEvent(1L, 12L, 3L, 9, 10, now));
+    leaderboard.onQuizAttemptAdded(new QuizAttemptAddedEvent(1L, 13L, 3L, 4, 10, now));
+    leaderboard.onQuizAttemptAdded(new QuizAttemptAddedEvent(1L, 12L, 3L, 9, 10, now));
+
+    LeaderboardEntryDTO third = leaderboard.rankOf(1L, 3L);
+    assertEquals(1, third.getRank());
+    assertEquals(12L, third.getAttemptId());
+    assertEquals("three", third.getUsername());
+    assertEquals(3, leaderboard.rankOf(1L, 1L).getRank());
+    assertEquals(3, leaderboard.top(1L, 10).size());
+
+    assertThrows(InvalidIdException.class, () -> leaderboard.rankOf(1L, 4L));
+    assertThrows(InvalidIdException.class, () -> leaderboard.top(2L, 10));
+  }
+
+  /**
+   * This method tests that attempts on a quiz whose leaderboard is not loaded are left for the
+   * database, so they are not counted twice when it is loaded.
+   */
+  @Test
+  void attemptsOnUnloadedQuizzesAreIgnored() {
+    leaderboard.onQuizAttemptAdded(new QuizAttemptAddedEvent(1L, 12L, 3L, 9, 10, now));
+    verify(quizRepository, never()).existsById(any());
+
+    when(quizAttemptRepository.findScoresByQuizId(1L)).thenReturn(List.of(score(12L, 3L, 9, now)));
+    assertEquals(1, leaderboard.top(1L, 10).size());
+  }
+
+  private static AttemptScore score(Long id, Long userId, int score, LocalDateTime attemptTime) {
+    return new AttemptScore() {
+      @Override
+      public Long getId() {
+        return id;
+      }
+
+      @Override
+      public Long getUserId() {
+        return userId;
+      }
+
+      @Override
+      public int getScore() {
+        return score;
+      }
+
+      @Override
+      public LocalDateTime getAttemptTime() {
+        return attemptTime;
+      }
+    };
+  }
+}
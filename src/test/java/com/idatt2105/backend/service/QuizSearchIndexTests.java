@@ -0,0 +1,146 @@
+package com.idatt2105.backend.service;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import com.idatt2105.backend.event.QuizChangedEvent;
+import com.idatt2105.backend.model.Category;
+import com.idatt2105.backend.model.Quiz;
+import com.idatt2105.backend.model.Tag;
+import com.idatt2105.backend.repository.QuizRepository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/** The QuizSearchIndexTests class is a test class that tests the QuizSearchIndex class. */
+public class QuizSearchIndexTests {
+  private QuizRepository quizRepository;
+  private QuizSearchIndex index;
+
+  @BeforeEach
+  void setUp() {
+    quizRepository = mock(QuizRepository.class);
+    when(quizRepository.findAllPublicWithTags())
+        .thenReturn(
+            List.of(
+                quiz(1L, "World capitals", "Name the capital of each country", "Geography"),
+                quiz(2L, "Rivers of Europe", "From the Danube to the Rhine", "Geography", "Europe"),
+                quiz(3L, "Java basics", "Classes, interfaces and generics", "Programming")));
+    index = new QuizSearchIndex(quizRepository);
+    index.rebuild();
+  }
+
+  /**
+   * This method tests the tokenize method of the QuizSearchIndex class. It verifies that text is
+   * split on anything but letters and digits, and lower cased.
+   */
+  @Test
+  void tokenizeSplitsAndLowerCases() {
+    assertEquals(
+        List.of("hvor", "ligger", "tromsø", "2024"),
+        QuizSearchIndex.tokenize("Hvor ligger Tromsø? (2024)"));
+    assertTrue(QuizSearchIndex.tokenize("  ").isEmpty());
+  }
+
+  /**
+   * This method tests the search method of the QuizSearchIndex class. It verifies that tags,
+   * categories and descriptions are searched, and that title matches rank first.
+   */
+  @Test
+  void searchRanksTitleMatchesFirst() {
+    index.onQuizChanged(new QuizChangedEvent(4L, "Europe quiz", null, "Geography", Set.of(), true));
+
+    assertEquals(List.of(4L, 2L), index.search("europe", Pageable.unpaged()).getContent());
+    assertEquals(3, index.search("GEOGRAPHY", Pageable.unpaged()).getTotalElements());
+    assertEquals(List.of(3L), index.search("generics", Pageable.unpaged()).getContent());
+    assertTrue(index.search("unknown", Pageable.unpaged()).isEmpty());
+  }
+
+  /**
+   * This method tests the search method of the QuizSearchIndex class. It verifies that a rare term
+   * outweighs a common one.
+   */
+  @Test
+  void searchPrefersRareTerms() {
+    assertEquals(2L, index.search("geography rhine", Pageable.unpaged()).getContent().get(0));
+  }
+
+  /**
+   * This method tests the search method of the QuizSearchIndex class. It verifies that the
+   * requested page and the total are returned.
+   */
+  @Test
+  void searchReturnsRequestedPage() {
+    Page<Long> page = index.search("geography programming", PageRequest.of(1, 2));
+
+    assertEquals(3, page.getTotalElements());
+    assertEquals(1, page.getContent().size());
+    assertTrue(index.search("geography", PageRequest.of(3, 2)).getContent().isEmpty());
+  }
+
+  /**
+   * This method tests the onQuizChanged method of the QuizSearchIndex class. It verifies that old
+   * terms are removed when a quiz changes, and the quiz is removed when it is made private.
+   */
+  @Test
+  void onQuizChangedReplacesDocument() {
+    index.onQuizChanged(
+        new QuizChangedEvent(3L, "Kotlin basics", null, "Programming", Set.of(), true));
+
+    assertTrue(index.search("java", Pageable.unpaged()).isEmpty());
+    assertEquals(List.of(3L), index.search("kotlin", Pageable.unpaged()).getContent());
+
+    index.onQuizChanged(
+        new QuizChangedEvent(3L, "Kotlin basics", null, "Programming", Set.of(), false));
+
+    assertTrue(index.search("kotlin", Pageable.unpaged()).isEmpty());
+  }
+
+  /**
+   * This method tests the rebuild method of the QuizSearchIndex class. It verifies that the index
+   * is only read from the database once, when it is built.
+   */
+  @Test
+  void searchDoesNotReadDatabase() {
+    index.search("europe", Pageable.unpaged());
+    index.search("java", Pageable.unpaged());
+
+    verify(quizRepository, times(1)).findAllPublicWithTags();
+  }
+
+  /**
+   * This method tests the search method of the QuizSearchIndex class. It verifies that the method
+   * throws an IllegalArgumentException when given null as a parameter.
+   */
+  @Test
+  void searchThrowsExceptionWhenParameterIsNull() {
+    assertThrows(IllegalArgumentException.class, () -> index.search(null, Pageable.unpaged()));
+  }
+
+  private static Quiz quiz(
+      Long id, String title, String description, String categoryName, String... tagNames) {
+    Quiz quiz = new Quiz();
+    quiz.setId(id);
+    quiz.setTitle(title);
+    quiz.setDescription(description);
+    quiz.setPublic(true);
+    Category category = new Category();
+    category.setName(categoryName);
+    quiz.setCategory(category);
+    for (String tagName : tagNames) {
+      quiz.getTags().add(new Tag(tagName));
+    }
+    return quiz;
+  }
+}
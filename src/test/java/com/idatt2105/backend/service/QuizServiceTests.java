@@ -1,5 +1,7 @@
 package com.idatt2105.backend.service;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
@@ -10,16 +12,22 @@ import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import com.idatt2105.backend.dto.CursorPageDTO;
 import com.idatt2105.backend.dto.QuizDTO;
+import com.idatt2105.backend.dto.QuizFilterDTO;
+import com.idatt2105.backend.dto.QuizSummaryDTO;
 import com.idatt2105.backend.dto.UserDTO;
+import com.idatt2105.backend.event.CategoryCreatedEvent;
+import com.idatt2105.backend.event.QuizChangedEvent;
 import com.idatt2105.backend.model.Category;
 import com.idatt2105.backend.model.Quiz;
 import com.idatt2105.backend.model.Tag;
@@ -29,13 +37,18 @@ import com.idatt2105.backend.repository.QuizRepository;
 import com.idatt2105.backend.repository.TagRepository;
 import com.idatt2105.backend.repository.UserRepository;
 import com.idatt2105.backend.util.InvalidIdException;
+import com.idatt2105.backend.util.QuizCursor;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.AdditionalAnswers.returnsFirstArg;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -44,22 +57,39 @@ import static org.mockito.Mockito.when;
 /** The QuizServiceTests class is a test class that tests the QuizService class. */
 @SpringBootTest
 public class QuizServiceTests {
-  @InjectMocks private QuizService quizService;
+  private QuizService quizService;
 
   @Mock private TagRepository tagRepository;
   @Mock private QuizRepository quizRepository;
   @Mock private UserRepository userRepository;
   @Mock private CategoryRepository categoryRepository;
+  @Mock private QuizFilterIndex quizFilterIndex;
+  @Mock private QuizSearchIndex quizSearchIndex;
+  @Mock private QuizAutocompleteIndex quizAutocompleteIndex;
+  @Mock private TagResolver tagResolver;
+  @Mock private QuizTrendingIndex quizTrendingIndex;
+  @Mock private ApplicationEventPublisher eventPublisher;
 
   @BeforeEach
   void setUp() {
-    when(tagRepository.existsByTagName(any())).thenReturn(false);
-    when(tagRepository.save(any(Tag.class))).thenAnswer(returnsFirstArg());
+    // The reference data cache is real, so lookups reach the mocked repositories
+    quizService =
+        new QuizService(
+            quizRepository,
+            userRepository,
+            categoryRepository,
+            quizFilterIndex,
+            quizSearchIndex,
+            quizAutocompleteIndex,
+            new ReferenceDataCache(categoryRepository, tagRepository, 100, Duration.ofMinutes(10)),
+            tagResolver,
+            quizTrendingIndex,
+            eventPublisher);
     when(tagRepository.findAll()).thenReturn(List.of(new Tag()));
-    Tag tag = new Tag();
-    tag.setId(1L);
-    tag.setTagName("Test");
-    when(tagRepository.findByTagName("Test")).thenReturn(Optional.of(tag));
+    when(tagResolver.resolve(anyCollection()))
+        .thenAnswer(
+            invocation ->
+                invocation.<Collection<String>>getArgument(0).stream().map(Tag::new).toList());
     when(quizRepository.findById(1L)).thenReturn(Optional.of(new Quiz()));
     when(quizRepository.save(any(Quiz.class))).thenAnswer(returnsFirstArg());
     Category category = new Category();
@@ -79,13 +109,14 @@ public class QuizServiceTests {
      */
     @Test
     void getAllQuizzes() {
-      Quiz quiz = new Quiz();
-      quiz.setId(1L);
-      quiz.setTitle("Quiz");
-      Page<Quiz> page = new PageImpl<>(List.of(quiz));
-      when(quizRepository.findByIsPublicIsTrue(any(Pageable.class))).thenReturn(page);
-      List<QuizDTO> actual = quizService.getAllQuizzes(Pageable.ofSize(1)).toList();
-      assertEquals(new QuizDTO(quiz), actual.get(0));
+      QuizSummaryDTO summary = summary(1L);
+      Page<QuizSummaryDTO> page = new PageImpl<>(List.of(summary));
+      when(quizRepository.findPublicSummaries(any(Pageable.class))).thenReturn(page);
+      when(quizRepository.findTagNamesByQuizIdIn(Set.of(1L)))
+          .thenReturn(List.of(tagName(1L, "Tag1"), tagName(1L, "Tag2")));
+      List<QuizSummaryDTO> actual = quizService.getAllQuizzes(Pageable.ofSize(1)).toList();
+      assertEquals(summary, actual.get(0));
+      assertEquals(Set.of("Tag1", "Tag2"), actual.get(0).getTagNames());
     }
 
     /**
@@ -97,7 +128,7 @@ public class QuizServiceTests {
       Quiz quiz = new Quiz();
       quiz.setId(1L);
       quiz.setTitle("Quiz");
-      when(quizRepository.findById(1L)).thenReturn(Optional.of(quiz));
+      when(quizRepository.findWithDetailsById(1L)).thenReturn(Optional.of(quiz));
       QuizDTO actual = quizService.getQuizById(1L);
       assertEquals(new QuizDTO(quiz), actual);
     }
@@ -201,31 +232,26 @@ public class QuizServiceTests {
      * adds tags to the quiz.
      */
     @Test
-    void addTagsAddsNonExistingTagsToTagRepository() {
+    void addTagsResolvesAllTagsAtOnce() {
       QuizDTO input = new QuizDTO();
       input.setId(1L);
-      Tag tag = new Tag();
-      tag.setTagName("Test");
-      input.setTags(Set.of(tag));
+      input.addAllTags(List.of(new Tag("Test"), new Tag("Other")));
       quizService.addTags(input);
-      verify(tagRepository).save(any());
+      verify(tagResolver)
+          .resolve(argThat(names -> Set.copyOf(names).equals(Set.of("Test", "Other"))));
     }
 
     /**
-     * This method tests the addTags method of the QuizService class. It verifies that the method
-     * does not add existing tags to the repository.
+     * This method tests the updateTags method of the QuizService class. It verifies that only the
+     * tags the quiz does not have yet are resolved.
      */
     @Test
-    void addTagsDoesNotAddExistingTagsToRepository() {
-      QuizDTO input = new QuizDTO();
-      input.setId(1L);
-      Tag tag = new Tag();
-      tag.setTagName("Test");
-      when(tagRepository.existsByTagName("Test")).thenReturn(true);
-      when(tagRepository.findByTagName("Test")).thenReturn(Optional.of(tag));
-      input.setTags(Set.of(tag));
-      quizService.addTags(input);
-      verify(tagRepository, never()).save(any());
+    void updateTagsResolvesOnlyNewTags() {
+      Quiz quiz = new Quiz();
+      quiz.addTags(List.of(new Tag("Test")));
+      when(quizRepository.findById(1L)).thenReturn(Optional.of(quiz));
+      quizService.updateTags(1L, List.of(new Tag("Test"), new Tag("Other")));
+      verify(tagResolver).resolve(List.of("Other"));
     }
 
     /**
@@ -281,17 +307,74 @@ public class QuizServiceTests {
      */
     @Test
     void getQuizzesByTag() {
-      Tag tag = new Tag();
-      tag.setTagName("Test");
-      Quiz quiz = new Quiz();
-      quiz.setId(1L);
-      quiz.setTitle("Quiz");
-      quiz.addTags(Set.of(tag));
-      Page<Quiz> page = new PageImpl<>(List.of(quiz));
-      when(quizRepository.findByTagsContainsAndIsPublicIsTrue(eq(tag), any(Pageable.class)))
+      QuizSummaryDTO summary = summary(1L);
+      Page<QuizSummaryDTO> page = new PageImpl<>(List.of(summary));
+      when(quizRepository.findPublicSummariesByTagName(eq("Test"), any(Pageable.class)))
           .thenReturn(page);
-      Page<QuizDTO> actual = quizService.getQuizzesByTag("Test", Pageable.ofSize(1));
-      assertEquals(new QuizDTO(quiz), actual.iterator().next());
+      Page<QuizSummaryDTO> actual = quizService.getQuizzesByTag("Test", Pageable.ofSize(1));
+      assertEquals(summary, actual.iterator().next());
+    }
+
+    /**
+     * This method tests the getPublicQuizzesByCursor method of the QuizService class without a
+     * cursor. It verifies that the first slice is returned together with a cursor pointing at its
+     * last quiz.
+     */
+    @Test
+    void getPublicQuizzesByCursorReturnsFirstSliceAndNextCursor() {
+      LocalDateTime now = LocalDateTime.of(2024, 4, 1, 12, 0);
+      List<QuizSummaryDTO> quizzes =
+          List.of(quiz(3L, now), quiz(2L, now), quiz(1L, now.minusDays(1)));
+      when(quizRepository.findNewestPublicSummaries(Limit.of(3))).thenReturn(quizzes);
+
+      CursorPageDTO<QuizSummaryDTO> actual = quizService.getPublicQuizzesByCursor(null, 2);
+
+      assertEquals(2, actual.getContent().size());
+      assertEquals(3L, actual.getContent().get(0).getId());
+      assertTrue(actual.isHasNext());
+      assertEquals(new QuizCursor(now, 2L), QuizCursor.decode(actual.getNextCursor()));
+    }
+
+    /**
+     * This method tests the getPublicQuizzesByCursor method of the QuizService class with a cursor.
+     * It verifies that the repository seeks from the cursor position and that the last slice has no
+     * next cursor.
+     */
+    @Test
+    void getPublicQuizzesByCursorSeeksFromCursor() {
+      LocalDateTime now = LocalDateTime.of(2024, 4, 1, 12, 0);
+      String cursor = new QuizCursor(now, 2L).encode();
+      when(quizRepository.findPublicSummariesAfter(now, 2L, Limit.of(3)))
+          .thenReturn(List.of(quiz(1L, now.minusDays(1))));
+
+      CursorPageDTO<QuizSummaryDTO> actual = quizService.getPublicQuizzesByCursor(cursor, 2);
+
+      assertEquals(1, actual.getContent().size());
+      assertFalse(actual.isHasNext());
+      assertNull(actual.getNextCursor());
+    }
+
+    /**
+     * This method tests the getPublicQuizzesByCursor method of the QuizService class with a cursor
+     * at a quiz without a creation date. It verifies that the repository seeks among the undated
+     * quizzes by id.
+     */
+    @Test
+    void getPublicQuizzesByCursorSeeksAmongUndatedQuizzes() {
+      String cursor = new QuizCursor(null, 2L).encode();
+      when(quizRepository.findUndatedPublicSummariesAfter(2L, Limit.of(3)))
+          .thenReturn(List.of(quiz(1L, null)));
+
+      CursorPageDTO<QuizSummaryDTO> actual = quizService.getPublicQuizzesByCursor(cursor, 2);
+
+      assertEquals(1L, actual.getContent().get(0).getId());
+      assertFalse(actual.isHasNext());
+    }
+
+    private QuizSummaryDTO quiz(Long id, LocalDateTime creationDate) {
+      QuizSummaryDTO quiz = summary(id);
+      quiz.setCreationDate(creationDate);
+      return quiz;
     }
   }
 
@@ -471,6 +554,23 @@ public class QuizServiceTests {
           IllegalArgumentException.class,
           () -> quizService.getQuizzesByTag(null, Pageable.ofSize(1)));
     }
+
+    /**
+     * This method tests the getPublicQuizzesByCursor method of the QuizService class. It verifies
+     * that the method throws an IllegalArgumentException when the size is out of range or the
+     * cursor is malformed.
+     */
+    @Test
+    void getPublicQuizzesByCursorThrowsExceptionWhenParametersAreInvalid() {
+      assertThrows(
+          IllegalArgumentException.class, () -> quizService.getPublicQuizzesByCursor(null, 0));
+      assertThrows(
+          IllegalArgumentException.class,
+          () -> quizService.getPublicQuizzesByCursor(null, QuizService.MAX_CURSOR_PAGE_SIZE + 1));
+      assertThrows(
+          IllegalArgumentException.class,
+          () -> quizService.getPublicQuizzesByCursor("not a cursor", 10));
+    }
   }
 
   /**
@@ -479,33 +579,235 @@ public class QuizServiceTests {
    */
   @Test
   public void testGetQuizzesByTags() {
-    Tag tag1 = new Tag("Tag1");
-    Tag tag2 = new Tag("Tag2");
     List<String> tags = Arrays.asList("Tag1", "Tag2");
-    Collection<Tag> tagCollection = Arrays.asList(tag1, tag2);
     Pageable pageable = PageRequest.of(0, 10);
-    Quiz quiz1 = new Quiz();
-    quiz1.setId(1L);
-    quiz1.addTags(tagCollection);
-    Quiz quiz2 = new Quiz();
-    quiz2.setId(2L);
-    quiz2.addTags(tagCollection);
-    Page<Quiz> quizzesPage = new PageImpl<>(Arrays.asList(quiz1, quiz2));
-
-    when(tagRepository.findByTagName("Tag1")).thenReturn(Optional.of(tag1));
-    when(tagRepository.findByTagName("Tag2")).thenReturn(Optional.of(tag2));
-    when(quizRepository.findByTagsContainsAndIsPublicIsTrue(tag1, pageable))
-        .thenReturn(quizzesPage);
-    when(quizRepository.findByTagsContainsAndIsPublicIsTrue(tag2, pageable))
+    Page<QuizSummaryDTO> quizzesPage = new PageImpl<>(Arrays.asList(summary(1L), summary(2L)));
+
+    when(quizRepository.findPublicSummariesWithAllTags(Set.of("Tag1", "Tag2"), 2, pageable))
         .thenReturn(quizzesPage);
 
-    Page<QuizDTO> resultPage = quizService.getQuizzesByTags(tags, pageable);
+    Page<QuizSummaryDTO> resultPage = quizService.getQuizzesByTags(tags, pageable);
 
     assertEquals(2, resultPage.getTotalElements());
     assertTrue(resultPage.toList().stream().anyMatch(q -> q.getId() == 1L));
     assertTrue(resultPage.toList().stream().anyMatch(q -> q.getId() == 2L));
   }
 
+  /**
+   * This method tests the getQuizzesByTags method of the QuizService class with duplicate tags. It
+   * verifies that each tag is only counted once when matching.
+   */
+  @Test
+  public void testGetQuizzesByTagsIgnoresDuplicateTags() {
+    Pageable pageable = PageRequest.of(0, 10);
+    when(quizRepository.findPublicSummariesWithAllTags(Set.of("Tag1"), 1, pageable))
+        .thenReturn(Page.empty());
+
+    quizService.getQuizzesByTags(Arrays.asList("Tag1", "Tag1", null), pageable);
+
+    verify(quizRepository).findPublicSummariesWithAllTags(Set.of("Tag1"), 1, pageable);
+  }
+
+  /**
+   * This method tests the getQuizzesByTags method of the QuizService class with tags differing only
+   * in case. It verifies that they are counted as one tag, like the database compares them, and
+   * that an empty result keeps the paging information.
+   */
+  @Test
+  public void testGetQuizzesByTagsIgnoresCaseOfDuplicateTags() {
+    Pageable pageable = PageRequest.of(2, 10);
+    when(quizRepository.findPublicSummariesWithAllTags(Set.of("Java"), 1, pageable))
+        .thenReturn(Page.empty(pageable));
+
+    quizService.getQuizzesByTags(Arrays.asList("Java", "java", "JAVA"), pageable);
+
+    verify(quizRepository).findPublicSummariesWithAllTags(Set.of("Java"), 1, pageable);
+    assertEquals(pageable, quizService.getQuizzesByTags(List.of(), pageable).getPageable());
+  }
+
+  /**
+   * This method tests the getQuizzesByTags method of the QuizService class when the filter index is
+   * ready. It verifies that the index is used and the quizzes are returned in the order of the ids
+   * it found.
+   */
+  @Test
+  public void testGetQuizzesByTagsUsesFilterIndex() {
+    Pageable pageable = PageRequest.of(0, 10);
+    when(quizFilterIndex.isReady()).thenReturn(true);
+    when(quizFilterIndex.findByAllTags(Set.of("Tag1", "Tag2"), pageable))
+        .thenReturn(new PageImpl<>(List.of(2L, 1L), pageable, 12));
+    when(quizRepository.findSummariesByIdIn(List.of(2L, 1L)))
+        .thenReturn(List.of(summary(1L), summary(2L)));
+
+    Page<QuizSummaryDTO> resultPage =
+        quizService.getQuizzesByTags(List.of("Tag1", "Tag2"), pageable);
+
+    assertEquals(12, resultPage.getTotalElements());
+    assertEquals(2L, resultPage.getContent().get(0).getId());
+    assertEquals(1L, resultPage.getContent().get(1).getId());
+    verify(quizRepository, never()).findPublicSummariesWithAllTags(any(), anyLong(), any());
+  }
+
+  /**
+   * This method tests the getTrendingQuizzes method of the QuizService class. It verifies that the
+   * quizzes are returned in the order of the trending index, and that quizzes which are no longer
+   * public are dropped from the index.
+   */
+  @Test
+  public void testGetTrendingQuizzes() {
+    when(quizTrendingIndex.top(3)).thenReturn(List.of(3L, 1L, 2L));
+    when(quizRepository.findPublicSummariesByIdIn(List.of(3L, 1L, 2L)))
+        .thenReturn(List.of(summary(1L), summary(3L)));
+
+    List<QuizSummaryDTO> trending = quizService.getTrendingQuizzes(3);
+
+    assertEquals(List.of(3L, 1L), trending.stream().map(QuizSummaryDTO::getId).toList());
+    verify(quizTrendingIndex).remove(2L);
+  }
+
+  /**
+   * This method tests the getTrendingQuizzes method of the QuizService class when no quiz has had
+   * any activity. It verifies that the database is not queried.
+   */
+  @Test
+  public void testGetTrendingQuizzesWithoutActivity() {
+    when(quizTrendingIndex.top(10)).thenReturn(List.of());
+
+    assertTrue(quizService.getTrendingQuizzes(10).isEmpty());
+    verify(quizRepository, never()).findPublicSummariesByIdIn(any());
+  }
+
+  /**
+   * This method tests the filterQuizzes method of the QuizService class. It verifies that the
+   * quizzes found by the filter index are returned.
+   */
+  @Test
+  public void testFilterQuizzes() {
+    QuizFilterDTO filter = new QuizFilterDTO();
+    filter.setAnyTags(Set.of("Tag1"));
+    when(quizFilterIndex.isReady()).thenReturn(true);
+    when(quizFilterIndex.filter(filter, Pageable.unpaged()))
+        .thenReturn(new PageImpl<>(List.of(3L)));
+    when(quizRepository.findSummariesByIdIn(List.of(3L))).thenReturn(List.of(summary(3L)));
+
+    Page<QuizSummaryDTO> resultPage = quizService.filterQuizzes(filter, Pageable.unpaged());
+
+    assertEquals(1, resultPage.getTotalElements());
+    assertEquals(3L, resultPage.getContent().get(0).getId());
+  }
+
+  /**
+   * This method tests the filterQuizzes method of the QuizService class. It verifies that the
+   * database answers the filter when the filter index is not ready, with tag names counted once.
+   */
+  @Test
+  public void testFilterQuizzesFallsBackToDatabase() {
+    QuizFilterDTO filter = new QuizFilterDTO();
+    filter.setAllTags(Set.of("Tag1", "TAG1"));
+    filter.setCategory("Science");
+    Pageable pageable = PageRequest.of(0, 10);
+    when(quizFilterIndex.isReady()).thenReturn(false);
+    when(quizRepository.findPublicSummariesMatching(
+            eq("Science"), any(), eq(Set.of()), eq(Set.of()), eq(1L), eq(0L), eq(0L), eq(pageable)))
+        .thenReturn(new PageImpl<>(List.of(summary(3L)), pageable, 1));
+
+    Page<QuizSummaryDTO> resultPage = quizService.filterQuizzes(filter, pageable);
+
+    assertEquals(3L, resultPage.getContent().get(0).getId());
+    verify(quizFilterIndex, never()).filter(any(), any());
+  }
+
+  /**
+   * This method tests the filterQuizzes method of the QuizService class. It verifies that the
+   * method throws an IllegalArgumentException when given null as a parameter.
+   */
+  @Test
+  public void testFilterQuizzesThrowsExceptionWhenParameterIsNull() {
+    assertThrows(
+        IllegalArgumentException.class, () -> quizService.filterQuizzes(null, Pageable.unpaged()));
+  }
+
+  /**
+   * This method tests the searchQuizzes method of the QuizService class. It verifies that the
+   * quizzes found by the search index are returned in order of relevance.
+   */
+  @Test
+  public void testSearchQuizzes() {
+    Pageable pageable = PageRequest.of(0, 10);
+    when(quizSearchIndex.search("capitals", pageable))
+        .thenReturn(new PageImpl<>(List.of(2L, 1L), pageable, 2));
+    when(quizRepository.findSummariesByIdIn(List.of(2L, 1L)))
+        .thenReturn(List.of(summary(1L), summary(2L)));
+
+    Page<QuizSummaryDTO> resultPage = quizService.searchQuizzes("capitals", pageable);
+
+    assertEquals(2L, resultPage.getContent().get(0).getId());
+    assertEquals(1L, resultPage.getContent().get(1).getId());
+  }
+
+  /**
+   * This method tests the searchQuizzes method of the QuizService class. It verifies that the
+   * method throws an IllegalArgumentException when given a blank query.
+   */
+  @Test
+  public void testSearchQuizzesThrowsExceptionWhenQueryIsBlank() {
+    assertThrows(
+        IllegalArgumentException.class, () -> quizService.searchQuizzes(" ", Pageable.unpaged()));
+  }
+
+  /**
+   * This method tests the createCategory method of the QuizService class. It verifies that an event
+   * announcing the new category is published.
+   */
+  @Test
+  public void testCreateCategoryPublishesCategoryCreatedEvent() {
+    Category category = new Category();
+    category.setName("History");
+    when(categoryRepository.existsByName("History")).thenReturn(false);
+    when(categoryRepository.save(category)).thenReturn(category);
+
+    quizService.createCategory(category);
+
+    verify(eventPublisher).publishEvent(new CategoryCreatedEvent("History"));
+  }
+
+  /**
+   * This method tests the createCategory method of the QuizService class. It verifies that the
+   * cached list of categories is refreshed after a category is created.
+   */
+  @Test
+  public void testCreateCategoryEvictsCachedCategories() {
+    Category category = new Category();
+    category.setName("History");
+    when(categoryRepository.findAll()).thenReturn(List.of());
+    when(categoryRepository.save(category)).thenReturn(category);
+    assertTrue(quizService.getAllCategories().isEmpty());
+
+    quizService.createCategory(category);
+    when(categoryRepository.findAll()).thenReturn(List.of(category));
+
+    assertEquals("History", quizService.getAllCategories().get(0).getName());
+  }
+
+  /**
+   * This method tests the addTags method of the QuizService class. It verifies that a change event
+   * describing the new tags is published.
+   */
+  @Test
+  public void testAddTagsPublishesQuizChangedEvent() {
+    Quiz quiz = new Quiz();
+    quiz.setId(1L);
+    when(quizRepository.findById(1L)).thenReturn(Optional.of(quiz));
+    QuizDTO dto = new QuizDTO();
+    dto.setId(1L);
+    dto.addAllTags(List.of(new Tag("Tag1")));
+
+    quizService.addTags(dto);
+
+    verify(eventPublisher)
+        .publishEvent(new QuizChangedEvent(1L, quiz.getTitle(), null, null, Set.of("Tag1"), false));
+  }
+
   /**
    * This method tests the updateTags method of the QuizService class. It verifies that the method
    * updates the tags of a quiz.
@@ -580,17 +882,14 @@ public class QuizServiceTests {
     String categoryName = "Category";
     Category category = new Category();
     category.setName(categoryName);
-    Quiz quiz1 = new Quiz();
-    quiz1.setId(1L);
-    Quiz quiz2 = new Quiz();
-    quiz2.setId(2L);
-    Page<Quiz> quizzesPage = new PageImpl<>(Arrays.asList(quiz1, quiz2));
+    Page<QuizSummaryDTO> quizzesPage = new PageImpl<>(Arrays.asList(summary(1L), summary(2L)));
     when(categoryRepository.findByName(categoryName)).thenReturn(Optional.of(category));
-    when(quizRepository.findByCategoryAndIsPublicIsTrue(category, Pageable.unpaged()))
+    when(quizRepository.findPublicSummariesByCategory(category, Pageable.unpaged()))
         .thenReturn(quizzesPage);
 
     // Call service method
-    Page<QuizDTO> resultPage = quizService.getQuizzesByCategory(categoryName, Pageable.unpaged());
+    Page<QuizSummaryDTO> resultPage =
+        quizService.getQuizzesByCategory(categoryName, Pageable.unpaged());
 
     // Assertions
     assertEquals(2, resultPage.getTotalElements());
@@ -605,19 +904,36 @@ public class QuizServiceTests {
   @Test
   public void testGetAllPublicQuizzes() {
     // Mock data
-    Quiz quiz1 = new Quiz();
-    quiz1.setId(1L);
-    Quiz quiz2 = new Quiz();
-    quiz2.setId(2L);
-    Page<Quiz> quizzesPage = new PageImpl<>(Arrays.asList(quiz1, quiz2));
-    when(quizRepository.findByIsPublicIsTrue(Pageable.unpaged())).thenReturn(quizzesPage);
+    Page<QuizSummaryDTO> quizzesPage = new PageImpl<>(Arrays.asList(summary(1L), summary(2L)));
+    when(quizRepository.findPublicSummaries(Pageable.unpaged())).thenReturn(quizzesPage);
 
     // Call service method
-    Page<QuizDTO> resultPage = quizService.getAllPublicQuizzes(Pageable.unpaged());
+    Page<QuizSummaryDTO> resultPage = quizService.getAllPublicQuizzes(Pageable.unpaged());
 
     // Assertions
     assertEquals(2, resultPage.getTotalElements());
     assertTrue(resultPage.toList().stream().anyMatch(q -> q.getId() == 1L));
     assertTrue(resultPage.toList().stream().anyMatch(q -> q.getId() == 2L));
   }
+
+  private static QuizSummaryDTO summary(Long id) {
+    QuizSummaryDTO summary = new QuizSummaryDTO();
+    summary.setId(id);
+    summary.setTitle("Quiz " + id);
+    return summary;
+  }
+
+  private static QuizRepository.QuizTagName tagName(Long quizId, String tagName) {
+    return new QuizRepository.QuizTagName() {
+      @Override
+      public Long getQuizId() {
+        return quizId;
+      }
+
+      @Override
+      public String getTagName() {
+        return tagName;
+      }
+    };
+  }
 }
@@ -0,0 +1,215 @@
+package com.idatt2105.backend.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.idatt2105.backend.dto.QuizStatisticsDTO;
+import com.idatt2105.backend.event.QuizAttemptAddedEvent;
+import com.idatt2105.backend.model.QuizAttempt;
+import com.idatt2105.backend.model.QuizStatistics;
+import com.idatt2105.backend.model.TrueOrFalseQuestion;
+import com.idatt2105.backend.repository.QuizAttemptRepository;
+import com.idatt2105.backend.repository.QuizAttemptRepository.ScoreCount;
+import com.idatt2105.backend.repository.QuizRepository;
+import com.idatt2105.backend.repository.QuizStatisticsRepository;
+import com.idatt2105.backend.util.InvalidIdException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The QuizStatisticsServiceTests class is a test class that tests the QuizStatisticsService and the
+ * ScoreStatistics it keeps for each quiz.
+ */
+public class QuizStatisticsServiceTests {
+  private QuizStatisticsRepository quizStatisticsRepository;
+  private QuizAttemptRepository quizAttemptRepository;
+  private QuizRepository quizRepository;
+  private QuizGrader quizGrader;
+  private AttemptArchive attemptArchive;
+  private QuizStatisticsService service;
+
+  @BeforeEach
+  void setUp() {
+    quizStatisticsRepository = mock(QuizStatisticsRepository.class);
+    quizAttemptRepository = mock(QuizAttemptRepository.class);
+    quizRepository = mock(QuizRepository.class);
+    quizGrader = mock(QuizGrader.class);
+    attemptArchive = mock(AttemptArchive.class);
+    service =
+        new QuizStatisticsService(
+            quizStatisticsRepository,
+            quizAttemptRepository,
+            quizRepository,
+            quizGrader,
+            attemptArchive,
+            Duration.ofMinutes(1));
+    when(quizRepository.existsById(1L)).thenReturn(true);
+    when(quizStatisticsRepository.findById(1L)).thenReturn(Optional.empty());
+  }
+
+  /**
+   * This method tests the add method of the ScoreStatistics class. It verifies that the mean,
+   * variance, extremes, histogram and percentiles match the scores added, and that adding a score
+   * several times at once is the same as adding it once at a time.
+   */
+  @Test
+  void scoreStatisticsMatchAddedScores() {
+    ScoreStatistics statistics = new ScoreStatistics();
+    statistics.add(2, 10);
+    statistics.add(4, 10, 2);
+    statistics.add(10, 10);
+    statistics.add(3, 0);
+
+    QuizStatisticsDTO dto = statistics.toDTO(1L);
+    assertEquals(4, dto.getAttemptCount());
+    assertEquals(50, dto.getMean(), 1e-9);
+    assertEquals(900, dto.getVariance(), 1e-9);
+    assertEquals(20, dto.getMin());
+    assertEquals(100, dto.getMax());
+    assertEquals(List.of(0L, 0L, 1L, 0L, 2L, 0L, 0L, 0L, 0L, 1L), dto.getHistogram());
+    assertEquals(45, dto.getMedian(), 1e-9);
+    assertEquals(96, dto.getPercentile90(), 1e-9);
+
+    ScoreStatistics restored = ScoreStatistics.fromEntity(statistics.toEntity(1L));
+    assertEquals(dto, restored.toDTO(1L));
+  }
+
+  /**
+   * This method tests the getStatistics method of the QuizStatisticsService class. It verifies that
+   * statistics without a stored copy are rebuilt from the score counts of the quiz once, and that
+   * attempts added after that are counted without reading the database again.
+   */
+  @Test
+  void statisticsAreRebuiltOnceAndUpdatedByEvents() {
+    when(quizAttemptRepository.countScoresByQuizId(1L))
+        .thenReturn(List.of(scoreCount(5, 10, 3), scoreCount(10, null, 1)));
+    TrueOrFalseQuestion question = new TrueOrFalseQuestion();
+    question.setId(10L);
+    question.setPoints(20);
+    when(quizGrader.getAnswerKey(1L))
+        .thenReturn(AnswerKey.compile(1L, 0L, List.of(question), List.of()));
+
+    QuizStatisticsDTO rebuilt = service.getStatistics(1L);
+    assertEquals(4, rebuilt.getAttemptCount());
+    assertEquals(50, rebuilt.getMean(), 1e-9);
+
+    service.onQuizAttemptAdded(new QuizAttemptAddedEvent(1L, 7L, 1L, 10, 10, null));
+    service.onQuizAttemptAdded(new QuizAttemptAddedEvent(2L, 8L, 1L, 10, 10, null));
+    QuizStatisticsDTO updated = service.getStatistics(1L);
+    assertEquals(5, updated.getAttemptCount());
+    assertEquals(100, updated.getMax());
+    verify(quizAttemptRepository, times(1)).countScoresByQuizId(1L);
+
+    service.persist();
+    service.persist();
+    verify(quizStatisticsRepository, times(1)).save(any(QuizStatistics.class));
+  }
+
+  /**
+   * This method tests the getStatistics method of the QuizStatisticsService class. It verifies that
+   * stored statistics are used if they count every attempt, and rebuilt if they do not.
+   */
+  @Test
+  void storedStatisticsAreUsedOnlyIfUpToDate() {
+    ScoreStatistics stored = new ScoreStatistics();
+    stored.add(5, 10, 2);
+    when(quizStatisticsRepository.findById(1L)).thenReturn(Optional.of(stored.toEntity(1L)));
+    when(quizAttemptRepository.countScoredByQuizId(1L)).thenReturn(2L);
+
+    assertEquals(2, service.getStatistics(1L).getAttemptCount());
+    verify(quizAttemptRepository, never()).countScoresByQuizId(1L);
+
+    when(quizRepository.existsById(2L)).thenReturn(true);
+    when(quizStatisticsRepository.findById(2L)).thenReturn(Optional.of(stored.toEntity(2L)));
+    when(quizAttemptRepository.countScoredByQuizId(2L)).thenReturn(3L);
+    when(quizAttemptRepository.countScoresByQuizId(2L)).thenReturn(List.of(scoreCount(5, 10, 3)));
+
+    assertEquals(3, service.getStatistics(2L).getAttemptCount());
+  }
+
+  /**
+   * This method tests the getStatistics and rebuild methods of the QuizStatisticsService class. It
+   * verifies that archived attempts count towards the stored statistics, and are included when the
+   * statistics are rebuilt.
+   */
+  @Test
+  void archivedAttemptsAreCounted() {
+    ScoreStatistics stored = new ScoreStatistics();
+    stored.add(5, 10, 3);
+    when(quizStatisticsRepository.findById(1L)).thenReturn(Optional.of(stored.toEntity(1L)));
+    when(quizAttemptRepository.countScoredByQuizId(1L)).thenReturn(2L);
+    when(attemptArchive.countScoredByQuizId(1L)).thenReturn(1L);
+
+    assertEquals(3, service.getStatistics(1L).getAttemptCount());
+    verify(quizAttemptRepository, never()).countScoresByQuizId(1L);
+
+    QuizAttempt archived = new QuizAttempt();
+    archived.setScore(10);
+    archived.setMaxScore(10);
+    doAnswer(
+            invocation -> {
+              invocation.<Consumer<QuizAttempt>>getArgument(1).accept(archived);
+              return null;
+            })
+        .when(attemptArchive)
+        .forEachByQuizId(eq(1L), any());
+    when(quizAttemptRepository.countScoresByQuizId(1L)).thenReturn(List.of(scoreCount(5, 10, 2)));
+
+    QuizStatisticsDTO rebuilt = service.rebuild(1L);
+    assertEquals(3, rebuilt.getAttemptCount());
+    assertEquals(100, rebuilt.getMax());
+  }
+
+  /**
+   * This method tests the getStatistics and rebuild methods of the QuizStatisticsService class with
+   * a quiz without attempts, and with a quiz that does not exist.
+   */
+  @Test
+  void statisticsOfEmptyAndMissingQuizzes() {
+    when(quizAttemptRepository.countScoresByQuizId(1L)).thenReturn(List.of());
+
+    QuizStatisticsDTO empty = service.rebuild(1L);
+    assertEquals(0, empty.getAttemptCount());
+    assertNull(empty.getMean());
+    assertNull(empty.getMedian());
+    verify(quizStatisticsRepository).save(any(QuizStatistics.class));
+
+    assertThrows(InvalidIdException.class, () -> service.getStatistics(3L));
+    assertThrows(InvalidIdException.class, () -> service.rebuild(3L));
+    assertThrows(IllegalArgumentException.class, () -> service.getStatistics(null));
+  }
+
+  private static ScoreCount scoreCount(int score, Integer maxScore, long attempts) {
+    return new ScoreCount() {
+      @Override
+      public int getScore() {
+        return score;
+      }
+
+      @Override
+      public Integer getMaxScore() {
+        return maxScore;
+      }
+
+      @Override
+      public long getAttempts() {
+        return attempts;
+      }
+    };
+  }
+}
@@ -0,0 +1,165 @@
+package com.idatt2105.backend.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.idatt2105.backend.enumerator.QuizActivity;
+import com.idatt2105.backend.event.QuizActivityEvent;
+import com.idatt2105.backend.event.QuizChangedEvent;
+import com.idatt2105.backend.repository.QuizAttemptRepository;
+import com.idatt2105.backend.repository.QuizAttemptRepository.AttemptActivity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/** The QuizTrendingIndexTests class is a test class that tests the QuizTrendingIndex. */
+public class QuizTrendingIndexTests {
+  private static final Duration HALF_LIFE = Duration.ofHours(24);
+  private static final int CAPACITY = QuizTrendingIndex.MAX_TRENDING;
+
+  private QuizAttemptRepository quizAttemptRepository;
+  private QuizFilterIndex quizFilterIndex;
+  private QuizTrendingIndex index;
+  private LocalDateTime now;
+
+  @BeforeEach
+  void setUp() {
+    quizAttemptRepository = mock(QuizAttemptRepository.class);
+    quizFilterIndex = mock(QuizFilterIndex.class);
+    when(quizFilterIndex.isPublic(any())).thenReturn(true);
+    index = new QuizTrendingIndex(quizAttemptRepository, quizFilterIndex, HALF_LIFE, CAPACITY);
+    now = LocalDateTime.now();
+  }
+
+  /**
+   * This method tests the score method of the QuizTrendingIndex class. It verifies that scores are
+   * the sum of the activity weights, and halve once every half-life.
+   */
+  @Test
+  void scoreDecaysByHalfLife() {
+    index.record(1L, QuizActivity.ATTEMPT, now);
+    index.record(1L, QuizActivity.COMMENT, now);
+
+    assertEquals(1.5, index.score(1L, now), 1e-9);
+    assertEquals(0.75, index.score(1L, now.plus(HALF_LIFE)), 1e-9);
+    assertEquals(0.375, index.score(1L, now.plus(HALF_LIFE.multipliedBy(2))), 1e-9);
+    assertEquals(0, index.score(2L, now));
+  }
+
+  /**
+   * This method tests the top method of the QuizTrendingIndex class. It verifies that recent
+   * activity outweighs more, but older, activity.
+   */
+  @Test
+  void topRanksRecentActivityHigher() {
+    LocalDateTime twoDaysAgo = now.minus(HALF_LIFE.multipliedBy(2));
+    index.record(1L, QuizActivity.ATTEMPT, twoDaysAgo);
+    index.record(1L, QuizActivity.ATTEMPT, twoDaysAgo);
+    index.record(1L, QuizActivity.ATTEMPT, twoDaysAgo);
+    index.record(2L, QuizActivity.ATTEMPT, now);
+    index.record(3L, QuizActivity.COMMENT, now);
+
+    assertEquals(List.of(2L, 1L, 3L), index.top(10));
+    assertEquals(List.of(2L), index.top(1));
+  }
+
+  /**
+   * This method tests the top method of the QuizTrendingIndex class. It verifies that quizzes with
+   * the same score are ordered by id.
+   */
+  @Test
+  void topBreaksTiesById() {
+    index.record(5L, QuizActivity.ATTEMPT, now);
+    index.record(4L, QuizActivity.ATTEMPT, now);
+
+    assertEquals(List.of(4L, 5L), index.top(2));
+  }
+
+  /**
+   * This method tests the record method of the QuizTrendingIndex class when the index is full. It
+   * verifies that a quiz scoring higher than the lowest tracked quiz replaces it, and that a quiz
+   * scoring lower is not tracked.
+   */
+  @Test
+  void recordEvictsLowestWhenFull() {
+    for (long id = 1; id <= CAPACITY; id++) {
+      index.record(id, QuizActivity.ATTEMPT, now.minusMinutes(id));
+    }
+
+    index.record(100L, QuizActivity.ATTEMPT, now.minusDays(30));
+    assertEquals(0, index.score(100L, now));
+
+    index.record(101L, QuizActivity.ATTEMPT, now);
+    assertTrue(index.score(101L, now) > 0);
+    assertEquals(0, index.score((long) CAPACITY, now));
+    assertEquals(101L, index.top(1).get(0));
+  }
+
+  /**
+   * This method tests the event listeners of the QuizTrendingIndex class. It verifies that activity
+   * events are recorded, that activity on a private quiz is not, and that a quiz is removed when it
+   * is made private.
+   */
+  @Test
+  void eventsUpdateRanking() {
+    when(quizFilterIndex.isPublic(3L)).thenReturn(false);
+    index.onQuizActivity(new QuizActivityEvent(1L, QuizActivity.ATTEMPT, now));
+    index.onQuizActivity(new QuizActivityEvent(2L, QuizActivity.COMMENT, now));
+    index.onQuizActivity(new QuizActivityEvent(3L, QuizActivity.ATTEMPT, now));
+    assertEquals(List.of(1L, 2L), index.top(10));
+
+    index.onQuizChanged(new QuizChangedEvent(1L, "Title", "", null, Set.of(), false));
+    assertEquals(List.of(2L), index.top(10));
+
+    index.onQuizChanged(new QuizChangedEvent(2L, "Title", "", null, Set.of(), true));
+    assertEquals(List.of(2L), index.top(10));
+  }
+
+  /**
+   * This method tests the load method of the QuizTrendingIndex class. It verifies that the recent
+   * attempts on public quizzes stored in the database are recorded.
+   */
+  @Test
+  void loadRecordsRecentAttempts() {
+    when(quizAttemptRepository.findPublicActivityBetween(any(), any()))
+        .thenReturn(List.of(activity(7L, now.minusHours(1)), activity(8L, now.minusHours(2))));
+
+    index.load();
+
+    assertEquals(List.of(7L, 8L), index.top(10));
+  }
+
+  /**
+   * This method tests the top method of the QuizTrendingIndex class. It verifies that the method
+   * throws an IllegalArgumentException when the limit is out of range.
+   */
+  @Test
+  void topThrowsExceptionWhenLimitIsOutOfRange() {
+    assertThrows(IllegalArgumentException.class, () -> index.top(0));
+    assertThrows(
+        IllegalArgumentException.class, () -> index.top(QuizTrendingIndex.MAX_TRENDING + 1));
+  }
+
+  private static AttemptActivity activity(Long quizId, LocalDateTime attemptTime) {
+    return new AttemptActivity() {
+      @Override
+      public Long getQuizId() {
+        return quizId;
+      }
+
+      @Override
+      public LocalDateTime getAttemptTime() {
+        return attemptTime;
+      }
+    };
+  }
+}
@@ -0,0 +1,157 @@
+package com.idatt2105.backend.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.idatt2105.backend.model.Category;
+import com.idatt2105.backend.model.Tag;
+import com.idatt2105.backend.repository.CategoryRepository;
+import com.idatt2105.backend.repository.TagRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/** The ReferenceDataCacheTests class is a test class that tests the ReferenceDataCache. */
+public class ReferenceDataCacheTests {
+  private static final int LOOKUPS = 1000;
+
+  private CategoryRepository categoryRepository;
+  private TagRepository tagRepository;
+  private ReferenceDataCache cache;
+
+  @BeforeEach
+  void setUp() {
+    categoryRepository = mock(CategoryRepository.class);
+    tagRepository = mock(TagRepository.class);
+    Category science = new Category();
+    science.setId(1L);
+    science.setName("Science");
+    Tag space = new Tag("Space");
+    space.setId(2L);
+    when(categoryRepository.findByName("Science")).thenReturn(Optional.of(science));
+    when(categoryRepository.findAll()).thenReturn(List.of(science));
+    when(tagRepository.findByTagName("Space")).thenReturn(Optional.of(space));
+    when(tagRepository.findAll()).thenReturn(List.of(space));
+    cache = new ReferenceDataCache(categoryRepository, tagRepository, 100, Duration.ofMinutes(10));
+  }
+
+  /**
+   * This method compares the cached and uncached lookup paths. It verifies that repeated lookups
+   * reach the repository once instead of once per lookup.
+   */
+  @Test
+  void repeatedLookupsReachRepositoryOnce() {
+    for (int i = 0; i < LOOKUPS; i++) {
+      cache.findCategoryByName("Science");
+      cache.findTagByName("Space");
+      cache.getAllCategories();
+      cache.getAllTags();
+    }
+
+    verify(categoryRepository, times(1)).findByName("Science");
+    verify(tagRepository, times(1)).findByTagName("Space");
+    verify(categoryRepository, times(1)).findAll();
+    verify(tagRepository, times(1)).findAll();
+  }
+
+  /**
+   * This method tests that cached values are copied. It verifies that a change made by a caller is
+   * not seen by the next caller.
+   */
+  @Test
+  void lookupsReturnCopies() {
+    Category first = cache.findCategoryByName("Science").orElseThrow();
+    first.setName("Changed");
+
+    Category second = cache.findCategoryByName("Science").orElseThrow();
+    assertNotSame(first, second);
+    assertEquals("Science", second.getName());
+    assertEquals(1L, second.getId());
+  }
+
+  /**
+   * This method tests that missing names are not cached. It verifies that a category created after
+   * a failed lookup is found by the next lookup.
+   */
+  @Test
+  void missingNamesAreNotCached() {
+    assertTrue(cache.findTagByName("Physics").isEmpty());
+    when(tagRepository.findByTagName("Physics")).thenReturn(Optional.of(new Tag("Physics")));
+
+    assertEquals("Physics", cache.findTagByName("Physics").orElseThrow().getTagName());
+  }
+
+  /**
+   * This method tests the evictCategories and evictTags methods. It verifies that lookups after an
+   * eviction read the repository again.
+   */
+  @Test
+  void evictionReloadsFromRepository() {
+    cache.getAllCategories();
+    cache.getAllTags();
+    Category history = new Category();
+    history.setName("History");
+    when(categoryRepository.findAll()).thenReturn(List.of(history));
+    when(tagRepository.findAll()).thenReturn(List.of(new Tag("Space"), new Tag("Moon")));
+
+    cache.evictCategories();
+    cache.evictTags();
+
+    assertEquals("History", cache.getAllCategories().get(0).getName());
+    assertEquals(2, cache.getAllTags().size());
+  }
+
+  /**
+   * This method tests the time to live. It verifies that expired entries are read from the
+   * repository again.
+   */
+  @Test
+  void expiredEntriesAreReloaded() {
+    cache = new ReferenceDataCache(categoryRepository, tagRepository, 100, Duration.ofNanos(1));
+
+    cache.findCategoryByName("Science");
+    cache.findCategoryByName("Science");
+
+    verify(categoryRepository, times(2)).findByName("Science");
+  }
+
+  /**
+   * This method tests the bindTo method. It verifies that hits and misses are published as cache
+   * metrics.
+   */
+  @Test
+  void hitsAndMissesArePublished() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    cache.bindTo(registry);
+
+    cache.findTagByName("Space");
+    cache.findTagByName("Space");
+    cache.findTagByName("Space");
+
+    assertEquals(
+        2.0,
+        registry
+            .get("cache.gets")
+            .tags("cache", "reference.tags", "result", "hit")
+            .functionCounter()
+            .count());
+    assertEquals(
+        1.0,
+        registry
+            .get("cache.gets")
+            .tags("cache", "reference.tags", "result", "miss")
+            .functionCounter()
+            .count());
+  }
+}
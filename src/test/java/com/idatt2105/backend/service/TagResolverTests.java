@@ -0,0 +1,127 @@
+package com.idatt2105.backend.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.idatt2105.backend.dto.SuggestionDTO;
+import com.idatt2105.backend.enumerator.SuggestionType;
+import com.idatt2105.backend.model.Tag;
+import com.idatt2105.backend.repository.TagRepository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** The TagResolverTests class is a test class that tests the TagResolver against the database. */
+@SpringBootTest
+class TagResolverTests {
+  private static final int THREADS = 16;
+  private static final int ROUNDS = 20;
+  private static final int NAMES = 25;
+
+  @Autowired private TagResolver tagResolver;
+
+  @Autowired private TagRepository tagRepository;
+
+  @Autowired private QuizAutocompleteIndex autocompleteIndex;
+
+  /**
+   * This method tests the resolve method of the TagResolver class. It verifies that existing tags
+   * are found, missing tags are created, and the result follows the order of the names, and that
+   * the created tags are suggested right away.
+   */
+  @Test
+  void resolveFindsExistingAndCreatesMissingTags() {
+    Tag existing = tagRepository.save(new Tag("resolver-existing"));
+
+    List<Tag> resolved =
+        tagResolver.resolve(
+            List.of("resolver-new", "resolver-existing", "resolver-new", "resolver-other"));
+
+    assertEquals(
+        List.of("resolver-new", "resolver-existing", "resolver-other"),
+        resolved.stream().map(Tag::getTagName).toList());
+    assertEquals(existing.getId(), resolved.get(1).getId());
+    resolved.forEach(tag -> assertNotNull(tag.getId()));
+    assertTrue(tagRepository.findByTagName("resolver-new").isPresent());
+    assertTrue(
+        autocompleteIndex
+            .suggest("resolver-n", 10)
+            .contains(new SuggestionDTO("resolver-new", SuggestionType.TAG, 0)));
+  }
+
+  /**
+   * This method tests the resolve method of the TagResolver class. It verifies that an empty list
+   * of names resolves to no tags.
+   */
+  @Test
+  void resolveWithNoNamesReturnsEmptyList() {
+    assertTrue(tagResolver.resolve(List.of()).isEmpty());
+  }
+
+  /**
+   * This method tests the resolve method of the TagResolver class from many threads at once. Every
+   * thread repeatedly resolves overlapping lists of new tag names. It verifies that no call fails
+   * on the unique tag name, that every name is stored exactly once, and that all threads see the
+   * same id for a name.
+   */
+  @Test
+  void concurrentResolvesCreateEachTagOnce() throws Exception {
+    List<String> names =
+        IntStream.range(0, NAMES)
+            .mapToObj(i -> "concurrent-" + i + "-" + System.nanoTime())
+            .toList();
+    Map<String, Long> ids = new ConcurrentHashMap<>();
+    List<String> conflicts = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch start = new CountDownLatch(1);
+
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int thread = 0; thread < THREADS; thread++) {
+        Random random = new Random(thread);
+        futures.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  for (int round = 0; round < ROUNDS; round++) {
+                    List<String> batch = new ArrayList<>(names);
+                    Collections.shuffle(batch, random);
+                    batch = batch.subList(0, 1 + random.nextInt(NAMES));
+                    List<Tag> resolved = tagResolver.resolve(batch);
+                    assertEquals(batch.size(), resolved.size());
+                    for (Tag tag : resolved) {
+                      Long previous = ids.putIfAbsent(tag.getTagName(), tag.getId());
+                      if (previous != null && !previous.equals(tag.getId())) {
+                        conflicts.add(tag.getTagName());
+                      }
+                    }
+                  }
+                  return null;
+                }));
+      }
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertTrue(conflicts.isEmpty(), "Names resolved to different ids: " + conflicts);
+    assertEquals(NAMES, tagRepository.findByTagNameIn(names).size());
+  }
+}
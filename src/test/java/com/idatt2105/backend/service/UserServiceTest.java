@@ -1,5 +1,6 @@
 package com.idatt2105.backend.service;
 
+import java.time.LocalDateTime;
 import java.util.*;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -176,6 +177,36 @@ class UserServiceTest {
     verify(userRepository, times(1)).save(any());
   }
 
+  /**
+   * Test the updateUser method with a new username. It verifies that the quizzes of the user, which
+   * show the username, are marked as modified, and that they are not when the username is kept.
+   */
+  @Test
+  public void testUpdateUser_RenameMarksQuizzesModified() {
+    // Arrange
+    Long userId = 1L;
+    Quiz quiz = new Quiz();
+    quiz.setId(2L);
+    User existingUser = new User();
+    existingUser.setId(userId);
+    existingUser.setUsername("existingUser");
+    existingUser.getQuizzes().add(quiz);
+
+    User updatedUser = new User();
+    updatedUser.setUsername("updatedUser");
+    updatedUser.setPassword("newPassword");
+
+    when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
+    when(userRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+    // Act
+    userService.updateUser(userId, updatedUser);
+    userService.updateUser(userId, updatedUser);
+
+    // Assert
+    verify(quizRepository, times(1)).markModified(eq(2L), any(LocalDateTime.class));
+  }
+
   /**
    * Test the updateUser method with a user not found. It verifies that the method throws a
    * UserNotFoundException.
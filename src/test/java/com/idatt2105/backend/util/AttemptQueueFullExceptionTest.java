@@ -0,0 +1,28 @@
+package com.idatt2105.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The AttemptQueueFullExceptionTest class is a test class that tests the AttemptQueueFullException
+ * class.
+ */
+class AttemptQueueFullExceptionTest {
+
+  /**
+   * This method tests the constructor of the AttemptQueueFullException class. It verifies that the
+   * exception message is correctly set.
+   */
+  @Test
+  void testConstructor() {
+    // Arrange
+    String message = "Queue is full";
+
+    // Act
+    AttemptQueueFullException exception = new AttemptQueueFullException(message);
+
+    // Assert
+    assertEquals(message, exception.getMessage());
+  }
+}
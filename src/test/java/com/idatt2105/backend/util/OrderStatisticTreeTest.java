@@ -0,0 +1,60 @@
+package com.idatt2105.backend.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** The OrderStatisticTreeTest class is a test class that tests the OrderStatisticTree class. */
+class OrderStatisticTreeTest {
+
+  /**
+   * This method tests that adding and removing elements leaves the tree with the same elements and
+   * ranks as a TreeSet given the same operations.
+   */
+  @Test
+  void treeMatchesTreeSet() {
+    Random random = new Random(42);
+    OrderStatisticTree<Integer> tree = new OrderStatisticTree<>(Comparator.reverseOrder());
+    TreeSet<Integer> expected = new TreeSet<>(Comparator.reverseOrder());
+    for (int i = 0; i < 5000; i++) {
+      int value = random.nextInt(1000);
+      if (random.nextInt(3) == 0) {
+        assertEquals(expected.remove(value), tree.remove(value));
+      } else {
+        assertEquals(expected.add(value), tree.add(value));
+      }
+    }
+
+    assertEquals(expected.size(), tree.size());
+    assertEquals(new ArrayList<>(expected), tree.first(expected.size() + 1));
+    for (int value = -1; value <= 1000; value += 7) {
+      assertEquals(expected.headSet(value).size(), tree.indexOf(value));
+      assertEquals(expected.contains(value), tree.contains(value));
+    }
+  }
+
+  /** This method tests that the first elements are returned in order, at most limit of them. */
+  @Test
+  void firstReturnsSmallestElementsInOrder() {
+    OrderStatisticTree<String> tree = new OrderStatisticTree<>(Comparator.naturalOrder());
+    List.of("d", "a", "c", "b").forEach(tree::add);
+
+    assertEquals(List.of("a", "b"), tree.first(2));
+    assertEquals(3, tree.indexOf("d"));
+    assertTrue(tree.remove("a"));
+    assertFalse(tree.remove("a"));
+    assertEquals(0, tree.indexOf("b"));
+
+    tree.clear();
+    assertEquals(0, tree.size());
+    assertEquals(List.of(), tree.first(5));
+  }
+}
@@ -0,0 +1,63 @@
+package com.idatt2105.backend.util;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/** The QuizCursorTest class is a test class that tests the QuizCursor class. */
+class QuizCursorTest {
+
+  /**
+   * This method tests that an encoded cursor decodes back to the same position. It verifies that
+   * both the creation date and the id survive the round trip.
+   */
+  @Test
+  void encodedCursorDecodesToSamePosition() {
+    QuizCursor cursor = new QuizCursor(LocalDateTime.of(2024, 4, 1, 12, 30, 15, 123456789), 42L);
+
+    QuizCursor decoded = QuizCursor.decode(cursor.encode());
+
+    assertEquals(cursor, decoded);
+  }
+
+  /**
+   * This method tests that a cursor without a creation date decodes back to the same position. It
+   * verifies that the missing date survives the round trip.
+   */
+  @Test
+  void cursorWithoutCreationDateDecodesToSamePosition() {
+    QuizCursor cursor = new QuizCursor(null, 42L);
+
+    assertEquals(cursor, QuizCursor.decode(cursor.encode()));
+  }
+
+  /**
+   * This method tests that the encoded cursor is opaque and URL-safe. It verifies that the raw
+   * position is not visible and that no characters need escaping.
+   */
+  @Test
+  void encodedCursorIsUrlSafe() {
+    String encoded = new QuizCursor(LocalDateTime.of(2024, 4, 1, 12, 0), 7L).encode();
+
+    assertFalse(encoded.contains("2024"));
+    assertFalse(encoded.contains("+"));
+    assertFalse(encoded.contains("/"));
+    assertFalse(encoded.contains("="));
+  }
+
+  /**
+   * This method tests the decode method with malformed input. It verifies that an
+   * IllegalArgumentException is thrown for null, empty and tampered cursors.
+   */
+  @Test
+  void decodeThrowsExceptionWhenCursorIsMalformed() {
+    assertThrows(IllegalArgumentException.class, () -> QuizCursor.decode(null));
+    assertThrows(IllegalArgumentException.class, () -> QuizCursor.decode(""));
+    assertThrows(IllegalArgumentException.class, () -> QuizCursor.decode("not a cursor"));
+    assertThrows(IllegalArgumentException.class, () -> QuizCursor.decode("bm8tc2VwYXJhdG9y"));
+  }
+}
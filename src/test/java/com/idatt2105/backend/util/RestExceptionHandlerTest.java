@@ -3,6 +3,7 @@ package com.idatt2105.backend.util;
 import java.time.LocalDate;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
@@ -116,4 +117,26 @@ class RestExceptionHandlerTest {
     assertEquals(LocalDate.now().toString(), errorResponse.getTimestamp());
     assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
   }
+
+  /**
+   * This method tests the handleAttemptQueueFullException method of the RestExceptionHandler class.
+   * It verifies that the method returns the correct response entity, asking the client to retry.
+   */
+  @Test
+  void testHandleAttemptQueueFullException() {
+    // Arrange
+    AttemptQueueFullException exception = new AttemptQueueFullException("Queue is full");
+    RestExceptionHandler handler = new RestExceptionHandler();
+
+    // Act
+    ResponseEntity<ErrorResponse> response = handler.handleAttemptQueueFullException(exception);
+
+    // Assert
+    ErrorResponse errorResponse = response.getBody();
+    assertEquals("Queue is full", errorResponse.getTitle());
+    assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), errorResponse.getStatus());
+    assertEquals(LocalDate.now().toString(), errorResponse.getTimestamp());
+    assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+    assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+  }
 }